@@ -0,0 +1,119 @@
+package com.slaviboy.fingerdraw;
+
+import android.graphics.Bitmap;
+import android.graphics.Paint;
+import android.graphics.PorterDuff;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+
+/**
+ * Copyright (c) 2019 Stanislav Georgiev. (MIT License)
+ * https://github.com/slaviboy
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * - The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * - The Software is provided "as is", without warranty of any kind, express or
+ * implied, including but not limited to the warranties of merchantability,
+ * fitness for a particular purpose and noninfringement. In no event shall the
+ * authors or copyright holders be liable for any claim, damages or other
+ * liability, whether in an action of contract, tort or otherwise, arising from,
+ * out of or in connection with the Software or the use or other dealings in the
+ * Software.
+ * <p>
+ * <p>
+ * BitmapFrameSink Class(Java) draws each frame from the {@link OfflineRenderer}
+ * into single bitmap, that is reused for all frames, and passes it to listener.
+ * Use toDirectory() to write the frames as numbered PNG image sequence, that
+ * can be turned into video.
+ */
+
+public class BitmapFrameSink implements OfflineRenderer.FrameSink {
+
+    /**
+     * Listener that receives the bitmap with each frame, the bitmap is reused
+     * for the next frame, so it should be copied if it is needed later.
+     */
+    public interface OnBitmapListener {
+        void onBitmap(Bitmap bitmap, int index, long time) throws IOException;
+    }
+
+    private Bitmap bitmap;                // bitmap reused for all frames
+    private android.graphics.Canvas canvas; // canvas that draws into the bitmap
+    private Paint paint;                  // paint used for drawing
+    private int background;               // background color
+    private OnBitmapListener listener;    // listener that receives the frames
+
+    public BitmapFrameSink(int width, int height, OnBitmapListener listener) {
+        this.listener = listener;
+        bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        canvas = new android.graphics.Canvas(bitmap);
+        paint = Canvas.createPaint();
+        background = 0;
+    }
+
+    /**
+     * Create sink, that writes the frames as PNG images 'frame_00000.png',
+     * 'frame_00001.png'... in the directory
+     *
+     * @param width     - frame width
+     * @param height    - frame height
+     * @param directory - the output directory, it is created if missing
+     * @return the sink
+     */
+    public static BitmapFrameSink toDirectory(int width, int height, final File directory) {
+        return new BitmapFrameSink(width, height, new OnBitmapListener() {
+            @Override
+            public void onBitmap(Bitmap bitmap, int index, long time) throws IOException {
+                if (!directory.isDirectory() && !directory.mkdirs()) {
+                    throw new IOException("Unable to create directory " + directory);
+                }
+                File file = new File(directory, String.format(Locale.US, "frame_%05d.png", index));
+                OutputStream out = new BufferedOutputStream(new FileOutputStream(file));
+                try {
+                    if (!bitmap.compress(Bitmap.CompressFormat.PNG, 100, out)) {
+                        throw new IOException("Unable to encode frame " + index);
+                    }
+                } finally {
+                    out.close();
+                }
+            }
+        });
+    }
+
+    @Override
+    public void onFrame(Scene scene, int index, long time) throws IOException {
+        canvas.drawColor(background, PorterDuff.Mode.SRC);
+        scene.submit(canvas, paint);
+        listener.onBitmap(bitmap, index, time);
+    }
+
+    public Bitmap getBitmap() {
+        return bitmap;
+    }
+
+    public int getBackground() {
+        return background;
+    }
+
+    public void setBackground(int background) {
+        this.background = background;
+    }
+
+    /**
+     * Release the bitmap, the sink can not be used after that
+     */
+    public void recycle() {
+        bitmap.recycle();
+    }
+}
@@ -0,0 +1,108 @@
+package com.slaviboy.fingerdraw;
+
+import android.graphics.Bitmap;
+import android.graphics.Paint;
+import android.graphics.PorterDuff;
+
+/**
+ * Copyright (c) 2019 Stanislav Georgiev. (MIT License)
+ * https://github.com/slaviboy
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * - The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * - The Software is provided "as is", without warranty of any kind, express or
+ * implied, including but not limited to the warranties of merchantability,
+ * fitness for a particular purpose and noninfringement. In no event shall the
+ * authors or copyright holders be liable for any claim, damages or other
+ * liability, whether in an action of contract, tort or otherwise, arising from,
+ * out of or in connection with the Software or the use or other dealings in the
+ * Software.
+ * <p>
+ * <p>
+ * BitmapRaster Class(Java) is raster for the {@link StrokeHistory}, that draws
+ * the persistent strokes into bitmap, with round joins and caps. The bitmap is
+ * drawn by the canvas below the fading paths.
+ */
+
+public class BitmapRaster implements StrokeHistory.Raster {
+
+    private Bitmap bitmap;                // bitmap with the strokes
+    private android.graphics.Canvas canvas; // canvas that draws into the bitmap
+    private android.graphics.Path path;   // reusable path for the strokes
+    private Paint paint;                  // paint used for the strokes
+    private StrokeLog.Cursor cursor;      // reads the points of the strokes in order
+
+    public BitmapRaster(int width, int height) {
+        bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        canvas = new android.graphics.Canvas(bitmap);
+        path = new android.graphics.Path();
+        paint = new Paint();
+        paint.setStyle(Paint.Style.STROKE);
+        paint.setAntiAlias(true);
+        paint.setStrokeJoin(Paint.Join.ROUND);
+        paint.setStrokeCap(Paint.Cap.ROUND);
+        cursor = new StrokeLog.Cursor();
+    }
+
+    @Override
+    public int getWidth() {
+        return bitmap.getWidth();
+    }
+
+    @Override
+    public int getHeight() {
+        return bitmap.getHeight();
+    }
+
+    @Override
+    public void clear() {
+        canvas.drawColor(0, PorterDuff.Mode.CLEAR);
+    }
+
+    @Override
+    public void drawStroke(StrokeLog strokes, int index) {
+        int numPoints = strokes.getNumPoints(index);
+        if (numPoints == 0) {
+            return;
+        }
+        path.rewind();
+        cursor.moveTo(strokes, index, 0);
+        path.moveTo(cursor.getX(), cursor.getY());
+        for (int i = 1; i < numPoints; i++) {
+            cursor.moveTo(strokes, index, i);
+            path.lineTo(cursor.getX(), cursor.getY());
+        }
+        if (numPoints == 1) {
+            path.lineTo(cursor.getX(), cursor.getY()); // draw dot
+        }
+        paint.setColor(strokes.getColor(index));
+        paint.setStrokeWidth(strokes.getStrokeWidth(index));
+        canvas.drawPath(path, paint);
+    }
+
+    @Override
+    public void getPixels(int[] pixels) {
+        int width = bitmap.getWidth();
+        bitmap.getPixels(pixels, 0, width, 0, 0, width, bitmap.getHeight());
+    }
+
+    @Override
+    public void setPixels(int[] pixels) {
+        int width = bitmap.getWidth();
+        bitmap.setPixels(pixels, 0, width, 0, 0, width, bitmap.getHeight());
+    }
+
+    public Bitmap getBitmap() {
+        return bitmap;
+    }
+
+    public void recycle() {
+        bitmap.recycle();
+    }
+}
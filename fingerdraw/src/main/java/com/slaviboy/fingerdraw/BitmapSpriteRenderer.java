@@ -0,0 +1,67 @@
+package com.slaviboy.fingerdraw;
+
+import android.graphics.Bitmap;
+import android.graphics.Paint;
+
+/**
+ * Copyright (c) 2019 Stanislav Georgiev. (MIT License)
+ * https://github.com/slaviboy
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * - The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * - The Software is provided "as is", without warranty of any kind, express or
+ * implied, including but not limited to the warranties of merchantability,
+ * fitness for a particular purpose and noninfringement. In no event shall the
+ * authors or copyright holders be liable for any claim, damages or other
+ * liability, whether in an action of contract, tort or otherwise, arising from,
+ * out of or in connection with the Software or the use or other dealings in the
+ * Software.
+ * <p>
+ * <p>
+ * BitmapSpriteRenderer Class(Java) is renderer for the {@link SpriteCache},
+ * that draws each shape once into bitmap with antialiasing, and draws the
+ * bitmap on the canvas with the opacity of the circle. Bitmap filtering is
+ * used only when the canvas is rotated or scaled, for example by the symmetry,
+ * since the sprites are placed at whole pixels.
+ */
+
+public class BitmapSpriteRenderer implements SpriteCache.SpriteRenderer {
+
+    private android.graphics.Canvas spriteCanvas; // canvas that draws into the sprite bitmaps
+    private Paint shapePaint;             // paint used to draw the shapes
+    private Paint spritePaint;            // paint used to draw the sprites, filtered only when transformed
+
+    public BitmapSpriteRenderer() {
+        spriteCanvas = new android.graphics.Canvas();
+        shapePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        spritePaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+    }
+
+    @Override
+    public void rasterize(SpriteCache.Sprite sprite) {
+        sprite.bitmap = Bitmap.createBitmap(sprite.size, sprite.size, Bitmap.Config.ARGB_8888);
+        spriteCanvas.setBitmap(sprite.bitmap);
+        sprite.shape.draw(spriteCanvas, shapePaint, sprite.size / 2f, sprite.size / 2f);
+        spriteCanvas.setBitmap(null);
+    }
+
+    @Override
+    public void drawSprite(android.graphics.Canvas canvas, SpriteCache.Sprite sprite, float left, float top, int alpha) {
+        spritePaint.setAlpha(alpha);
+        canvas.drawBitmap(sprite.bitmap, left, top, spritePaint);
+    }
+
+    @Override
+    public void release(SpriteCache.Sprite sprite) {
+        if (sprite.bitmap != null) {
+            sprite.bitmap.recycle();
+            sprite.bitmap = null;
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.slaviboy.fingerdraw;
+
+import android.graphics.Bitmap;
+import android.graphics.Paint;
+import android.graphics.PorterDuff;
+import android.graphics.RectF;
+
+/**
+ * Copyright (c) 2019 Stanislav Georgiev. (MIT License)
+ * https://github.com/slaviboy
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * - The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * - The Software is provided "as is", without warranty of any kind, express or
+ * implied, including but not limited to the warranties of merchantability,
+ * fitness for a particular purpose and noninfringement. In no event shall the
+ * authors or copyright holders be liable for any claim, damages or other
+ * liability, whether in an action of contract, tort or otherwise, arising from,
+ * out of or in connection with the Software or the use or other dealings in the
+ * Software.
+ * <p>
+ * <p>
+ * BitmapTileRenderer Class(Java) is renderer for the {@link TiledSurface}, that
+ * keeps the content of each tile in bitmap. Strokes are drawn into the tiles
+ * with round joins and caps, mapped from world to tile pixel coordinates, and
+ * the tiles are drawn on the canvas scaled to their size on screen.
+ */
+
+public class BitmapTileRenderer implements TiledSurface.TileRenderer {
+
+    private android.graphics.Canvas tileCanvas; // canvas that draws into the tile bitmaps
+    private android.graphics.Path path;   // reusable path for the strokes
+    private Paint strokePaint;            // paint used for the strokes
+    private Paint tilePaint;              // paint used to draw the tiles, with bitmap filtering
+    private RectF destination;            // reusable destination rectangle for the tiles
+    private StrokeLog.Cursor cursor;      // reads the points of the strokes in order
+
+    public BitmapTileRenderer() {
+        tileCanvas = new android.graphics.Canvas();
+        path = new android.graphics.Path();
+        strokePaint = new Paint();
+        strokePaint.setStyle(Paint.Style.STROKE);
+        strokePaint.setAntiAlias(true);
+        strokePaint.setStrokeJoin(Paint.Join.ROUND);
+        strokePaint.setStrokeCap(Paint.Cap.ROUND);
+        tilePaint = new Paint();
+        tilePaint.setFilterBitmap(true);
+        destination = new RectF();
+        cursor = new StrokeLog.Cursor();
+    }
+
+    @Override
+    public void allocate(TiledSurface.Tile tile, int size) {
+        tile.bitmap = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+    }
+
+    @Override
+    public void clear(TiledSurface.Tile tile) {
+        tileCanvas.setBitmap(tile.bitmap);
+        tileCanvas.drawColor(0, PorterDuff.Mode.CLEAR);
+        tileCanvas.setBitmap(null);
+    }
+
+    @Override
+    public void drawStroke(TiledSurface.Tile tile, StrokeLog strokes, int index) {
+        int numPoints = strokes.getNumPoints(index);
+        if (numPoints == 0) {
+            return;
+        }
+
+        // map from world to tile pixel coordinates
+        float scale = tile.scale;
+        path.rewind();
+        cursor.moveTo(strokes, index, 0);
+        path.moveTo((cursor.getX() - tile.left) * scale, (cursor.getY() - tile.top) * scale);
+        for (int i = 1; i < numPoints; i++) {
+            cursor.moveTo(strokes, index, i);
+            path.lineTo((cursor.getX() - tile.left) * scale, (cursor.getY() - tile.top) * scale);
+        }
+        if (numPoints == 1) {
+            path.lineTo((cursor.getX() - tile.left) * scale, (cursor.getY() - tile.top) * scale);
+        }
+        strokePaint.setColor(strokes.getColor(index));
+        strokePaint.setStrokeWidth(strokes.getStrokeWidth(index) * scale);
+
+        tileCanvas.setBitmap(tile.bitmap);
+        tileCanvas.drawPath(path, strokePaint);
+        tileCanvas.setBitmap(null);
+    }
+
+    @Override
+    public void drawTile(android.graphics.Canvas canvas, TiledSurface.Tile tile, float left, float top, float size) {
+        destination.set(left, top, left + size, top + size);
+        canvas.drawBitmap(tile.bitmap, null, destination, tilePaint);
+    }
+
+    @Override
+    public void release(TiledSurface.Tile tile) {
+        if (tile.bitmap != null) {
+            tile.bitmap.recycle();
+            tile.bitmap = null;
+        }
+    }
+}
@@ -1,10 +1,15 @@
 package com.slaviboy.fingerdraw;
 
 import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
 import android.graphics.CornerPathEffect;
 import android.graphics.Paint;
 import android.graphics.PixelFormat;
-import android.graphics.PointF;
+import android.os.BatteryManager;
+import android.os.Build;
+import android.os.PowerManager;
+import android.os.SystemClock;
 import android.util.AttributeSet;
 import android.util.Log;
 import android.view.MotionEvent;
@@ -13,7 +18,6 @@ import android.view.SurfaceView;
 import android.view.View;
 
 import java.sql.Time;
-import java.util.ArrayList;
 import java.util.Timer;
 import java.util.TimerTask;
 
@@ -66,13 +70,22 @@ public class Canvas extends SurfaceView implements SurfaceHolder.Callback, Runna
         init(context);
     }
 
-    private Path[] paths;                 // array with finger data for each finger
-    private Circle[] circles;             // circles that is draw at current finger position
+    private Scene scene;                  // scene with the paths and circles for each finger
     private SurfaceHolder surfaceHolder;  // holder for the SurfaceView
     private Thread thread;                // thread object for the surfaceView
     private boolean isRunning;            // if thread is running
     private boolean consumeTouchEvents;   // whether or not to consume the touch event after handling
     private Timer timer;                  // timer with 100ms delay, to call fadeout methods
+    private SnapshotCapture snapshots;    // captures snapshots of the frames on request
+    private LayerCompositor compositor;   // draws the paths and circles in separate cached layers
+    private volatile int surfaceWidth;    // width of the surface, set when the surface is changed
+    private volatile int surfaceHeight;   // height of the surface, set when the surface is changed
+    private volatile StrokeHistory history; // persistent strokes with undo and redo, drawn in -historyRaster, or null
+    private volatile BitmapRaster historyRaster; // raster of the -history with the size of the surface, or null before the layout
+    private volatile TiledSurface tiledSurface; // large pannable and zoomable drawing, or null
+    private FramePacer pacer;             // decides when the next frame is drawn
+    private volatile TouchHeatmap heatmap; // accumulates where the screen is touched, or null
+    private volatile HeatmapOverlay heatmapOverlay; // draws the heatmap on top of the shapes, or null
 
     private void init(Context context) {
 
@@ -89,6 +102,11 @@ public class Canvas extends SurfaceView implements SurfaceHolder.Callback, Runna
 
         // default
         consumeTouchEvents = true;
+        scene = new Scene();
+        snapshots = new SnapshotCapture();
+        compositor = new LayerCompositor();
+        pacer = new FramePacer(scene.getClock());
+        scene.addListener(pacer);
     }
 
     @Override
@@ -98,6 +116,23 @@ public class Canvas extends SurfaceView implements SurfaceHolder.Callback, Runna
 
     @Override
     public void surfaceChanged(SurfaceHolder holder, int format, int width, int height) {
+
+        // the grid covers the surface, and it is empty if the heatmap was enabled before the layout
+        TouchHeatmap touchHeatmap = heatmap;
+        if (touchHeatmap != null) {
+            touchHeatmap.setSize(width, height);
+        }
+
+        // the new surface has to get a frame, even if the scene is not changed
+        surfaceWidth = width;
+        surfaceHeight = height;
+        compositor.invalidate();
+
+        // the raster covers the surface, the strokes made before the layout are drawn into it
+        StrokeHistory strokeHistory = history;
+        if (strokeHistory != null) {
+            updateHistoryRaster(strokeHistory, width, height);
+        }
     }
 
     @Override
@@ -110,40 +145,20 @@ public class Canvas extends SurfaceView implements SurfaceHolder.Callback, Runna
     public void run() {
 
         android.graphics.Canvas canvas;
-
-        // init paint
-        Paint paint = new Paint();
-        paint.setStyle(Paint.Style.STROKE);
-        paint.setAntiAlias(true);
-        paint.setDither(true);
-        paint.setStrokeJoin(Paint.Join.ROUND);
-        paint.setStrokeCap(Paint.Cap.ROUND);
-        paint.setPathEffect(new CornerPathEffect(23));
-
-
-        // init shapes
-        if (paths == null) {
-            int numFingers = 2; // default allowed number of fingers is two
-
-            paths = new Path[numFingers];
-            circles = new Circle[numFingers];
-            for (int i = 0; i < paths.length; i++) {
-                paths[i] = new Path();
-                circles[i] = new Circle();
-            }
-        }
+        Paint paint = createPaint();
 
         // set timer, that calls the fadeout effect, with period of (100ms)
         timer = new Timer();
         timer.schedule(new TimerTask() {
+            private int ticks;
+
             @Override
             public void run() {
-                long currentTime = System.currentTimeMillis();
+                scene.fadeOut();
 
-                // fadeout shapes
-                for (int i = 0; i < paths.length; i++) {
-                    paths[i].fadeOut(currentTime);
-                    circles[i].fadeOut(currentTime);
+                // check the battery each 30s, when it is used to choose the frame rate
+                if (ticks++ % 300 == 0 && pacer.getMode() == FramePacer.AUTOMATIC) {
+                    pacer.setLowBattery(isLowBattery());
                 }
             }
         }, 0, FadeOut.MIN_DURATION);
@@ -151,19 +166,70 @@ public class Canvas extends SurfaceView implements SurfaceHolder.Callback, Runna
         // looper thread using while loop
         while (isRunning) {
 
+            // wait for the next frame, when the frame rate is limited
+            try {
+                pacer.awaitFrame();
+            } catch (InterruptedException e) {
+                break;
+            }
+
+            // skip the frame if nothing in it changed, the surface keeps showing the last frame
+            boolean needsFrame;
+            synchronized (scene) {
+                needsFrame = compositor.prepare(scene, surfaceWidth, surfaceHeight);
+            }
+            if (!needsFrame && tiledSurface == null && history == null && heatmapOverlay == null
+                    && !snapshots.hasRequests()) {
+                try {
+                    pacer.skipFrame();
+                } catch (InterruptedException e) {
+                    break;
+                }
+                continue;
+            }
+
             canvas = null;
+            long frameStart = 0;
+            int numRedraws = compositor.getNumPathsRedraws() + compositor.getNumCirclesRedraws();
             try {
                 canvas = surfaceHolder.lockCanvas();
+                pacer.onFrameStart();
+                frameStart = System.nanoTime();
 
                 synchronized (surfaceHolder) {
                     if (canvas != null) {
 
                         canvas.drawColor(0, android.graphics.PorterDuff.Mode.CLEAR);
 
-                        // draw shapes
-                        for (int i = 0; i < paths.length; i++) {
-                            paths[i].draw(canvas, paint);
-                            circles[i].draw(canvas, paint);
+                        // large drawing below everything else, only the tiles that are not cached are rasterized
+                        TiledSurface surface = tiledSurface;
+                        if (surface != null) {
+                            surface.draw(canvas);
+                        }
+
+                        // persistent strokes below the fading paths
+                        StrokeHistory strokeHistory = history;
+                        if (strokeHistory != null) {
+                            synchronized (strokeHistory) {
+                                BitmapRaster raster = historyRaster;
+                                if (raster != null && !raster.getBitmap().isRecycled()) {
+                                    canvas.drawBitmap(raster.getBitmap(), 0, 0, null);
+                                }
+                            }
+                        }
+
+                        // draw shapes using cached layers, and capture requested snapshots of the same frame
+                        synchronized (scene) {
+                            compositor.composite(scene, canvas, paint);
+                            snapshots.capture(scene, paint, canvas.getWidth(), canvas.getHeight());
+                        }
+
+                        // heatmap on top of everything, the bitmap is updated only when the heatmap changed
+                        HeatmapOverlay overlay = heatmapOverlay;
+                        if (overlay != null) {
+                            synchronized (overlay) {
+                                overlay.draw(canvas, scene.getClock().currentTimeMillis());
+                            }
                         }
                     }
                 }
@@ -173,6 +239,8 @@ public class Canvas extends SurfaceView implements SurfaceHolder.Callback, Runna
             } finally {
                 if (canvas != null) {
                     surfaceHolder.unlockCanvasAndPost(canvas);
+                    boolean changed = numRedraws != compositor.getNumPathsRedraws() + compositor.getNumCirclesRedraws();
+                    pacer.onFrameEnd(System.nanoTime() - frameStart, changed);
                 }
             }
         }
@@ -180,90 +248,71 @@ public class Canvas extends SurfaceView implements SurfaceHolder.Callback, Runna
         if (timer != null) {
             timer.cancel();
         }
+        compositor.release();
+        scene.releaseSprites();
     }
 
-
     /**
-     * Update path and circle for given finger, using arrayIndex, set
-     * -tracking and -fading properties, and set new position coordinates -x and -y
+     * Create the paint used to draw the scene, the same paint is used by
+     * the offline renderer so the frames look the same as on screen
      *
-     * @param arrayIndex - current array index corresponding to the consecutive finger on screen
-     * @param x          - current finger coordinates
-     * @param y          - current finger coordinates
-     * @param isTracking - if finger will be tracked
-     * @param isFading   - if shapes will fade out
+     * @return the paint
      */
-    private void update(int arrayIndex, float x, float y,
-                        boolean isTracking, boolean isFading) {
-        Path p = paths[arrayIndex];
-        p.setFading(isFading);
-        p.setTracking(isTracking);
-        p.addPoint(x, y); //!
-
-        Circle c = circles[arrayIndex];
-        c.setFading(isFading);
-        c.setTracking(isTracking);
-        c.move(x, y);
-    }
-
-    /**
-     * Called on ACTION_UP || ACTION_POINTER_UP events, to set that the
-     * finger is no longer being tracked and fadeout should start
-     *
-     * @param event        motion event from the onTouch event
-     * @param arrayIndex   current array index corresponding to the consecutive finger on screen
-     * @param pointerIndex current pointer index from the event
-     */
-    private void up(MotionEvent event, int arrayIndex, int pointerIndex) {
-        float x = event.getX(pointerIndex);
-        float y = event.getY(pointerIndex);
-
-        update(arrayIndex, x, y, false, true);
-        paths[arrayIndex].setLastPointsSize(
-                paths[arrayIndex].getPoints().size()); // array size at start of the fadeout effect
-    }
-
-    /**
-     * Called on ACTION_DOWN || ACTION_POINTER_DOWN events, to set that the
-     * finger is tracked, reset the array with points and stop the fadeout effect
-     *
-     * @param event        motion event from the onTouch event
-     * @param arrayIndex   current array index corresponding to the consecutive finger on screen
-     * @param pointerIndex current pointer index from the event
-     */
-    private void down(MotionEvent event, int arrayIndex, int pointerIndex) {
-        float x = event.getX(pointerIndex);
-        float y = event.getY(pointerIndex);
-
-        paths[arrayIndex].setPoints(new ArrayList<PointF>()); // reset list array
-        update(arrayIndex, x, y, true, false);
+    static Paint createPaint() {
+        Paint paint = new Paint();
+        paint.setStyle(Paint.Style.STROKE);
+        paint.setAntiAlias(true);
+        paint.setDither(true);
+        paint.setStrokeJoin(Paint.Join.ROUND);
+        paint.setStrokeCap(Paint.Cap.ROUND);
+        paint.setPathEffect(new CornerPathEffect(23));
+        return paint;
     }
 
     /**
      * Called on ACTION_MOVE event, to add point with current finger position
-     * for corresponding -path and set new coordinates for -circle
+     * for corresponding -path and set new coordinates for -circle. The event
+     * holds the batched samples since the last event, they are added first,
+     * each with its own event time.
      *
      * @param event
      */
     private void move(MotionEvent event) {
 
         int num = event.getPointerCount();
+        int historySize = event.getHistorySize();
+        long offset = getEventTimeOffset();
+        for (int h = 0; h < historySize; h++) {
+            long time = event.getHistoricalEventTime(h) + offset;
+            for (int pointerIndex = 0; pointerIndex < num; pointerIndex++) {
+                int arrayIndex = event.getPointerId(pointerIndex); // id corresponding to array index
+
+                scene.move(arrayIndex, event.getHistoricalX(pointerIndex, h), event.getHistoricalY(pointerIndex, h),
+                        event.getHistoricalPressure(pointerIndex, h), event.getHistoricalTouchMajor(pointerIndex, h),
+                        time);
+            }
+        }
+
+        long time = event.getEventTime() + offset;
         for (int pointerIndex = 0; pointerIndex < num; pointerIndex++) {
             int arrayIndex = event.getPointerId(pointerIndex); // id corresponding to array index
 
-            // if it is being tracked
-            if (arrayIndex < paths.length && paths[arrayIndex].isTracking()) {
-
-                float x = event.getX(pointerIndex);
-                float y = event.getY(pointerIndex);
-
-                paths[arrayIndex].addPoint(x, y); // add new point to path
-                circles[arrayIndex].move(x, y);   // move circle position
-            }
+            scene.move(arrayIndex, event.getX(pointerIndex), event.getY(pointerIndex),
+                    event.getPressure(pointerIndex), event.getTouchMajor(pointerIndex), time);
         }
     }
 
 
+    /**
+     * Get the offset from the event times, that are in {@link SystemClock#uptimeMillis()}
+     * time base, to the time of the scene clock
+     *
+     * @return the offset in (ms)
+     */
+    private long getEventTimeOffset() {
+        return scene.getClock().currentTimeMillis() - SystemClock.uptimeMillis();
+    }
+
     @Override
     public boolean onTouch(View v, MotionEvent event) {
 
@@ -277,16 +326,16 @@ public class Canvas extends SurfaceView implements SurfaceHolder.Callback, Runna
         switch (event.getAction() & MotionEvent.ACTION_MASK) {
             case MotionEvent.ACTION_DOWN:
             case MotionEvent.ACTION_POINTER_DOWN: {
-                if (arrayIndex < paths.length) {
-                    down(event, arrayIndex, pointerIndex);
-                }
+                scene.down(arrayIndex, event.getX(pointerIndex), event.getY(pointerIndex),
+                        event.getPressure(pointerIndex), event.getTouchMajor(pointerIndex),
+                        event.getEventTime() + getEventTimeOffset());
                 return consumeTouchEvents;
             }
             case MotionEvent.ACTION_UP:
             case MotionEvent.ACTION_POINTER_UP: {
-                if (arrayIndex < paths.length) {
-                    up(event, arrayIndex, pointerIndex);
-                }
+                scene.up(arrayIndex, event.getX(pointerIndex), event.getY(pointerIndex),
+                        event.getPressure(pointerIndex), event.getTouchMajor(pointerIndex),
+                        event.getEventTime() + getEventTimeOffset());
                 return consumeTouchEvents;
             }
             case MotionEvent.ACTION_MOVE: {
@@ -307,22 +356,7 @@ public class Canvas extends SurfaceView implements SurfaceHolder.Callback, Runna
      * @param paths
      */
     public void setPaths(Path[] paths) {
-
-        // if number of path object is changed
-        if (this.paths == null || this.paths.length != paths.length) {
-
-            Circle[] newCircle = new Circle[paths.length];
-            for (int i = 0; i < newCircle.length; i++) {
-                if (circles != null && i < circles.length) {
-                    newCircle[i] = circles[i]; // add from previous paths array
-                } else {
-                    newCircle[i] = new Circle(); // if new array is bigger add default paths
-                }
-            }
-            circles = newCircle;
-        }
-
-        this.paths = paths;
+        scene.setPaths(paths);
     }
 
     /**
@@ -333,22 +367,47 @@ public class Canvas extends SurfaceView implements SurfaceHolder.Callback, Runna
      * @param circles
      */
     public void setCircles(Circle[] circles) {
+        scene.setCircles(circles);
+    }
 
-        // transfer circles to new array to match path size
-        if (this.circles == null || this.circles.length != circles.length) {
+    /**
+     * Change the style of all paths, it is applied at the start of the next
+     * frame, so it is safe to call while drawing and during gesture
+     *
+     * @param style - the style
+     */
+    public void setPathStyle(PathStyle style) {
+        scene.setPathStyle(style);
+    }
 
-            Path[] newPaths = new Path[circles.length];
-            for (int i = 0; i < newPaths.length; i++) {
-                if (paths != null && i < paths.length) {
-                    newPaths[i] = paths[i]; // add from previous paths array
-                } else {
-                    newPaths[i] = new Path(); // if new array is bigger add default paths
-                }
-            }
-            paths = newPaths;
-        }
+    /**
+     * Change the style of the path of given finger at the start of the next frame
+     *
+     * @param arrayIndex - array index of the finger
+     * @param style      - the style
+     */
+    public void setPathStyle(int arrayIndex, PathStyle style) {
+        scene.setPathStyle(arrayIndex, style);
+    }
 
-        this.circles = circles;
+    /**
+     * Change the style of all circles, it is applied at the start of the next
+     * frame, so it is safe to call while drawing and during gesture
+     *
+     * @param style - the style
+     */
+    public void setCircleStyle(CircleStyle style) {
+        scene.setCircleStyle(style);
+    }
+
+    /**
+     * Change the style of the circle of given finger at the start of the next frame
+     *
+     * @param arrayIndex - array index of the finger
+     * @param style      - the style
+     */
+    public void setCircleStyle(int arrayIndex, CircleStyle style) {
+        scene.setCircleStyle(arrayIndex, style);
     }
 
     public void setConsumeTouchEvents(boolean consumeTouchEvents) {
@@ -359,12 +418,363 @@ public class Canvas extends SurfaceView implements SurfaceHolder.Callback, Runna
         return consumeTouchEvents;
     }
 
+    /**
+     * Get the paths of the scene, they are read by the drawing thread, so
+     * change them with {@link #setPathStyle(PathStyle)}, or while holding
+     * the monitor of the scene
+     *
+     * @return the paths
+     */
     public Path[] getPaths() {
-        return paths;
+        return scene.getPaths();
     }
 
+    /**
+     * Get the circles of the scene, they are read by the drawing thread, so
+     * change them with {@link #setCircleStyle(CircleStyle)}, or while holding
+     * the monitor of the scene
+     *
+     * @return the circles
+     */
     public Circle[] getCircles() {
-        return circles;
+        return scene.getCircles();
+    }
+
+    public Scene getScene() {
+        return scene;
+    }
+
+    public Symmetry getSymmetry() {
+        return scene.getSymmetry();
+    }
+
+    /**
+     * Set symmetry mode, for example Symmetry.kaleidoscope(6), that draws
+     * multiple instances of each path and circle using canvas transforms
+     *
+     * @param symmetry - the symmetry or null to disable it
+     */
+    public void setSymmetry(Symmetry symmetry) {
+        scene.setSymmetry(symmetry);
+    }
+
+    /**
+     * Enable persistent strokes, that are kept after the finger is up and
+     * can be undone and redone. The raster has the same size as the surface,
+     * if called before the layout it is created once the size is known.
+     *
+     * @param memoryBudget - maximum bytes used for the stroke log and checkpoints
+     * @param interval     - number of strokes between checkpoints
+     * @return the history, used to change the stroke style
+     */
+    public StrokeHistory enableStrokeHistory(long memoryBudget, int interval) {
+        return enableStrokeHistory(memoryBudget, interval, false);
+    }
+
+    /**
+     * Enable persistent strokes, that are kept after the finger is up and
+     * can be undone and redone. The raster has the same size as the surface,
+     * if called before the layout it is created once the size is known.
+     *
+     * @param memoryBudget - maximum bytes used for the stroke log and checkpoints
+     * @param interval     - number of strokes between checkpoints
+     * @param compact      - whether the points are kept as 16-bit fixed-point differences
+     * @return the history, used to change the stroke style
+     */
+    public StrokeHistory enableStrokeHistory(long memoryBudget, int interval, boolean compact) {
+        disableStrokeHistory();
+        StrokeLog strokes = compact ? StrokeLog.compact() : new StrokeLog();
+        StrokeHistory strokeHistory = new StrokeHistory(null, memoryBudget, interval, strokes);
+        history = strokeHistory;
+        updateHistoryRaster(strokeHistory, getWidth(), getHeight());
+        scene.addListener(strokeHistory);
+        return strokeHistory;
+    }
+
+    /**
+     * Create new raster for the stroke history when the size of the surface
+     * changes, the raster is not created while the size is still 0
+     *
+     * @param strokeHistory - the stroke history
+     * @param width         - surface width
+     * @param height        - surface height
+     */
+    private void updateHistoryRaster(StrokeHistory strokeHistory, int width, int height) {
+        synchronized (strokeHistory) {
+            BitmapRaster raster = historyRaster;
+            if (width <= 0 || height <= 0
+                    || (raster != null && raster.getWidth() == width && raster.getHeight() == height)) {
+                return;
+            }
+            BitmapRaster resized = new BitmapRaster(width, height);
+            strokeHistory.setRaster(resized);
+            historyRaster = resized;
+            if (raster != null) {
+                raster.recycle();
+            }
+        }
+    }
+
+    /**
+     * Disable the persistent strokes and release the raster
+     */
+    public void disableStrokeHistory() {
+        StrokeHistory strokeHistory = history;
+        if (strokeHistory != null) {
+            scene.removeListener(strokeHistory);
+            history = null;
+            synchronized (strokeHistory) {
+                BitmapRaster raster = historyRaster;
+                if (raster != null) {
+                    strokeHistory.setRaster(null);
+                    historyRaster = null;
+                    raster.recycle();
+                }
+            }
+        }
+    }
+
+    public StrokeHistory getStrokeHistory() {
+        return history;
+    }
+
+    /**
+     * Enable large drawing, that can be panned and zoomed through the returned
+     * surface, strokes drawn with the fingers are added to it in world
+     * coordinates, and it is drawn using cached bitmap tiles
+     *
+     * @param tileSize - tile size in pixels
+     * @param maxBytes - memory cap for the cached tiles
+     * @return the surface
+     */
+    public TiledSurface enableTiledSurface(int tileSize, long maxBytes) {
+        disableTiledSurface();
+        TiledSurface surface = new TiledSurface(new BitmapTileRenderer(), tileSize, maxBytes);
+        tiledSurface = surface;
+        scene.addListener(surface);
+        return surface;
+    }
+
+    /**
+     * Disable the large drawing and release the tiles
+     */
+    public void disableTiledSurface() {
+        TiledSurface surface = tiledSurface;
+        if (surface != null) {
+            scene.removeListener(surface);
+            tiledSurface = null;
+            surface.release();
+        }
+    }
+
+    public TiledSurface getTiledSurface() {
+        return tiledSurface;
+    }
+
+    /**
+     * Enable heatmap, that accumulates the touch samples in grid of cells on
+     * background thread. The grid covers the view, if it is not laid out yet
+     * the grid is sized when the surface is changed.
+     *
+     * @param cellSize - size of each cell in pixels
+     * @param halfLife - time after which the values are halved in (ms), or 0 for no decay
+     * @param overlay  - whether the heatmap is drawn on top of the shapes
+     * @return the heatmap, used to get snapshots of the values
+     */
+    public TouchHeatmap enableHeatmap(float cellSize, long halfLife, boolean overlay) {
+        disableHeatmap();
+        TouchHeatmap touchHeatmap = new TouchHeatmap(getWidth(), getHeight(), cellSize, halfLife);
+        touchHeatmap.setClock(scene.getClock());
+        heatmap = touchHeatmap;
+        if (overlay) {
+            heatmapOverlay = new HeatmapOverlay(touchHeatmap);
+        }
+        scene.addListener(touchHeatmap);
+        return touchHeatmap;
+    }
+
+    /**
+     * Disable the heatmap and release the overlay bitmap
+     */
+    public void disableHeatmap() {
+        TouchHeatmap touchHeatmap = heatmap;
+        if (touchHeatmap != null) {
+            scene.removeListener(touchHeatmap);
+            heatmap = null;
+        }
+        HeatmapOverlay overlay = heatmapOverlay;
+        if (overlay != null) {
+            heatmapOverlay = null;
+            synchronized (overlay) {
+                overlay.release();
+            }
+        }
+    }
+
+    public TouchHeatmap getHeatmap() {
+        return heatmap;
+    }
+
+    /**
+     * Undo the last persistent stroke
+     *
+     * @return true if stroke was undone
+     */
+    public boolean undo() {
+        StrokeHistory strokeHistory = history;
+        return strokeHistory != null && strokeHistory.undo();
+    }
+
+    /**
+     * Redo the last undone persistent stroke
+     *
+     * @return true if stroke was redone
+     */
+    public boolean redo() {
+        StrokeHistory strokeHistory = history;
+        return strokeHistory != null && strokeHistory.redo();
+    }
+
+    public Clock getClock() {
+        return scene.getClock();
+    }
+
+    /**
+     * Prepare the geometry of the paths of different fingers in parallel, the
+     * prepared geometry is still drawn on the drawing thread
+     *
+     * @param numThreads - number of threads, including the drawing thread
+     */
+    public void enableParallelPrepare(int numThreads) {
+        disableParallelPrepare();
+        scene.setWorkerPool(new WorkerPool(numThreads));
+    }
+
+    /**
+     * Prepare the geometry only on the drawing thread, and stop the workers
+     */
+    public void disableParallelPrepare() {
+        WorkerPool workers = scene.getWorkerPool();
+        if (workers != null) {
+            scene.setWorkerPool(null);
+            workers.release();
+        }
+    }
+
+    /**
+     * Set the clock used by the fadeout timer and the drawing thread, for
+     * example ManualClock to control the time of the effects
+     *
+     * @param clock - the clock
+     */
+    public void setClock(Clock clock) {
+        scene.setClock(clock);
+        pacer.setClock(clock);
+    }
+
+    /**
+     * Inject points to the trail from any thread, for example from animation
+     * or remote cursor, the points are applied together at the start of the
+     * next frame
+     *
+     * @param arrayIndex - array index of the trail
+     * @param x          - x coordinates
+     * @param y          - y coordinates
+     * @param offset     - index of the first point in the arrays
+     * @param numPoints  - number of points
+     * @param end        - whether the trail ends after the points, and starts to fade out
+     */
+    public void inject(int arrayIndex, float[] x, float[] y, int offset, int numPoints, boolean end) {
+        scene.inject(arrayIndex, x, y, offset, numPoints, end);
+    }
+
+    /**
+     * Inject points with event times to the trail from any thread, the times
+     * are used by trails limited by age
+     *
+     * @param arrayIndex - array index of the trail
+     * @param x          - x coordinates
+     * @param y          - y coordinates
+     * @param times      - event times in (ms), or null to use the time of the frame
+     * @param offset     - index of the first point in the arrays
+     * @param numPoints  - number of points
+     * @param end        - whether the trail ends after the points, and starts to fade out
+     */
+    public void inject(int arrayIndex, float[] x, float[] y, long[] times, int offset, int numPoints, boolean end) {
+        scene.inject(arrayIndex, x, y, times, offset, numPoints, end);
+    }
+
+    public InputFilter getInputFilter() {
+        return scene.getInputFilter();
+    }
+
+    /**
+     * Set filter for the touch samples of all fingers, for example chain of
+     * OneEuroFilter and DuplicateFilter to remove the jitter of the screen
+     *
+     * @param inputFilter - the filter, or null to keep the samples as they are
+     */
+    public void setInputFilter(InputFilter inputFilter) {
+        scene.setInputFilter(inputFilter);
+    }
+
+    /**
+     * Set filter for the touch samples of given finger
+     *
+     * @param arrayIndex  - array index of the finger
+     * @param inputFilter - the filter, or null to use the filter of all fingers
+     */
+    public void setInputFilter(int arrayIndex, InputFilter inputFilter) {
+        scene.setInputFilter(arrayIndex, inputFilter);
+    }
+
+    /**
+     * Get the pacer that sets the frame rate, used to choose the pacing mode
+     * and to read the actual frame rate and the saved CPU time
+     *
+     * @return the pacer
+     */
+    public FramePacer getFramePacer() {
+        return pacer;
+    }
+
+    /**
+     * Check if the battery is low, or the power saving mode is on
+     *
+     * @return true if the battery is low
+     */
+    private boolean isLowBattery() {
+        Context context = getContext();
+        if (context == null) {
+            return false;
+        }
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.LOLLIPOP) {
+            PowerManager powerManager = (PowerManager) context.getSystemService(Context.POWER_SERVICE);
+            if (powerManager != null && powerManager.isPowerSaveMode()) {
+                return true;
+            }
+        }
+
+        // sticky broadcast with the last battery state, no receiver is registered
+        Intent battery = context.getApplicationContext().registerReceiver(null,
+                new IntentFilter(Intent.ACTION_BATTERY_CHANGED));
+        if (battery == null) {
+            return false;
+        }
+        int level = battery.getIntExtra(BatteryManager.EXTRA_LEVEL, -1);
+        int scale = battery.getIntExtra(BatteryManager.EXTRA_SCALE, -1);
+        return level >= 0 && scale > 0 && level * 100 / scale <= 15;
+    }
+
+    /**
+     * Request snapshot of the next frame, the frame is captured by the
+     * drawing thread and encoded as PNG on background thread, the callback
+     * is called on the background thread.
+     *
+     * @param callback - callback that receives the encoded image
+     */
+    public void takeSnapshot(SnapshotCapture.Callback callback) {
+        snapshots.request(callback);
     }
 
     private void startThread() {
@@ -3,6 +3,7 @@ package com.slaviboy.fingerdraw;
 import android.content.Context;
 import android.graphics.Color;
 import android.graphics.Paint;
+import android.graphics.RectF;
 import android.util.Log;
 
 /**
@@ -28,7 +29,9 @@ import android.util.Log;
  * <p>
  * Circle Class(Java) that creates a circle object, and is drawn right under
  * current finger position. The class has properties fill and stroke -color,
- * -radius, -center position, -stroke width and -opacity.
+ * -radius, -center position, -stroke width and -opacity. The look of the
+ * circle is {@link IndicatorShape}, by default ring made from its properties,
+ * which is drawn from pre-rasterized sprite when {@link SpriteCache} is used.
  */
 
 public class Circle extends FadeOut {
@@ -41,6 +44,9 @@ public class Circle extends FadeOut {
     private float cx;                 // circle center x coordinate
     private float cy;                 // circle center y coordinate
     private int maxOpacity;           // maximum opacity, value used to reset current opacity after fade out
+    private IndicatorShape shape;     // custom shape, or null to draw ring with the properties of the circle
+    private IndicatorShape ring;      // ring with the current properties, created again only when they change
+    private RectF layerBounds;        // reusable bounds of the layer, in which custom shape is drawn without cache
 
     public Circle() {
         // default
@@ -70,16 +76,36 @@ public class Circle extends FadeOut {
      * @param y
      */
     public void move(float x, float y) {
+        if (cx == x && cy == y && opacity == maxOpacity) {
+            return;
+        }
         cx = x;
         cy = y;
 
         opacity = maxOpacity;
+        invalidate();
+    }
+
+    /**
+     * Draw the shape of the circle at center coordinates -cx and -cy, using
+     * sprite from the cache that is blitted with the current -opacity
+     *
+     * @param canvas  - canvas on which the circle is drawn
+     * @param paint   - paint used when there is no cache
+     * @param sprites - cache with the pre-rasterized shapes, or null to draw the shape directly
+     */
+    public void draw(android.graphics.Canvas canvas, Paint paint, SpriteCache sprites) {
+        if (sprites == null) {
+            draw(canvas, paint);
+        } else if (opacity > 0) {
+            sprites.draw(canvas, getShape(), cx, cy, opacity);
+        }
     }
 
     /**
      * Draw the circle with -radius and center coordinates -cx and -cy,
      * on canvas with paint. Set fill and stroke -color, also -opacity and
-     * -stroke width.
+     * -stroke width. Custom shape is drawn in layer with the -opacity.
      *
      * @param canvas
      * @param paint
@@ -90,6 +116,20 @@ public class Circle extends FadeOut {
             return;
         }
 
+        if (shape != null) {
+            float half = shape.getSize() / 2f;
+            if (layerBounds == null) {
+                layerBounds = new RectF();
+            }
+            layerBounds.set(cx - half, cy - half, cx + half, cy + half);
+
+            // overload with flags, the one with coordinates only is available since API 21
+            int count = canvas.saveLayerAlpha(layerBounds, opacity, android.graphics.Canvas.ALL_SAVE_FLAG);
+            shape.draw(canvas, paint, cx, cy);
+            canvas.restoreToCount(count);
+            return;
+        }
+
         // fill
         paint.setStyle(Paint.Style.FILL);
         paint.setColor(fillColor);
@@ -115,6 +155,7 @@ public class Circle extends FadeOut {
                 opacity = 0;
                 fading = false;
             }
+            invalidate();
         }
     }
 
@@ -179,12 +220,80 @@ public class Circle extends FadeOut {
         }
     }
 
+    /**
+     * Get snapshot of the current style of the circle
+     *
+     * @return the style
+     */
+    public CircleStyle getStyle() {
+        return new CircleStyle.Builder()
+                .withStrokeColor(strokeColor)
+                .withFillColor(fillColor)
+                .withStrokeWidth(strokeWidth)
+                .withRadius(radius)
+                .withOpacity(maxOpacity)
+                .withFadeOutDuration(fadeOutDuration)
+                .build();
+    }
+
+    /**
+     * Apply all properties of the style at once, the circle that is fading
+     * out continues from its current opacity if it is lower than the new one.
+     * The circle is not synchronized, use {@link Scene#setCircleStyle(CircleStyle)}
+     * to change the style while the scene is drawn.
+     *
+     * @param style - the style
+     */
+    public void setStyle(CircleStyle style) {
+        strokeColor = style.getStrokeColor();
+        fillColor = style.getFillColor();
+        strokeWidth = style.getStrokeWidth();
+        radius = style.getRadius();
+        ring = null;
+        maxOpacity = style.getOpacity();
+        if (tracking || opacity > maxOpacity) {
+            opacity = maxOpacity;
+        }
+        super.setFadeOutDuration(style.getFadeOutDuration());
+        setDivisible(maxOpacity);
+        invalidate();
+    }
+
+    /**
+     * Get the shape that is drawn, the same object is returned until the
+     * properties are changed, so it can be used as key of the cached sprite
+     *
+     * @return the custom shape or ring with the current properties
+     */
+    public IndicatorShape getShape() {
+        if (shape != null) {
+            return shape;
+        }
+        if (ring == null) {
+            ring = new IndicatorShape.Ring(radius, strokeWidth, fillColor, strokeColor);
+        }
+        return ring;
+    }
+
+    /**
+     * Set custom shape, for example image, that replaces the ring drawn with
+     * the fill and stroke properties
+     *
+     * @param shape - the shape, or null to draw the ring
+     */
+    public void setShape(IndicatorShape shape) {
+        this.shape = shape;
+        invalidate();
+    }
+
     public int getStrokeColor() {
         return strokeColor;
     }
 
     public void setStrokeColor(int strokeColor) {
         this.strokeColor = strokeColor;
+        ring = null;
+        invalidate();
     }
 
     public int getFillColor() {
@@ -193,6 +302,8 @@ public class Circle extends FadeOut {
 
     public void setFillColor(int fillColor) {
         this.fillColor = fillColor;
+        ring = null;
+        invalidate();
     }
 
     public int getStrokeWidth() {
@@ -201,6 +312,8 @@ public class Circle extends FadeOut {
 
     public void setStrokeWidth(int strokeWidth) {
         this.strokeWidth = strokeWidth;
+        ring = null;
+        invalidate();
     }
 
     public int getOpacity() {
@@ -210,6 +323,7 @@ public class Circle extends FadeOut {
     public void setOpacity(int opacity) {
         this.opacity = opacity;
         this.maxOpacity = opacity;
+        invalidate();
     }
 
     public int getRadius() {
@@ -218,6 +332,8 @@ public class Circle extends FadeOut {
 
     public void setRadius(int radius) {
         this.radius = radius;
+        ring = null;
+        invalidate();
     }
 
     public float getCx() {
@@ -226,6 +342,7 @@ public class Circle extends FadeOut {
 
     public void setCx(float cx) {
         this.cx = cx;
+        invalidate();
     }
 
     public float getCy() {
@@ -234,6 +351,7 @@ public class Circle extends FadeOut {
 
     public void setCy(float cy) {
         this.cy = cy;
+        invalidate();
     }
 
     @Override
@@ -0,0 +1,146 @@
+package com.slaviboy.fingerdraw;
+
+import android.graphics.Color;
+
+/**
+ * Copyright (c) 2019 Stanislav Georgiev. (MIT License)
+ * https://github.com/slaviboy
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * - The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * - The Software is provided "as is", without warranty of any kind, express or
+ * implied, including but not limited to the warranties of merchantability,
+ * fitness for a particular purpose and noninfringement. In no event shall the
+ * authors or copyright holders be liable for any claim, damages or other
+ * liability, whether in an action of contract, tort or otherwise, arising from,
+ * out of or in connection with the Software or the use or other dealings in the
+ * Software.
+ * <p>
+ * <p>
+ * CircleStyle Class(Java) is immutable snapshot of the properties that change
+ * how {@link Circle} looks, fill and stroke -color, -stroke width, -radius,
+ * -opacity and fadeout duration. It can be passed from any thread to the scene,
+ * which applies all properties at once at the start of the next frame.
+ */
+
+public final class CircleStyle {
+
+    private final int strokeColor;        // stroke color
+    private final int fillColor;          // fill color
+    private final int strokeWidth;        // stroke width
+    private final int radius;             // circle radius
+    private final int opacity;            // opacity while the finger is down
+    private final int fadeOutDuration;    // duration for fadeout effect
+
+    private CircleStyle(Builder builder) {
+        strokeColor = builder.strokeColor;
+        fillColor = builder.fillColor;
+        strokeWidth = builder.strokeWidth;
+        radius = builder.radius;
+        opacity = builder.opacity;
+        fadeOutDuration = builder.fadeOutDuration;
+    }
+
+    /**
+     * Builder class for the style, with the same default values as {@link Circle.Builder}
+     */
+    public static class Builder {
+
+        private int strokeColor;
+        private int fillColor;
+        private int strokeWidth;
+        private int radius;
+        private int opacity;
+        private int fadeOutDuration;
+
+        public Builder() {
+
+            // default values
+            strokeColor = Color.BLACK;
+            fillColor = Color.WHITE;
+            strokeWidth = 1;
+            radius = 25;
+            opacity = 255;
+            fadeOutDuration = 200;
+        }
+
+        /**
+         * Builder that starts with the values of existing style, so only
+         * some of them can be changed
+         *
+         * @param style - the existing style
+         */
+        public Builder(CircleStyle style) {
+            strokeColor = style.strokeColor;
+            fillColor = style.fillColor;
+            strokeWidth = style.strokeWidth;
+            radius = style.radius;
+            opacity = style.opacity;
+            fadeOutDuration = style.fadeOutDuration;
+        }
+
+        public Builder withStrokeColor(int strokeColor) {
+            this.strokeColor = strokeColor;
+            return this;
+        }
+
+        public Builder withFillColor(int fillColor) {
+            this.fillColor = fillColor;
+            return this;
+        }
+
+        public Builder withStrokeWidth(int strokeWidth) {
+            this.strokeWidth = strokeWidth;
+            return this;
+        }
+
+        public Builder withRadius(int radius) {
+            this.radius = radius;
+            return this;
+        }
+
+        public Builder withOpacity(int opacity) {
+            this.opacity = opacity;
+            return this;
+        }
+
+        public Builder withFadeOutDuration(int fadeOutDuration) {
+            this.fadeOutDuration = fadeOutDuration;
+            return this;
+        }
+
+        public CircleStyle build() {
+            return new CircleStyle(this);
+        }
+    }
+
+    public int getStrokeColor() {
+        return strokeColor;
+    }
+
+    public int getFillColor() {
+        return fillColor;
+    }
+
+    public int getStrokeWidth() {
+        return strokeWidth;
+    }
+
+    public int getRadius() {
+        return radius;
+    }
+
+    public int getOpacity() {
+        return opacity;
+    }
+
+    public int getFadeOutDuration() {
+        return fadeOutDuration;
+    }
+}
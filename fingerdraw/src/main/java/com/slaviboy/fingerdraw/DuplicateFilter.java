@@ -0,0 +1,76 @@
+package com.slaviboy.fingerdraw;
+
+import java.util.Arrays;
+
+/**
+ * Copyright (c) 2019 Stanislav Georgiev. (MIT License)
+ * https://github.com/slaviboy
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * - The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * - The Software is provided "as is", without warranty of any kind, express or
+ * implied, including but not limited to the warranties of merchantability,
+ * fitness for a particular purpose and noninfringement. In no event shall the
+ * authors or copyright holders be liable for any claim, damages or other
+ * liability, whether in an action of contract, tort or otherwise, arising from,
+ * out of or in connection with the Software or the use or other dealings in the
+ * Software.
+ * <p>
+ * <p>
+ * DuplicateFilter Class(Java) is input filter, that drops the move samples that
+ * are closer than -minDistance to the last kept sample of the same finger. Touch
+ * screens often report the same position several times while the finger rests,
+ * and such samples only make the trail shorter without adding any detail.
+ */
+
+public class DuplicateFilter extends InputFilter {
+
+    private float minDistance;            // minimum distance from the last kept sample
+    private float[] lastX;                // x of the last kept sample, for each finger
+    private float[] lastY;                // y of the last kept sample, for each finger
+
+    public DuplicateFilter() {
+        // drops only samples with the same position
+        this(0f);
+    }
+
+    public DuplicateFilter(float minDistance) {
+        this.minDistance = minDistance;
+        lastX = new float[10];
+        lastY = new float[10];
+    }
+
+    @Override
+    public boolean filter(int finger, int action, long time, float[] sample) {
+        if (finger >= lastX.length) {
+            lastX = Arrays.copyOf(lastX, finger + 1);
+            lastY = Arrays.copyOf(lastY, finger + 1);
+        }
+
+        float x = sample[X], y = sample[Y];
+        if (action == MOVE) {
+            float dx = x - lastX[finger], dy = y - lastY[finger];
+            float distanceSquared = dx * dx + dy * dy;
+            if (distanceSquared <= minDistance * minDistance) {
+                return false;
+            }
+        }
+        lastX[finger] = x;
+        lastY[finger] = y;
+        return true;
+    }
+
+    public float getMinDistance() {
+        return minDistance;
+    }
+
+    public void setMinDistance(float minDistance) {
+        this.minDistance = minDistance;
+    }
+}
@@ -36,6 +36,7 @@ public abstract class FadeOut {
     protected int fadeOutStepsPerCall;  // how many fade out steps should be made per one fadeOut() method call
     protected int fadeOutDuration;      // total fade out duration in (ms)
     protected long fadeOutLastTime;     // previously detected system time, from last fadeOut() method call
+    protected int version;              // incremented on each change, that affects how the object is drawn
 
     /**
      * Call onFadeOut() method if delay time has passed and
@@ -81,6 +82,24 @@ public abstract class FadeOut {
 
     protected abstract void onFadeOut();
 
+    /**
+     * Mark that the object is changed, and has to be drawn again
+     */
+    protected void invalidate() {
+        version++;
+    }
+
+    /**
+     * Get the version of the object, it is changed each time the object is
+     * changed in a way that affects the drawing, so cached drawings of the
+     * object can be reused while the version is the same.
+     *
+     * @return the version
+     */
+    public int getVersion() {
+        return version;
+    }
+
     public boolean isTracking() {
         return tracking;
     }
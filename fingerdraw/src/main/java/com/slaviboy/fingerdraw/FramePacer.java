@@ -0,0 +1,331 @@
+package com.slaviboy.fingerdraw;
+
+/**
+ * Copyright (c) 2019 Stanislav Georgiev. (MIT License)
+ * https://github.com/slaviboy
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * - The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * - The Software is provided "as is", without warranty of any kind, express or
+ * implied, including but not limited to the warranties of merchantability,
+ * fitness for a particular purpose and noninfringement. In no event shall the
+ * authors or copyright holders be liable for any claim, damages or other
+ * liability, whether in an action of contract, tort or otherwise, arising from,
+ * out of or in connection with the Software or the use or other dealings in the
+ * Software.
+ * <p>
+ * <p>
+ * FramePacer Class(Java) decides when the drawing thread should draw the next
+ * frame. At -FULL_RATE each frame is drawn as soon as the surface allows it, with
+ * -FIXED the frame rate is limited to -maxFps, and with -AUTOMATIC the rate is
+ * limited to -maxFps while the scene is active, and drops to -idleFps when there
+ * is no input and nothing changes, or to -lowBatteryFps when the battery is low.
+ * The fadeout effect is driven by its own timer and the scene clock, so it takes
+ * the same time at any frame rate. The pacer also measures the actual frame rate,
+ * and estimates the CPU time saved compared to drawing at the display refresh rate.
+ * It is scene listener, so each touch sample wakes the drawing thread immediately.
+ */
+
+public class FramePacer implements Scene.Listener {
+
+    public static final int FULL_RATE = 0;
+    public static final int FIXED = 1;
+    public static final int AUTOMATIC = 2;
+
+    private Clock clock;                  // clock used to schedule the frames
+    private int mode;                     // pacing mode
+    private int maxFps;                   // frame rate with fixed cap, or when active in automatic mode
+    private int idleFps;                  // frame rate when idle in automatic mode
+    private int lowBatteryFps;            // frame rate when the battery is low in automatic mode
+    private int refreshRate;              // frame rate of the display, used to estimate the saved time
+    private long idleTimeout;             // time without input and changes, after which the scene is idle
+    private boolean lowBattery;           // whether the battery is low
+
+    private double frameTime;             // scheduled time of the last frame, or -1 before the first frame
+    private long lastActivityTime;        // time of the last input or changed frame
+
+    private long statisticsStart;         // time when the statistics were reset
+    private long numFrames;               // number of frames drawn since the statistics were reset
+    private long numSkipped;              // number of frames skipped since the statistics were reset, because nothing changed
+    private long busyNanos;               // time spent drawing the frames since the statistics were reset
+    private long windowStart;             // start of the current one second window
+    private int windowFrames;             // number of frames in the current window
+    private float frameRate;              // frame rate measured in the last complete window
+
+    public FramePacer() {
+        this(Clock.SYSTEM);
+    }
+
+    public FramePacer(Clock clock) {
+        this.clock = clock;
+        mode = FULL_RATE;
+        maxFps = 60;
+        idleFps = 10;
+        lowBatteryFps = 30;
+        refreshRate = 60;
+        idleTimeout = 1000;
+        frameTime = -1;
+        resetStatistics();
+    }
+
+    /**
+     * Get time between frames for the current mode and state
+     *
+     * @param now - current time in (ms)
+     * @return time in (ms), or 0 if frames are not limited
+     */
+    private double getFrameInterval(long now) {
+        int fps;
+        if (mode == FIXED) {
+            fps = maxFps;
+        } else if (mode == AUTOMATIC) {
+            if (lowBattery) {
+                fps = Math.min(lowBatteryFps, maxFps);
+            } else if (now - lastActivityTime >= idleTimeout) {
+                fps = Math.min(idleFps, maxFps);
+            } else {
+                fps = maxFps;
+            }
+        } else {
+            return 0;
+        }
+        return fps >= refreshRate ? 0 : 1000.0 / Math.max(fps, 1);
+    }
+
+    /**
+     * Get time until the next frame should be drawn
+     *
+     * @return time in (ms), or 0 if the frame can be drawn now
+     */
+    public synchronized long getWaitTime() {
+        long now = clock.currentTimeMillis();
+        double interval = getFrameInterval(now);
+        if (interval == 0 || frameTime < 0) {
+            return 0;
+        }
+        return Math.max(0, (long) Math.ceil(frameTime + interval - now));
+    }
+
+    /**
+     * Block the calling thread until the next frame should be drawn, the
+     * wait ends early on new input
+     *
+     * @throws InterruptedException - if the thread is interrupted
+     */
+    public synchronized void awaitFrame() throws InterruptedException {
+        long waitTime;
+        while ((waitTime = getWaitTime()) > 0) {
+            wait(waitTime);
+        }
+    }
+
+    /**
+     * Called when the drawing of frame starts, frames drawn on time keep the
+     * schedule, so the rate does not drift when the thread wakes up late
+     */
+    public synchronized void onFrameStart() {
+        long now = clock.currentTimeMillis();
+        double interval = getFrameInterval(now);
+        double due = frameTime + interval;
+        if (frameTime >= 0 && interval > 0 && now >= due && now - due < interval) {
+            frameTime = due;
+        } else {
+            frameTime = now;
+        }
+    }
+
+    /**
+     * Called when the frame is drawn, to update the statistics
+     *
+     * @param busyNanos - time spent drawing the frame in (ns)
+     * @param changed   - whether anything in the frame changed, changed frames keep the scene active
+     */
+    public synchronized void onFrameEnd(long busyNanos, boolean changed) {
+        long now = clock.currentTimeMillis();
+        if (changed) {
+            lastActivityTime = now;
+        }
+        numFrames++;
+        this.busyNanos += busyNanos;
+
+        windowFrames++;
+        long windowTime = now - windowStart;
+        if (windowTime >= 1000) {
+            frameRate = windowFrames * 1000f / windowTime;
+            windowStart = now;
+            windowFrames = 0;
+        }
+    }
+
+    /**
+     * Called instead of drawing the frame when nothing in it changed, so the
+     * surface keeps showing the last frame. Blocks for one display refresh,
+     * as locking the canvas would, so the drawing thread does not spin, the
+     * wait ends early on new input.
+     *
+     * @throws InterruptedException - if the thread is interrupted
+     */
+    public synchronized void skipFrame() throws InterruptedException {
+        numSkipped++;
+        wait(Math.max(1000 / refreshRate, 1));
+    }
+
+    /**
+     * Get the frame rate measured over the last second
+     *
+     * @return frames per second
+     */
+    public synchronized float getFrameRate() {
+        return frameRate;
+    }
+
+    /**
+     * Get estimated CPU time saved since the statistics were reset, by drawing
+     * fewer frames than the display refresh rate. The estimate is the number of
+     * frames that were not drawn, multiplied by the average time of drawn frame.
+     *
+     * @return time in (ms)
+     */
+    public synchronized long getCpuTimeSaved() {
+        if (numFrames == 0) {
+            return 0;
+        }
+        long elapsed = clock.currentTimeMillis() - statisticsStart;
+        double skipped = elapsed * refreshRate / 1000.0 - numFrames;
+        return Math.max(0, (long) (skipped * busyNanos / numFrames / 1000000.0));
+    }
+
+    /**
+     * Get number of frames drawn since the statistics were reset
+     *
+     * @return the number of frames
+     */
+    public synchronized long getNumFrames() {
+        return numFrames;
+    }
+
+    /**
+     * Get number of frames skipped since the statistics were reset, because
+     * nothing in them changed
+     *
+     * @return the number of frames
+     */
+    public synchronized long getNumSkipped() {
+        return numSkipped;
+    }
+
+    public synchronized void resetStatistics() {
+        long now = clock.currentTimeMillis();
+        statisticsStart = now;
+        windowStart = now;
+        windowFrames = 0;
+        numFrames = 0;
+        numSkipped = 0;
+        busyNanos = 0;
+        frameRate = 0;
+    }
+
+    /**
+     * Mark the scene as active and wake the drawing thread
+     */
+    private synchronized void onActivity() {
+        lastActivityTime = clock.currentTimeMillis();
+        notifyAll();
+    }
+
+    @Override
+    public void onDown(int arrayIndex, float x, float y, float pressure, float touchMajor, long time) {
+        onActivity();
+    }
+
+    @Override
+    public void onMove(int arrayIndex, float x, float y, float pressure, float touchMajor, long time) {
+        onActivity();
+    }
+
+    @Override
+    public void onUp(int arrayIndex, float x, float y, float pressure, float touchMajor, long time) {
+        onActivity();
+    }
+
+    @Override
+    public void onFadeOut(long time) {
+    }
+
+    @Override
+    public void onFrame(long time) {
+    }
+
+    public synchronized int getMode() {
+        return mode;
+    }
+
+    public synchronized void setMode(int mode) {
+        this.mode = mode;
+        notifyAll();
+    }
+
+    public synchronized int getMaxFps() {
+        return maxFps;
+    }
+
+    public synchronized void setMaxFps(int maxFps) {
+        this.maxFps = Math.max(maxFps, 1);
+        notifyAll();
+    }
+
+    public synchronized int getIdleFps() {
+        return idleFps;
+    }
+
+    public synchronized void setIdleFps(int idleFps) {
+        this.idleFps = Math.max(idleFps, 1);
+    }
+
+    public synchronized int getLowBatteryFps() {
+        return lowBatteryFps;
+    }
+
+    public synchronized void setLowBatteryFps(int lowBatteryFps) {
+        this.lowBatteryFps = Math.max(lowBatteryFps, 1);
+    }
+
+    public synchronized int getRefreshRate() {
+        return refreshRate;
+    }
+
+    public synchronized void setRefreshRate(int refreshRate) {
+        this.refreshRate = Math.max(refreshRate, 1);
+    }
+
+    public synchronized long getIdleTimeout() {
+        return idleTimeout;
+    }
+
+    public synchronized void setIdleTimeout(long idleTimeout) {
+        this.idleTimeout = idleTimeout;
+    }
+
+    public synchronized boolean isLowBattery() {
+        return lowBattery;
+    }
+
+    public synchronized void setLowBattery(boolean lowBattery) {
+        this.lowBattery = lowBattery;
+        notifyAll();
+    }
+
+    public synchronized Clock getClock() {
+        return clock;
+    }
+
+    public synchronized void setClock(Clock clock) {
+        this.clock = clock;
+    }
+}
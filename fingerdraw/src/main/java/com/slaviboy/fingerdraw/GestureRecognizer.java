@@ -0,0 +1,331 @@
+package com.slaviboy.fingerdraw;
+
+import java.util.Arrays;
+
+/**
+ * Copyright (c) 2019 Stanislav Georgiev. (MIT License)
+ * https://github.com/slaviboy
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * - The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * - The Software is provided "as is", without warranty of any kind, express or
+ * implied, including but not limited to the warranties of merchantability,
+ * fitness for a particular purpose and noninfringement. In no event shall the
+ * authors or copyright holders be liable for any claim, damages or other
+ * liability, whether in an action of contract, tort or otherwise, arising from,
+ * out of or in connection with the Software or the use or other dealings in the
+ * Software.
+ * <p>
+ * <p>
+ * GestureRecognizer Class(Java) is a scene listener, that recognizes -taps,
+ * -swipes and -circles from the finger samples as they arrive. For each finger
+ * only a few features are kept and updated in constant time per sample, that
+ * includes the bounding box, the path length, a histogram with the length moved
+ * in each of 8 directions, and the total turning angle (curvature). Circles are
+ * reported as soon as the turning reaches full circle, taps and swipes when the
+ * finger is up.
+ */
+
+public class GestureRecognizer implements Scene.Listener {
+
+    public static final int TAP = 0;
+    public static final int SWIPE_LEFT = 1;
+    public static final int SWIPE_RIGHT = 2;
+    public static final int SWIPE_UP = 3;
+    public static final int SWIPE_DOWN = 4;
+    public static final int CIRCLE_CLOCKWISE = 5;
+    public static final int CIRCLE_COUNTERCLOCKWISE = 6;
+
+    public static final int NUM_DIRECTIONS = 8;
+
+    /**
+     * Listener that is called when gesture is recognized
+     */
+    public interface OnGestureListener {
+        void onGesture(int arrayIndex, int gesture);
+    }
+
+    private OnGestureListener listener;   // listener for the recognized gestures
+
+    private float tapSlop;                // maximum size of the bounding box for taps
+    private int tapTimeout;               // maximum duration of taps in (ms)
+    private float minSwipeLength;         // minimum distance for swipes
+    private float minStraightness;        // minimum ratio between the direct distance and the path length, for swipes
+    private float minSegmentLength;       // samples closer than this to the previous one are ignored, filters jitter
+
+    // features for each finger
+    private float[] startX;               // x coordinate of the first sample
+    private float[] startY;               // y coordinate of the first sample
+    private float[] lastX;                // x coordinate of the last used sample
+    private float[] lastY;                // y coordinate of the last used sample
+    private float[] minX;                 // bounding box
+    private float[] minY;                 // bounding box
+    private float[] maxX;                 // bounding box
+    private float[] maxY;                 // bounding box
+    private float[] length;               // path length
+    private float[] turning;              // sum of the signed direction changes in radians
+    private float[] lastAngle;            // direction of the last segment in radians
+    private float[] histogram;            // length moved in each direction, NUM_DIRECTIONS values per finger
+    private long[] startTime;             // time the finger was down
+    private boolean[] hasAngle;           // if there is at least one segment
+    private boolean[] recognized;         // if gesture is already reported for the current stroke
+
+    public GestureRecognizer(OnGestureListener listener) {
+        this.listener = listener;
+
+        tapSlop = 24f;
+        tapTimeout = 250;
+        minSwipeLength = 150f;
+        minStraightness = 0.8f;
+        minSegmentLength = 3f;
+        ensureFingers(10);
+    }
+
+    @Override
+    public void onDown(int arrayIndex, float x, float y, float pressure, float touchMajor, long time) {
+        ensureFingers(arrayIndex + 1);
+        int i = arrayIndex;
+        startX[i] = lastX[i] = minX[i] = maxX[i] = x;
+        startY[i] = lastY[i] = minY[i] = maxY[i] = y;
+        length[i] = 0f;
+        turning[i] = 0f;
+        hasAngle[i] = false;
+        recognized[i] = false;
+        startTime[i] = time;
+        Arrays.fill(histogram, i * NUM_DIRECTIONS, (i + 1) * NUM_DIRECTIONS, 0f);
+    }
+
+    @Override
+    public void onMove(int arrayIndex, float x, float y, float pressure, float touchMajor, long time) {
+        if (arrayIndex >= startX.length) {
+            return;
+        }
+        int i = arrayIndex;
+        addSample(i, x, y);
+
+        // report circle as soon as the finger turned full circle around the start
+        if (!recognized[i] && isCircle(i)) {
+            recognized[i] = true;
+            listener.onGesture(i, turning[i] > 0 ? CIRCLE_CLOCKWISE : CIRCLE_COUNTERCLOCKWISE);
+        }
+    }
+
+    @Override
+    public void onUp(int arrayIndex, float x, float y, float pressure, float touchMajor, long time) {
+        if (arrayIndex >= startX.length) {
+            return;
+        }
+        int i = arrayIndex;
+        addSample(i, x, y);
+        if (recognized[i]) {
+            return;
+        }
+
+        int gesture = -1;
+        long duration = time - startTime[i];
+        if (maxX[i] - minX[i] <= tapSlop && maxY[i] - minY[i] <= tapSlop && duration <= tapTimeout) {
+            gesture = TAP;
+        } else if (isCircle(i)) {
+            gesture = turning[i] > 0 ? CIRCLE_CLOCKWISE : CIRCLE_COUNTERCLOCKWISE;
+        } else {
+            gesture = getSwipe(i);
+        }
+
+        if (gesture >= 0) {
+            recognized[i] = true;
+            listener.onGesture(i, gesture);
+        }
+    }
+
+    @Override
+    public void onFadeOut(long time) {
+    }
+
+    @Override
+    public void onFrame(long time) {
+    }
+
+    /**
+     * Update the features of finger with new sample
+     */
+    private void addSample(int i, float x, float y) {
+        float dx = x - lastX[i];
+        float dy = y - lastY[i];
+        float segment = (float) Math.sqrt(dx * dx + dy * dy);
+        if (segment < minSegmentLength) {
+            return;
+        }
+
+        float angle = (float) Math.atan2(dy, dx);
+        if (hasAngle[i]) {
+            float change = angle - lastAngle[i];
+            if (change > Math.PI) {
+                change -= 2 * Math.PI;
+            } else if (change < -Math.PI) {
+                change += 2 * Math.PI;
+            }
+            turning[i] += change;
+        }
+        lastAngle[i] = angle;
+        hasAngle[i] = true;
+
+        histogram[i * NUM_DIRECTIONS + getDirection(angle)] += segment;
+        length[i] += segment;
+        lastX[i] = x;
+        lastY[i] = y;
+        if (x < minX[i]) minX[i] = x;
+        if (x > maxX[i]) maxX[i] = x;
+        if (y < minY[i]) minY[i] = y;
+        if (y > maxY[i]) maxY[i] = y;
+    }
+
+    /**
+     * Get direction index in range [0,NUM_DIRECTIONS) for given angle,
+     * direction 0 is to the right, directions go clockwise on screen
+     */
+    private static int getDirection(float angle) {
+        double sector = 2 * Math.PI / NUM_DIRECTIONS;
+        int direction = (int) Math.round(angle / sector);
+        return (direction + NUM_DIRECTIONS) % NUM_DIRECTIONS;
+    }
+
+    /**
+     * Finger turned at least (almost) full circle and is back close to the start
+     */
+    private boolean isCircle(int i) {
+        float width = maxX[i] - minX[i];
+        float height = maxY[i] - minY[i];
+        if (Math.abs(turning[i]) < 1.8 * Math.PI || Math.min(width, height) < 2 * tapSlop) {
+            return false;
+        }
+        float dx = lastX[i] - startX[i];
+        float dy = lastY[i] - startY[i];
+        return dx * dx + dy * dy <= 0.25f * Math.max(width, height) * Math.max(width, height);
+    }
+
+    /**
+     * Get swipe gesture, if the finger moved far enough along straight line,
+     * mostly in one direction, or -1 if it is not a swipe
+     */
+    private int getSwipe(int i) {
+        float dx = lastX[i] - startX[i];
+        float dy = lastY[i] - startY[i];
+        float distance = (float) Math.sqrt(dx * dx + dy * dy);
+        if (distance < minSwipeLength || distance < minStraightness * length[i]) {
+            return -1;
+        }
+
+        // most of the length is moved in the direction of the swipe, or the neighbour directions
+        int direction = getDirection((float) Math.atan2(dy, dx));
+        int offset = i * NUM_DIRECTIONS;
+        float inDirection = histogram[offset + direction]
+                + histogram[offset + (direction + 1) % NUM_DIRECTIONS]
+                + histogram[offset + (direction + NUM_DIRECTIONS - 1) % NUM_DIRECTIONS];
+        if (inDirection < minStraightness * length[i]) {
+            return -1;
+        }
+
+        if (Math.abs(dx) >= Math.abs(dy)) {
+            return dx > 0 ? SWIPE_RIGHT : SWIPE_LEFT;
+        } else {
+            return dy > 0 ? SWIPE_DOWN : SWIPE_UP;
+        }
+    }
+
+    /**
+     * Make sure there are features for at least -numFingers fingers
+     */
+    private void ensureFingers(int numFingers) {
+        if (startX != null && startX.length >= numFingers) {
+            return;
+        }
+        startX = copyOf(startX, numFingers);
+        startY = copyOf(startY, numFingers);
+        lastX = copyOf(lastX, numFingers);
+        lastY = copyOf(lastY, numFingers);
+        minX = copyOf(minX, numFingers);
+        minY = copyOf(minY, numFingers);
+        maxX = copyOf(maxX, numFingers);
+        maxY = copyOf(maxY, numFingers);
+        length = copyOf(length, numFingers);
+        turning = copyOf(turning, numFingers);
+        lastAngle = copyOf(lastAngle, numFingers);
+        histogram = copyOf(histogram, numFingers * NUM_DIRECTIONS);
+        startTime = startTime == null ? new long[numFingers] : Arrays.copyOf(startTime, numFingers);
+        hasAngle = hasAngle == null ? new boolean[numFingers] : Arrays.copyOf(hasAngle, numFingers);
+        recognized = recognized == null ? new boolean[numFingers] : Arrays.copyOf(recognized, numFingers);
+    }
+
+    private static float[] copyOf(float[] array, int length) {
+        return array == null ? new float[length] : Arrays.copyOf(array, length);
+    }
+
+    /**
+     * Get length the finger moved in given direction, for the current stroke
+     *
+     * @param arrayIndex - array index of the finger
+     * @param direction  - direction in range [0,NUM_DIRECTIONS), 0 is to the right
+     * @return the length
+     */
+    public float getHistogram(int arrayIndex, int direction) {
+        return histogram[arrayIndex * NUM_DIRECTIONS + direction];
+    }
+
+    public float getLength(int arrayIndex) {
+        return length[arrayIndex];
+    }
+
+    public float getTurning(int arrayIndex) {
+        return turning[arrayIndex];
+    }
+
+    public void setOnGestureListener(OnGestureListener listener) {
+        this.listener = listener;
+    }
+
+    public float getTapSlop() {
+        return tapSlop;
+    }
+
+    public void setTapSlop(float tapSlop) {
+        this.tapSlop = tapSlop;
+    }
+
+    public int getTapTimeout() {
+        return tapTimeout;
+    }
+
+    public void setTapTimeout(int tapTimeout) {
+        this.tapTimeout = tapTimeout;
+    }
+
+    public float getMinSwipeLength() {
+        return minSwipeLength;
+    }
+
+    public void setMinSwipeLength(float minSwipeLength) {
+        this.minSwipeLength = minSwipeLength;
+    }
+
+    public float getMinStraightness() {
+        return minStraightness;
+    }
+
+    public void setMinStraightness(float minStraightness) {
+        this.minStraightness = minStraightness;
+    }
+
+    public float getMinSegmentLength() {
+        return minSegmentLength;
+    }
+
+    public void setMinSegmentLength(float minSegmentLength) {
+        this.minSegmentLength = minSegmentLength;
+    }
+}
@@ -0,0 +1,238 @@
+package com.slaviboy.fingerdraw;
+
+import android.graphics.Bitmap;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+
+/**
+ * Copyright (c) 2019 Stanislav Georgiev. (MIT License)
+ * https://github.com/slaviboy
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * - The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * - The Software is provided "as is", without warranty of any kind, express or
+ * implied, including but not limited to the warranties of merchantability,
+ * fitness for a particular purpose and noninfringement. In no event shall the
+ * authors or copyright holders be liable for any claim, damages or other
+ * liability, whether in an action of contract, tort or otherwise, arising from,
+ * out of or in connection with the Software or the use or other dealings in the
+ * Software.
+ * <p>
+ * <p>
+ * HeatmapOverlay Class(Java) draws {@link TouchHeatmap} on top of the canvas.
+ * Each cell is one pixel of small bitmap, colored using palette from transparent
+ * blue to opaque red, and the bitmap is scaled to the canvas with bitmap filtering.
+ * The bitmap is updated only when new samples were added, or when the decay
+ * interval passes, so drawing it on idle frames is single blit. The snapshot
+ * and the colors are made on the executor of the heatmap, and the drawing
+ * thread only copies the finished colors to the bitmap. When the size of the
+ * heatmap changes, the bitmap is made again with the new size.
+ */
+
+public class HeatmapOverlay {
+
+    public static final int DECAY_INTERVAL = 250; // interval in (ms) after which the bitmap is updated with the decayed values
+
+    private TouchHeatmap heatmap;         // heatmap that is drawn
+    private Bitmap bitmap;                // bitmap with one pixel per cell
+    private float[] values;               // snapshot of the cells, used on the executor
+    private int[] colors;                 // colors of the cells made on the executor
+    private int[] ready;                  // finished colors waiting to be copied to the bitmap
+    private int[] pixels;                 // colors of the cells in the bitmap
+    private int readyColumns;             // number of columns of the finished colors
+    private int readyRows;                // number of rows of the finished colors
+    private int columns;                  // number of columns of the colors in the bitmap
+    private int rows;                     // number of rows of the colors in the bitmap
+    private boolean hasReady;             // whether there are finished colors to copy
+    private boolean updateScheduled;      // whether the colors are being made on the executor
+    private final Object lock;            // lock for the colors handed from the executor
+    private Runnable updateTask;          // task that makes the colors on the executor
+    private int[] palette;                // colors for the values from 0 to 1
+    private int version;                  // version of the heatmap in the last update
+    private long updateTime;              // time of the last update
+    private Paint paint;                  // paint that scales the bitmap with filtering
+    private Rect source;                  // the whole bitmap
+    private RectF destination;            // area covered by the cells
+
+    /**
+     * @param heatmap - heatmap that is drawn
+     */
+    public HeatmapOverlay(TouchHeatmap heatmap) {
+        this.heatmap = heatmap;
+        values = new float[0];
+        colors = new int[0];
+        ready = new int[0];
+        pixels = new int[0];
+        palette = createPalette(256);
+        version = -1;
+        lock = new Object();
+        updateTask = new Runnable() {
+            @Override
+            public void run() {
+                makeColors();
+            }
+        };
+    }
+
+    /**
+     * Create palette that goes from transparent blue, through green and yellow, to
+     * opaque red, the alpha grows with the value so cold areas do not hide the drawing
+     *
+     * @param size - number of colors
+     * @return the colors
+     */
+    static int[] createPalette(int size) {
+        int[] colors = new int[size];
+        for (int i = 0; i < size; i++) {
+            float t = (float) i / (size - 1);
+            float hue = 240 * (1 - t);
+            int alpha = (int) (200 * Math.sqrt(t));
+            colors[i] = (alpha << 24) | hueToRgb(hue);
+        }
+        return colors;
+    }
+
+    /**
+     * Get the fully saturated color for given hue
+     *
+     * @param hue - hue in degrees from 0 to 360
+     * @return the rgb color, without alpha
+     */
+    private static int hueToRgb(float hue) {
+        float x = 1 - Math.abs((hue / 60) % 2 - 1);
+        float r, g, b;
+        if (hue < 60) {
+            r = 1; g = x; b = 0;
+        } else if (hue < 120) {
+            r = x; g = 1; b = 0;
+        } else if (hue < 180) {
+            r = 0; g = 1; b = x;
+        } else {
+            r = 0; g = x; b = 1;
+        }
+        return ((int) (r * 255) << 16) | ((int) (g * 255) << 8) | (int) (b * 255);
+    }
+
+    /**
+     * Schedule new colors on the executor of the heatmap, if the heatmap was
+     * changed or the decay interval passed, and take the finished colors of
+     * the previous update. It never splats samples on the calling thread.
+     *
+     * @param time - current time in (ms)
+     * @return whether new colors were taken
+     */
+    boolean update(long time) {
+        int current = heatmap.getVersion();
+        boolean schedule = false;
+        boolean updated = false;
+        synchronized (lock) {
+            if (!updateScheduled && (current != version || time - updateTime >= DECAY_INTERVAL)) {
+                version = current;
+                updateTime = time;
+                updateScheduled = true;
+                schedule = true;
+            }
+            if (hasReady) {
+                int[] finished = ready;
+                ready = pixels;
+                pixels = finished;
+                columns = readyColumns;
+                rows = readyRows;
+                hasReady = false;
+                updated = true;
+            }
+        }
+        if (schedule) {
+            heatmap.execute(updateTask);
+        }
+        return updated;
+    }
+
+    /**
+     * Make the colors of the cells from a snapshot of the heatmap, relative to
+     * the hottest cell, called on the executor
+     */
+    private void makeColors() {
+        int columns, rows;
+        float max;
+        synchronized (heatmap) {
+            columns = heatmap.getColumns();
+            rows = heatmap.getRows();
+            if (values.length != columns * rows) {
+                values = new float[columns * rows];
+            }
+            max = heatmap.snapshot(values);
+        }
+
+        if (colors.length != values.length) {
+            colors = new int[values.length];
+        }
+        float factor = max > 0 ? (palette.length - 1) / max : 0;
+        for (int i = 0; i < values.length; i++) {
+            colors[i] = palette[(int) (values[i] * factor)];
+        }
+
+        synchronized (lock) {
+            int[] finished = colors;
+            colors = ready;
+            ready = finished;
+            readyColumns = columns;
+            readyRows = rows;
+            hasReady = true;
+            updateScheduled = false;
+        }
+    }
+
+    /**
+     * Draw the heatmap, the bitmap is created when the first colors are
+     * finished, and each time the size of the heatmap changes
+     *
+     * @param canvas - canvas on which the heatmap is drawn
+     * @param time   - current time in (ms)
+     */
+    public void draw(android.graphics.Canvas canvas, long time) {
+        if (paint == null) {
+            paint = new Paint(Paint.FILTER_BITMAP_FLAG);
+            source = new Rect();
+            destination = new RectF();
+        }
+        if (update(time)) {
+            if (bitmap == null || source.width() != columns || source.height() != rows) {
+                release();
+                bitmap = Bitmap.createBitmap(columns, rows, Bitmap.Config.ARGB_8888);
+                float cellSize = heatmap.getCellSize();
+                source.set(0, 0, columns, rows);
+                destination.set(0, 0, columns * cellSize, rows * cellSize);
+            }
+            bitmap.setPixels(pixels, 0, columns, 0, 0, columns, rows);
+        }
+        if (bitmap != null) {
+            canvas.drawBitmap(bitmap, source, destination, paint);
+        }
+    }
+
+    /**
+     * Release the bitmap
+     */
+    public void release() {
+        if (bitmap != null) {
+            bitmap.recycle();
+            bitmap = null;
+        }
+    }
+
+    public TouchHeatmap getHeatmap() {
+        return heatmap;
+    }
+
+    int[] getPixels() {
+        return pixels;
+    }
+}
@@ -0,0 +1,174 @@
+package com.slaviboy.fingerdraw;
+
+import android.graphics.Bitmap;
+import android.graphics.Paint;
+import android.graphics.RectF;
+
+/**
+ * Copyright (c) 2019 Stanislav Georgiev. (MIT License)
+ * https://github.com/slaviboy
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * - The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * - The Software is provided "as is", without warranty of any kind, express or
+ * implied, including but not limited to the warranties of merchantability,
+ * fitness for a particular purpose and noninfringement. In no event shall the
+ * authors or copyright holders be liable for any claim, damages or other
+ * liability, whether in an action of contract, tort or otherwise, arising from,
+ * out of or in connection with the Software or the use or other dealings in the
+ * Software.
+ * <p>
+ * <p>
+ * IndicatorShape Interface(Java) is the shape that is drawn under the finger
+ * by {@link Circle}. Shapes are drawn once into sprite bitmaps by the
+ * {@link SpriteCache}, and each frame only blits the sprite with the opacity
+ * of the circle. The shape is the key of the sprite, so implementations must
+ * be immutable and must implement equals() and hashCode(), shapes that are
+ * equal share the same sprite.
+ */
+
+public interface IndicatorShape {
+
+    /**
+     * Get the width and height of the square sprite, including the
+     * antialiased edges
+     *
+     * @return the size in pixels
+     */
+    int getSize();
+
+    /**
+     * Draw the shape at full opacity, centered at -cx and -cy
+     *
+     * @param canvas - canvas on which the shape is drawn
+     * @param paint  - paint that can be changed by the shape
+     * @param cx     - center x coordinate
+     * @param cy     - center y coordinate
+     */
+    void draw(android.graphics.Canvas canvas, Paint paint, float cx, float cy);
+
+    /**
+     * Filled circle with stroke, the default look of the circle, use
+     * transparent fill color for ring without fill
+     */
+    final class Ring implements IndicatorShape {
+
+        private final int radius;         // circle radius
+        private final int strokeWidth;    // stroke width
+        private final int fillColor;      // fill color
+        private final int strokeColor;    // stroke color
+        private final int hash;           // cached hash code, the shape is looked up on each frame
+
+        public Ring(int radius, int strokeWidth, int fillColor, int strokeColor) {
+            this.radius = radius;
+            this.strokeWidth = strokeWidth;
+            this.fillColor = fillColor;
+            this.strokeColor = strokeColor;
+            hash = ((radius * 31 + strokeWidth) * 31 + fillColor) * 31 + strokeColor;
+        }
+
+        @Override
+        public int getSize() {
+            // half of the stroke is outside the radius, and one more pixel for the antialiasing
+            return 2 * (radius + (strokeWidth + 1) / 2 + 1);
+        }
+
+        @Override
+        public void draw(android.graphics.Canvas canvas, Paint paint, float cx, float cy) {
+
+            // fill, with the alpha of the color
+            paint.setStyle(Paint.Style.FILL);
+            paint.setColor(fillColor);
+            canvas.drawCircle(cx, cy, radius, paint);
+
+            // stroke
+            paint.setStyle(Paint.Style.STROKE);
+            paint.setColor(strokeColor);
+            paint.setStrokeWidth(strokeWidth);
+            canvas.drawCircle(cx, cy, radius, paint);
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            if (!(object instanceof Ring)) {
+                return false;
+            }
+            Ring ring = (Ring) object;
+            return radius == ring.radius && strokeWidth == ring.strokeWidth
+                    && fillColor == ring.fillColor && strokeColor == ring.strokeColor;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        public int getRadius() {
+            return radius;
+        }
+
+        public int getStrokeWidth() {
+            return strokeWidth;
+        }
+
+        public int getFillColor() {
+            return fillColor;
+        }
+
+        public int getStrokeColor() {
+            return strokeColor;
+        }
+    }
+
+    /**
+     * Image scaled to square with given size, images are equal only if they
+     * use the same bitmap, which should not be changed after it is cached
+     */
+    final class Image implements IndicatorShape {
+
+        private final Bitmap bitmap;      // the image
+        private final int size;           // size of the sprite
+
+        public Image(Bitmap bitmap, int size) {
+            this.bitmap = bitmap;
+            this.size = size;
+        }
+
+        @Override
+        public int getSize() {
+            return size;
+        }
+
+        @Override
+        public void draw(android.graphics.Canvas canvas, Paint paint, float cx, float cy) {
+            float half = size / 2f;
+            paint.setAlpha(255);
+            paint.setFilterBitmap(true);
+            canvas.drawBitmap(bitmap, null, new RectF(cx - half, cy - half, cx + half, cy + half), paint);
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            if (!(object instanceof Image)) {
+                return false;
+            }
+            Image image = (Image) object;
+            return bitmap == image.bitmap && size == image.size;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(bitmap) * 31 + size;
+        }
+
+        public Bitmap getBitmap() {
+            return bitmap;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.slaviboy.fingerdraw;
+
+/**
+ * Copyright (c) 2019 Stanislav Georgiev. (MIT License)
+ * https://github.com/slaviboy
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * - The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * - The Software is provided "as is", without warranty of any kind, express or
+ * implied, including but not limited to the warranties of merchantability,
+ * fitness for a particular purpose and noninfringement. In no event shall the
+ * authors or copyright holders be liable for any claim, damages or other
+ * liability, whether in an action of contract, tort or otherwise, arising from,
+ * out of or in connection with the Software or the use or other dealings in the
+ * Software.
+ * <p>
+ * <p>
+ * InputFilter Class(Java) is stage of the pipeline, that filters each touch sample
+ * before it is added to the scene. The sample is kept in small float array with
+ * the -x, -y, -pressure and -touch major values, that is changed in place, so
+ * filtering does not allocate any objects. Filters that keep state, keep it
+ * separately for each finger, so the same filter can be used for all fingers.
+ * Filters are combined using {@link #chain(InputFilter...)}.
+ */
+
+public abstract class InputFilter {
+
+    // actions of the samples
+    public static final int DOWN = 0;
+    public static final int MOVE = 1;
+    public static final int UP = 2;
+
+    // indices of the values in the sample array
+    public static final int X = 0;
+    public static final int Y = 1;
+    public static final int PRESSURE = 2;
+    public static final int TOUCH_MAJOR = 3;
+    public static final int SAMPLE_SIZE = 4;
+
+    // keeps the samples as they are
+    public static final InputFilter NONE = new InputFilter() {
+        @Override
+        public boolean filter(int finger, int action, long time, float[] sample) {
+            return true;
+        }
+    };
+
+    /**
+     * Filter the sample in place, filters that keep state should reset it
+     * for the finger on -DOWN
+     *
+     * @param finger - array index of the finger
+     * @param action - action of the sample -DOWN, -MOVE or -UP
+     * @param time   - time of the sample in (ms)
+     * @param sample - values of the sample, changed in place
+     * @return false to drop the sample, only -MOVE samples can be dropped
+     */
+    public abstract boolean filter(int finger, int action, long time, float[] sample);
+
+    /**
+     * Create filter that runs the -stages in order, and stops when stage
+     * drops the sample
+     *
+     * @param stages - the filter stages
+     * @return the filter
+     */
+    public static InputFilter chain(final InputFilter... stages) {
+        return new InputFilter() {
+            @Override
+            public boolean filter(int finger, int action, long time, float[] sample) {
+                for (int i = 0; i < stages.length; i++) {
+                    if (!stages[i].filter(finger, action, time, sample) && action == MOVE) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Create filter that moves the samples that are out of the bounds to the
+     * nearest point inside the bounds
+     *
+     * @param left   - left side of the bounds
+     * @param top    - top side of the bounds
+     * @param right  - right side of the bounds
+     * @param bottom - bottom side of the bounds
+     * @return the filter
+     */
+    public static InputFilter clamp(final float left, final float top, final float right, final float bottom) {
+        return new InputFilter() {
+            @Override
+            public boolean filter(int finger, int action, long time, float[] sample) {
+                sample[X] = Math.max(left, Math.min(sample[X], right));
+                sample[Y] = Math.max(top, Math.min(sample[Y], bottom));
+                return true;
+            }
+        };
+    }
+}
@@ -0,0 +1,201 @@
+package com.slaviboy.fingerdraw;
+
+import android.graphics.Bitmap;
+import android.graphics.Paint;
+import android.graphics.PorterDuff;
+
+/**
+ * Copyright (c) 2019 Stanislav Georgiev. (MIT License)
+ * https://github.com/slaviboy
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * - The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * - The Software is provided "as is", without warranty of any kind, express or
+ * implied, including but not limited to the warranties of merchantability,
+ * fitness for a particular purpose and noninfringement. In no event shall the
+ * authors or copyright holders be liable for any claim, damages or other
+ * liability, whether in an action of contract, tort or otherwise, arising from,
+ * out of or in connection with the Software or the use or other dealings in the
+ * Software.
+ * <p>
+ * <p>
+ * LayerCompositor Class(Java) draws the scene using two cached layers, one
+ * bitmap for the paths and one for the circles. Each layer is drawn again
+ * only when the version of its shapes is changed, otherwise the cached bitmap
+ * is reused, so circle that fades out does not cause the paths to be stroked
+ * again, and nothing is stroked while the scene is idle. The layers are then
+ * composited on the target canvas, and the particles that change on each frame
+ * are drawn directly on top. When neither layer changed and there are no
+ * particles, the composited frame would be the same as the last one, so
+ * {@link #prepare(Scene, int, int)} reports it and the frame can be skipped
+ * without blitting the layers.
+ */
+
+public class LayerCompositor {
+
+    /**
+     * Cached layer, with bitmap that has the same size as the target canvas
+     */
+    private static class Layer {
+
+        Bitmap bitmap;                    // the cached content
+        android.graphics.Canvas canvas;   // canvas that draws into the bitmap
+        long version;                     // version of the shapes drawn in the bitmap
+        volatile boolean valid;           // if the bitmap holds the shapes with -version, cleared from any thread
+        int numRedraws;                   // number of times the layer was drawn again
+
+        /**
+         * Check if the layer would be drawn again by {@link #begin(int, int, long)}
+         *
+         * @return true if the layer is changed
+         */
+        boolean isChanged(int width, int height, long version) {
+            return bitmap == null || bitmap.getWidth() != width || bitmap.getHeight() != height
+                    || !valid || this.version != version;
+        }
+
+        /**
+         * Prepare the layer for drawing, if the content is changed
+         *
+         * @return true if the layer should be drawn again
+         */
+        boolean begin(int width, int height, long version) {
+            if (bitmap == null || bitmap.getWidth() != width || bitmap.getHeight() != height) {
+                release();
+                bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+                canvas = new android.graphics.Canvas(bitmap);
+            } else if (valid && this.version == version) {
+                return false;
+            }
+            canvas.drawColor(0, PorterDuff.Mode.CLEAR);
+            this.version = version;
+            valid = true;
+            numRedraws++;
+            return true;
+        }
+
+        void release() {
+            if (bitmap != null) {
+                bitmap.recycle();
+                bitmap = null;
+                canvas = null;
+            }
+            valid = false;
+        }
+    }
+
+    private Layer paths;                  // layer with the paths
+    private Layer circles;                // layer with the circles
+    private long pathsVersion;            // version of the paths when the scene was prepared
+    private long circlesVersion;          // version of the circles when the scene was prepared
+    private boolean particlesDrawn;       // whether particles were drawn on the last composited frame
+
+    public LayerCompositor() {
+        paths = new Layer();
+        circles = new Layer();
+    }
+
+    /**
+     * Prepare the scene for the current frame, draw the layers that are
+     * changed and composite them on the canvas
+     *
+     * @param scene  - the scene
+     * @param canvas - target canvas, that is already cleared
+     * @param paint  - paint used for drawing
+     */
+    public void draw(Scene scene, android.graphics.Canvas canvas, Paint paint) {
+        prepare(scene, canvas.getWidth(), canvas.getHeight());
+        composite(scene, canvas, paint);
+    }
+
+    /**
+     * Prepare the scene for the current frame, and check if the composited
+     * frame would differ from the last one. If it would not, the frame can be
+     * skipped and the target keeps showing the last frame.
+     *
+     * @param scene  - the scene
+     * @param width  - width of the target canvas
+     * @param height - height of the target canvas
+     * @return true if the frame should be composited
+     */
+    public boolean prepare(Scene scene, int width, int height) {
+        synchronized (scene) {
+            scene.prepare();
+            pathsVersion = scene.getPathsVersion();
+            circlesVersion = scene.getCirclesVersion();
+
+            // particles move on each frame, and the last ones have to be erased
+            return paths.isChanged(width, height, pathsVersion)
+                    || circles.isChanged(width, height, circlesVersion)
+                    || hasParticles(scene) || particlesDrawn;
+        }
+    }
+
+    /**
+     * Draw the layers that are changed and composite them on the canvas, the
+     * scene is prepared again only if it changed after {@link #prepare(Scene, int, int)}
+     *
+     * @param scene  - the scene
+     * @param canvas - target canvas, that is already cleared
+     * @param paint  - paint used for drawing
+     */
+    public void composite(Scene scene, android.graphics.Canvas canvas, Paint paint) {
+        int width = canvas.getWidth();
+        int height = canvas.getHeight();
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+
+        synchronized (scene) {
+            if (scene.getPathsVersion() != pathsVersion || scene.getCirclesVersion() != circlesVersion) {
+                prepare(scene, width, height);
+            }
+            if (paths.begin(width, height, pathsVersion)) {
+                scene.submitPaths(paths.canvas, paint);
+            }
+            if (circles.begin(width, height, circlesVersion)) {
+                scene.submitCircles(circles.canvas, paint);
+            }
+
+            canvas.drawBitmap(paths.bitmap, 0, 0, null);
+            canvas.drawBitmap(circles.bitmap, 0, 0, null);
+            scene.submitParticles(canvas, paint);
+            particlesDrawn = hasParticles(scene);
+        }
+    }
+
+    private static boolean hasParticles(Scene scene) {
+        ParticleSystem particles = scene.getParticleSystem();
+        return particles != null && particles.getCount() > 0;
+    }
+
+    /**
+     * Force both layers to be drawn again on next frame
+     */
+    public void invalidate() {
+        paths.valid = false;
+        circles.valid = false;
+    }
+
+    /**
+     * Release the bitmaps, they are created again on next draw
+     */
+    public void release() {
+        paths.release();
+        circles.release();
+    }
+
+    public int getNumPathsRedraws() {
+        return paths.numRedraws;
+    }
+
+    public int getNumCirclesRedraws() {
+        return circles.numRedraws;
+    }
+}
@@ -0,0 +1,58 @@
+package com.slaviboy.fingerdraw;
+
+/**
+ * Copyright (c) 2019 Stanislav Georgiev. (MIT License)
+ * https://github.com/slaviboy
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * - The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * - The Software is provided "as is", without warranty of any kind, express or
+ * implied, including but not limited to the warranties of merchantability,
+ * fitness for a particular purpose and noninfringement. In no event shall the
+ * authors or copyright holders be liable for any claim, damages or other
+ * liability, whether in an action of contract, tort or otherwise, arising from,
+ * out of or in connection with the Software or the use or other dealings in the
+ * Software.
+ * <p>
+ * <p>
+ * ManualClock Class(Java) is a clock, whose time is changed only by calling
+ * setTime() or advance(). It is used to drive the scene with simulated time,
+ * for example when recorded sessions are rendered offline.
+ */
+
+public class ManualClock extends Clock {
+
+    private volatile long time;           // current time in (ms)
+
+    public ManualClock() {
+        this(0);
+    }
+
+    public ManualClock(long time) {
+        this.time = time;
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return time;
+    }
+
+    public void setTime(long time) {
+        this.time = time;
+    }
+
+    /**
+     * Move the time forward
+     *
+     * @param millis - time to add in (ms)
+     */
+    public void advance(long millis) {
+        time += millis;
+    }
+}
@@ -0,0 +1,160 @@
+package com.slaviboy.fingerdraw;
+
+import java.io.IOException;
+
+/**
+ * Copyright (c) 2019 Stanislav Georgiev. (MIT License)
+ * https://github.com/slaviboy
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * - The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * - The Software is provided "as is", without warranty of any kind, express or
+ * implied, including but not limited to the warranties of merchantability,
+ * fitness for a particular purpose and noninfringement. In no event shall the
+ * authors or copyright holders be liable for any claim, damages or other
+ * liability, whether in an action of contract, tort or otherwise, arising from,
+ * out of or in connection with the Software or the use or other dealings in the
+ * Software.
+ * <p>
+ * <p>
+ * OfflineRenderer Class(Java) replays recorded touch stream into a scene, and
+ * produces frames with fixed frame rate as fast as possible. The scene is driven
+ * by manual clock, and the fadeout effect is applied in the same steps as the
+ * timer of the canvas makes, each FadeOut.MIN_DURATION (ms), so rendering the
+ * same recording always gives the same frames, no matter how long it takes.
+ * Each prepared frame is passed to {@link FrameSink}, that can draw it into
+ * bitmap, see {@link BitmapFrameSink}.
+ */
+
+public class OfflineRenderer {
+
+    /**
+     * Receives each frame, after the scene geometry is prepared
+     */
+    public interface FrameSink {
+        void onFrame(Scene scene, int index, long time) throws IOException;
+    }
+
+    private Scene scene;                  // the scene that is rendered
+    private TouchRecording recording;     // the recorded touch stream
+    private ManualClock clock;            // clock that is set to the time of each event and frame
+    private int fps;                      // number of frames per second
+    private int tailDuration;             // time rendered after the last event in (ms), so the fadeout can finish
+    private int frameIndex;               // index of the next frame
+    private int eventIndex;               // index of the next event
+    private long nextFadeTime;            // time of the next fadeout step
+
+    public OfflineRenderer(Scene scene, TouchRecording recording, int fps) {
+        if (fps <= 0) {
+            throw new IllegalArgumentException("Frame rate must be positive: " + fps);
+        }
+        this.scene = scene;
+        this.recording = recording;
+        this.fps = fps;
+        clock = new ManualClock();
+        tailDuration = 1000;
+        reset();
+    }
+
+    /**
+     * Start rendering again from the first event, the scene is not cleared
+     */
+    public void reset() {
+        frameIndex = 0;
+        eventIndex = 0;
+        nextFadeTime = recording.getStartTime();
+        clock.setTime(recording.getStartTime());
+        scene.setClock(clock);
+    }
+
+    /**
+     * Get the time of frame with given index
+     *
+     * @param index - index of the frame
+     * @return the time in (ms)
+     */
+    public long getFrameTime(int index) {
+        return recording.getStartTime() + index * 1000L / fps;
+    }
+
+    /**
+     * Get total number of frames, including the frames after the last event
+     *
+     * @return the number of frames
+     */
+    public int getNumFrames() {
+        long duration = recording.getEndTime() - recording.getStartTime() + tailDuration;
+        return (int) (duration * fps / 1000) + 1;
+    }
+
+    /**
+     * Replay all events and fadeout steps until the time of the next frame,
+     * in time order, and prepare the scene geometry for the frame
+     *
+     * @return the time of the prepared frame
+     */
+    public long nextFrame() {
+        long frameTime = getFrameTime(frameIndex);
+        int numEvents = recording.size();
+        while (true) {
+            long eventTime = eventIndex < numEvents ? recording.getTime(eventIndex) : Long.MAX_VALUE;
+            if (nextFadeTime <= frameTime && nextFadeTime <= eventTime) {
+                clock.setTime(nextFadeTime);
+                scene.fadeOut(nextFadeTime);
+                nextFadeTime += FadeOut.MIN_DURATION;
+            } else if (eventTime <= frameTime) {
+                clock.setTime(eventTime);
+                recording.applyTo(eventIndex, scene);
+                eventIndex++;
+            } else {
+                break;
+            }
+        }
+
+        clock.setTime(frameTime);
+        scene.prepare();
+        frameIndex++;
+        return frameTime;
+    }
+
+    /**
+     * Render all remaining frames
+     *
+     * @param sink - receives each frame
+     * @throws IOException if the sink fails
+     */
+    public void render(FrameSink sink) throws IOException {
+        int numFrames = getNumFrames();
+        while (frameIndex < numFrames) {
+            int index = frameIndex;
+            long time = nextFrame();
+            sink.onFrame(scene, index, time);
+        }
+    }
+
+    public Scene getScene() {
+        return scene;
+    }
+
+    public int getFps() {
+        return fps;
+    }
+
+    public int getFrameIndex() {
+        return frameIndex;
+    }
+
+    public int getTailDuration() {
+        return tailDuration;
+    }
+
+    public void setTailDuration(int tailDuration) {
+        this.tailDuration = Math.max(tailDuration, 0);
+    }
+}
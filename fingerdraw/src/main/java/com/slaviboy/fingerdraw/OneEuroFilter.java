@@ -0,0 +1,135 @@
+package com.slaviboy.fingerdraw;
+
+import java.util.Arrays;
+
+/**
+ * Copyright (c) 2019 Stanislav Georgiev. (MIT License)
+ * https://github.com/slaviboy
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * - The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * - The Software is provided "as is", without warranty of any kind, express or
+ * implied, including but not limited to the warranties of merchantability,
+ * fitness for a particular purpose and noninfringement. In no event shall the
+ * authors or copyright holders be liable for any claim, damages or other
+ * liability, whether in an action of contract, tort or otherwise, arising from,
+ * out of or in connection with the Software or the use or other dealings in the
+ * Software.
+ * <p>
+ * <p>
+ * OneEuroFilter Class(Java) is input filter, that smooths the finger position
+ * using the One Euro filter (Casiez et al. 2012). It is low pass filter whose
+ * cutoff frequency grows with the speed of the finger, so the jitter of slow
+ * movements is removed, while fast movements are followed with little lag.
+ * The cutoff is -minCutoff plus -beta times the filtered speed in pixels per
+ * second. The state is kept for each finger and reset when the finger is down.
+ */
+
+public class OneEuroFilter extends InputFilter {
+
+    private float minCutoff;              // cutoff frequency at zero speed in (Hz)
+    private float beta;                   // increase of the cutoff frequency per pixel per second
+    private float derivativeCutoff;       // cutoff frequency used to filter the speed in (Hz)
+
+    private float[] x;                    // filtered x, for each finger
+    private float[] y;                    // filtered y, for each finger
+    private float[] speedX;               // filtered speed along x, for each finger
+    private float[] speedY;               // filtered speed along y, for each finger
+    private long[] times;                 // time of the previous sample, for each finger
+
+    public OneEuroFilter() {
+        // values that remove the jitter of most touch screens
+        this(1f, 0.007f);
+    }
+
+    public OneEuroFilter(float minCutoff, float beta) {
+        this(minCutoff, beta, 1f);
+    }
+
+    public OneEuroFilter(float minCutoff, float beta, float derivativeCutoff) {
+        this.minCutoff = minCutoff;
+        this.beta = beta;
+        this.derivativeCutoff = derivativeCutoff;
+        x = new float[10];
+        y = new float[10];
+        speedX = new float[10];
+        speedY = new float[10];
+        times = new long[10];
+    }
+
+    @Override
+    public boolean filter(int finger, int action, long time, float[] sample) {
+        if (finger >= x.length) {
+            grow(finger + 1);
+        }
+
+        if (action == DOWN) {
+            x[finger] = sample[X];
+            y[finger] = sample[Y];
+            speedX[finger] = 0f;
+            speedY[finger] = 0f;
+            times[finger] = time;
+            return true;
+        }
+
+        // samples with the same time are treated as 1ms apart
+        float dt = Math.max(time - times[finger], 1L) / 1000f;
+        times[finger] = time;
+
+        float derivativeAlpha = alpha(derivativeCutoff, dt);
+        speedX[finger] += derivativeAlpha * ((sample[X] - x[finger]) / dt - speedX[finger]);
+        speedY[finger] += derivativeAlpha * ((sample[Y] - y[finger]) / dt - speedY[finger]);
+
+        x[finger] += alpha(minCutoff + beta * Math.abs(speedX[finger]), dt) * (sample[X] - x[finger]);
+        y[finger] += alpha(minCutoff + beta * Math.abs(speedY[finger]), dt) * (sample[Y] - y[finger]);
+        sample[X] = x[finger];
+        sample[Y] = y[finger];
+        return true;
+    }
+
+    /**
+     * Get the smoothing factor of low pass filter with given cutoff frequency
+     */
+    private static float alpha(float cutoff, float dt) {
+        float tau = 1f / (2f * (float) Math.PI * cutoff);
+        return 1f / (1f + tau / dt);
+    }
+
+    private void grow(int capacity) {
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        speedX = Arrays.copyOf(speedX, capacity);
+        speedY = Arrays.copyOf(speedY, capacity);
+        times = Arrays.copyOf(times, capacity);
+    }
+
+    public float getMinCutoff() {
+        return minCutoff;
+    }
+
+    public void setMinCutoff(float minCutoff) {
+        this.minCutoff = minCutoff;
+    }
+
+    public float getBeta() {
+        return beta;
+    }
+
+    public void setBeta(float beta) {
+        this.beta = beta;
+    }
+
+    public float getDerivativeCutoff() {
+        return derivativeCutoff;
+    }
+
+    public void setDerivativeCutoff(float derivativeCutoff) {
+        this.derivativeCutoff = derivativeCutoff;
+    }
+}
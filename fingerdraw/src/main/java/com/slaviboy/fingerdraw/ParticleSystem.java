@@ -0,0 +1,338 @@
+package com.slaviboy.fingerdraw;
+
+import android.graphics.Color;
+import android.graphics.Paint;
+
+/**
+ * Copyright (c) 2019 Stanislav Georgiev. (MIT License)
+ * https://github.com/slaviboy
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * - The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * - The Software is provided "as is", without warranty of any kind, express or
+ * implied, including but not limited to the warranties of merchantability,
+ * fitness for a particular purpose and noninfringement. In no event shall the
+ * authors or copyright holders be liable for any claim, damages or other
+ * liability, whether in an action of contract, tort or otherwise, arising from,
+ * out of or in connection with the Software or the use or other dealings in the
+ * Software.
+ * <p>
+ * <p>
+ * ParticleSystem Class(Java) emits sparkle particles from the finger position.
+ * Particles are stored in primitive arrays, one array per property, with fixed
+ * -capacity that is allocated once, dead particles are replaced by the last
+ * live particle, so no objects are created while the system is running. The
+ * particles are moved with fixed time step, using the same clock as the fadeout
+ * effect, and are drawn with single drawVertices() call as small squares, with
+ * alpha that decreases with the particle age.
+ */
+
+public class ParticleSystem {
+
+    private static final int VERTICES_PER_PARTICLE = 6;  // two triangles per particle
+
+    private float[] x;                    // x coordinates
+    private float[] y;                    // y coordinates
+    private float[] vx;                   // x velocity in (px/s)
+    private float[] vy;                   // y velocity in (px/s)
+    private float[] age;                  // age in (ms)
+    private float[] life;                 // total life time in (ms)
+    private float[] size;                 // half of the square side
+    private int count;                    // number of live particles
+    private int capacity;                 // maximum number of live particles
+
+    private float[] vertices;             // prepared vertices, two values per vertex
+    private int[] colors;                 // prepared colors, one per vertex
+    private int numVertices;              // number of prepared vertices
+
+    private int color;                    // particle color, alpha is multiplied by the remaining life
+    private float emitRate;               // particles emitted per finger sample
+    private float emitAccumulator;        // fraction of particle left from previous emits
+    private float speed;                  // maximum initial speed in (px/s)
+    private float gravity;                // gravity in (px/s^2)
+    private float drag;                   // part of the velocity lost per second
+    private int minLife;                  // minimum life time in (ms)
+    private int maxLife;                  // maximum life time in (ms)
+    private float minSize;                // minimum particle size
+    private float maxSize;                // maximum particle size
+    private int timeStep;                 // fixed time step in (ms)
+    private long lastTime;                // time of the last update, or -1 before first update
+    private long accumulator;             // time not yet simulated in (ms)
+    private long seed;                    // state of the random generator
+
+    public ParticleSystem() {
+        // default
+        this(2048, Color.WHITE, 2f);
+    }
+
+    public ParticleSystem(int capacity, int color, float emitRate) {
+        this.capacity = capacity;
+        this.color = color;
+        this.emitRate = emitRate;
+
+        x = new float[capacity];
+        y = new float[capacity];
+        vx = new float[capacity];
+        vy = new float[capacity];
+        age = new float[capacity];
+        life = new float[capacity];
+        size = new float[capacity];
+        vertices = new float[capacity * VERTICES_PER_PARTICLE * 2];
+        colors = new int[capacity * VERTICES_PER_PARTICLE];
+
+        speed = 300f;
+        gravity = 400f;
+        drag = 1.5f;
+        minLife = 300;
+        maxLife = 900;
+        minSize = 1.5f;
+        maxSize = 4f;
+        timeStep = 16;
+        lastTime = -1;
+        seed = 0x2545F4914F6CDD1DL;
+    }
+
+    /**
+     * Emit particles at finger position, the number of particles depends
+     * on the -emitRate, particles that do not fit in the pool are dropped.
+     *
+     * @param px - finger coordinates
+     * @param py - finger coordinates
+     */
+    public void emit(float px, float py) {
+        emitAccumulator += emitRate;
+        while (emitAccumulator >= 1f) {
+            emitAccumulator -= 1f;
+            if (count == capacity) {
+                continue;
+            }
+
+            int i = count++;
+            double angle = random() * 2 * Math.PI;
+            float v = random() * speed;
+            x[i] = px;
+            y[i] = py;
+            vx[i] = v * (float) Math.cos(angle);
+            vy[i] = v * (float) Math.sin(angle);
+            age[i] = 0f;
+            life[i] = minLife + random() * (maxLife - minLife);
+            size[i] = minSize + random() * (maxSize - minSize);
+        }
+    }
+
+    /**
+     * Advance the simulation to given time, using fixed time steps, the
+     * time that is left is simulated on next update.
+     *
+     * @param time - current time in (ms)
+     */
+    public void update(long time) {
+        if (lastTime < 0 || time < lastTime) {
+            lastTime = time;
+            return;
+        }
+        accumulator += time - lastTime;
+        lastTime = time;
+
+        // do not try to catch up after long pauses
+        if (accumulator > 10L * timeStep) {
+            accumulator = 10L * timeStep;
+        }
+        while (accumulator >= timeStep) {
+            step(timeStep);
+            accumulator -= timeStep;
+        }
+    }
+
+    /**
+     * Move all particles by one time step, and remove dead particles
+     *
+     * @param millis - time step in (ms)
+     */
+    private void step(int millis) {
+        float dt = millis / 1000f;
+        float damping = Math.max(0f, 1f - drag * dt);
+        int i = 0;
+        while (i < count) {
+            age[i] += millis;
+            if (age[i] >= life[i]) {
+
+                // replace with the last live particle
+                int last = --count;
+                x[i] = x[last];
+                y[i] = y[last];
+                vx[i] = vx[last];
+                vy[i] = vy[last];
+                age[i] = age[last];
+                life[i] = life[last];
+                size[i] = size[last];
+                continue;
+            }
+            vy[i] += gravity * dt;
+            vx[i] *= damping;
+            vy[i] *= damping;
+            x[i] += vx[i] * dt;
+            y[i] += vy[i] * dt;
+            i++;
+        }
+    }
+
+    /**
+     * Prepare the vertices and colors for all live particles, each particle
+     * is a square made of two triangles.
+     */
+    public void prepare() {
+        int alpha = color >>> 24;
+        int rgb = color & 0x00FFFFFF;
+        int v = 0;
+        int c = 0;
+        for (int i = 0; i < count; i++) {
+            float s = size[i];
+            float left = x[i] - s, right = x[i] + s;
+            float top = y[i] - s, bottom = y[i] + s;
+
+            vertices[v++] = left;
+            vertices[v++] = top;
+            vertices[v++] = right;
+            vertices[v++] = top;
+            vertices[v++] = right;
+            vertices[v++] = bottom;
+            vertices[v++] = left;
+            vertices[v++] = top;
+            vertices[v++] = right;
+            vertices[v++] = bottom;
+            vertices[v++] = left;
+            vertices[v++] = bottom;
+
+            int a = (int) (alpha * (1f - age[i] / life[i]));
+            int argb = (a << 24) | rgb;
+            for (int j = 0; j < VERTICES_PER_PARTICLE; j++) {
+                colors[c++] = argb;
+            }
+        }
+        numVertices = c;
+    }
+
+    /**
+     * Draw the prepared particles with single draw call
+     *
+     * @param canvas
+     * @param paint
+     */
+    public void submit(android.graphics.Canvas canvas, Paint paint) {
+        if (numVertices == 0) {
+            return;
+        }
+        paint.setStyle(Paint.Style.FILL);
+        paint.setColor(Color.WHITE);
+        canvas.drawVertices(android.graphics.Canvas.VertexMode.TRIANGLES, numVertices * 2,
+                vertices, 0, null, 0, colors, 0, null, 0, 0, paint);
+    }
+
+    /**
+     * Remove all particles
+     */
+    public void clear() {
+        count = 0;
+        numVertices = 0;
+        emitAccumulator = 0f;
+    }
+
+    /**
+     * Get random value in range [0,1), using xorshift generator
+     */
+    private float random() {
+        seed ^= seed << 13;
+        seed ^= seed >>> 7;
+        seed ^= seed << 17;
+        return (seed >>> 40) / (float) (1 << 24);
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getNumVertices() {
+        return numVertices;
+    }
+
+    public float getX(int index) {
+        return x[index];
+    }
+
+    public float getY(int index) {
+        return y[index];
+    }
+
+    public int getColor() {
+        return color;
+    }
+
+    public void setColor(int color) {
+        this.color = color;
+    }
+
+    public float getEmitRate() {
+        return emitRate;
+    }
+
+    public void setEmitRate(float emitRate) {
+        this.emitRate = emitRate;
+    }
+
+    public float getSpeed() {
+        return speed;
+    }
+
+    public void setSpeed(float speed) {
+        this.speed = speed;
+    }
+
+    public float getGravity() {
+        return gravity;
+    }
+
+    public void setGravity(float gravity) {
+        this.gravity = gravity;
+    }
+
+    public float getDrag() {
+        return drag;
+    }
+
+    public void setDrag(float drag) {
+        this.drag = drag;
+    }
+
+    public void setLife(int minLife, int maxLife) {
+        this.minLife = minLife;
+        this.maxLife = Math.max(minLife, maxLife);
+    }
+
+    public void setSize(float minSize, float maxSize) {
+        this.minSize = minSize;
+        this.maxSize = Math.max(minSize, maxSize);
+    }
+
+    public int getTimeStep() {
+        return timeStep;
+    }
+
+    public void setTimeStep(int timeStep) {
+        this.timeStep = Math.max(timeStep, 1);
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed == 0 ? 1 : seed;
+    }
+}
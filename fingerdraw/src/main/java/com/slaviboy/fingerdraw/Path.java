@@ -1,7 +1,9 @@
 package com.slaviboy.fingerdraw;
 
 import android.graphics.Color;
+import android.graphics.Matrix;
 import android.graphics.Paint;
+import android.graphics.Shader;
 import android.graphics.PointF;
 
 import java.util.ArrayList;
@@ -32,6 +34,10 @@ import java.util.List;
  * array with -points the finger has passed trough, -tracking value that
  * shows whether or not the finger is being tracked. If path is -fading out.
  * Current segmental -opacity, and -stroke width, path -color and -type.
+ * The trail is limited either by the number of segments, by its length on
+ * screen when -max length is set, or by the age of its samples when -max age
+ * is set. The last two are resampled at equal distances or equal times, so
+ * they look the same at any finger speed and input rate.
  */
 
 public class Path extends FadeOut {
@@ -40,15 +46,38 @@ public class Path extends FadeOut {
     public static final int SAME = 0;
     public static final int BIGGER_NEAR_FINGER = 1;
     public static final int SMALLER_NEAR_FINGER = 2;
+    public static final int CUSTOM = 3;
 
-    private List<PointF> points;      // array with points, through which the finger has passed
+    // minimum number of points, before old points are dropped from the buffer
+    private static final int MIN_TRIM_SIZE = 64;
+
+    // maximum number of points kept for trail limited by length or age, if the finger barely moves
+    private static final int MAX_WINDOW_POINTS = 1024;
+
+    private PointBuffer points;       // buffer with points, through which the finger has passed
+    private PressureCurve pressureCurve; // curve that maps sample pressure and size to stroke width factor
+    private WidthProfile widthProfile; // profile that determines the stroke width from head to tail
+    private int[] widthTable;         // stroke width of each segment, evaluated from the -widthProfile
+    private int widthTableSegments;   // number of segments for which the -widthTable is evaluated, or -1 if it is stale
     private int opacity;              // current opacity for segmental paths
     private int strokeWidth;          // current stroke width for segmental paths
     private int maxStrokeWidth;       // maximum stroke width
     private int pathType;             // path type that determines id path should be -thick or -thin at the end and the start of the path
     private int color;                // current path color
     private int maxNumSegments;       // maximum number of path segments that will be drawn
-    private int lastPointsSize;       // points array size, when fingers is up, used in fade out to detect how many new points are added
+    private float maxLength;          // maximum length of the trail in pixels, or 0 to limit it by -maxNumSegments
+    private int maxAge;               // maximum age of the samples in the trail in (ms), or 0 if not limited by age
+    private long frameTime;           // time of the current frame, used for the trail limited by age
+    private int fadedSegments;        // number of segments removed from the tail by the fade out effect
+    private int nextTrimSize;         // number of points, at which old points are dropped from trail limited by length
+    private boolean trimPoints;       // whether points that are no longer drawn are dropped from trail limited by segments
+    private PathGeometry geometry;    // geometry prepared for the current frame
+    private int preparedVersion;      // version of the path, when the geometry was prepared
+    private android.graphics.Path drawPath; // reusable path, used to submit the geometry
+    private TrailGradient gradient;   // color gradient along the path, or null for solid color
+    private Matrix gradientMatrix;    // reusable matrix, that maps the gradient from head to tail
+    private Shader shader;            // shader of this path, created from the -gradient
+    private TrailGradient shaderGradient; // gradient from which the -shader was created
 
     public Path() {
 
@@ -68,10 +97,15 @@ public class Path extends FadeOut {
         this.maxNumSegments = maxNumSegments;
 
         tracking = false;
-        points = new ArrayList<>();
-        lastPointsSize = 0;
+        points = new PointBuffer();
+        pressureCurve = PressureCurve.NONE;
+        widthProfile = WidthProfile.fromPathType(pathType);
+        geometry = new PathGeometry();
+        preparedVersion = -1;
+        nextTrimSize = MIN_TRIM_SIZE;
 
         setDivisible(maxNumSegments);
+        invalidateWidthTable();
     }
 
     /**
@@ -82,30 +116,268 @@ public class Path extends FadeOut {
      * @param y - coordinate
      */
     public void addPoint(float x, float y) {
-        points.add(new PointF(x, y));
+        addPoint(x, y, 1f, 0f);
+    }
+
+    /**
+     * Add new point with the -pressure and -touch major reported by the
+     * touch screen, with the current time of the system clock as event time.
+     * Use {@link #addPoint(float, float, float, float, long)} with the time of
+     * the touch event for trails limited by age.
+     *
+     * @param x          - coordinate
+     * @param y          - coordinate
+     * @param pressure   - normalized pressure
+     * @param touchMajor - length of the major axis of the touch area
+     */
+    public void addPoint(float x, float y, float pressure, float touchMajor) {
+        addPoint(x, y, pressure, touchMajor, Clock.SYSTEM.currentTimeMillis());
+    }
+
+    /**
+     * Add new point with the -pressure and -touch major reported by the
+     * touch screen, the values are mapped to a stroke width factor using
+     * the pressure curve, once per sample, so drawing costs nothing extra.
+     *
+     * @param x          - coordinate
+     * @param y          - coordinate
+     * @param pressure   - normalized pressure
+     * @param touchMajor - length of the major axis of the touch area
+     * @param time       - event time in (ms)
+     */
+    public void addPoint(float x, float y, float pressure, float touchMajor, long time) {
+
+        // only the last -maxNumSegments points are drawn, drop the older ones if trimming is enabled
+        if (trimPoints && isLimitedBySegments() && points.size() >= Math.max(2 * maxNumSegments, MIN_TRIM_SIZE)) {
+            points.keepLast(maxNumSegments);
+        } else if (maxAge > 0 && points.size() >= MAX_WINDOW_POINTS) {
+            points.keepLast(MAX_WINDOW_POINTS - 1);
+        }
+        points.add(x, y, pressure, touchMajor, pressureCurve.map(pressure, touchMajor), time);
+        trimToLength();
+        invalidate();
 
         // reset to maximum values
         strokeWidth = maxStrokeWidth;
     }
 
     /**
-     * Fade out path, by decreasing the opacity, if opacity bigger than zero
+     * Add many points at once, with maximum pressure and the current time of
+     * the system clock, the points are copied in bulk
+     *
+     * @param x         - x coordinates
+     * @param y         - y coordinates
+     * @param offset    - index of the first point in the arrays
+     * @param numPoints - number of points
+     */
+    public void addPoints(float[] x, float[] y, int offset, int numPoints) {
+        addPoints(x, y, null, offset, numPoints, Clock.SYSTEM.currentTimeMillis());
+    }
+
+    /**
+     * Add many points at once, with maximum pressure and with event times,
+     * the points are copied in bulk
+     *
+     * @param x           - x coordinates
+     * @param y           - y coordinates
+     * @param times       - event times in (ms), or null to use -defaultTime for all points
+     * @param offset      - index of the first point in the arrays
+     * @param numPoints   - number of points
+     * @param defaultTime - event time used if -times is null
+     */
+    public void addPoints(float[] x, float[] y, long[] times, int offset, int numPoints, long defaultTime) {
+
+        // points that would be dropped anyway are not copied
+        if (trimPoints && isLimitedBySegments()) {
+            int skipped = Math.max(numPoints - maxNumSegments, 0);
+            offset += skipped;
+            numPoints -= skipped;
+            if (points.size() + numPoints >= Math.max(2 * maxNumSegments, MIN_TRIM_SIZE)) {
+                points.keepLast(maxNumSegments - numPoints);
+            }
+        }
+        points.addAll(x, y, times, offset, numPoints, 1f, 0f, pressureCurve.map(1f, 0f), defaultTime);
+        if (maxAge > 0 && points.size() > MAX_WINDOW_POINTS) {
+            points.keepLast(MAX_WINDOW_POINTS);
+        }
+        trimToLength();
+        invalidate();
+
+        // reset to maximum values
+        strokeWidth = maxStrokeWidth;
+    }
+
+    /**
+     * Remove all points, the allocated buffer is kept and reused
+     */
+    public void clearPoints() {
+        points.clear();
+        fadedSegments = 0;
+        nextTrimSize = MIN_TRIM_SIZE;
+        invalidate();
+    }
+
+    /**
+     * Drop the points that are further than -maxLength from the head, for
+     * trail limited by length. The points are dropped only when their number
+     * is doubled since last time, so it costs O(1) per point on average.
+     */
+    private void trimToLength() {
+        if (maxLength <= 0 || maxAge > 0 || points.size() < nextTrimSize) {
+            return;
+        }
+
+        // keep one point before the cut-off, so the tail can be interpolated
+        int cut = points.indexAtDistance(points.getLength() - maxLength) - 1;
+        int keep = Math.min(points.size() - Math.max(cut, 0), MAX_WINDOW_POINTS);
+        points.keepLast(keep);
+        nextTrimSize = Math.max(2 * keep, MIN_TRIM_SIZE);
+    }
+
+    /**
+     * Fade out path, by removing segments from the tail, until no segments
+     * are left. The points are kept, only the visible part is changed.
      */
     @Override
     public void onFadeOut() {
-        if (!tracking && fading) {
 
-            if (points.size() - lastPointsSize < maxNumSegments) {
-                // add the last point again
-                for (int i = 0; i < fadeOutStepsPerCall; i++) {
-                    points.add(points.get(points.size() - 1));
-                }
+        // trail limited by age expires continuously on each frame, see expire()
+        if (!tracking && fading && maxAge <= 0) {
+
+            if (fadedSegments < maxNumSegments) {
+                fadedSegments = Math.min(fadedSegments + fadeOutStepsPerCall, maxNumSegments);
+                invalidate();
             } else {
                 fading = false;
             }
         }
     }
 
+    /**
+     * Remove the points that are older than -maxAge, for trail limited by
+     * age, called at the start of each frame. The oldest point that is kept
+     * is found with binary search on the event times, and it is interpolated
+     * so the tail moves continuously. When all points expire after the finger
+     * is up, the fade out is finished.
+     *
+     * @param currentTime - time of the frame in (ms)
+     */
+    public void expire(long currentTime) {
+        if (maxAge <= 0 || currentTime == frameTime) {
+            return;
+        }
+
+        // visible part changes only if some of the points were in the previous window
+        if (isVisibleAt(frameTime)) {
+            invalidate();
+        }
+        frameTime = currentTime;
+
+        // keep one older point, the tail is interpolated between it and the next one
+        int index = points.indexAtTime(currentTime - maxAge);
+        if (index > 1) {
+            points.keepLast(points.size() - index + 1);
+        }
+        if (!tracking && fading && !isVisibleAt(currentTime)) {
+            fading = false;
+        }
+    }
+
+    /**
+     * Check if part of the trail limited by age is visible at given time
+     */
+    private boolean isVisibleAt(long time) {
+        return points.size() >= 2 && points.getTime(points.size() - 1) > time - maxAge;
+    }
+
+    private boolean isLimitedBySegments() {
+        return maxAge <= 0 && maxLength <= 0;
+    }
+
+    /**
+     * Start the fade out effect from the whole trail
+     */
+    public void resetFadeOut() {
+        fadedSegments = 0;
+        invalidate();
+    }
+
+    /**
+     * Prepare the geometry for the current frame, by taking the last
+     * -numSegments points from the head towards the tail, and the stroke
+     * width for each segment. Does not use any android graphics objects.
+     * The geometry is kept if the path is not changed since last call.
+     */
+    public void prepare() {
+        if (preparedVersion == version) {
+            return;
+        }
+        preparedVersion = version;
+        geometry.clear();
+
+        // at least two point in existence
+        if (points.size() < 2 || opacity <= 0) {
+            return;
+        }
+        if (maxAge > 0) {
+            prepareByAge();
+            return;
+        }
+        if (maxLength > 0) {
+            prepareByLength();
+            return;
+        }
+
+        // how many point to draw, the segments removed by the fade out are still counted
+        int numSegments = Math.min(maxNumSegments, points.size() + fadedSegments);
+        geometry.ensureCapacity(numSegments);
+
+        // last point
+        int last = points.size() - 1;
+        geometry.add(points.getX(last), points.getY(last), 0);
+
+        // loop trough last -numFragments point from the array with points, without the faded ones
+        for (int i = last - 1; i >= 0 && last - i + fadedSegments < numSegments; i--) {
+            geometry.add(points.getX(i), points.getY(i), getSegmentStrokeWidth(i, numSegments));
+        }
+    }
+
+    /**
+     * Prepare the geometry for trail limited by length, the points are taken
+     * at equal distances from the head, so the width and the opacity, that
+     * builds up with each segment, depend on the distance along the trail and
+     * not on the number of samples. Each point is found with binary search on
+     * the arc lengths kept in the point buffer.
+     */
+    private void prepareByLength() {
+        int last = points.size() - 1;
+        float head = points.getDistance(last);
+        float length = Math.min(head, maxLength);
+        float spacing = maxLength / Math.max(maxNumSegments - 1, 1);
+        int numSegments = Math.min(maxNumSegments, (int) Math.ceil(length / spacing) + 1 + fadedSegments);
+        geometry.ensureCapacity(numSegments);
+        geometry.add(points.getX(last), points.getY(last), 0);
+
+        int[] widthTable = getWidthTable(numSegments);
+        for (int segment = 1; segment + fadedSegments < numSegments; segment++) {
+            float distance = head - Math.min(segment * spacing, length);
+            int i = Math.max(points.indexAtDistance(distance), 1);
+            float start = points.getDistance(i - 1);
+            float range = points.getDistance(i) - start;
+            float t = range > 0 ? (distance - start) / range : 1f;
+
+            float x = points.getX(i - 1) + (points.getX(i) - points.getX(i - 1)) * t;
+            float y = points.getY(i - 1) + (points.getY(i) - points.getY(i - 1)) * t;
+            float factor = points.getWidthFactor(i - 1) + (points.getWidthFactor(i) - points.getWidthFactor(i - 1)) * t;
+            geometry.add(x, y, (int) (widthTable[segment + fadedSegments] * factor));
+
+            // the tail is reached
+            if (segment * spacing >= length) {
+                break;
+            }
+        }
+    }
+
     /**
      * Draw multiple paths, starting from the current finger position,
      * and with each new path, a previous point is added to the path,
@@ -119,57 +391,223 @@ public class Path extends FadeOut {
      * @param paint
      */
     public void draw(android.graphics.Canvas canvas, Paint paint) {
+        prepare();
+        submit(canvas, paint);
+    }
 
-        // at least two point in existence
-        if (points.size() < 2 || opacity <= 0) {
+    /**
+     * Draw the geometry, that was previously prepared using {@link #prepare()}
+     *
+     * @param canvas
+     * @param paint
+     */
+    public void submit(android.graphics.Canvas canvas, Paint paint) {
+        submit(canvas, paint, null);
+    }
+
+    /**
+     * Draw the prepared geometry once for each of the -transforms, the
+     * android path is built only once and reused for all instances.
+     *
+     * @param canvas
+     * @param paint
+     * @param transforms - canvas matrix for each instance, or null to draw it once
+     */
+    public void submit(android.graphics.Canvas canvas, Paint paint, Matrix[] transforms) {
+
+        int size = geometry.size();
+        if (size < 2) {
             return;
         }
 
-        android.graphics.Path path = new android.graphics.Path();
-
-        // how many point to draw
-        int numSegments = Math.min(maxNumSegments, points.size());
+        if (drawPath == null) {
+            drawPath = new android.graphics.Path();
+        }
+        android.graphics.Path path = drawPath;
+        path.rewind();
 
         paint.setStyle(Paint.Style.STROKE);
         paint.setColor(color);
         paint.setAlpha(4); // opacity set after color is set, otherwise not working !!!BUG
+        if (gradient != null) {
+            paint.setShader(getGradientShader());
+        }
 
-        // last point
-        PointF lastPoint = points.get(points.size() - 1);
-        path.moveTo(lastPoint.x, lastPoint.y);
-
-        // loop trough last -numFragments point from the array with points
-        for (int i = points.size() - 2; i >= points.size() - numSegments; i--) {
+        path.moveTo(geometry.getX(0), geometry.getY(0));
+        for (int i = 1; i < size; i++) {
+            path.lineTo(geometry.getX(i), geometry.getY(i));
 
-            if (i > points.size() || i < 0) {
-                break;
+            // set real opacity on last finishing draw
+            if (i == size - 1) {
+                paint.setAlpha(opacity);
             }
 
-            PointF point = points.get(i);
-            path.lineTo(point.x, point.y);
-
-            // set stroke width to decreases or increase depending on -pathType
-            if (pathType == SMALLER_NEAR_FINGER) {
-                //smaller near the head and increase towards the tail
-                strokeWidth = (int) ((points.size() - 1 - i) *
-                        ((double) maxStrokeWidth / numSegments));
-            } else if (pathType == BIGGER_NEAR_FINGER) {
-                // bigger near the head and decreases towards the tail
-                strokeWidth = (int) ((numSegments - (points.size() - 1 - i)) *
-                        ((double) maxStrokeWidth / numSegments));
+            paint.setStrokeWidth(geometry.getStrokeWidth(i));
+            if (transforms == null) {
+                canvas.drawPath(path, paint);
             } else {
-                // same size towards the tail and head
-                strokeWidth = maxStrokeWidth;
+                for (int j = 0; j < transforms.length; j++) {
+                    int count = canvas.save();
+                    canvas.concat(transforms[j]);
+                    canvas.drawPath(path, paint);
+                    canvas.restoreToCount(count);
+                }
             }
+        }
 
-            // set real opacity on last finishing draw
-            if (i == points.size() - numSegments) {
-                paint.setAlpha(opacity);
+        if (gradient != null) {
+            paint.setShader(null);
+        }
+    }
+
+    /**
+     * Prepare the geometry for trail limited by age, the points are taken at
+     * equal times from the time of the frame, so the width and the opacity
+     * depend on the age along the trail and the trail looks the same at any
+     * input rate. Each point is found with binary search on the event times.
+     */
+    private void prepareByAge() {
+        int last = points.size() - 1;
+        float headAge = Math.max(getSampleAge(last), 0);
+        float tailAge = Math.min(getSampleAge(0), maxAge);
+        if (headAge >= maxAge) {
+            return;
+        }
+        float spacing = (float) maxAge / Math.max(maxNumSegments - 1, 1);
+        int numSegments = Math.min(maxNumSegments, (int) Math.ceil(tailAge / spacing) + 1);
+        geometry.ensureCapacity(numSegments);
+        geometry.add(points.getX(last), points.getY(last), 0);
+
+        // segments newer than the last point are empty, they are skipped
+        int[] widthTable = getWidthTable(numSegments);
+        for (int segment = (int) (headAge / spacing) + 1; segment < numSegments; segment++) {
+            float age = Math.min(segment * spacing, tailAge);
+            int i = Math.max(points.indexAtTime(frameTime - (long) Math.floor(age)), 1);
+            while (i < last && getSampleAge(i) > age) {
+                i++;
+            }
+            float start = getSampleAge(i - 1);
+            float range = start - getSampleAge(i);
+            float t = range > 0 ? (start - age) / range : 1f;
+
+            float x = points.getX(i - 1) + (points.getX(i) - points.getX(i - 1)) * t;
+            float y = points.getY(i - 1) + (points.getY(i) - points.getY(i - 1)) * t;
+            float factor = points.getWidthFactor(i - 1) + (points.getWidthFactor(i) - points.getWidthFactor(i - 1)) * t;
+            geometry.add(x, y, (int) (widthTable[segment] * factor));
+
+            // the tail is reached
+            if (segment * spacing >= tailAge) {
+                break;
             }
+        }
+    }
+
+    /**
+     * Get the age of the sample at the time of the frame, the samples with the
+     * same time in (ms) are spread evenly over that millisecond, so they are
+     * not collapsed into single point when the trail is sampled by time. Ages
+     * are small, so unlike the absolute times they fit in float without loss.
+     *
+     * @param index - index of the sample
+     * @return the age in (ms)
+     */
+    private float getSampleAge(int index) {
+        long time = points.getTime(index);
+        int start = index;
+        int end = index + 1;
+        while (start > 0 && points.getTime(start - 1) == time) {
+            start--;
+        }
+        while (end < points.size() && points.getTime(end) == time) {
+            end++;
+        }
+        return (frameTime - time) + 1 - (float) (index - start + 1) / (end - start);
+    }
+
+    /**
+     * Get the shader of this path, it is created once for each gradient that
+     * is set, so the local matrix can be changed without affecting other paths
+     *
+     * @return the shader
+     */
+    Shader getShader() {
+        if (shaderGradient != gradient) {
+            shader = gradient.createShader();
+            shaderGradient = gradient;
+        }
+        return shader;
+    }
 
-            paint.setStrokeWidth(strokeWidth);
-            canvas.drawPath(path, paint);
+    /**
+     * Get the shader of this path, with local matrix that maps the unit
+     * gradient from the head to the tail of the prepared geometry.
+     *
+     * @return the shader
+     */
+    private Shader getGradientShader() {
+        int tail = geometry.size() - 1;
+        float headX = geometry.getX(0);
+        float headY = geometry.getY(0);
+        float dx = geometry.getX(tail) - headX;
+        float dy = geometry.getY(tail) - headY;
+        float length = Math.max((float) Math.sqrt(dx * dx + dy * dy), 1f);
+
+        if (gradientMatrix == null) {
+            gradientMatrix = new Matrix();
+        }
+        gradientMatrix.setScale(length, length);
+        gradientMatrix.postRotate((float) Math.toDegrees(Math.atan2(dy, dx)), 0, 0);
+        gradientMatrix.postTranslate(headX, headY);
+
+        Shader shader = getShader();
+        shader.setLocalMatrix(gradientMatrix);
+        return shader;
+    }
+
+    /**
+     * Get stroke width for the segment that ends at point with -index, the
+     * width is taken from the lookup table evaluated from the -widthProfile
+     * and is multiplied by the width factor stored for the point.
+     *
+     * @param index       - index of the point in the buffer
+     * @param numSegments - number of segments that are drawn
+     * @return the stroke width
+     */
+    public int getSegmentStrokeWidth(int index, int numSegments) {
+        int segment = points.size() - 1 - index + fadedSegments;
+        int width = getWidthTable(numSegments)[segment];
+        return (int) (width * points.getWidthFactor(index));
+    }
+
+    /**
+     * Get the lookup table with stroke width for each segment, the width profile
+     * is evaluated again only when the number of drawn segments changes, so the
+     * table holds a single row and takes memory linear to -maxNumSegments. The
+     * number changes only while the trail grows or fades out, a full trail
+     * draws -maxNumSegments segments on each frame and reuses the table.
+     *
+     * @param numSegments - number of segments that are drawn
+     * @return the lookup table
+     */
+    private int[] getWidthTable(int numSegments) {
+        if (numSegments != widthTableSegments) {
+            if (widthTable == null || widthTable.length < numSegments) {
+                widthTable = new int[Math.max(numSegments, maxNumSegments)];
+            }
+            widthProfile.fillTable(widthTable, numSegments, maxStrokeWidth);
+            widthTableSegments = numSegments;
         }
+        return widthTable;
+    }
+
+    /**
+     * Mark the width lookup table as stale, called when the profile or the
+     * stroke width is changed. The table is evaluated on the
+     * next use, so restyling does no work on the calling thread.
+     */
+    private void invalidateWidthTable() {
+        widthTableSegments = -1;
+        invalidate();
     }
 
     /**
@@ -185,6 +623,12 @@ public class Path extends FadeOut {
         private int strokeWidth;
         private int fadeOutDuration;
         private int maxNumSegments;
+        private float maxLength;
+        private int maxAge;
+        private PressureCurve pressureCurve;
+        private WidthProfile widthProfile;
+        private TrailGradient gradient;
+        private boolean trimPoints;
 
         public Builder() {
 
@@ -195,6 +639,7 @@ public class Path extends FadeOut {
             strokeWidth = 70;
             fadeOutDuration = 200;
             maxNumSegments = 25;
+            pressureCurve = PressureCurve.NONE;
         }
 
         public Builder withColor(int color) {
@@ -222,28 +667,202 @@ public class Path extends FadeOut {
             return this;
         }
 
+        public Builder withMaxLength(float maxLength) {
+            this.maxLength = maxLength;
+            return this;
+        }
+
+        public Builder withMaxAge(int maxAge) {
+            this.maxAge = maxAge;
+            return this;
+        }
+
         public Builder withFadeOutDuration(int fadeOutDuration) {
             this.fadeOutDuration = fadeOutDuration;
             return this;
         }
 
+        public Builder withWidthProfile(WidthProfile widthProfile) {
+            this.widthProfile = widthProfile;
+            return this;
+        }
+
+        public Builder withGradient(TrailGradient gradient) {
+            this.gradient = gradient;
+            return this;
+        }
+
+        public Builder withPressureCurve(PressureCurve pressureCurve) {
+            this.pressureCurve = pressureCurve;
+            return this;
+        }
+
+        public Builder withTrimPoints(boolean trimPoints) {
+            this.trimPoints = trimPoints;
+            return this;
+        }
+
         public Path build() {
-            return new Path(color, pathType, opacity, strokeWidth,
+            Path path = new Path(color, pathType, opacity, strokeWidth,
                     fadeOutDuration, maxNumSegments);
+            path.setPressureCurve(pressureCurve);
+            if (widthProfile != null) {
+                path.setWidthProfile(widthProfile);
+            }
+            path.setGradient(gradient);
+            path.setMaxLength(maxLength);
+            path.setMaxAge(maxAge);
+            path.setTrimPoints(trimPoints);
+            return path;
         }
     }
 
 
+    /**
+     * Replace the points in the buffer with the given points, pressure is
+     * set to maximum for each of them. The points are copied, so later
+     * changes to the list do not change the path.
+     *
+     * @param points
+     * @deprecated the points are kept in {@link PointBuffer}, use {@link #clearPoints()}
+     * and {@link #addPoints(float[], float[], int, int)}
+     */
+    @Deprecated
     public void setPoints(List<PointF> points) {
-        this.points = points;
+        this.points.clear();
+        this.points.ensureCapacity(points.size());
+        for (int i = 0; i < points.size(); i++) {
+            PointF point = points.get(i);
+            addPoint(point.x, point.y);
+        }
     }
 
+    /**
+     * Get copy of the points in the buffer as list, the list is created on
+     * each call, so avoid calling it while drawing. Changes to the list do
+     * not change the path.
+     *
+     * @return list with points
+     * @deprecated the points are kept in {@link PointBuffer}, use {@link #getPointBuffer()}
+     */
+    @Deprecated
     public List<PointF> getPoints() {
+        List<PointF> list = new ArrayList<>(points.size());
+        for (int i = 0; i < points.size(); i++) {
+            list.add(new PointF(points.getX(i), points.getY(i)));
+        }
+        return list;
+    }
+
+    public PointBuffer getPointBuffer() {
         return points;
     }
 
+    public PathGeometry getGeometry() {
+        return geometry;
+    }
+
+    /**
+     * Get snapshot of the current style of the path
+     *
+     * @return the style
+     */
+    public PathStyle getStyle() {
+        return new PathStyle.Builder()
+                .withColor(color)
+                .withPathType(pathType)
+                .withOpacity(opacity)
+                .withStrokeWidth(maxStrokeWidth)
+                .withFadeOutDuration(fadeOutDuration)
+                .withMaxNumSegments(maxNumSegments)
+                .withMaxLength(maxLength)
+                .withMaxAge(maxAge)
+                .withWidthProfile(pathType == CUSTOM ? widthProfile : null)
+                .withGradient(gradient)
+                .withPressureCurve(pressureCurve)
+                .build();
+    }
+
+    /**
+     * Apply all properties of the style at once, the points are kept so
+     * the style can be changed while the finger is down. The path is not
+     * synchronized, use {@link Scene#setPathStyle(PathStyle)} to change the
+     * style while the scene is drawn.
+     *
+     * @param style - the style
+     */
+    public void setStyle(PathStyle style) {
+        int previousStrokeWidth = maxStrokeWidth;
+        WidthProfile previousProfile = widthProfile;
+
+        color = style.getColor();
+        pathType = style.getPathType();
+        opacity = style.getOpacity();
+        strokeWidth = style.getStrokeWidth();
+        maxStrokeWidth = style.getStrokeWidth();
+        maxNumSegments = style.getMaxNumSegments();
+        maxLength = style.getMaxLength();
+        maxAge = style.getMaxAge();
+        widthProfile = style.getWidthProfile() != null ? style.getWidthProfile() : WidthProfile.fromPathType(pathType);
+        gradient = style.getGradient();
+        pressureCurve = style.getPressureCurve();
+        super.setFadeOutDuration(style.getFadeOutDuration());
+        setDivisible(maxNumSegments);
+
+        // the widths depend only on the profile and the stroke width, so restyling the color keeps the table
+        if (widthProfile != previousProfile || maxStrokeWidth != previousStrokeWidth) {
+            invalidateWidthTable();
+        } else {
+            invalidate();
+        }
+    }
+
+    /**
+     * Check if the geometry is prepared for the current state of the path,
+     * so {@link #prepare()} would not change it
+     *
+     * @return true if the geometry is prepared
+     */
+    public boolean isPrepared() {
+        return preparedVersion == version;
+    }
+
+    public int getNumPoints() {
+        return points.size();
+    }
+
+    public boolean isTrimPoints() {
+        return trimPoints;
+    }
+
+    /**
+     * Set whether the points that can no longer be drawn are dropped, for
+     * trail limited by number of segments. By default all points of the
+     * stroke are kept. With trimming only the last -maxNumSegments points are
+     * kept, so the memory stays bounded for long strokes, but the point buffer
+     * then holds only the visible tail of the stroke.
+     *
+     * @param trimPoints - whether old points are dropped
+     */
+    public void setTrimPoints(boolean trimPoints) {
+        this.trimPoints = trimPoints;
+    }
+
+    public PressureCurve getPressureCurve() {
+        return pressureCurve;
+    }
+
+    public void setPressureCurve(PressureCurve pressureCurve) {
+        this.pressureCurve = pressureCurve;
+        invalidate();
+    }
+
+    /**
+     * @deprecated the fade out effect no longer adds points, use {@link #resetFadeOut()}
+     */
+    @Deprecated
     public void setLastPointsSize(int lastPointsSize) {
-        this.lastPointsSize = lastPointsSize;
+        resetFadeOut();
     }
 
     public int getOpacity() {
@@ -252,6 +871,7 @@ public class Path extends FadeOut {
 
     public void setOpacity(int opacity) {
         this.opacity = opacity;
+        invalidate();
     }
 
     public int getStrokeWidth() {
@@ -261,6 +881,7 @@ public class Path extends FadeOut {
     public void setStrokeWidth(int strokeWidth) {
         this.strokeWidth = strokeWidth;
         this.maxStrokeWidth = strokeWidth;
+        invalidateWidthTable();
     }
 
     public int getPathType() {
@@ -269,6 +890,38 @@ public class Path extends FadeOut {
 
     public void setPathType(int pathType) {
         this.pathType = pathType;
+        this.widthProfile = WidthProfile.fromPathType(pathType);
+        invalidateWidthTable();
+    }
+
+    public TrailGradient getGradient() {
+        return gradient;
+    }
+
+    /**
+     * Set gradient that changes the color along the path, the -color is
+     * ignored while gradient is set, but the -opacity is still applied.
+     *
+     * @param gradient - the gradient or null for solid color
+     */
+    public void setGradient(TrailGradient gradient) {
+        this.gradient = gradient;
+        invalidate();
+    }
+
+    public WidthProfile getWidthProfile() {
+        return widthProfile;
+    }
+
+    /**
+     * Set custom width profile, the -pathType is changed to CUSTOM
+     *
+     * @param widthProfile
+     */
+    public void setWidthProfile(WidthProfile widthProfile) {
+        this.pathType = CUSTOM;
+        this.widthProfile = widthProfile;
+        invalidateWidthTable();
     }
 
     public int getColor() {
@@ -277,6 +930,7 @@ public class Path extends FadeOut {
 
     public void setColor(int color) {
         this.color = color;
+        invalidate();
     }
 
     public int getMaxNumSegments() {
@@ -286,6 +940,41 @@ public class Path extends FadeOut {
     public void setMaxNumSegments(int maxNumSegments) {
         this.maxNumSegments = maxNumSegments;
         setDivisible(maxNumSegments);
+        invalidate();
+    }
+
+    public float getMaxLength() {
+        return maxLength;
+    }
+
+    public int getMaxAge() {
+        return maxAge;
+    }
+
+    /**
+     * Limit the trail by the age of its samples, so it shows the motion of
+     * the last -maxAge milliseconds at any input rate. The trail is drawn
+     * using -maxNumSegments segments of equal duration, and it expires
+     * continuously, instead of the fade out effect.
+     *
+     * @param maxAge - maximum age in (ms), or 0 if the trail is not limited by age
+     */
+    public void setMaxAge(int maxAge) {
+        this.maxAge = maxAge;
+        invalidate();
+    }
+
+    /**
+     * Limit the trail by its length on screen instead of by the number of
+     * points, the trail is then drawn using -maxNumSegments segments of equal
+     * length, regardless of the finger speed and the input rate
+     *
+     * @param maxLength - maximum length in pixels, or 0 to limit the trail by number of points
+     */
+    public void setMaxLength(float maxLength) {
+        this.maxLength = maxLength;
+        nextTrimSize = MIN_TRIM_SIZE;
+        invalidate();
     }
 
     @Override
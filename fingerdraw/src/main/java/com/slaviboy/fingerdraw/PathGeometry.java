@@ -0,0 +1,100 @@
+package com.slaviboy.fingerdraw;
+
+import java.util.Arrays;
+
+/**
+ * Copyright (c) 2019 Stanislav Georgiev. (MIT License)
+ * https://github.com/slaviboy
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * - The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * - The Software is provided "as is", without warranty of any kind, express or
+ * implied, including but not limited to the warranties of merchantability,
+ * fitness for a particular purpose and noninfringement. In no event shall the
+ * authors or copyright holders be liable for any claim, damages or other
+ * liability, whether in an action of contract, tort or otherwise, arising from,
+ * out of or in connection with the Software or the use or other dealings in the
+ * Software.
+ * <p>
+ * <p>
+ * PathGeometry Class(Java) holds the prepared geometry of a path for the current
+ * frame, that includes the -x and -y coordinates of the visible points, starting
+ * from the head (where the finger is) towards the tail, and the -stroke width of
+ * the segment ending at each point. The arrays are reused between frames.
+ */
+
+public class PathGeometry {
+
+    private float[] x;                // x coordinates from head to tail
+    private float[] y;                // y coordinates from head to tail
+    private int[] strokeWidth;        // stroke width of the segment ending at the point
+    private int size;                 // number of points in the geometry
+
+    public PathGeometry() {
+        x = new float[32];
+        y = new float[32];
+        strokeWidth = new int[32];
+        size = 0;
+    }
+
+    /**
+     * Add point to the end of the geometry
+     *
+     * @param x           - coordinate
+     * @param y           - coordinate
+     * @param strokeWidth - stroke width of the segment ending at the point
+     */
+    public void add(float x, float y, int strokeWidth) {
+        if (size == this.x.length) {
+            ensureCapacity(size + 1);
+        }
+        this.x[size] = x;
+        this.y[size] = y;
+        this.strokeWidth[size] = strokeWidth;
+        size++;
+    }
+
+    /**
+     * Make sure the arrays can hold at least -minCapacity points
+     *
+     * @param minCapacity - minimum number of points
+     */
+    public void ensureCapacity(int minCapacity) {
+        if (minCapacity > x.length) {
+            int capacity = Math.max(x.length * 2, minCapacity);
+            x = Arrays.copyOf(x, capacity);
+            y = Arrays.copyOf(y, capacity);
+            strokeWidth = Arrays.copyOf(strokeWidth, capacity);
+        }
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return x.length;
+    }
+
+    public float getX(int index) {
+        return x[index];
+    }
+
+    public float getY(int index) {
+        return y[index];
+    }
+
+    public int getStrokeWidth(int index) {
+        return strokeWidth[index];
+    }
+}
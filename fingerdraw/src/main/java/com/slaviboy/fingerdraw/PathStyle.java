@@ -0,0 +1,218 @@
+package com.slaviboy.fingerdraw;
+
+import android.graphics.Color;
+
+/**
+ * Copyright (c) 2019 Stanislav Georgiev. (MIT License)
+ * https://github.com/slaviboy
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * - The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * - The Software is provided "as is", without warranty of any kind, express or
+ * implied, including but not limited to the warranties of merchantability,
+ * fitness for a particular purpose and noninfringement. In no event shall the
+ * authors or copyright holders be liable for any claim, damages or other
+ * liability, whether in an action of contract, tort or otherwise, arising from,
+ * out of or in connection with the Software or the use or other dealings in the
+ * Software.
+ * <p>
+ * <p>
+ * PathStyle Class(Java) is immutable snapshot of the properties that change
+ * how {@link Path} looks, -color, -path type, -opacity, -stroke width, fadeout
+ * duration, number of segments, trail length and age, width profile, gradient and pressure curve.
+ * Since it can not be changed after it is built, it can be safely passed from
+ * any thread to the scene, which applies all properties at once at the start
+ * of the next frame.
+ */
+
+public final class PathStyle {
+
+    private final int color;              // path color
+    private final int pathType;           // path type, or CUSTOM if -widthProfile is set
+    private final int opacity;            // opacity of the segments
+    private final int strokeWidth;        // maximum stroke width
+    private final int fadeOutDuration;    // duration for fadeout effect
+    private final int maxNumSegments;     // maximum number of path segments that will be drawn
+    private final float maxLength;        // maximum length of the trail in pixels, or 0 to limit it by -maxNumSegments
+    private final int maxAge;             // maximum age of the samples in the trail in (ms), or 0 if not limited by age
+    private final WidthProfile widthProfile; // custom width profile, or null to use the -pathType
+    private final TrailGradient gradient; // color gradient along the path, or null for solid color
+    private final PressureCurve pressureCurve; // curve that maps sample pressure and size to stroke width factor
+
+    private PathStyle(Builder builder) {
+        color = builder.color;
+        pathType = builder.widthProfile != null ? Path.CUSTOM : builder.pathType;
+        opacity = builder.opacity;
+        strokeWidth = builder.strokeWidth;
+        fadeOutDuration = builder.fadeOutDuration;
+        maxNumSegments = builder.maxNumSegments;
+        maxLength = builder.maxLength;
+        maxAge = builder.maxAge;
+        widthProfile = builder.widthProfile;
+        gradient = builder.gradient;
+        pressureCurve = builder.pressureCurve;
+    }
+
+    /**
+     * Builder class for the style, with the same default values as {@link Path.Builder}
+     */
+    public static class Builder {
+
+        private int color;
+        private int pathType;
+        private int opacity;
+        private int strokeWidth;
+        private int fadeOutDuration;
+        private int maxNumSegments;
+        private float maxLength;
+        private int maxAge;
+        private WidthProfile widthProfile;
+        private TrailGradient gradient;
+        private PressureCurve pressureCurve;
+
+        public Builder() {
+
+            // default values
+            color = Color.BLACK;
+            pathType = Path.SMALLER_NEAR_FINGER;
+            opacity = 4;
+            strokeWidth = 70;
+            fadeOutDuration = 200;
+            maxNumSegments = 25;
+            pressureCurve = PressureCurve.NONE;
+        }
+
+        /**
+         * Builder that starts with the values of existing style, so only
+         * some of them can be changed
+         *
+         * @param style - the existing style
+         */
+        public Builder(PathStyle style) {
+            color = style.color;
+            pathType = style.pathType;
+            opacity = style.opacity;
+            strokeWidth = style.strokeWidth;
+            fadeOutDuration = style.fadeOutDuration;
+            maxNumSegments = style.maxNumSegments;
+            maxLength = style.maxLength;
+            maxAge = style.maxAge;
+            widthProfile = style.widthProfile;
+            gradient = style.gradient;
+            pressureCurve = style.pressureCurve;
+        }
+
+        public Builder withColor(int color) {
+            this.color = color;
+            return this;
+        }
+
+        /**
+         * Set the path type, it also removes custom width profile
+         */
+        public Builder withPathType(int pathType) {
+            this.pathType = pathType;
+            this.widthProfile = null;
+            return this;
+        }
+
+        public Builder withOpacity(int opacity) {
+            this.opacity = opacity;
+            return this;
+        }
+
+        public Builder withStrokeWidth(int strokeWidth) {
+            this.strokeWidth = strokeWidth;
+            return this;
+        }
+
+        public Builder withMaxNumSegments(int maxNumSegments) {
+            this.maxNumSegments = maxNumSegments;
+            return this;
+        }
+
+        public Builder withMaxLength(float maxLength) {
+            this.maxLength = maxLength;
+            return this;
+        }
+
+        public Builder withMaxAge(int maxAge) {
+            this.maxAge = maxAge;
+            return this;
+        }
+
+        public Builder withFadeOutDuration(int fadeOutDuration) {
+            this.fadeOutDuration = fadeOutDuration;
+            return this;
+        }
+
+        public Builder withWidthProfile(WidthProfile widthProfile) {
+            this.widthProfile = widthProfile;
+            return this;
+        }
+
+        public Builder withGradient(TrailGradient gradient) {
+            this.gradient = gradient;
+            return this;
+        }
+
+        public Builder withPressureCurve(PressureCurve pressureCurve) {
+            this.pressureCurve = pressureCurve;
+            return this;
+        }
+
+        public PathStyle build() {
+            return new PathStyle(this);
+        }
+    }
+
+    public int getColor() {
+        return color;
+    }
+
+    public int getPathType() {
+        return pathType;
+    }
+
+    public int getOpacity() {
+        return opacity;
+    }
+
+    public int getStrokeWidth() {
+        return strokeWidth;
+    }
+
+    public int getFadeOutDuration() {
+        return fadeOutDuration;
+    }
+
+    public int getMaxNumSegments() {
+        return maxNumSegments;
+    }
+
+    public float getMaxLength() {
+        return maxLength;
+    }
+
+    public int getMaxAge() {
+        return maxAge;
+    }
+
+    public WidthProfile getWidthProfile() {
+        return widthProfile;
+    }
+
+    public TrailGradient getGradient() {
+        return gradient;
+    }
+
+    public PressureCurve getPressureCurve() {
+        return pressureCurve;
+    }
+}
@@ -0,0 +1,361 @@
+package com.slaviboy.fingerdraw;
+
+import java.util.Arrays;
+
+/**
+ * Copyright (c) 2019 Stanislav Georgiev. (MIT License)
+ * https://github.com/slaviboy
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * - The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * - The Software is provided "as is", without warranty of any kind, express or
+ * implied, including but not limited to the warranties of merchantability,
+ * fitness for a particular purpose and noninfringement. In no event shall the
+ * authors or copyright holders be liable for any claim, damages or other
+ * liability, whether in an action of contract, tort or otherwise, arising from,
+ * out of or in connection with the Software or the use or other dealings in the
+ * Software.
+ * <p>
+ * <p>
+ * PointBuffer Class(Java) that holds the samples the finger has passed trough,
+ * stored in primitive arrays instead of separate point objects. For each sample
+ * the -x and -y coordinates, the -pressure and -touch major reported by the
+ * touch screen, the -width factor produced by the pressure curve and the event
+ * -time are kept. Samples are appended at the end and expire from the start,
+ * which only moves the index of the first sample, the arrays are compacted
+ * when there is no more space at the end, so both cost O(1) on average.
+ * The -distance along the path is kept as prefix sum, so the sample at given
+ * distance, as the sample at given time, is found using binary search. The
+ * prefix sums are computed only when they are needed, for the samples added since.
+ */
+
+public class PointBuffer {
+
+    private static final int DEFAULT_CAPACITY = 64;
+
+    private float[] x;                // x coordinates of the samples
+    private float[] y;                // y coordinates of the samples
+    private float[] pressure;         // normalized pressure of the samples
+    private float[] touchMajor;       // length of the major axis of the touch area
+    private float[] widthFactor;      // stroke width multiplier, mapped from pressure and size
+    private long[] time;              // event time of the samples in (ms)
+    private float[] distance;         // arc length from the start of the arrays to each sample
+    private int first;                // index of the first sample in the arrays
+    private int size;                 // number of samples currently in the buffer
+    private int numMeasured;          // number of samples with computed -distance
+
+    public PointBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public PointBuffer(int capacity) {
+        capacity = Math.max(capacity, 1);
+        x = new float[capacity];
+        y = new float[capacity];
+        pressure = new float[capacity];
+        touchMajor = new float[capacity];
+        widthFactor = new float[capacity];
+        time = new long[capacity];
+        distance = new float[capacity];
+        size = 0;
+    }
+
+    /**
+     * Append new sample at the end of the buffer, with event time 0
+     *
+     * @param x           - coordinate
+     * @param y           - coordinate
+     * @param pressure    - normalized pressure
+     * @param touchMajor  - touch major in pixels
+     * @param widthFactor - stroke width multiplier for the sample
+     */
+    public void add(float x, float y, float pressure, float touchMajor, float widthFactor) {
+        add(x, y, pressure, touchMajor, widthFactor, 0L);
+    }
+
+    /**
+     * Append new sample at the end of the buffer, making space if there
+     * is no more free space at the end of the arrays.
+     *
+     * @param x           - coordinate
+     * @param y           - coordinate
+     * @param pressure    - normalized pressure
+     * @param touchMajor  - touch major in pixels
+     * @param widthFactor - stroke width multiplier for the sample
+     * @param time        - event time in (ms), not smaller than the time of the previous sample
+     */
+    public void add(float x, float y, float pressure, float touchMajor, float widthFactor, long time) {
+        if (first + size == this.x.length) {
+            makeSpace(1);
+        }
+
+        int index = first + size;
+        this.x[index] = x;
+        this.y[index] = y;
+        this.pressure[index] = pressure;
+        this.touchMajor[index] = touchMajor;
+        this.widthFactor[index] = widthFactor;
+        this.time[index] = time;
+        size++;
+    }
+
+    /**
+     * Append many samples with the same -pressure, -touch major and -width
+     * factor, copying the coordinates in bulk
+     *
+     * @param x           - x coordinates
+     * @param y           - y coordinates
+     * @param offset      - index of the first sample in the arrays with coordinates
+     * @param count       - number of samples
+     * @param pressure    - normalized pressure
+     * @param touchMajor  - touch major in pixels
+     * @param widthFactor - stroke width multiplier for the samples
+     */
+    public void addAll(float[] x, float[] y, int offset, int count,
+                       float pressure, float touchMajor, float widthFactor) {
+        addAll(x, y, null, offset, count, pressure, touchMajor, widthFactor, 0L);
+    }
+
+    /**
+     * Append many samples with the same -pressure, -touch major and -width
+     * factor, copying the coordinates and the event times in bulk
+     *
+     * @param x           - x coordinates
+     * @param y           - y coordinates
+     * @param times       - event times in (ms), or null to use -defaultTime for all samples
+     * @param offset      - index of the first sample in the arrays with coordinates
+     * @param count       - number of samples
+     * @param pressure    - normalized pressure
+     * @param touchMajor  - touch major in pixels
+     * @param widthFactor - stroke width multiplier for the samples
+     * @param defaultTime - event time used if -times is null
+     */
+    public void addAll(float[] x, float[] y, long[] times, int offset, int count,
+                       float pressure, float touchMajor, float widthFactor, long defaultTime) {
+        if (first + size + count > this.x.length) {
+            makeSpace(count);
+        }
+        int index = first + size;
+        System.arraycopy(x, offset, this.x, index, count);
+        System.arraycopy(y, offset, this.y, index, count);
+        Arrays.fill(this.pressure, index, index + count, pressure);
+        Arrays.fill(this.touchMajor, index, index + count, touchMajor);
+        Arrays.fill(this.widthFactor, index, index + count, widthFactor);
+        if (times != null) {
+            System.arraycopy(times, offset, this.time, index, count);
+        } else {
+            Arrays.fill(this.time, index, index + count, defaultTime);
+        }
+        size += count;
+    }
+
+    /**
+     * Compute the prefix sums for the samples added since last call
+     */
+    private void measure() {
+        if (numMeasured == 0 && size > 0) {
+            distance[first] = 0f;
+            numMeasured = 1;
+        }
+        for (int i = first + numMeasured; i < first + size; i++) {
+            float dx = x[i] - x[i - 1];
+            float dy = y[i] - y[i - 1];
+            distance[i] = distance[i - 1] + (float) Math.sqrt(dx * dx + dy * dy);
+        }
+        numMeasured = size;
+    }
+
+    /**
+     * Append a copy of the last sample, used by the fade out effect
+     * to shrink the visible part of the path.
+     */
+    public void repeatLast() {
+        if (size == 0) {
+            return;
+        }
+        int last = first + size - 1;
+        add(x[last], y[last], pressure[last], touchMajor[last], widthFactor[last], time[last]);
+    }
+
+    /**
+     * Make sure the arrays can hold at least -minCapacity samples
+     *
+     * @param minCapacity - minimum number of samples
+     */
+    public void ensureCapacity(int minCapacity) {
+        if (first + minCapacity > x.length) {
+            makeSpace(minCapacity - size);
+        }
+    }
+
+    /**
+     * Make space for -count samples at the end of the arrays, by moving the
+     * samples to the start of the arrays if they take at most half of them
+     * after the new samples are added, or by growing the arrays otherwise
+     */
+    private void makeSpace(int count) {
+        if (first > 0 && 2 * (size + count) <= x.length) {
+            moveTo(x, y, pressure, touchMajor, widthFactor, time, distance);
+        } else {
+            int capacity = Math.max(x.length * 2, size + count);
+            moveTo(new float[capacity], new float[capacity], new float[capacity], new float[capacity],
+                    new float[capacity], new long[capacity], new float[capacity]);
+        }
+    }
+
+    /**
+     * Move the samples to the start of the given arrays, and use them as the buffer
+     */
+    private void moveTo(float[] x, float[] y, float[] pressure, float[] touchMajor,
+                        float[] widthFactor, long[] time, float[] distance) {
+        System.arraycopy(this.x, first, x, 0, size);
+        System.arraycopy(this.y, first, y, 0, size);
+        System.arraycopy(this.pressure, first, pressure, 0, size);
+        System.arraycopy(this.touchMajor, first, touchMajor, 0, size);
+        System.arraycopy(this.widthFactor, first, widthFactor, 0, size);
+        System.arraycopy(this.time, first, time, 0, size);
+
+        // computed distances are kept from the first sample
+        float start = numMeasured > 0 ? this.distance[first] : 0f;
+        for (int i = 0; i < numMeasured; i++) {
+            distance[i] = this.distance[first + i] - start;
+        }
+        this.x = x;
+        this.y = y;
+        this.pressure = pressure;
+        this.touchMajor = touchMajor;
+        this.widthFactor = widthFactor;
+        this.time = time;
+        this.distance = distance;
+        first = 0;
+    }
+
+    /**
+     * Keep only the last -count samples, the older samples expire by moving
+     * the index of the first sample, so it costs O(1)
+     *
+     * @param count - number of samples to keep
+     */
+    public void keepLast(int count) {
+        if (count >= size) {
+            return;
+        }
+        int removed = size - Math.max(count, 0);
+        first += removed;
+        size -= removed;
+        numMeasured = Math.max(numMeasured - removed, 0);
+        if (size == 0) {
+            first = 0;
+        }
+    }
+
+    /**
+     * Remove all samples, the allocated arrays are kept and reused
+     */
+    public void clear() {
+        first = 0;
+        size = 0;
+        numMeasured = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return x.length;
+    }
+
+    public float getX(int index) {
+        return x[first + index];
+    }
+
+    public float getY(int index) {
+        return y[first + index];
+    }
+
+    public float getPressure(int index) {
+        return pressure[first + index];
+    }
+
+    public float getTouchMajor(int index) {
+        return touchMajor[first + index];
+    }
+
+    public float getWidthFactor(int index) {
+        return widthFactor[first + index];
+    }
+
+    public long getTime(int index) {
+        return time[first + index];
+    }
+
+    /**
+     * Get the arc length from the first sample to the sample with -index
+     *
+     * @param index - index of the sample
+     * @return the distance
+     */
+    public float getDistance(int index) {
+        measure();
+        return distance[first + index] - distance[first];
+    }
+
+    /**
+     * Get the arc length from the first to the last sample
+     *
+     * @return the length
+     */
+    public float getLength() {
+        return size == 0 ? 0f : getDistance(size - 1);
+    }
+
+    /**
+     * Find the first sample whose distance from the first sample is at least
+     * -distance, using binary search on the prefix sums
+     *
+     * @param distance - the distance
+     * @return index of the sample, or size() if the path is shorter
+     */
+    public int indexAtDistance(float distance) {
+        measure();
+        float start = size > 0 ? this.distance[first] : 0f;
+        int low = first;
+        int high = first + size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (this.distance[middle] - start < distance) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low - first;
+    }
+
+    /**
+     * Find the first sample with event time at least -time, using binary search
+     *
+     * @param time - the time in (ms)
+     * @return index of the sample, or size() if all samples are older
+     */
+    public int indexAtTime(long time) {
+        int low = first;
+        int high = first + size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (this.time[middle] < time) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low - first;
+    }
+}
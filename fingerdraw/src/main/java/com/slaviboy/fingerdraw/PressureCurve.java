@@ -0,0 +1,94 @@
+package com.slaviboy.fingerdraw;
+
+/**
+ * Copyright (c) 2019 Stanislav Georgiev. (MIT License)
+ * https://github.com/slaviboy
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * - The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * - The Software is provided "as is", without warranty of any kind, express or
+ * implied, including but not limited to the warranties of merchantability,
+ * fitness for a particular purpose and noninfringement. In no event shall the
+ * authors or copyright holders be liable for any claim, damages or other
+ * liability, whether in an action of contract, tort or otherwise, arising from,
+ * out of or in connection with the Software or the use or other dealings in the
+ * Software.
+ * <p>
+ * <p>
+ * PressureCurve Class(Java) is an abstract class, that maps the -pressure and
+ * -touch major of a touch sample to a stroke width factor in range [0,1]. The
+ * factor is calculated once when the sample is added to the path, and is then
+ * multiplied by the segment stroke width when the path is drawn.
+ */
+
+public abstract class PressureCurve {
+
+    // ignores pressure and size, the stroke width is not changed
+    public static final PressureCurve NONE = new PressureCurve() {
+        @Override
+        public float map(float pressure, float touchMajor) {
+            return 1f;
+        }
+    };
+
+    // stroke width follows the pressure linearly
+    public static final PressureCurve LINEAR = gamma(1f, 0f);
+
+    /**
+     * Get width factor for given sample
+     *
+     * @param pressure   - normalized pressure, usually in range [0,1]
+     * @param touchMajor - length of the major axis of the touch area in pixels
+     * @return width factor in range [0,1]
+     */
+    public abstract float map(float pressure, float touchMajor);
+
+    /**
+     * Create curve that maps pressure using power function, the result is
+     * limited to range [minFactor,1], so light touches are still visible.
+     *
+     * @param exponent  - curve exponent, values below 1 boost light touches
+     * @param minFactor - minimum width factor
+     * @return the pressure curve
+     */
+    public static PressureCurve gamma(final float exponent, final float minFactor) {
+        return new PressureCurve() {
+            @Override
+            public float map(float pressure, float touchMajor) {
+                return minFactor + (1f - minFactor) * (float) Math.pow(clamp(pressure), exponent);
+            }
+        };
+    }
+
+    /**
+     * Create curve that maps the touch major (contact size) linearly, between
+     * -minTouchMajor and -maxTouchMajor, to range [minFactor,1]. Useful for
+     * devices that do not report real pressure values.
+     *
+     * @param minTouchMajor - touch major mapped to -minFactor
+     * @param maxTouchMajor - touch major mapped to 1
+     * @param minFactor     - minimum width factor
+     * @return the pressure curve
+     */
+    public static PressureCurve contactSize(final float minTouchMajor, final float maxTouchMajor,
+                                            final float minFactor) {
+        return new PressureCurve() {
+            @Override
+            public float map(float pressure, float touchMajor) {
+                float range = maxTouchMajor - minTouchMajor;
+                float t = range > 0 ? (touchMajor - minTouchMajor) / range : 1f;
+                return minFactor + (1f - minFactor) * clamp(t);
+            }
+        };
+    }
+
+    private static float clamp(float value) {
+        return value < 0f ? 0f : (value > 1f ? 1f : value);
+    }
+}
@@ -0,0 +1,918 @@
+package com.slaviboy.fingerdraw;
+
+import android.graphics.Matrix;
+import android.graphics.Paint;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Copyright (c) 2019 Stanislav Georgiev. (MIT License)
+ * https://github.com/slaviboy
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * - The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * - The Software is provided "as is", without warranty of any kind, express or
+ * implied, including but not limited to the warranties of merchantability,
+ * fitness for a particular purpose and noninfringement. In no event shall the
+ * authors or copyright holders be liable for any claim, damages or other
+ * liability, whether in an action of contract, tort or otherwise, arising from,
+ * out of or in connection with the Software or the use or other dealings in the
+ * Software.
+ * <p>
+ * <p>
+ * Scene Class(Java) holds the -paths and -circles for each finger, and is the
+ * part of the canvas that does not depend on the android view system. Touch
+ * input, the fadeout effect and the geometry preparation for each frame are
+ * made trough the scene, which makes it possible to drive it without a view.
+ * All methods are synchronized, since they are called from the touch, the
+ * fadeout timer and the drawing threads, and the drawing thread holds the scene
+ * monitor while it prepares and draws the frame. Only publishing styles does not
+ * take the monitor, the immutable snapshots are applied at the start of the next
+ * frame. The setters of the paths and circles change them right away, so while
+ * the scene is drawn they should be called only while holding the scene monitor,
+ * or replaced with {@link #setPathStyle(PathStyle)} and {@link #setCircleStyle(CircleStyle)}.
+ */
+
+public class Scene {
+
+    private Path[] paths;                 // array with finger data for each finger
+    private Circle[] circles;             // circles that is draw at current finger position
+    private Clock clock;                  // clock used for the fadeout effect
+    private List<Listener> listeners;     // listeners notified on input and on each frame
+    private ParticleSystem particles;     // particles emitted from the finger position, or null
+    private int structureVersion;         // incremented when the arrays with shapes are replaced
+    private Symmetry symmetry;            // symmetry used to draw multiple instances of the scene, or null
+    private SpriteCache sprites;          // pre-rasterized shapes of the circles, created on the first draw
+    private WorkerPool workers;           // pool used to prepare the paths in parallel, or null
+    private Path[] changedPaths;          // paths whose geometry is prepared by the workers
+    private WorkerPool.Task prepareTask;  // task that prepares the changed path with given index
+    private InputFilter inputFilter;      // filter for the samples of all fingers, or null
+    private InputFilter[] fingerFilters;  // filters that replace -inputFilter for given fingers, or null
+    private float[] sample;               // sample that is being filtered
+    private final Object injectionLock = new Object(); // lock for the pending injections
+    private TrailInjection pendingInjections; // points injected since the last frame
+    private TrailInjection injections;    // points applied at the start of the current frame
+    private final AtomicReference<StyleUpdate> pendingStyles; // styles published since the last frame, or null
+
+    /**
+     * Listener that receives every touch sample ingested by the scene, with its
+     * event time, and is notified at the end of each frame. Points added with
+     * {@link #addPoints} or {@link #inject} are not passed to the listener. Methods are called
+     * while the scene is locked, so implementations should only copy the data
+     * and return.
+     */
+    public interface Listener {
+
+        void onDown(int arrayIndex, float x, float y, float pressure, float touchMajor, long time);
+
+        void onMove(int arrayIndex, float x, float y, float pressure, float touchMajor, long time);
+
+        void onUp(int arrayIndex, float x, float y, float pressure, float touchMajor, long time);
+
+        void onFadeOut(long time);
+
+        void onFrame(long time);
+    }
+
+    /**
+     * Immutable set of styles published since the last frame. Styles for
+     * all fingers are applied first, and then the styles for single fingers.
+     * Each change creates new update, so it can be published without locks.
+     */
+    private static final class StyleUpdate {
+
+        final PathStyle pathStyle;        // style for all paths, or null
+        final CircleStyle circleStyle;    // style for all circles, or null
+        final PathStyle[] pathStyles;     // styles for single paths, with null for unchanged paths
+        final CircleStyle[] circleStyles; // styles for single circles, with null for unchanged circles
+
+        StyleUpdate(PathStyle pathStyle, CircleStyle circleStyle,
+                    PathStyle[] pathStyles, CircleStyle[] circleStyles) {
+            this.pathStyle = pathStyle;
+            this.circleStyle = circleStyle;
+            this.pathStyles = pathStyles;
+            this.circleStyles = circleStyles;
+        }
+
+        /**
+         * Get copy of the -update with the path style of given finger, or of
+         * all fingers if -arrayIndex is negative, that replaces the earlier ones
+         */
+        static StyleUpdate withPathStyle(StyleUpdate update, int arrayIndex, PathStyle style) {
+            if (update == null) {
+                update = new StyleUpdate(null, null, new PathStyle[0], new CircleStyle[0]);
+            }
+            if (arrayIndex < 0) {
+                return new StyleUpdate(style, update.circleStyle, new PathStyle[0], update.circleStyles);
+            }
+            PathStyle[] styles = Arrays.copyOf(update.pathStyles, Math.max(update.pathStyles.length, arrayIndex + 1));
+            styles[arrayIndex] = style;
+            return new StyleUpdate(update.pathStyle, update.circleStyle, styles, update.circleStyles);
+        }
+
+        /**
+         * Get copy of the -update with the circle style of given finger, or of
+         * all fingers if -arrayIndex is negative, that replaces the earlier ones
+         */
+        static StyleUpdate withCircleStyle(StyleUpdate update, int arrayIndex, CircleStyle style) {
+            if (update == null) {
+                update = new StyleUpdate(null, null, new PathStyle[0], new CircleStyle[0]);
+            }
+            if (arrayIndex < 0) {
+                return new StyleUpdate(update.pathStyle, style, update.pathStyles, new CircleStyle[0]);
+            }
+            CircleStyle[] styles = Arrays.copyOf(update.circleStyles, Math.max(update.circleStyles.length, arrayIndex + 1));
+            styles[arrayIndex] = style;
+            return new StyleUpdate(update.pathStyle, update.circleStyle, update.pathStyles, styles);
+        }
+    }
+
+    public Scene() {
+        // default allowed number of fingers is two
+        this(2);
+    }
+
+    public Scene(int numFingers) {
+        paths = new Path[numFingers];
+        circles = new Circle[numFingers];
+        for (int i = 0; i < numFingers; i++) {
+            paths[i] = new Path();
+            circles[i] = new Circle();
+        }
+        clock = Clock.SYSTEM;
+        listeners = new ArrayList<>();
+        fingerFilters = new InputFilter[0];
+        sample = new float[InputFilter.SAMPLE_SIZE];
+        pendingInjections = new TrailInjection();
+        injections = new TrailInjection();
+        pendingStyles = new AtomicReference<>();
+        prepareTask = new WorkerPool.Task() {
+            @Override
+            public void run(int index) {
+                changedPaths[index].prepare();
+            }
+        };
+    }
+
+    /**
+     * Called when finger is down, to set that the finger is tracked, reset
+     * the buffer with points and stop the fadeout effect
+     *
+     * @param arrayIndex - array index corresponding to the consecutive finger on screen
+     * @param x          - finger coordinates
+     * @param y          - finger coordinates
+     * @param pressure   - finger pressure
+     * @param touchMajor - finger touch major
+     */
+    public synchronized void down(int arrayIndex, float x, float y, float pressure, float touchMajor) {
+        down(arrayIndex, x, y, pressure, touchMajor, clock.currentTimeMillis());
+    }
+
+    /**
+     * Called when finger is down, with the event time of the sample
+     *
+     * @param arrayIndex - array index corresponding to the consecutive finger on screen
+     * @param x          - finger coordinates
+     * @param y          - finger coordinates
+     * @param pressure   - finger pressure
+     * @param touchMajor - finger touch major
+     * @param time       - event time in (ms), for example {@link android.view.MotionEvent#getEventTime()}
+     */
+    public synchronized void down(int arrayIndex, float x, float y, float pressure, float touchMajor, long time) {
+        if (arrayIndex < paths.length) {
+            filter(arrayIndex, InputFilter.DOWN, x, y, pressure, touchMajor, time);
+            x = sample[InputFilter.X];
+            y = sample[InputFilter.Y];
+            pressure = sample[InputFilter.PRESSURE];
+            touchMajor = sample[InputFilter.TOUCH_MAJOR];
+
+            paths[arrayIndex].clearPoints(); // reset point buffer
+            update(arrayIndex, x, y, pressure, touchMajor, time, true, false);
+            if (particles != null) {
+                particles.emit(x, y);
+            }
+
+            for (int i = 0; i < listeners.size(); i++) {
+                listeners.get(i).onDown(arrayIndex, x, y, pressure, touchMajor, time);
+            }
+        }
+    }
+
+    /**
+     * Called when finger is up, to set that the finger is no longer being
+     * tracked and fadeout should start
+     *
+     * @param arrayIndex - array index corresponding to the consecutive finger on screen
+     * @param x          - finger coordinates
+     * @param y          - finger coordinates
+     * @param pressure   - finger pressure
+     * @param touchMajor - finger touch major
+     */
+    public synchronized void up(int arrayIndex, float x, float y, float pressure, float touchMajor) {
+        up(arrayIndex, x, y, pressure, touchMajor, clock.currentTimeMillis());
+    }
+
+    /**
+     * Called when finger is up, with the event time of the sample
+     *
+     * @param arrayIndex - array index corresponding to the consecutive finger on screen
+     * @param x          - finger coordinates
+     * @param y          - finger coordinates
+     * @param pressure   - finger pressure
+     * @param touchMajor - finger touch major
+     * @param time       - event time in (ms)
+     */
+    public synchronized void up(int arrayIndex, float x, float y, float pressure, float touchMajor, long time) {
+        if (arrayIndex < paths.length) {
+            filter(arrayIndex, InputFilter.UP, x, y, pressure, touchMajor, time);
+            x = sample[InputFilter.X];
+            y = sample[InputFilter.Y];
+            pressure = sample[InputFilter.PRESSURE];
+            touchMajor = sample[InputFilter.TOUCH_MAJOR];
+
+            update(arrayIndex, x, y, pressure, touchMajor, time, false, true);
+            paths[arrayIndex].resetFadeOut(); // fadeout effect starts from the whole trail
+
+            for (int i = 0; i < listeners.size(); i++) {
+                listeners.get(i).onUp(arrayIndex, x, y, pressure, touchMajor, time);
+            }
+        }
+    }
+
+    /**
+     * Called when finger is moved, to add point with current finger position
+     * for corresponding -path and set new coordinates for -circle
+     *
+     * @param arrayIndex - array index corresponding to the consecutive finger on screen
+     * @param x          - finger coordinates
+     * @param y          - finger coordinates
+     * @param pressure   - finger pressure
+     * @param touchMajor - finger touch major
+     */
+    public synchronized void move(int arrayIndex, float x, float y, float pressure, float touchMajor) {
+        move(arrayIndex, x, y, pressure, touchMajor, clock.currentTimeMillis());
+    }
+
+    /**
+     * Called when finger is moved, with the event time of the sample, the
+     * batched samples of one touch event should be passed one by one, each
+     * with its own time
+     *
+     * @param arrayIndex - array index corresponding to the consecutive finger on screen
+     * @param x          - finger coordinates
+     * @param y          - finger coordinates
+     * @param pressure   - finger pressure
+     * @param touchMajor - finger touch major
+     * @param time       - event time in (ms), for example {@link android.view.MotionEvent#getHistoricalEventTime(int)}
+     */
+    public synchronized void move(int arrayIndex, float x, float y, float pressure, float touchMajor, long time) {
+
+        // if it is being tracked, and the sample is not dropped by the filter
+        if (arrayIndex < paths.length && paths[arrayIndex].isTracking()
+                && filter(arrayIndex, InputFilter.MOVE, x, y, pressure, touchMajor, time)) {
+            x = sample[InputFilter.X];
+            y = sample[InputFilter.Y];
+            pressure = sample[InputFilter.PRESSURE];
+            touchMajor = sample[InputFilter.TOUCH_MAJOR];
+
+            paths[arrayIndex].addPoint(x, y, pressure, touchMajor, time); // add new point to path
+            circles[arrayIndex].move(x, y);                               // move circle position
+            if (particles != null) {
+                particles.emit(x, y);
+            }
+
+            for (int i = 0; i < listeners.size(); i++) {
+                listeners.get(i).onMove(arrayIndex, x, y, pressure, touchMajor, time);
+            }
+        }
+    }
+
+    /**
+     * Add many points to the trail at once, the points are copied in bulk
+     * into the path. Injected points do not come from the touch screen, so
+     * they are not filtered and the listeners are not notified.
+     *
+     * @param arrayIndex - array index of the trail
+     * @param x          - x coordinates
+     * @param y          - y coordinates
+     * @param offset     - index of the first point in the arrays
+     * @param numPoints  - number of points
+     * @param end        - whether the trail ends after the points, and starts to fade out
+     */
+    public synchronized void addPoints(int arrayIndex, float[] x, float[] y, int offset, int numPoints,
+                                       boolean end) {
+        addPoints(arrayIndex, x, y, null, offset, numPoints, end);
+    }
+
+    /**
+     * Add many points with event times to the trail at once, the points are
+     * copied in bulk into the path, and the listeners are not notified
+     *
+     * @param arrayIndex - array index of the trail
+     * @param x          - x coordinates
+     * @param y          - y coordinates
+     * @param times      - event times in (ms), or null to use the current time for all points
+     * @param offset     - index of the first point in the arrays
+     * @param numPoints  - number of points
+     * @param end        - whether the trail ends after the points, and starts to fade out
+     */
+    public synchronized void addPoints(int arrayIndex, float[] x, float[] y, long[] times, int offset,
+                                       int numPoints, boolean end) {
+        if (arrayIndex >= paths.length || numPoints <= 0) {
+            return;
+        }
+
+        // trail that is not tracked starts again from the first kept point, as on finger down
+        Path path = paths[arrayIndex];
+        long currentTime = times == null ? clock.currentTimeMillis() : 0L;
+        if (!path.isTracking()) {
+            boolean limitedBySegments = path.getMaxLength() <= 0 && path.getMaxAge() <= 0;
+            boolean skip = path.isTrimPoints() && limitedBySegments;
+            int skipped = skip ? Math.max(numPoints - path.getMaxNumSegments(), 0) : 0;
+            offset += skipped;
+            numPoints -= skipped;
+            path.clearPoints();
+            update(arrayIndex, x[offset], y[offset], 1f, 0f, times != null ? times[offset] : currentTime, true, false);
+            offset++;
+            numPoints--;
+        }
+        path.addPoints(x, y, times, offset, numPoints, currentTime);
+
+        int last = path.getNumPoints() - 1;
+        PointBuffer points = path.getPointBuffer();
+        Circle circle = circles[arrayIndex];
+        circle.move(points.getX(last), points.getY(last));
+        if (end) {
+            path.setTracking(false);
+            path.setFading(true);
+            path.resetFadeOut();
+            circle.setTracking(false);
+            circle.setFading(true);
+        }
+    }
+
+    /**
+     * Inject points to the trail from any thread, the points are copied and
+     * applied together with all other injections at the start of the next
+     * frame, so the frame shows either all or none of them. The call does not
+     * wait for the frame that is being drawn.
+     *
+     * @param arrayIndex - array index of the trail
+     * @param x          - x coordinates
+     * @param y          - y coordinates
+     * @param offset     - index of the first point in the arrays
+     * @param numPoints  - number of points
+     * @param end        - whether the trail ends after the points, and starts to fade out
+     */
+    public void inject(int arrayIndex, float[] x, float[] y, int offset, int numPoints, boolean end) {
+        inject(arrayIndex, x, y, null, offset, numPoints, end);
+    }
+
+    /**
+     * Inject points with event times to the trail from any thread, the times
+     * are used by trails limited by age, see {@link Path#setMaxAge(int)}
+     *
+     * @param arrayIndex - array index of the trail
+     * @param x          - x coordinates
+     * @param y          - y coordinates
+     * @param times      - event times in (ms), or null to use the time of the frame
+     * @param offset     - index of the first point in the arrays
+     * @param numPoints  - number of points
+     * @param end        - whether the trail ends after the points, and starts to fade out
+     */
+    public void inject(int arrayIndex, float[] x, float[] y, long[] times, int offset, int numPoints, boolean end) {
+        synchronized (injectionLock) {
+            pendingInjections.add(arrayIndex, x, y, times, offset, numPoints, end);
+        }
+    }
+
+    /**
+     * Apply the points injected since the last frame
+     */
+    private void applyInjections() {
+        synchronized (injectionLock) {
+            TrailInjection swap = injections;
+            injections = pendingInjections;
+            pendingInjections = swap;
+        }
+        injections.applyTo(this);
+        injections.clear();
+    }
+
+    /**
+     * Publish style for all paths, it is applied at the start of the next
+     * frame, so it never changes the paths while they are drawn. Can be called
+     * from any thread, and does not wait for the scene.
+     *
+     * @param style - the style
+     */
+    public void setPathStyle(PathStyle style) {
+        publishPathStyle(-1, style);
+    }
+
+    /**
+     * Publish style for the path of given finger, it is applied at the start
+     * of the next frame, after the style for all paths
+     *
+     * @param arrayIndex - array index of the finger
+     * @param style      - the style
+     */
+    public void setPathStyle(int arrayIndex, PathStyle style) {
+        publishPathStyle(arrayIndex, style);
+    }
+
+    /**
+     * Publish style for all circles, it is applied at the start of the next
+     * frame, so it never changes the circles while they are drawn. Can be called
+     * from any thread, and does not wait for the scene.
+     *
+     * @param style - the style
+     */
+    public void setCircleStyle(CircleStyle style) {
+        publishCircleStyle(-1, style);
+    }
+
+    /**
+     * Publish style for the circle of given finger, it is applied at the start
+     * of the next frame, after the style for all circles
+     *
+     * @param arrayIndex - array index of the finger
+     * @param style      - the style
+     */
+    public void setCircleStyle(int arrayIndex, CircleStyle style) {
+        publishCircleStyle(arrayIndex, style);
+    }
+
+    private void publishPathStyle(int arrayIndex, PathStyle style) {
+        StyleUpdate update;
+        do {
+            update = pendingStyles.get();
+        } while (!pendingStyles.compareAndSet(update, StyleUpdate.withPathStyle(update, arrayIndex, style)));
+    }
+
+    private void publishCircleStyle(int arrayIndex, CircleStyle style) {
+        StyleUpdate update;
+        do {
+            update = pendingStyles.get();
+        } while (!pendingStyles.compareAndSet(update, StyleUpdate.withCircleStyle(update, arrayIndex, style)));
+    }
+
+    /**
+     * Apply the styles published since the last frame, all of them at once
+     */
+    private void applyStyles() {
+        StyleUpdate update = pendingStyles.getAndSet(null);
+        if (update == null) {
+            return;
+        }
+        for (int i = 0; i < paths.length; i++) {
+            PathStyle pathStyle = i < update.pathStyles.length && update.pathStyles[i] != null
+                    ? update.pathStyles[i] : update.pathStyle;
+            if (pathStyle != null) {
+                paths[i].setStyle(pathStyle);
+            }
+            CircleStyle circleStyle = i < update.circleStyles.length && update.circleStyles[i] != null
+                    ? update.circleStyles[i] : update.circleStyle;
+            if (circleStyle != null) {
+                circles[i].setStyle(circleStyle);
+            }
+        }
+    }
+
+    /**
+     * Put the values in -sample and filter them with the filter of the finger,
+     * using the event time of the sample, so the filters do not depend on
+     * when the samples are delivered
+     *
+     * @return false if the sample is dropped
+     */
+    private boolean filter(int arrayIndex, int action, float x, float y, float pressure, float touchMajor,
+                           long time) {
+        sample[InputFilter.X] = x;
+        sample[InputFilter.Y] = y;
+        sample[InputFilter.PRESSURE] = pressure;
+        sample[InputFilter.TOUCH_MAJOR] = touchMajor;
+
+        InputFilter filter = arrayIndex < fingerFilters.length && fingerFilters[arrayIndex] != null
+                ? fingerFilters[arrayIndex] : inputFilter;
+        return filter == null || filter.filter(arrayIndex, action, time, sample)
+                || action != InputFilter.MOVE;
+    }
+
+    /**
+     * Update path and circle for given finger, using arrayIndex, set
+     * -tracking and -fading properties, and set new position coordinates -x and -y
+     */
+    private void update(int arrayIndex, float x, float y, float pressure, float touchMajor, long time,
+                        boolean isTracking, boolean isFading) {
+        Path p = paths[arrayIndex];
+        p.setFading(isFading);
+        p.setTracking(isTracking);
+        p.addPoint(x, y, pressure, touchMajor, time); //!
+
+        Circle c = circles[arrayIndex];
+        c.setFading(isFading);
+        c.setTracking(isTracking);
+        c.move(x, y);
+    }
+
+    /**
+     * Apply the fadeout effect to all shapes, using the current time from the clock
+     */
+    public synchronized void fadeOut() {
+        fadeOut(clock.currentTimeMillis());
+    }
+
+    /**
+     * Apply the fadeout effect to all shapes, using given time
+     *
+     * @param currentTime - current time in (ms)
+     */
+    public synchronized void fadeOut(long currentTime) {
+        for (int i = 0; i < paths.length; i++) {
+            paths[i].fadeOut(currentTime);
+            circles[i].fadeOut(currentTime);
+        }
+
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).onFadeOut(currentTime);
+        }
+    }
+
+    /**
+     * Prepare the geometry of all paths for the current frame, after applying
+     * the injected points and removing the expired ones. If worker pool is set the changed paths are prepared
+     * in parallel, and the method returns when all of them are prepared
+     */
+    public synchronized void prepare() {
+        applyStyles();
+        applyInjections();
+        long currentTime = clock.currentTimeMillis();
+        for (int i = 0; i < paths.length; i++) {
+            paths[i].expire(currentTime);
+        }
+        if (workers == null) {
+            for (int i = 0; i < paths.length; i++) {
+                paths[i].prepare();
+            }
+        } else {
+            if (changedPaths == null || changedPaths.length < paths.length) {
+                changedPaths = new Path[paths.length];
+            }
+            int numChanged = 0;
+            for (int i = 0; i < paths.length; i++) {
+                if (!paths[i].isPrepared()) {
+                    changedPaths[numChanged++] = paths[i];
+                }
+            }
+            workers.run(prepareTask, numChanged);
+        }
+        prepareParticles();
+        notifyFrame();
+    }
+
+    /**
+     * Prepare and draw all shapes on the canvas
+     *
+     * @param canvas
+     * @param paint
+     */
+    public synchronized void draw(android.graphics.Canvas canvas, Paint paint) {
+        prepare();
+        submit(canvas, paint);
+    }
+
+    /**
+     * Draw the geometry prepared for the current frame, without preparing
+     * it again, can be used to draw the same frame on multiple canvases.
+     *
+     * @param canvas
+     * @param paint
+     */
+    public synchronized void submit(android.graphics.Canvas canvas, Paint paint) {
+        Matrix[] transforms = getTransforms(canvas);
+        for (int i = 0; i < paths.length; i++) {
+            paths[i].submit(canvas, paint, transforms);
+            drawCircle(circles[i], canvas, paint, transforms);
+        }
+        submitParticles(canvas, paint);
+    }
+
+    /**
+     * Draw only the prepared paths, used to draw the paths in separate layer
+     *
+     * @param canvas
+     * @param paint
+     */
+    public synchronized void submitPaths(android.graphics.Canvas canvas, Paint paint) {
+        Matrix[] transforms = getTransforms(canvas);
+        for (int i = 0; i < paths.length; i++) {
+            paths[i].submit(canvas, paint, transforms);
+        }
+    }
+
+    /**
+     * Draw only the circles, used to draw the circles in separate layer
+     *
+     * @param canvas
+     * @param paint
+     */
+    public synchronized void submitCircles(android.graphics.Canvas canvas, Paint paint) {
+        Matrix[] transforms = getTransforms(canvas);
+        for (int i = 0; i < circles.length; i++) {
+            drawCircle(circles[i], canvas, paint, transforms);
+        }
+    }
+
+    /**
+     * Draw only the prepared particles, they change on each frame so they
+     * are not cached in layer
+     *
+     * @param canvas
+     * @param paint
+     */
+    public synchronized void submitParticles(android.graphics.Canvas canvas, Paint paint) {
+        if (particles == null) {
+            return;
+        }
+        Matrix[] transforms = getTransforms(canvas);
+        if (transforms == null) {
+            particles.submit(canvas, paint);
+            return;
+        }
+        for (int i = 0; i < transforms.length; i++) {
+            int count = canvas.save();
+            canvas.concat(transforms[i]);
+            particles.submit(canvas, paint);
+            canvas.restoreToCount(count);
+        }
+    }
+
+    /**
+     * Draw circle once for each of the -transforms, using the cached sprite
+     */
+    private void drawCircle(Circle circle, android.graphics.Canvas canvas, Paint paint,
+                            Matrix[] transforms) {
+        if (sprites == null) {
+            sprites = new SpriteCache(new BitmapSpriteRenderer());
+        }
+        if (transforms == null) {
+            circle.draw(canvas, paint, sprites);
+            return;
+        }
+        for (int i = 0; i < transforms.length; i++) {
+            int count = canvas.save();
+            canvas.concat(transforms[i]);
+            circle.draw(canvas, paint, sprites);
+            canvas.restoreToCount(count);
+        }
+    }
+
+    /**
+     * Get the canvas matrices for the symmetry instances, or null if there
+     * is no symmetry
+     */
+    private Matrix[] getTransforms(android.graphics.Canvas canvas) {
+        if (symmetry == null || symmetry.getNumInstances() == 1) {
+            return null;
+        }
+        return symmetry.getMatrices(canvas.getWidth(), canvas.getHeight());
+    }
+
+    /**
+     * Get version of all paths, it is changed when any of the paths is
+     * changed, or the paths are replaced
+     *
+     * @return the version
+     */
+    public synchronized long getPathsVersion() {
+        int version = 0;
+        for (int i = 0; i < paths.length; i++) {
+            version += paths[i].getVersion();
+        }
+        return ((long) structureVersion << 32) | (version & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Get version of all circles, it is changed when any of the circles is
+     * changed, or the circles are replaced
+     *
+     * @return the version
+     */
+    public synchronized long getCirclesVersion() {
+        int version = 0;
+        for (int i = 0; i < circles.length; i++) {
+            version += circles[i].getVersion();
+        }
+        return ((long) structureVersion << 32) | (version & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Move the particles to the current time, and prepare their vertices
+     */
+    private void prepareParticles() {
+        if (particles != null) {
+            particles.update(clock.currentTimeMillis());
+            particles.prepare();
+        }
+    }
+
+    private void notifyFrame() {
+        if (listeners.isEmpty()) {
+            return;
+        }
+        long time = clock.currentTimeMillis();
+        for (int i = 0; i < listeners.size(); i++) {
+            listeners.get(i).onFrame(time);
+        }
+    }
+
+    public synchronized void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public synchronized void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Set array with -paths, if previous and current array sizes does not
+     * match than, transfer objects from array with -circles, to new array,
+     * and if new array has bigger size then add default values.
+     *
+     * @param paths
+     */
+    public synchronized void setPaths(Path[] paths) {
+
+        // if number of path object is changed
+        if (this.paths.length != paths.length) {
+
+            Circle[] newCircle = new Circle[paths.length];
+            for (int i = 0; i < newCircle.length; i++) {
+                if (i < circles.length) {
+                    newCircle[i] = circles[i]; // add from previous paths array
+                } else {
+                    newCircle[i] = new Circle(); // if new array is bigger add default paths
+                }
+            }
+            circles = newCircle;
+        }
+
+        this.paths = paths;
+        structureVersion++;
+    }
+
+    /**
+     * Set array with -circles, if previous and current array sizes does not
+     * match than, transfer objects from array with -paths, to new array, and
+     * if new array has bigger size then add default values.
+     *
+     * @param circles
+     */
+    public synchronized void setCircles(Circle[] circles) {
+
+        // transfer circles to new array to match path size
+        if (this.circles.length != circles.length) {
+
+            Path[] newPaths = new Path[circles.length];
+            for (int i = 0; i < newPaths.length; i++) {
+                if (i < paths.length) {
+                    newPaths[i] = paths[i]; // add from previous paths array
+                } else {
+                    newPaths[i] = new Path(); // if new array is bigger add default paths
+                }
+            }
+            paths = newPaths;
+        }
+
+        this.circles = circles;
+        structureVersion++;
+    }
+
+    public synchronized Path[] getPaths() {
+        return paths;
+    }
+
+    public synchronized Circle[] getCircles() {
+        return circles;
+    }
+
+    public synchronized int getNumFingers() {
+        return paths.length;
+    }
+
+    public synchronized ParticleSystem getParticleSystem() {
+        return particles;
+    }
+
+    /**
+     * Set particle system, that emits particles from the finger position
+     *
+     * @param particles - the particle system or null to disable particles
+     */
+    public synchronized void setParticleSystem(ParticleSystem particles) {
+        this.particles = particles;
+    }
+
+    public synchronized Symmetry getSymmetry() {
+        return symmetry;
+    }
+
+    /**
+     * Set symmetry, that draws multiple rotated or mirrored instances of all
+     * shapes, the geometry is still prepared only once per frame
+     *
+     * @param symmetry - the symmetry or null to draw single instance
+     */
+    public synchronized void setSymmetry(Symmetry symmetry) {
+        this.symmetry = symmetry;
+        structureVersion++;
+    }
+
+    public synchronized SpriteCache getSpriteCache() {
+        return sprites;
+    }
+
+    /**
+     * Set cache with the pre-rasterized shapes of the circles, by default
+     * cache with bitmap sprites is created on the first draw
+     *
+     * @param sprites - the cache, for example with other memory cap or renderer
+     */
+    public synchronized void setSpriteCache(SpriteCache sprites) {
+        this.sprites = sprites;
+        structureVersion++;
+    }
+
+    /**
+     * Release the sprites of the circles, they are rasterized again on the next draw
+     */
+    public synchronized void releaseSprites() {
+        if (sprites != null) {
+            sprites.clear();
+        }
+    }
+
+    public synchronized InputFilter getInputFilter() {
+        return inputFilter;
+    }
+
+    /**
+     * Set filter for the samples of all fingers, that do not have their own
+     * filter. Listeners receive the filtered samples.
+     *
+     * @param inputFilter - the filter, or null to keep the samples as they are
+     */
+    public synchronized void setInputFilter(InputFilter inputFilter) {
+        this.inputFilter = inputFilter;
+    }
+
+    public synchronized InputFilter getInputFilter(int arrayIndex) {
+        return arrayIndex < fingerFilters.length ? fingerFilters[arrayIndex] : null;
+    }
+
+    /**
+     * Set filter for the samples of given finger, that replaces the filter
+     * set for all fingers
+     *
+     * @param arrayIndex  - array index of the finger
+     * @param inputFilter - the filter, or null to use the filter of all fingers
+     */
+    public synchronized void setInputFilter(int arrayIndex, InputFilter inputFilter) {
+        if (arrayIndex >= fingerFilters.length) {
+            fingerFilters = Arrays.copyOf(fingerFilters, arrayIndex + 1);
+        }
+        fingerFilters[arrayIndex] = inputFilter;
+    }
+
+    public synchronized WorkerPool getWorkerPool() {
+        return workers;
+    }
+
+    /**
+     * Set pool used to prepare the geometry of the paths in parallel, paths
+     * are independent so each of them can be prepared on different thread
+     *
+     * @param workers - the pool, or null to prepare the paths on the calling thread
+     */
+    public synchronized void setWorkerPool(WorkerPool workers) {
+        this.workers = workers;
+    }
+
+    public synchronized Clock getClock() {
+        return clock;
+    }
+
+    public synchronized void setClock(Clock clock) {
+        this.clock = clock;
+    }
+}
@@ -0,0 +1,191 @@
+package com.slaviboy.fingerdraw;
+
+import android.graphics.Bitmap;
+import android.graphics.Paint;
+import android.graphics.PorterDuff;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Copyright (c) 2019 Stanislav Georgiev. (MIT License)
+ * https://github.com/slaviboy
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * - The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * - The Software is provided "as is", without warranty of any kind, express or
+ * implied, including but not limited to the warranties of merchantability,
+ * fitness for a particular purpose and noninfringement. In no event shall the
+ * authors or copyright holders be liable for any claim, damages or other
+ * liability, whether in an action of contract, tort or otherwise, arising from,
+ * out of or in connection with the Software or the use or other dealings in the
+ * Software.
+ * <p>
+ * <p>
+ * SnapshotCapture Class(Java) captures the current frame of a scene into bitmap,
+ * and encodes it as PNG image on background thread. Requests can be made from
+ * any thread, and are captured by the drawing thread at the end of the next
+ * frame, while the scene is locked, so the snapshot is consistent. Bitmaps are
+ * taken from a small pool and returned after encoding, if all bitmaps are still
+ * being encoded the request waits for next frame, so drawing is never blocked.
+ */
+
+public class SnapshotCapture {
+
+    /**
+     * Callback that receives the encoded snapshot, it is called on the
+     * background thread that encoded the image.
+     */
+    public interface Callback {
+
+        void onSnapshot(byte[] png, int width, int height);
+
+        void onSnapshotFailed(Exception e);
+    }
+
+    private ConcurrentLinkedQueue<Callback> requests; // requests waiting to be captured
+    private ArrayDeque<Bitmap> pool;      // free bitmaps
+    private int numBitmaps;               // number of bitmaps created by the pool
+    private int maxBitmaps;               // maximum number of bitmaps, free or encoding
+    private Executor executor;            // executor that encodes the images
+    private android.graphics.Canvas bitmapCanvas; // canvas used to draw into the bitmaps
+
+    public SnapshotCapture() {
+        this(2);
+    }
+
+    public SnapshotCapture(int maxBitmaps) {
+        this.maxBitmaps = Math.max(maxBitmaps, 1);
+        requests = new ConcurrentLinkedQueue<>();
+        pool = new ArrayDeque<>();
+
+        // single thread, that is stopped when there is nothing to encode
+        ThreadPoolExecutor threadPool = new ThreadPoolExecutor(1, 1, 1, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>());
+        threadPool.allowCoreThreadTimeOut(true);
+        executor = threadPool;
+    }
+
+    /**
+     * Request snapshot of the next frame, can be called from any thread
+     *
+     * @param callback - callback that receives the encoded image
+     */
+    public void request(Callback callback) {
+        requests.add(callback);
+    }
+
+    public boolean hasRequests() {
+        return !requests.isEmpty();
+    }
+
+    /**
+     * Called from the drawing thread at the end of the frame, draws the
+     * prepared scene into pooled bitmap and hands it to the executor.
+     *
+     * @param scene  - the scene, with geometry prepared for the current frame
+     * @param paint  - paint used for drawing
+     * @param width  - snapshot width
+     * @param height - snapshot height
+     */
+    public void capture(Scene scene, Paint paint, int width, int height) {
+        if (requests.isEmpty() || width <= 0 || height <= 0) {
+            return;
+        }
+
+        final Bitmap bitmap = obtain(width, height);
+        if (bitmap == null) {
+            return; // all bitmaps are encoding, try again on next frame
+        }
+
+        if (bitmapCanvas == null) {
+            bitmapCanvas = new android.graphics.Canvas();
+        }
+        bitmapCanvas.setBitmap(bitmap);
+        bitmapCanvas.drawColor(0, PorterDuff.Mode.CLEAR);
+        scene.submit(bitmapCanvas, paint);
+        bitmapCanvas.setBitmap(null);
+
+        // all requests made until now get the same frame
+        final ArrayDeque<Callback> callbacks = new ArrayDeque<>();
+        Callback callback;
+        while ((callback = requests.poll()) != null) {
+            callbacks.add(callback);
+        }
+
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                encode(bitmap, callbacks);
+            }
+        });
+    }
+
+    private void encode(Bitmap bitmap, ArrayDeque<Callback> callbacks) {
+        int width = bitmap.getWidth();
+        int height = bitmap.getHeight();
+        byte[] png = null;
+        Exception error = null;
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            if (bitmap.compress(Bitmap.CompressFormat.PNG, 100, out)) {
+                png = out.toByteArray();
+            } else {
+                error = new IOException("Unable to encode snapshot");
+            }
+        } catch (Exception e) {
+            error = e;
+        } finally {
+            recycle(bitmap);
+        }
+
+        for (Callback callback : callbacks) {
+            if (error == null) {
+                callback.onSnapshot(png, width, height);
+            } else {
+                callback.onSnapshotFailed(error);
+            }
+        }
+    }
+
+    /**
+     * Get free bitmap with given size from the pool, or create new one if
+     * the pool is not full
+     */
+    private synchronized Bitmap obtain(int width, int height) {
+        while (!pool.isEmpty()) {
+            Bitmap bitmap = pool.poll();
+            if (bitmap.getWidth() == width && bitmap.getHeight() == height) {
+                return bitmap;
+            }
+
+            // size is changed, drop the old bitmap
+            bitmap.recycle();
+            numBitmaps--;
+        }
+        if (numBitmaps < maxBitmaps) {
+            numBitmaps++;
+            return Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        }
+        return null;
+    }
+
+    /**
+     * Return the bitmap to the pool
+     */
+    private synchronized void recycle(Bitmap bitmap) {
+        pool.add(bitmap);
+    }
+}
@@ -0,0 +1,166 @@
+package com.slaviboy.fingerdraw;
+
+import android.graphics.Bitmap;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Copyright (c) 2019 Stanislav Georgiev. (MIT License)
+ * https://github.com/slaviboy
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * - The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * - The Software is provided "as is", without warranty of any kind, express or
+ * implied, including but not limited to the warranties of merchantability,
+ * fitness for a particular purpose and noninfringement. In no event shall the
+ * authors or copyright holders be liable for any claim, damages or other
+ * liability, whether in an action of contract, tort or otherwise, arising from,
+ * out of or in connection with the Software or the use or other dealings in the
+ * Software.
+ * <p>
+ * <p>
+ * SpriteCache Class(Java) keeps the {@link IndicatorShape} shapes pre-rasterized
+ * into sprites, so circles under the fingers are drawn with single blit that is
+ * modulated by their opacity, instead of rasterizing the same antialiased shapes
+ * on each frame. Shapes are the keys, so circles with the same style share one
+ * sprite. The sprites are kept in LRU cache with memory cap.
+ */
+
+public class SpriteCache {
+
+    /**
+     * Sprite with the shape drawn in the center of square bitmap
+     */
+    public static class Sprite {
+
+        public IndicatorShape shape;      // shape drawn in the sprite
+        public int size;                  // width and height of the sprite in pixels
+        public Bitmap bitmap;             // bitmap with the content, set by the renderer
+    }
+
+    /**
+     * Renderer that rasterizes the sprites and draws them on the canvas
+     */
+    public interface SpriteRenderer {
+
+        void rasterize(Sprite sprite);
+
+        void drawSprite(android.graphics.Canvas canvas, Sprite sprite, float left, float top, int alpha);
+
+        void release(Sprite sprite);
+    }
+
+    private SpriteRenderer renderer;      // renderer for the sprites
+    private long maxBytes;                // memory cap for the cached sprites
+    private long bytes;                   // memory used by the cached sprites
+    private LinkedHashMap<IndicatorShape, Sprite> sprites; // cached sprites, in access order
+    private int numRasterized;            // number of sprites rasterized since creation
+
+    public SpriteCache(SpriteRenderer renderer) {
+        // default 4MB cache
+        this(renderer, 4L * 1024 * 1024);
+    }
+
+    public SpriteCache(SpriteRenderer renderer, long maxBytes) {
+        this.renderer = renderer;
+        this.maxBytes = maxBytes;
+        sprites = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Draw the -shape centered at -cx and -cy with given opacity, the sprite
+     * is rasterized only if it is not in the cache. The sprite is placed at
+     * whole pixels, so it is copied without filtering, that would blur the
+     * antialiased edges.
+     *
+     * @param canvas - canvas on which the shape is drawn
+     * @param shape  - the shape
+     * @param cx     - center x coordinate
+     * @param cy     - center y coordinate
+     * @param alpha  - opacity from 0 to 255
+     */
+    public synchronized void draw(android.graphics.Canvas canvas, IndicatorShape shape, float cx, float cy, int alpha) {
+        Sprite sprite = getSprite(shape);
+        float half = sprite.size / 2f;
+        renderer.drawSprite(canvas, sprite, Math.round(cx - half), Math.round(cy - half), alpha);
+    }
+
+    /**
+     * Get the sprite for the -shape, rasterize it and evict the least
+     * recently used sprites if it is not cached. The new sprite is kept even
+     * if it is larger than the memory cap, since it is drawn right away.
+     *
+     * @param shape - the shape
+     * @return the sprite
+     */
+    public synchronized Sprite getSprite(IndicatorShape shape) {
+        Sprite sprite = sprites.get(shape);
+        if (sprite != null) {
+            return sprite;
+        }
+
+        sprite = new Sprite();
+        sprite.shape = shape;
+        sprite.size = Math.max(shape.getSize(), 1);
+        renderer.rasterize(sprite);
+        numRasterized++;
+        sprites.put(shape, sprite);
+        bytes += getBytes(sprite);
+
+        Iterator<Map.Entry<IndicatorShape, Sprite>> iterator = sprites.entrySet().iterator();
+        while (bytes > maxBytes && sprites.size() > 1) {
+            Sprite eldest = iterator.next().getValue();
+            iterator.remove();
+            bytes -= getBytes(eldest);
+            renderer.release(eldest);
+        }
+        return sprite;
+    }
+
+    private static long getBytes(Sprite sprite) {
+        return 4L * sprite.size * sprite.size;
+    }
+
+    /**
+     * Release all sprites, they are rasterized again when drawn
+     */
+    public synchronized void clear() {
+        for (Sprite sprite : sprites.values()) {
+            renderer.release(sprite);
+        }
+        sprites.clear();
+        bytes = 0;
+    }
+
+    public synchronized int getNumSprites() {
+        return sprites.size();
+    }
+
+    public synchronized int getNumRasterized() {
+        return numRasterized;
+    }
+
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    public synchronized long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public synchronized void setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public SpriteRenderer getRenderer() {
+        return renderer;
+    }
+}
@@ -0,0 +1,404 @@
+package com.slaviboy.fingerdraw;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Copyright (c) 2019 Stanislav Georgiev. (MIT License)
+ * https://github.com/slaviboy
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * - The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * - The Software is provided "as is", without warranty of any kind, express or
+ * implied, including but not limited to the warranties of merchantability,
+ * fitness for a particular purpose and noninfringement. In no event shall the
+ * authors or copyright holders be liable for any claim, damages or other
+ * liability, whether in an action of contract, tort or otherwise, arising from,
+ * out of or in connection with the Software or the use or other dealings in the
+ * Software.
+ * <p>
+ * <p>
+ * StrokeHistory Class(Java) keeps persistent strokes drawn with the fingers, and
+ * allows them to be undone and redone. Strokes are kept in compact log, and the
+ * raster with all applied strokes is saved as checkpoint after each -interval
+ * strokes. Checkpoints are kept while they fit in the memory budget, when the
+ * budget is exceeded the least recently used checkpoint is removed. Undo restores
+ * the nearest checkpoint and draws only the strokes after it, redo draws the next
+ * stroke on top of the current raster. It is scene listener, so it can be added
+ * to the scene of the canvas to record the strokes. The raster can be set after
+ * the history is created, for example once the size of the view is known, until
+ * then the strokes are only kept in the log.
+ */
+
+public class StrokeHistory implements Scene.Listener {
+
+    /**
+     * Raster where the strokes are drawn, and whose pixels are saved in the
+     * checkpoints
+     */
+    public interface Raster {
+
+        int getWidth();
+
+        int getHeight();
+
+        void clear();
+
+        void drawStroke(StrokeLog strokes, int index);
+
+        void getPixels(int[] pixels);
+
+        void setPixels(int[] pixels);
+    }
+
+    private Raster raster;                // raster with all applied strokes, or null if not set yet
+    private StrokeLog strokes;            // log with all strokes, including the undone ones
+    private int cursor;                   // number of applied strokes
+    private int interval;                 // number of strokes between checkpoints
+    private long memoryBudget;            // maximum bytes used by the log and the checkpoints
+    private LinkedHashMap<Integer, int[]> checkpoints; // pixels after given number of strokes, in access order
+    private int[] spare;                  // pixels of evicted checkpoint, reused for next checkpoint
+    private int numReplayed;              // number of strokes drawn by the last undo
+
+    private int color;                    // color of the new strokes
+    private float strokeWidth;            // stroke width of the new strokes
+    private float[][] fingerPoints;       // points of the strokes being drawn, for each finger
+    private long[][] fingerTimes;         // times of the points of the strokes being drawn, for each finger
+    private int[] fingerSizes;            // number of points of the strokes being drawn, for each finger
+
+    public StrokeHistory(Raster raster) {
+        // default 32MB and checkpoint each 16 strokes
+        this(raster, 32L * 1024 * 1024, 16);
+    }
+
+    public StrokeHistory(Raster raster, long memoryBudget, int interval) {
+        this(raster, memoryBudget, interval, new StrokeLog());
+    }
+
+    /**
+     * Create history that keeps the strokes in the given log, use compact
+     * log to keep long histories in less memory
+     *
+     * @param raster       - raster where the strokes are drawn, or null to set it later
+     * @param memoryBudget - maximum bytes used for the stroke log and checkpoints
+     * @param interval     - number of strokes between checkpoints
+     * @param strokes      - empty log for the strokes
+     */
+    public StrokeHistory(Raster raster, long memoryBudget, int interval, StrokeLog strokes) {
+        this.raster = raster;
+        this.memoryBudget = memoryBudget;
+        this.interval = Math.max(interval, 1);
+        this.strokes = strokes;
+        checkpoints = new LinkedHashMap<>(16, 0.75f, true);
+        color = 0xFF000000;
+        strokeWidth = 8f;
+        fingerPoints = new float[10][];
+        fingerTimes = new long[10][];
+        fingerSizes = new int[10];
+        if (raster != null) {
+            raster.clear();
+        }
+    }
+
+    @Override
+    public synchronized void onDown(int arrayIndex, float x, float y, float pressure, float touchMajor, long time) {
+        if (arrayIndex >= fingerPoints.length) {
+            fingerPoints = Arrays.copyOf(fingerPoints, arrayIndex + 1);
+            fingerTimes = Arrays.copyOf(fingerTimes, arrayIndex + 1);
+            fingerSizes = Arrays.copyOf(fingerSizes, arrayIndex + 1);
+        }
+        fingerSizes[arrayIndex] = 0;
+        addFingerPoint(arrayIndex, x, y, time);
+    }
+
+    @Override
+    public synchronized void onMove(int arrayIndex, float x, float y, float pressure, float touchMajor, long time) {
+        if (arrayIndex < fingerPoints.length) {
+            addFingerPoint(arrayIndex, x, y, time);
+        }
+    }
+
+    @Override
+    public synchronized void onUp(int arrayIndex, float x, float y, float pressure, float touchMajor, long time) {
+        if (arrayIndex < fingerPoints.length && fingerSizes[arrayIndex] > 0) {
+            addFingerPoint(arrayIndex, x, y, time);
+            add(color, strokeWidth, fingerPoints[arrayIndex], fingerTimes[arrayIndex], fingerSizes[arrayIndex]);
+            fingerSizes[arrayIndex] = 0;
+        }
+    }
+
+    @Override
+    public void onFadeOut(long time) {
+    }
+
+    @Override
+    public void onFrame(long time) {
+    }
+
+    private void addFingerPoint(int finger, float x, float y, long time) {
+        float[] points = fingerPoints[finger];
+        long[] times = fingerTimes[finger];
+        int size = fingerSizes[finger];
+        if (points == null) {
+            points = fingerPoints[finger] = new float[256];
+            times = fingerTimes[finger] = new long[128];
+        } else if (2 * size + 2 > points.length) {
+            points = fingerPoints[finger] = Arrays.copyOf(points, points.length * 2);
+            times = fingerTimes[finger] = Arrays.copyOf(times, times.length * 2);
+        }
+        points[2 * size] = x;
+        points[2 * size + 1] = y;
+        times[size] = time;
+        fingerSizes[finger] = size + 1;
+    }
+
+    /**
+     * Add stroke after the applied strokes and draw it, the strokes that
+     * were undone can no longer be redone.
+     *
+     * @param color       - stroke color
+     * @param strokeWidth - stroke width
+     * @param xy          - x and y coordinates of the points, one after another
+     * @param numPoints   - number of points
+     */
+    public synchronized void add(int color, float strokeWidth, float[] xy, int numPoints) {
+        add(color, strokeWidth, xy, null, numPoints);
+    }
+
+    /**
+     * Add stroke after the applied strokes and draw it, the strokes that
+     * were undone can no longer be redone.
+     *
+     * @param color       - stroke color
+     * @param strokeWidth - stroke width
+     * @param xy          - x and y coordinates of the points, one after another
+     * @param times       - time of each point in milliseconds, or null
+     * @param numPoints   - number of points
+     */
+    public synchronized void add(int color, float strokeWidth, float[] xy, long[] times, int numPoints) {
+        if (cursor < strokes.size()) {
+            strokes.truncate(cursor);
+            removeCheckpointsAfter(cursor);
+        }
+        strokes.add(color, strokeWidth, xy, times, numPoints);
+        cursor++;
+        if (raster != null) {
+            raster.drawStroke(strokes, cursor - 1);
+            if (cursor % interval == 0) {
+                saveCheckpoint(cursor);
+            }
+        }
+    }
+
+    /**
+     * Undo the last applied stroke, by restoring the nearest checkpoint and
+     * drawing the strokes after it
+     *
+     * @return true if stroke was undone
+     */
+    public synchronized boolean undo() {
+        if (cursor == 0) {
+            return false;
+        }
+        cursor--;
+        if (raster == null) {
+            numReplayed = 0;
+            return true;
+        }
+
+        // nearest checkpoint before the cursor, or the empty raster
+        int from = cursor - cursor % interval;
+        int[] pixels = null;
+        while (from > 0 && (pixels = checkpoints.get(from)) == null) {
+            from -= interval;
+        }
+        if (pixels != null) {
+            raster.setPixels(pixels);
+        } else {
+            from = 0;
+            raster.clear();
+        }
+
+        for (int i = from; i < cursor; i++) {
+            raster.drawStroke(strokes, i);
+        }
+        numReplayed = cursor - from;
+        return true;
+    }
+
+    /**
+     * Redo the last undone stroke, by drawing it on top of the raster
+     *
+     * @return true if stroke was redone
+     */
+    public synchronized boolean redo() {
+        if (cursor == strokes.size()) {
+            return false;
+        }
+        cursor++;
+        if (raster != null) {
+            raster.drawStroke(strokes, cursor - 1);
+            if (cursor % interval == 0 && !checkpoints.containsKey(cursor)) {
+                saveCheckpoint(cursor);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Remove all strokes and checkpoints
+     */
+    public synchronized void clear() {
+        strokes.truncate(0);
+        checkpoints.clear();
+        cursor = 0;
+        if (raster != null) {
+            raster.clear();
+        }
+    }
+
+    /**
+     * Save the pixels of the raster as checkpoint, and remove the least
+     * recently used checkpoints while the memory budget is exceeded
+     */
+    private void saveCheckpoint(int index) {
+        int length = raster.getWidth() * raster.getHeight();
+        long checkpointBytes = 4L * length;
+        if (strokes.getMemoryBytes() + checkpointBytes > memoryBudget) {
+            return; // checkpoint does not fit even without other checkpoints
+        }
+
+        int[] pixels = spare != null && spare.length == length ? spare : new int[length];
+        spare = null;
+        raster.getPixels(pixels);
+        checkpoints.put(index, pixels);
+        trimToBudget(index);
+    }
+
+    /**
+     * Remove the least recently used checkpoints, until the memory budget is
+     * no longer exceeded
+     *
+     * @param keep - index of checkpoint that should be kept, or -1
+     */
+    private void trimToBudget(int keep) {
+        Iterator<Map.Entry<Integer, int[]>> iterator = checkpoints.entrySet().iterator();
+        while (getMemoryBytes() > memoryBudget && iterator.hasNext()) {
+            Map.Entry<Integer, int[]> entry = iterator.next();
+            if (entry.getKey() != keep) {
+                spare = entry.getValue();
+                iterator.remove();
+            }
+        }
+    }
+
+    private void removeCheckpointsAfter(int index) {
+        Iterator<Integer> iterator = checkpoints.keySet().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next() > index) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Get number of bytes used by the log and the checkpoints
+     *
+     * @return the number of bytes
+     */
+    public synchronized long getMemoryBytes() {
+        long bytes = strokes.getMemoryBytes();
+        for (int[] pixels : checkpoints.values()) {
+            bytes += 4L * pixels.length;
+        }
+        return bytes;
+    }
+
+    public synchronized boolean canUndo() {
+        return cursor > 0;
+    }
+
+    public synchronized boolean canRedo() {
+        return cursor < strokes.size();
+    }
+
+    public synchronized int getNumStrokes() {
+        return cursor;
+    }
+
+    public synchronized int getNumCheckpoints() {
+        return checkpoints.size();
+    }
+
+    /**
+     * Get number of strokes that were drawn again by the last undo
+     *
+     * @return the number of strokes
+     */
+    public synchronized int getNumReplayed() {
+        return numReplayed;
+    }
+
+    public StrokeLog getStrokes() {
+        return strokes;
+    }
+
+    public synchronized Raster getRaster() {
+        return raster;
+    }
+
+    /**
+     * Replace the raster, for example when the size of the view changes. The
+     * checkpoints hold pixels of the previous raster, so they are removed, and
+     * the applied strokes are drawn again into the new raster.
+     *
+     * @param raster - the new raster, or null to only keep the strokes in the log
+     */
+    public synchronized void setRaster(Raster raster) {
+        this.raster = raster;
+        checkpoints.clear();
+        spare = null;
+        if (raster != null) {
+            raster.clear();
+            for (int i = 0; i < cursor; i++) {
+                raster.drawStroke(strokes, i);
+                if ((i + 1) % interval == 0) {
+                    saveCheckpoint(i + 1);
+                }
+            }
+        }
+    }
+
+    public synchronized int getColor() {
+        return color;
+    }
+
+    public synchronized void setColor(int color) {
+        this.color = color;
+    }
+
+    public synchronized float getStrokeWidth() {
+        return strokeWidth;
+    }
+
+    public synchronized void setStrokeWidth(float strokeWidth) {
+        this.strokeWidth = strokeWidth;
+    }
+
+    public synchronized long getMemoryBudget() {
+        return memoryBudget;
+    }
+
+    public synchronized void setMemoryBudget(long memoryBudget) {
+        this.memoryBudget = memoryBudget;
+        trimToBudget(-1);
+    }
+}
@@ -0,0 +1,445 @@
+package com.slaviboy.fingerdraw;
+
+import java.util.Arrays;
+
+/**
+ * Copyright (c) 2019 Stanislav Georgiev. (MIT License)
+ * https://github.com/slaviboy
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * - The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * - The Software is provided "as is", without warranty of any kind, express or
+ * implied, including but not limited to the warranties of merchantability,
+ * fitness for a particular purpose and noninfringement. In no event shall the
+ * authors or copyright holders be liable for any claim, damages or other
+ * liability, whether in an action of contract, tort or otherwise, arising from,
+ * out of or in connection with the Software or the use or other dealings in the
+ * Software.
+ * <p>
+ * <p>
+ * StrokeLog Class(Java) is compact log of persistent strokes, the points of all
+ * strokes are kept one after another in primitive arrays, and each stroke only
+ * keeps the index of its first point, its time, color and stroke width. Strokes
+ * can only be added at the end, or removed from the end.
+ * <p>
+ * By default the coordinates are kept as floats. In compact mode each stroke keeps
+ * only its first point, and each point is kept as 16-bit fixed-point difference
+ * from the previous point, with the given -resolution. The coordinates are decoded
+ * on the fly, reading the points of stroke in order with {@link Cursor} costs O(1)
+ * per point. The time of each point is kept as 16-bit difference in milliseconds
+ * in both modes. Reading does not change the log, so it can be read from several
+ * threads, each with its own cursor, while no strokes are added or removed.
+ */
+
+public class StrokeLog {
+
+    public static final float DEFAULT_RESOLUTION = 1f / 16f;
+    private static final int MAX_TIME_DELTA = 0xFFFF;
+
+    private float resolution;             // size of the fixed-point unit in pixels, or 0 if the coordinates are floats
+    private float[] points;               // x and y coordinates of the points of all strokes, if not compact
+    private short[] deltas;               // x and y differences from the previous point in fixed-point units, if compact
+    private float[] origins;              // x and y coordinates of the first point of each stroke, if compact
+    private char[] timeDeltas;            // milliseconds from the previous point of the stroke
+    private int numPoints;                // number of points in all strokes
+    private int[] starts;                 // index of the first point of each stroke
+    private int[] startTimes;             // time of the first point of each stroke, in (ms) from -baseTime
+    private long baseTime;                // time of the first point of the first stroke
+    private int[] colors;                 // color of each stroke
+    private float[] widths;               // stroke width of each stroke
+    private int size;                     // number of strokes
+    private int numTruncations;           // incremented when strokes are removed, so the cursors start again
+
+    public StrokeLog() {
+        this(0f);
+    }
+
+    /**
+     * Create log with compact coordinates, or with float coordinates if
+     * the -resolution is 0
+     *
+     * @param resolution - size of the fixed-point unit in pixels, differences between
+     *                   consecutive points up to 32767 units fit in single point
+     */
+    public StrokeLog(float resolution) {
+        this.resolution = Math.max(resolution, 0f);
+        if (this.resolution > 0f) {
+            deltas = new short[1024];
+            origins = new float[128];
+        } else {
+            points = new float[1024];
+        }
+        timeDeltas = new char[512];
+        starts = new int[64];
+        startTimes = new int[64];
+        colors = new int[64];
+        widths = new float[64];
+    }
+
+    /**
+     * Create log with compact coordinates
+     *
+     * @return the log
+     */
+    public static StrokeLog compact() {
+        return new StrokeLog(DEFAULT_RESOLUTION);
+    }
+
+    /**
+     * Add stroke at the end of the log
+     *
+     * @param color       - stroke color
+     * @param strokeWidth - stroke width
+     * @param xy          - x and y coordinates of the points, one after another
+     * @param numPoints   - number of points
+     */
+    public void add(int color, float strokeWidth, float[] xy, int numPoints) {
+        add(color, strokeWidth, xy, null, numPoints);
+    }
+
+    /**
+     * Add stroke at the end of the log. In compact mode points that are too
+     * far from the previous point are split in several points on the line
+     * between them, so the stroke may have more points than were added.
+     *
+     * @param color       - stroke color
+     * @param strokeWidth - stroke width
+     * @param xy          - x and y coordinates of the points, one after another
+     * @param times       - time of each point in milliseconds, or null
+     * @param numPoints   - number of points
+     */
+    public void add(int color, float strokeWidth, float[] xy, long[] times, int numPoints) {
+        if (numPoints <= 0) {
+            return;
+        }
+        if (size == starts.length) {
+            int capacity = size * 2;
+            starts = Arrays.copyOf(starts, capacity);
+            startTimes = Arrays.copyOf(startTimes, capacity);
+            colors = Arrays.copyOf(colors, capacity);
+            widths = Arrays.copyOf(widths, capacity);
+        }
+
+        starts[size] = this.numPoints;
+        long startTime = times != null ? times[0] : 0L;
+        if (size == 0) {
+            baseTime = startTime;
+        }
+        startTimes[size] = (int) Math.max(Integer.MIN_VALUE, Math.min(startTime - baseTime, Integer.MAX_VALUE));
+        colors[size] = color;
+        widths[size] = strokeWidth;
+        if (resolution > 0f) {
+            addCompact(xy, times, numPoints);
+        } else {
+            ensurePoints(this.numPoints + numPoints);
+            System.arraycopy(xy, 0, points, 2 * this.numPoints, 2 * numPoints);
+            for (int i = 0; i < numPoints; i++) {
+                timeDeltas[this.numPoints + i] = timeDelta(times, i);
+            }
+            this.numPoints += numPoints;
+        }
+        size++;
+    }
+
+    private void addCompact(float[] xy, long[] times, int numPoints) {
+        if (2 * size + 2 > origins.length) {
+            origins = Arrays.copyOf(origins, origins.length * 2);
+        }
+        float originX = xy[0];
+        float originY = xy[1];
+        origins[2 * size] = originX;
+        origins[2 * size + 1] = originY;
+
+        // differences are made from the rounded previous point, so the error does not accumulate
+        int previousX = 0, previousY = 0;
+        for (int i = 0; i < numPoints; i++) {
+            int x = Math.round((xy[2 * i] - originX) / resolution);
+            int y = Math.round((xy[2 * i + 1] - originY) / resolution);
+            int dx = x - previousX;
+            int dy = y - previousY;
+            int steps = Math.max(1, (Math.max(Math.abs(dx), Math.abs(dy)) + Short.MAX_VALUE - 1) / Short.MAX_VALUE);
+            ensurePoints(this.numPoints + steps);
+            for (int j = 1; j <= steps; j++) {
+                int stepX = x - (int) ((long) dx * (steps - j) / steps);
+                int stepY = y - (int) ((long) dy * (steps - j) / steps);
+                deltas[2 * this.numPoints] = (short) (stepX - previousX);
+                deltas[2 * this.numPoints + 1] = (short) (stepY - previousY);
+                timeDeltas[this.numPoints] = j == steps ? timeDelta(times, i) : 0;
+                this.numPoints++;
+                previousX = stepX;
+                previousY = stepY;
+            }
+        }
+    }
+
+    /**
+     * Get the milliseconds from the previous point, clamped to 16 bits
+     */
+    private static char timeDelta(long[] times, int index) {
+        if (times == null || index == 0) {
+            return 0;
+        }
+        return (char) Math.max(0, Math.min(times[index] - times[index - 1], MAX_TIME_DELTA));
+    }
+
+    private void ensurePoints(int numPoints) {
+        if (resolution > 0f) {
+            if (2 * numPoints > deltas.length) {
+                deltas = Arrays.copyOf(deltas, Math.max(deltas.length * 2, 2 * numPoints));
+            }
+        } else if (2 * numPoints > points.length) {
+            points = Arrays.copyOf(points, Math.max(points.length * 2, 2 * numPoints));
+        }
+        if (numPoints > timeDeltas.length) {
+            timeDeltas = Arrays.copyOf(timeDeltas, Math.max(timeDeltas.length * 2, numPoints));
+        }
+    }
+
+    /**
+     * Remove the strokes after the first -size strokes
+     *
+     * @param size - number of strokes to keep
+     */
+    public void truncate(int size) {
+        if (size < this.size) {
+            this.size = Math.max(size, 0);
+            numPoints = this.size == 0 ? 0 : starts[this.size];
+            numTruncations++;
+        }
+    }
+
+    /**
+     * Shrink the arrays to the size of the strokes, to release the memory
+     * that was reserved for new strokes
+     */
+    public void trimToSize() {
+        if (resolution > 0f) {
+            deltas = Arrays.copyOf(deltas, Math.max(2 * numPoints, 2));
+            origins = Arrays.copyOf(origins, Math.max(2 * size, 2));
+        } else {
+            points = Arrays.copyOf(points, Math.max(2 * numPoints, 2));
+        }
+        timeDeltas = Arrays.copyOf(timeDeltas, Math.max(numPoints, 1));
+        int capacity = Math.max(size, 1);
+        starts = Arrays.copyOf(starts, capacity);
+        startTimes = Arrays.copyOf(startTimes, capacity);
+        colors = Arrays.copyOf(colors, capacity);
+        widths = Arrays.copyOf(widths, capacity);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getNumPoints(int stroke) {
+        int end = stroke + 1 < size ? starts[stroke + 1] : numPoints;
+        return end - starts[stroke];
+    }
+
+    /**
+     * Get the x coordinate of the point, in compact mode it is decoded from
+     * the first point of the stroke, use {@link Cursor} to read the points in order
+     *
+     * @param stroke - index of the stroke
+     * @param index  - index of the point in the stroke
+     * @return the coordinate
+     */
+    public float getX(int stroke, int index) {
+        if (resolution > 0f) {
+            int x = 0;
+            int start = starts[stroke];
+            for (int point = start + 1; point <= start + index; point++) {
+                x += deltas[2 * point];
+            }
+            return origins[2 * stroke] + x * resolution;
+        }
+        return points[2 * (starts[stroke] + index)];
+    }
+
+    /**
+     * Get the y coordinate of the point, in compact mode it is decoded from
+     * the first point of the stroke, use {@link Cursor} to read the points in order
+     *
+     * @param stroke - index of the stroke
+     * @param index  - index of the point in the stroke
+     * @return the coordinate
+     */
+    public float getY(int stroke, int index) {
+        if (resolution > 0f) {
+            int y = 0;
+            int start = starts[stroke];
+            for (int point = start + 1; point <= start + index; point++) {
+                y += deltas[2 * point + 1];
+            }
+            return origins[2 * stroke + 1] + y * resolution;
+        }
+        return points[2 * (starts[stroke] + index) + 1];
+    }
+
+    /**
+     * Get the time of the point, decoded from the time differences from the
+     * first point of the stroke, use {@link Cursor} to read the points in order
+     *
+     * @param stroke - index of the stroke
+     * @param index  - index of the point in the stroke
+     * @return time in milliseconds
+     */
+    public long getTime(int stroke, int index) {
+        long time = getStartTime(stroke);
+        int start = starts[stroke];
+        for (int point = start + 1; point <= start + index; point++) {
+            time += timeDeltas[point];
+        }
+        return time;
+    }
+
+    /**
+     * Copy the decoded points of the stroke, used to export the stroke
+     *
+     * @param stroke - index of the stroke
+     * @param xy     - array for the x and y coordinates, with at least 2 * numPoints elements
+     * @param times  - array for the times, with at least numPoints elements, or null
+     */
+    public void getPoints(int stroke, float[] xy, long[] times) {
+        int numPoints = getNumPoints(stroke);
+        int start = starts[stroke];
+        int x = 0, y = 0;
+        long time = getStartTime(stroke);
+        for (int i = 0; i < numPoints; i++) {
+            int point = start + i;
+            if (i > 0) {
+                time += timeDeltas[point];
+            }
+            if (resolution > 0f) {
+                if (i > 0) {
+                    x += deltas[2 * point];
+                    y += deltas[2 * point + 1];
+                }
+                xy[2 * i] = origins[2 * stroke] + x * resolution;
+                xy[2 * i + 1] = origins[2 * stroke + 1] + y * resolution;
+            } else {
+                xy[2 * i] = points[2 * point];
+                xy[2 * i + 1] = points[2 * point + 1];
+            }
+            if (times != null) {
+                times[i] = time;
+            }
+        }
+    }
+
+    private long getStartTime(int stroke) {
+        return baseTime + startTimes[stroke];
+    }
+
+    public int getColor(int stroke) {
+        return colors[stroke];
+    }
+
+    public float getStrokeWidth(int stroke) {
+        return widths[stroke];
+    }
+
+    public float getResolution() {
+        return resolution;
+    }
+
+    public boolean isCompact() {
+        return resolution > 0f;
+    }
+
+    /**
+     * Get number of points in all strokes
+     *
+     * @return the number of points
+     */
+    public int getNumPoints() {
+        return numPoints;
+    }
+
+    /**
+     * Get approximate number of bytes used by the allocated arrays
+     *
+     * @return the number of bytes
+     */
+    public long getMemoryBytes() {
+        long bytes = 2L * timeDeltas.length + 16L * starts.length;
+        if (resolution > 0f) {
+            return bytes + 2L * deltas.length + 4L * origins.length;
+        }
+        return bytes + 4L * points.length;
+    }
+
+    /**
+     * Reads the points of the strokes, continuing from the last point when
+     * the points are read in order, so reading a stroke costs O(1) per point.
+     * The cursor keeps the decoding state, so each thread that reads the log
+     * needs its own cursor.
+     */
+    public static final class Cursor {
+
+        private StrokeLog log;            // log of the last point
+        private int numTruncations;       // truncations of the log, when the last point was decoded
+        private int stroke;               // stroke of the last point
+        private int index;                // index of the last point in the stroke
+        private int x;                    // x of the last point in fixed-point units, from the first point
+        private int y;                    // y of the last point in fixed-point units, from the first point
+        private long time;                // time of the last point
+
+        /**
+         * Move to the point, decoding from the last point when the points are
+         * read in order, or from the first point of the stroke otherwise
+         *
+         * @param log    - the log
+         * @param stroke - index of the stroke
+         * @param index  - index of the point in the stroke
+         * @return this cursor
+         */
+        public Cursor moveTo(StrokeLog log, int stroke, int index) {
+            if (log != this.log || log.numTruncations != numTruncations
+                    || stroke != this.stroke || index < this.index) {
+                this.log = log;
+                this.numTruncations = log.numTruncations;
+                this.stroke = stroke;
+                this.index = 0;
+                x = 0;
+                y = 0;
+                time = log.getStartTime(stroke);
+            }
+            int start = log.starts[stroke];
+            while (this.index < index) {
+                this.index++;
+                int point = start + this.index;
+                if (log.resolution > 0f) {
+                    x += log.deltas[2 * point];
+                    y += log.deltas[2 * point + 1];
+                }
+                time += log.timeDeltas[point];
+            }
+            return this;
+        }
+
+        public float getX() {
+            if (log.resolution > 0f) {
+                return log.origins[2 * stroke] + x * log.resolution;
+            }
+            return log.points[2 * (log.starts[stroke] + index)];
+        }
+
+        public float getY() {
+            if (log.resolution > 0f) {
+                return log.origins[2 * stroke + 1] + y * log.resolution;
+            }
+            return log.points[2 * (log.starts[stroke] + index) + 1];
+        }
+
+        public long getTime() {
+            return time;
+        }
+    }
+}
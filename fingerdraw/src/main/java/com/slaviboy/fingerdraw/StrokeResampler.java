@@ -0,0 +1,217 @@
+package com.slaviboy.fingerdraw;
+
+import java.util.Arrays;
+
+/**
+ * Copyright (c) 2019 Stanislav Georgiev. (MIT License)
+ * https://github.com/slaviboy
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * - The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * - The Software is provided "as is", without warranty of any kind, express or
+ * implied, including but not limited to the warranties of merchantability,
+ * fitness for a particular purpose and noninfringement. In no event shall the
+ * authors or copyright holders be liable for any claim, damages or other
+ * liability, whether in an action of contract, tort or otherwise, arising from,
+ * out of or in connection with the Software or the use or other dealings in the
+ * Software.
+ * <p>
+ * <p>
+ * StrokeResampler Class(Java) resamples the strokes drawn with the fingers into
+ * points that are equally spaced along the stroke, while the samples arrive.
+ * Each new sample only walks the segment from the previous sample, so the cost
+ * is O(1) amortized per sample, and the points are passed to the {@link Sink}
+ * as soon as they are known. When the finger is up the stroke is already
+ * resampled, and can be resampled to fixed number of points in O(count) using
+ * {@link #resample(float[], int, float, int, float[])}. It is scene listener,
+ * so it can be added to the scene of the canvas.
+ */
+
+public class StrokeResampler implements Scene.Listener {
+
+    /**
+     * Receives the equally spaced points, methods are called on the thread
+     * that adds the samples
+     */
+    public interface Sink {
+
+        void onStrokeStart(int arrayIndex);
+
+        void onPoint(int arrayIndex, float x, float y);
+
+        /**
+         * Called when the finger is up, after the last point that is placed
+         * at the finger position, so it can be closer than -spacing
+         *
+         * @param arrayIndex - array index of the finger
+         * @param numPoints  - number of points of the stroke
+         * @param length     - length of the stroke
+         */
+        void onStrokeEnd(int arrayIndex, int numPoints, float length);
+    }
+
+    private Sink sink;                    // receives the resampled points
+    private float spacing;                // distance between the points along the stroke
+    private float[] lastX;                // x of the previous sample, for each finger
+    private float[] lastY;                // y of the previous sample, for each finger
+    private float[] remaining;            // distance from the previous sample to the next point, for each finger
+    private float[] lengths;              // length of the stroke, for each finger
+    private int[] numPoints;              // number of points of the stroke, for each finger
+    private boolean[] tracking;           // whether the finger is down
+
+    /**
+     * @param spacing - distance between the points along the stroke in pixels
+     * @param sink    - receives the resampled points
+     */
+    public StrokeResampler(float spacing, Sink sink) {
+        setSpacing(spacing);
+        this.sink = sink;
+        lastX = new float[10];
+        lastY = new float[10];
+        remaining = new float[10];
+        lengths = new float[10];
+        numPoints = new int[10];
+        tracking = new boolean[10];
+    }
+
+    @Override
+    public void onDown(int arrayIndex, float x, float y, float pressure, float touchMajor, long time) {
+        if (arrayIndex >= lastX.length) {
+            grow(arrayIndex + 1);
+        }
+        tracking[arrayIndex] = true;
+        lastX[arrayIndex] = x;
+        lastY[arrayIndex] = y;
+        remaining[arrayIndex] = spacing;
+        lengths[arrayIndex] = 0f;
+        numPoints[arrayIndex] = 1;
+        sink.onStrokeStart(arrayIndex);
+        sink.onPoint(arrayIndex, x, y);
+    }
+
+    @Override
+    public void onMove(int arrayIndex, float x, float y, float pressure, float touchMajor, long time) {
+        if (arrayIndex < lastX.length && tracking[arrayIndex]) {
+            walk(arrayIndex, x, y);
+        }
+    }
+
+    @Override
+    public void onUp(int arrayIndex, float x, float y, float pressure, float touchMajor, long time) {
+        if (arrayIndex < lastX.length && tracking[arrayIndex]) {
+            walk(arrayIndex, x, y);
+
+            // end at the finger position, unless there is point there already
+            if (remaining[arrayIndex] < spacing) {
+                numPoints[arrayIndex]++;
+                sink.onPoint(arrayIndex, x, y);
+            }
+            tracking[arrayIndex] = false;
+            sink.onStrokeEnd(arrayIndex, numPoints[arrayIndex], lengths[arrayIndex]);
+        }
+    }
+
+    @Override
+    public void onFadeOut(long time) {
+    }
+
+    @Override
+    public void onFrame(long time) {
+    }
+
+    /**
+     * Walk the segment from the previous sample to the new one, and emit
+     * point each time -spacing is reached
+     */
+    private void walk(int finger, float x, float y) {
+        float startX = lastX[finger], startY = lastY[finger];
+        float dx = x - startX, dy = y - startY;
+        float length = (float) Math.sqrt(dx * dx + dy * dy);
+        lastX[finger] = x;
+        lastY[finger] = y;
+        if (length == 0f) {
+            return;
+        }
+        lengths[finger] += length;
+
+        // distance along the segment of the next point
+        float distance = remaining[finger];
+        while (distance <= length) {
+            float t = distance / length;
+            numPoints[finger]++;
+            sink.onPoint(finger, startX + dx * t, startY + dy * t);
+            distance += spacing;
+        }
+        remaining[finger] = distance - length;
+    }
+
+    private void grow(int capacity) {
+        lastX = Arrays.copyOf(lastX, capacity);
+        lastY = Arrays.copyOf(lastY, capacity);
+        remaining = Arrays.copyOf(remaining, capacity);
+        lengths = Arrays.copyOf(lengths, capacity);
+        numPoints = Arrays.copyOf(numPoints, capacity);
+        tracking = Arrays.copyOf(tracking, capacity);
+    }
+
+    /**
+     * Resample stroke with equally spaced points, as produced by the resampler,
+     * to -count points equally spaced along the whole stroke. Since the points
+     * are equally spaced, the point at given distance is found directly by its
+     * index, so the cost is O(count).
+     *
+     * @param xy        - x and y coordinates of the points, one after another
+     * @param numPoints - number of points, the last one may be closer than -spacing
+     * @param spacing   - distance between the points along the stroke
+     * @param count     - number of points to make, at least 2
+     * @param out       - array for the x and y coordinates, with at least 2 * count elements
+     */
+    public static void resample(float[] xy, int numPoints, float spacing, int count, float[] out) {
+        int last = numPoints - 1;
+        float lastX = xy[2 * last], lastY = xy[2 * last + 1];
+        if (last == 0) {
+            for (int i = 0; i < count; i++) {
+                out[2 * i] = lastX;
+                out[2 * i + 1] = lastY;
+            }
+            return;
+        }
+
+        // the last segment is the only one that can be shorter than -spacing
+        float lastSegment = (float) Math.hypot(lastX - xy[2 * last - 2], lastY - xy[2 * last - 1]);
+        float length = (last - 1) * spacing + lastSegment;
+        for (int i = 0; i < count; i++) {
+            float distance = length * i / (count - 1);
+            int index = Math.min((int) (distance / spacing), last - 1);
+            float segment = index == last - 1 ? lastSegment : spacing;
+            float t = segment > 0 ? Math.min((distance - index * spacing) / segment, 1f) : 0f;
+            out[2 * i] = xy[2 * index] + (xy[2 * index + 2] - xy[2 * index]) * t;
+            out[2 * i + 1] = xy[2 * index + 1] + (xy[2 * index + 3] - xy[2 * index + 1]) * t;
+        }
+    }
+
+    public float getSpacing() {
+        return spacing;
+    }
+
+    public void setSpacing(float spacing) {
+        if (!(spacing > 0)) {
+            throw new IllegalArgumentException("Spacing must be positive: " + spacing);
+        }
+        this.spacing = spacing;
+    }
+
+    public Sink getSink() {
+        return sink;
+    }
+
+    public void setSink(Sink sink) {
+        this.sink = sink;
+    }
+}
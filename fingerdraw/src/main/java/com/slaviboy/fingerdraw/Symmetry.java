@@ -0,0 +1,192 @@
+package com.slaviboy.fingerdraw;
+
+import android.graphics.Matrix;
+
+/**
+ * Copyright (c) 2019 Stanislav Georgiev. (MIT License)
+ * https://github.com/slaviboy
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * - The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * - The Software is provided "as is", without warranty of any kind, express or
+ * implied, including but not limited to the warranties of merchantability,
+ * fitness for a particular purpose and noninfringement. In no event shall the
+ * authors or copyright holders be liable for any claim, damages or other
+ * liability, whether in an action of contract, tort or otherwise, arising from,
+ * out of or in connection with the Software or the use or other dealings in the
+ * Software.
+ * <p>
+ * <p>
+ * Symmetry Class(Java) describes how many copies of the scene are drawn, and
+ * how. The copies are rotated around the center of the canvas, and can also be
+ * mirrored, which gives the kaleidoscope effect. The geometry of the shapes is
+ * still prepared only once per frame, and each copy is drawn with different
+ * canvas matrix, so adding copies costs only extra draw calls.
+ */
+
+public class Symmetry {
+
+    private final int numRotations;       // number of rotated copies, including the original
+    private final boolean mirror;         // if each rotated copy is also mirrored
+    private final float centerX;          // relative x coordinate of the center, in range [0,1]
+    private final float centerY;          // relative y coordinate of the center, in range [0,1]
+
+    private float[] values;               // affine transform for each instance, six values per instance
+    private Matrix[] matrices;            // matrices created from the values, for the size below
+    private int width;                    // canvas width used to compute the transforms
+    private int height;                   // canvas height used to compute the transforms
+
+    public Symmetry(int numRotations, boolean mirror) {
+        this(numRotations, mirror, 0.5f, 0.5f);
+    }
+
+    public Symmetry(int numRotations, boolean mirror, float centerX, float centerY) {
+        if (numRotations < 1) {
+            throw new IllegalArgumentException("At least one rotation is required: " + numRotations);
+        }
+        this.numRotations = numRotations;
+        this.mirror = mirror;
+        this.centerX = centerX;
+        this.centerY = centerY;
+        width = -1;
+        height = -1;
+    }
+
+    /**
+     * Create symmetry with -n copies rotated around the center
+     *
+     * @param n - number of copies, including the original
+     * @return the symmetry
+     */
+    public static Symmetry radial(int n) {
+        return new Symmetry(n, false);
+    }
+
+    /**
+     * Create symmetry with the original and its mirror image, mirrored by
+     * vertical line through the center
+     *
+     * @return the symmetry
+     */
+    public static Symmetry mirror() {
+        return new Symmetry(1, true);
+    }
+
+    /**
+     * Create kaleidoscope with -n rotated copies, each one also mirrored
+     *
+     * @param n - number of rotated copies
+     * @return the symmetry
+     */
+    public static Symmetry kaleidoscope(int n) {
+        return new Symmetry(n, true);
+    }
+
+    /**
+     * Get number of drawn instances, including the original
+     *
+     * @return the number of instances
+     */
+    public int getNumInstances() {
+        return mirror ? 2 * numRotations : numRotations;
+    }
+
+    /**
+     * Compute the affine transforms for given canvas size, only if the size
+     * is changed. Instance 0 is always the original.
+     */
+    private void update(int width, int height) {
+        if (this.width == width && this.height == height) {
+            return;
+        }
+        this.width = width;
+        this.height = height;
+        matrices = null;
+
+        float cx = centerX * width;
+        float cy = centerY * height;
+        int numInstances = getNumInstances();
+        values = new float[numInstances * 6];
+        for (int i = 0; i < numInstances; i++) {
+            double angle = 2 * Math.PI * (i % numRotations) / numRotations;
+            float cos = (float) Math.cos(angle);
+            float sin = (float) Math.sin(angle);
+            float scale = i < numRotations ? 1f : -1f;
+
+            // rotation after optional mirror, around the center
+            float a = scale * cos, b = -sin;
+            float c = scale * sin, d = cos;
+            int offset = i * 6;
+            values[offset] = a;
+            values[offset + 1] = b;
+            values[offset + 2] = cx - (a * cx + b * cy);
+            values[offset + 3] = c;
+            values[offset + 4] = d;
+            values[offset + 5] = cy - (c * cx + d * cy);
+        }
+    }
+
+    /**
+     * Map point from the original to given instance, without using android
+     * graphics objects
+     *
+     * @param instance - index of the instance
+     * @param width    - canvas width
+     * @param height   - canvas height
+     * @param x        - coordinate
+     * @param y        - coordinate
+     * @param out      - array where the mapped x and y coordinates are set
+     */
+    public synchronized void mapPoint(int instance, int width, int height, float x, float y, float[] out) {
+        update(width, height);
+        int offset = instance * 6;
+        out[0] = values[offset] * x + values[offset + 1] * y + values[offset + 2];
+        out[1] = values[offset + 3] * x + values[offset + 4] * y + values[offset + 5];
+    }
+
+    /**
+     * Get the canvas matrices for all instances, the array is cached and
+     * is created again only when the canvas size is changed
+     *
+     * @param width  - canvas width
+     * @param height - canvas height
+     * @return the matrices
+     */
+    public synchronized Matrix[] getMatrices(int width, int height) {
+        update(width, height);
+        if (matrices == null) {
+            int numInstances = getNumInstances();
+            matrices = new Matrix[numInstances];
+            float[] matrixValues = new float[9];
+            for (int i = 0; i < numInstances; i++) {
+                System.arraycopy(values, i * 6, matrixValues, 0, 6);
+                matrixValues[8] = 1f;
+                matrices[i] = new Matrix();
+                matrices[i].setValues(matrixValues);
+            }
+        }
+        return matrices;
+    }
+
+    public int getNumRotations() {
+        return numRotations;
+    }
+
+    public boolean isMirror() {
+        return mirror;
+    }
+
+    public float getCenterX() {
+        return centerX;
+    }
+
+    public float getCenterY() {
+        return centerY;
+    }
+}
@@ -0,0 +1,425 @@
+package com.slaviboy.fingerdraw;
+
+import android.graphics.Bitmap;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Copyright (c) 2019 Stanislav Georgiev. (MIT License)
+ * https://github.com/slaviboy
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * - The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * - The Software is provided "as is", without warranty of any kind, express or
+ * implied, including but not limited to the warranties of merchantability,
+ * fitness for a particular purpose and noninfringement. In no event shall the
+ * authors or copyright holders be liable for any claim, damages or other
+ * liability, whether in an action of contract, tort or otherwise, arising from,
+ * out of or in connection with the Software or the use or other dealings in the
+ * Software.
+ * <p>
+ * <p>
+ * TiledSurface Class(Java) is persistent drawing that can be larger than the
+ * screen, and can be panned and zoomed using the {@link ViewTransform}. Strokes
+ * are kept in world coordinates, and are rasterized into fixed-size tiles only
+ * when the tiles become visible. Tiles are made for zoom levels that are powers
+ * of two, so zooming within a level only scales the existing tiles. The tiles
+ * are kept in LRU cache with memory cap, tiles removed from the cache are reused
+ * for new tiles. New strokes are drawn only in the cached tiles they touch. It
+ * is scene listener, so strokes drawn with the fingers are added when the finger
+ * is up.
+ */
+
+public class TiledSurface implements Scene.Listener {
+
+    /**
+     * Tile with fixed size in pixels, that covers square part of the world
+     */
+    public static class Tile {
+
+        public int level;                 // zoom level, the tile has 2^level pixels per world unit
+        public int column;                // column of the tile in its level
+        public int row;                   // row of the tile in its level
+        public float left;                // world x coordinate of the left side
+        public float top;                 // world y coordinate of the top side
+        public float scale;               // tile pixels per world unit
+        public Bitmap bitmap;             // bitmap with the content, set by the renderer
+    }
+
+    /**
+     * Renderer that creates the tile content and draws it on the canvas
+     */
+    public interface TileRenderer {
+
+        void allocate(Tile tile, int size);
+
+        void clear(Tile tile);
+
+        void drawStroke(Tile tile, StrokeLog strokes, int index);
+
+        void drawTile(android.graphics.Canvas canvas, Tile tile, float left, float top, float size);
+
+        void release(Tile tile);
+    }
+
+    private TileRenderer renderer;        // renderer for the tiles
+    private ViewTransform transform;      // transform from world to screen coordinates
+    private StrokeLog strokes;            // strokes in world coordinates
+    private float[] bounds;               // world bounds of each stroke, including the stroke width, 4 values per stroke
+    private int tileSize;                 // tile size in pixels
+    private long maxBytes;                // memory cap for the cached tiles
+    private LinkedHashMap<Long, Tile> tiles; // cached tiles, in access order
+    private ArrayDeque<Tile> free;        // tiles removed from the cache, reused for new tiles
+    private int numRasterized;            // number of tiles rasterized since creation
+
+    private int color;                    // color of the new strokes
+    private float strokeWidth;            // stroke width of the new strokes, in screen pixels
+    private float[][] fingerPoints;       // world points of the strokes being drawn, for each finger
+    private int[] fingerSizes;            // number of points of the strokes being drawn, for each finger
+
+    public TiledSurface(TileRenderer renderer) {
+        // default 256px tiles and 48MB cache
+        this(renderer, 256, 48L * 1024 * 1024);
+    }
+
+    public TiledSurface(TileRenderer renderer, int tileSize, long maxBytes) {
+        this.renderer = renderer;
+        this.tileSize = tileSize;
+        this.maxBytes = maxBytes;
+        transform = new ViewTransform();
+        strokes = new StrokeLog();
+        bounds = new float[256];
+        tiles = new LinkedHashMap<>(64, 0.75f, true);
+        free = new ArrayDeque<>();
+        color = 0xFF000000;
+        strokeWidth = 8f;
+        fingerPoints = new float[10][];
+        fingerSizes = new int[10];
+    }
+
+    @Override
+    public synchronized void onDown(int arrayIndex, float x, float y, float pressure, float touchMajor, long time) {
+        if (arrayIndex >= fingerPoints.length) {
+            fingerPoints = Arrays.copyOf(fingerPoints, arrayIndex + 1);
+            fingerSizes = Arrays.copyOf(fingerSizes, arrayIndex + 1);
+        }
+        fingerSizes[arrayIndex] = 0;
+        addFingerPoint(arrayIndex, x, y);
+    }
+
+    @Override
+    public synchronized void onMove(int arrayIndex, float x, float y, float pressure, float touchMajor, long time) {
+        if (arrayIndex < fingerPoints.length) {
+            addFingerPoint(arrayIndex, x, y);
+        }
+    }
+
+    @Override
+    public synchronized void onUp(int arrayIndex, float x, float y, float pressure, float touchMajor, long time) {
+        if (arrayIndex < fingerPoints.length && fingerSizes[arrayIndex] > 0) {
+            addFingerPoint(arrayIndex, x, y);
+            add(color, strokeWidth / transform.getScale(), fingerPoints[arrayIndex], fingerSizes[arrayIndex]);
+            fingerSizes[arrayIndex] = 0;
+        }
+    }
+
+    @Override
+    public void onFadeOut(long time) {
+    }
+
+    @Override
+    public void onFrame(long time) {
+    }
+
+    /**
+     * Add finger point, mapped to world coordinates with the current transform
+     */
+    private void addFingerPoint(int finger, float x, float y) {
+        float[] points = fingerPoints[finger];
+        int size = fingerSizes[finger];
+        if (points == null) {
+            points = fingerPoints[finger] = new float[256];
+        } else if (2 * size + 2 > points.length) {
+            points = fingerPoints[finger] = Arrays.copyOf(points, points.length * 2);
+        }
+        points[2 * size] = transform.toWorldX(x);
+        points[2 * size + 1] = transform.toWorldY(y);
+        fingerSizes[finger] = size + 1;
+    }
+
+    /**
+     * Add stroke in world coordinates, and draw it in the cached tiles it touches
+     *
+     * @param color       - stroke color
+     * @param strokeWidth - stroke width in world units
+     * @param xy          - world x and y coordinates of the points, one after another
+     * @param numPoints   - number of points
+     */
+    public synchronized void add(int color, float strokeWidth, float[] xy, int numPoints) {
+        int index = strokes.size();
+        strokes.add(color, strokeWidth, xy, numPoints);
+
+        // bounds, including half of the stroke width
+        float half = strokeWidth / 2;
+        float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE;
+        float maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE;
+        for (int i = 0; i < numPoints; i++) {
+            minX = Math.min(minX, xy[2 * i]);
+            maxX = Math.max(maxX, xy[2 * i]);
+            minY = Math.min(minY, xy[2 * i + 1]);
+            maxY = Math.max(maxY, xy[2 * i + 1]);
+        }
+        if (4 * index + 4 > bounds.length) {
+            bounds = Arrays.copyOf(bounds, bounds.length * 2);
+        }
+        bounds[4 * index] = minX - half;
+        bounds[4 * index + 1] = minY - half;
+        bounds[4 * index + 2] = maxX + half;
+        bounds[4 * index + 3] = maxY + half;
+
+        for (Tile tile : tiles.values()) {
+            if (intersects(tile, index)) {
+                renderer.drawStroke(tile, strokes, index);
+            }
+        }
+    }
+
+    /**
+     * Make sure all tiles visible in the view are cached, missing tiles are
+     * rasterized, and draw them on the canvas if it is not null. Returns the
+     * number of rasterized tiles.
+     */
+    private int update(int viewWidth, int viewHeight, android.graphics.Canvas canvas) {
+        int level = getLevel();
+        float levelScale = (float) Math.pow(2, level);
+        float tileWorldSize = tileSize / levelScale;
+
+        // tiles that only touch the right or bottom side of the view are not visible
+        int firstColumn = (int) Math.floor(transform.toWorldX(0) / tileWorldSize);
+        int lastColumn = (int) Math.ceil(transform.toWorldX(viewWidth) / tileWorldSize) - 1;
+        int firstRow = (int) Math.floor(transform.toWorldY(0) / tileWorldSize);
+        int lastRow = (int) Math.ceil(transform.toWorldY(viewHeight) / tileWorldSize) - 1;
+
+        // cache must fit at least the visible tiles
+        int numVisible = (lastColumn - firstColumn + 1) * (lastRow - firstRow + 1);
+        int maxTiles = Math.max(numVisible, (int) (maxBytes / getTileBytes()));
+
+        int rasterized = 0;
+        float screenSize = tileWorldSize * transform.getScale();
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                long key = getKey(level, column, row);
+                Tile tile = tiles.get(key);
+                if (tile == null) {
+                    tile = obtain(maxTiles);
+                    tile.level = level;
+                    tile.column = column;
+                    tile.row = row;
+                    tile.left = column * tileWorldSize;
+                    tile.top = row * tileWorldSize;
+                    tile.scale = levelScale;
+                    rasterize(tile);
+                    tiles.put(key, tile);
+                    rasterized++;
+                }
+                if (canvas != null) {
+                    renderer.drawTile(canvas, tile, transform.toScreenX(tile.left),
+                            transform.toScreenY(tile.top), screenSize);
+                }
+            }
+        }
+        numRasterized += rasterized;
+        return rasterized;
+    }
+
+    /**
+     * Make sure all tiles visible in the view are cached, without drawing them
+     *
+     * @param viewWidth  - view width in pixels
+     * @param viewHeight - view height in pixels
+     * @return number of tiles that were rasterized
+     */
+    public synchronized int update(int viewWidth, int viewHeight) {
+        return update(viewWidth, viewHeight, null);
+    }
+
+    /**
+     * Draw the visible tiles on the canvas, rasterizing only the tiles
+     * that are not cached
+     *
+     * @param canvas - the canvas
+     * @return number of tiles that were rasterized
+     */
+    public synchronized int draw(android.graphics.Canvas canvas) {
+        return update(canvas.getWidth(), canvas.getHeight(), canvas);
+    }
+
+    /**
+     * Draw all strokes that touch the tile
+     */
+    private void rasterize(Tile tile) {
+        renderer.clear(tile);
+        for (int i = 0; i < strokes.size(); i++) {
+            if (intersects(tile, i)) {
+                renderer.drawStroke(tile, strokes, i);
+            }
+        }
+    }
+
+    private boolean intersects(Tile tile, int stroke) {
+        float size = tileSize / tile.scale;
+        int offset = 4 * stroke;
+        return bounds[offset] < tile.left + size && bounds[offset + 2] > tile.left
+                && bounds[offset + 1] < tile.top + size && bounds[offset + 3] > tile.top;
+    }
+
+    /**
+     * Get tile for new content, reuse free tile or the least recently used
+     * tile if the cache is full
+     */
+    private Tile obtain(int maxTiles) {
+        if (tiles.size() >= maxTiles) {
+            Iterator<Map.Entry<Long, Tile>> iterator = tiles.entrySet().iterator();
+            Tile tile = iterator.next().getValue();
+            iterator.remove();
+            return tile;
+        }
+        Tile tile = free.poll();
+        if (tile == null) {
+            tile = new Tile();
+            renderer.allocate(tile, tileSize);
+        }
+        return tile;
+    }
+
+    /**
+     * Get zoom level for the current scale, tiles of the level are drawn
+     * with scale in range [1,2)
+     */
+    public synchronized int getLevel() {
+        return (int) Math.floor(Math.log(transform.getScale()) / Math.log(2) + 1e-6);
+    }
+
+    private static long getKey(int level, int column, int row) {
+        return ((long) (level & 0xFF) << 56) | ((long) (column & 0xFFFFFFF) << 28) | (row & 0xFFFFFFF);
+    }
+
+    /**
+     * Remove all cached tiles, they are rasterized again when visible
+     */
+    public synchronized void invalidate() {
+        free.addAll(tiles.values());
+        tiles.clear();
+    }
+
+    /**
+     * Release the memory used by all tiles
+     */
+    public synchronized void release() {
+        invalidate();
+        for (Tile tile : free) {
+            renderer.release(tile);
+        }
+        free.clear();
+    }
+
+    /**
+     * Remove all strokes
+     */
+    public synchronized void clear() {
+        strokes.truncate(0);
+        invalidate();
+    }
+
+    public long getTileBytes() {
+        return 4L * tileSize * tileSize;
+    }
+
+    public synchronized int getNumCachedTiles() {
+        return tiles.size();
+    }
+
+    public synchronized int getNumRasterized() {
+        return numRasterized;
+    }
+
+    public synchronized int getNumStrokes() {
+        return strokes.size();
+    }
+
+    /**
+     * Get the view transform, it should be changed only through pan() and
+     * zoom(), so it is not changed while the tiles are drawn
+     *
+     * @return the transform
+     */
+    public ViewTransform getTransform() {
+        return transform;
+    }
+
+    /**
+     * Move the view, only the newly visible tiles are rasterized
+     *
+     * @param dx - screen pixels in x direction
+     * @param dy - screen pixels in y direction
+     */
+    public synchronized void pan(float dx, float dy) {
+        transform.pan(dx, dy);
+    }
+
+    /**
+     * Zoom the view around focus point, the tiles are rasterized again
+     * only when the zoom level is changed
+     *
+     * @param factor - zoom factor, bigger than 1 to zoom in
+     * @param focusX - screen coordinate of the focus
+     * @param focusY - screen coordinate of the focus
+     */
+    public synchronized void zoom(float factor, float focusX, float focusY) {
+        transform.zoom(factor, focusX, focusY);
+    }
+
+    public int getTileSize() {
+        return tileSize;
+    }
+
+    public synchronized long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public synchronized void setMaxBytes(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    public synchronized int getColor() {
+        return color;
+    }
+
+    public synchronized void setColor(int color) {
+        this.color = color;
+    }
+
+    public synchronized float getStrokeWidth() {
+        return strokeWidth;
+    }
+
+    /**
+     * Set stroke width for new strokes, in screen pixels at the zoom
+     * level when the stroke is drawn
+     *
+     * @param strokeWidth - stroke width in pixels
+     */
+    public synchronized void setStrokeWidth(float strokeWidth) {
+        this.strokeWidth = strokeWidth;
+    }
+}
@@ -0,0 +1,341 @@
+package com.slaviboy.fingerdraw;
+
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Copyright (c) 2019 Stanislav Georgiev. (MIT License)
+ * https://github.com/slaviboy
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * - The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * - The Software is provided "as is", without warranty of any kind, express or
+ * implied, including but not limited to the warranties of merchantability,
+ * fitness for a particular purpose and noninfringement. In no event shall the
+ * authors or copyright holders be liable for any claim, damages or other
+ * liability, whether in an action of contract, tort or otherwise, arising from,
+ * out of or in connection with the Software or the use or other dealings in the
+ * Software.
+ * <p>
+ * <p>
+ * TouchHeatmap Class(Java) accumulates where the screen is touched and dragged
+ * the most, in low resolution grid of cells. It is scene listener, and each sample
+ * is only appended to primitive buffer on the touch thread. The buffer is splatted
+ * into the grid on background thread, each sample is spread to the four nearest
+ * cells. Old values decay with given -half life, the decay is kept as single
+ * factor for the whole grid, so it costs O(1) instead of updating all cells.
+ * The values can be exported as snapshot, and drawn with {@link HeatmapOverlay}.
+ */
+
+public class TouchHeatmap implements Scene.Listener {
+
+    private int columns;                  // number of columns of the grid
+    private int rows;                     // number of rows of the grid
+    private float cellSize;               // size of each cell in pixels
+    private float[] cells;                // values of the cells, divided by -scale
+    private double scale;                 // factor of all cells, made smaller by the decay
+    private long halfLife;                // time after which the values are halved in (ms), or 0 for no decay
+    private long decayTime;               // time of the last decay
+    private Clock clock;                  // clock used for the decay
+    private volatile int version;         // incremented each time samples are added to the grid
+
+    private final Object pendingLock = new Object(); // lock for the samples waiting to be splatted
+    private float[] pending;              // x and y of the samples waiting to be splatted
+    private float[] splatting;            // x and y of the samples being splatted
+    private int numPending;               // number of samples waiting to be splatted
+    private boolean flushScheduled;       // whether splatting is scheduled on the executor
+    private Executor executor;            // executor that splats the samples
+    private Runnable flushTask;           // task that splats the pending samples
+
+    /**
+     * @param width    - width of the area in pixels
+     * @param height   - height of the area in pixels
+     * @param cellSize - size of each cell in pixels
+     * @param halfLife - time after which the values are halved in (ms), or 0 for no decay
+     */
+    public TouchHeatmap(int width, int height, float cellSize, long halfLife) {
+        this(width, height, cellSize, halfLife, createExecutor());
+    }
+
+    /**
+     * @param width    - width of the area in pixels
+     * @param height   - height of the area in pixels
+     * @param cellSize - size of each cell in pixels
+     * @param halfLife - time after which the values are halved in (ms), or 0 for no decay
+     * @param executor - executor that splats the samples into the grid
+     */
+    public TouchHeatmap(int width, int height, float cellSize, long halfLife, Executor executor) {
+        this.cellSize = cellSize;
+        this.halfLife = halfLife;
+        this.executor = executor;
+        setSize(width, height);
+        clock = Clock.SYSTEM;
+        decayTime = clock.currentTimeMillis();
+        pending = new float[512];
+        splatting = new float[512];
+        flushTask = new Runnable() {
+            @Override
+            public void run() {
+                flush();
+            }
+        };
+    }
+
+    /**
+     * Single thread, that is stopped when there is nothing to splat
+     */
+    private static Executor createExecutor() {
+        ThreadPoolExecutor threadPool = new ThreadPoolExecutor(1, 1, 1, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>());
+        threadPool.allowCoreThreadTimeOut(true);
+        return threadPool;
+    }
+
+    @Override
+    public void onDown(int arrayIndex, float x, float y, float pressure, float touchMajor, long time) {
+        add(x, y);
+    }
+
+    @Override
+    public void onMove(int arrayIndex, float x, float y, float pressure, float touchMajor, long time) {
+        add(x, y);
+    }
+
+    @Override
+    public void onUp(int arrayIndex, float x, float y, float pressure, float touchMajor, long time) {
+        add(x, y);
+    }
+
+    @Override
+    public void onFadeOut(long time) {
+    }
+
+    /**
+     * Splat the samples of the frame on the executor
+     */
+    @Override
+    public void onFrame(long time) {
+        synchronized (pendingLock) {
+            if (numPending == 0 || flushScheduled) {
+                return;
+            }
+            flushScheduled = true;
+        }
+        executor.execute(flushTask);
+    }
+
+    /**
+     * Append sample to the pending samples
+     *
+     * @param x - coordinate
+     * @param y - coordinate
+     */
+    public void add(float x, float y) {
+        synchronized (pendingLock) {
+            if (2 * numPending + 2 > pending.length) {
+                pending = Arrays.copyOf(pending, pending.length * 2);
+            }
+            pending[2 * numPending] = x;
+            pending[2 * numPending + 1] = y;
+            numPending++;
+        }
+    }
+
+    /**
+     * Splat all pending samples into the grid, called on the executor, but it
+     * can be called from any thread. Flushes are serialized on the heatmap, so
+     * the buffer being splatted is not given back to the touch thread until the
+     * flush that took it is done.
+     */
+    public synchronized void flush() {
+        float[] samples;
+        int count;
+        synchronized (pendingLock) {
+            samples = pending;
+            count = numPending;
+            pending = splatting;
+            splatting = samples;
+            numPending = 0;
+            flushScheduled = false;
+        }
+
+        decay();
+        float weight = (float) (1.0 / scale);
+        for (int i = 0; i < count; i++) {
+            splat(samples[2 * i], samples[2 * i + 1], weight);
+        }
+        if (count > 0) {
+            version++;
+        }
+
+        // the buffer is swapped back only if no larger buffer was made meanwhile
+        synchronized (pendingLock) {
+            if (splatting.length < samples.length) {
+                splatting = samples;
+            }
+        }
+    }
+
+    /**
+     * Spread the weight to the four nearest cells, by the distance from their centers
+     */
+    private void splat(float x, float y, float weight) {
+        float gx = x / cellSize - 0.5f;
+        float gy = y / cellSize - 0.5f;
+        int column = (int) Math.floor(gx);
+        int row = (int) Math.floor(gy);
+        float fx = gx - column, fy = gy - row;
+        add(column, row, weight * (1 - fx) * (1 - fy));
+        add(column + 1, row, weight * fx * (1 - fy));
+        add(column, row + 1, weight * (1 - fx) * fy);
+        add(column + 1, row + 1, weight * fx * fy);
+    }
+
+    private void add(int column, int row, float value) {
+        if (column >= 0 && column < columns && row >= 0 && row < rows) {
+            cells[row * columns + column] += value;
+        }
+    }
+
+    /**
+     * Apply the decay since the last call to the factor of all cells, when the
+     * factor is too small it is moved to the cells, to keep them in float range
+     */
+    private void decay() {
+        long now = clock.currentTimeMillis();
+        if (halfLife > 0 && now > decayTime) {
+            scale *= Math.pow(0.5, (double) (now - decayTime) / halfLife);
+        }
+        decayTime = now;
+        if (scale < 1e-12) {
+            for (int i = 0; i < cells.length; i++) {
+                cells[i] *= scale;
+            }
+            scale = 1.0;
+        }
+    }
+
+    /**
+     * Copy the current values of the cells, after splatting the pending
+     * samples, row after row
+     *
+     * @param values - array with at least columns * rows elements
+     * @return the largest value
+     */
+    public float snapshot(float[] values) {
+        flush();
+        synchronized (this) {
+            decay();
+            float max = 0;
+            for (int i = 0; i < cells.length; i++) {
+                values[i] = (float) (cells[i] * scale);
+                max = Math.max(max, values[i]);
+            }
+            return max;
+        }
+    }
+
+    /**
+     * Get the current value of the cell, after splatting the pending samples
+     *
+     * @param column - column of the cell
+     * @param row    - row of the cell
+     * @return the value
+     */
+    public float getValue(int column, int row) {
+        flush();
+        synchronized (this) {
+            decay();
+            return (float) (cells[row * columns + column] * scale);
+        }
+    }
+
+    /**
+     * Set the size of the area covered by the grid, the grid is made again
+     * and the values are removed, if the number of cells changes
+     *
+     * @param width  - width of the area in pixels
+     * @param height - height of the area in pixels
+     */
+    public synchronized void setSize(int width, int height) {
+        int newColumns = Math.max((int) Math.ceil(width / cellSize), 1);
+        int newRows = Math.max((int) Math.ceil(height / cellSize), 1);
+        if (cells != null) {
+            if (newColumns == columns && newRows == rows) {
+                return;
+            }
+            version++;
+        }
+        columns = newColumns;
+        rows = newRows;
+        cells = new float[columns * rows];
+        scale = 1.0;
+    }
+
+    /**
+     * Run task on the executor that splats the samples, so tasks that read
+     * the grid do not block the drawing thread
+     *
+     * @param task - the task
+     */
+    void execute(Runnable task) {
+        executor.execute(task);
+    }
+
+    /**
+     * Remove all values and pending samples
+     */
+    public void clear() {
+        synchronized (pendingLock) {
+            numPending = 0;
+        }
+        synchronized (this) {
+            Arrays.fill(cells, 0f);
+            scale = 1.0;
+            version++;
+        }
+    }
+
+    public synchronized int getColumns() {
+        return columns;
+    }
+
+    public synchronized int getRows() {
+        return rows;
+    }
+
+    public float getCellSize() {
+        return cellSize;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public synchronized long getHalfLife() {
+        return halfLife;
+    }
+
+    public synchronized void setHalfLife(long halfLife) {
+        decay();
+        this.halfLife = halfLife;
+    }
+
+    public synchronized Clock getClock() {
+        return clock;
+    }
+
+    public synchronized void setClock(Clock clock) {
+        this.clock = clock;
+        decayTime = clock.currentTimeMillis();
+    }
+}
@@ -0,0 +1,238 @@
+package com.slaviboy.fingerdraw;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Copyright (c) 2019 Stanislav Georgiev. (MIT License)
+ * https://github.com/slaviboy
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * - The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * - The Software is provided "as is", without warranty of any kind, express or
+ * implied, including but not limited to the warranties of merchantability,
+ * fitness for a particular purpose and noninfringement. In no event shall the
+ * authors or copyright holders be liable for any claim, damages or other
+ * liability, whether in an action of contract, tort or otherwise, arising from,
+ * out of or in connection with the Software or the use or other dealings in the
+ * Software.
+ * <p>
+ * <p>
+ * TouchRecording Class(Java) holds recorded touch stream, that is the finger
+ * -down, -move and -up events with the time each one was made. It is scene
+ * listener, so live session can be recorded by adding it to the scene of the
+ * canvas {@link Canvas#getScene()}. The events are kept in primitive arrays,
+ * and the recording can be written to and read from a stream, and replayed
+ * by the {@link OfflineRenderer}.
+ */
+
+public class TouchRecording implements Scene.Listener {
+
+    private static final int VERSION = 1;
+
+    /**
+     * Maximum number of events in a written recording, about an hour of
+     * continuous touch with two fingers
+     */
+    public static final int MAX_SIZE = 1 << 24;
+
+    private byte[] types;             // event types, TrailBatch.DOWN, MOVE or UP
+    private byte[] fingers;           // array index of the finger for each event
+    private float[] x;                // x coordinates
+    private float[] y;                // y coordinates
+    private float[] pressure;         // finger pressure
+    private float[] touchMajor;       // finger touch major
+    private long[] times;             // time of the events in (ms)
+    private int size;                 // number of events
+
+    public TouchRecording() {
+        types = new byte[256];
+        fingers = new byte[256];
+        x = new float[256];
+        y = new float[256];
+        pressure = new float[256];
+        touchMajor = new float[256];
+        times = new long[256];
+    }
+
+    @Override
+    public void onDown(int arrayIndex, float x, float y, float pressure, float touchMajor, long time) {
+        add(TrailBatch.DOWN, arrayIndex, x, y, pressure, touchMajor, time);
+    }
+
+    @Override
+    public void onMove(int arrayIndex, float x, float y, float pressure, float touchMajor, long time) {
+        add(TrailBatch.MOVE, arrayIndex, x, y, pressure, touchMajor, time);
+    }
+
+    @Override
+    public void onUp(int arrayIndex, float x, float y, float pressure, float touchMajor, long time) {
+        add(TrailBatch.UP, arrayIndex, x, y, pressure, touchMajor, time);
+    }
+
+    @Override
+    public void onFadeOut(long time) {
+        // the fadeout effect is recomputed from the time when replayed
+    }
+
+    @Override
+    public void onFrame(long time) {
+    }
+
+    /**
+     * Add event at the end of the recording, events must be added in time order
+     *
+     * @param type       - TrailBatch.DOWN, MOVE or UP
+     * @param arrayIndex - array index of the finger, in range [0,255]
+     * @param x          - coordinate
+     * @param y          - coordinate
+     * @param pressure   - finger pressure
+     * @param touchMajor - finger touch major
+     * @param time       - time of the event in (ms)
+     */
+    public synchronized void add(byte type, int arrayIndex, float x, float y,
+                                 float pressure, float touchMajor, long time) {
+        if (size > 0 && time < times[size - 1]) {
+            throw new IllegalArgumentException("Events must be added in time order");
+        }
+        ensureCapacity(size + 1);
+        types[size] = type;
+        fingers[size] = (byte) arrayIndex;
+        this.x[size] = x;
+        this.y[size] = y;
+        this.pressure[size] = pressure;
+        this.touchMajor[size] = touchMajor;
+        times[size] = time;
+        size++;
+    }
+
+    /**
+     * Apply event to the scene
+     *
+     * @param index - index of the event
+     * @param scene - the scene
+     */
+    public synchronized void applyTo(int index, Scene scene) {
+        int finger = fingers[index] & 0xFF;
+        if (types[index] == TrailBatch.DOWN) {
+            scene.down(finger, x[index], y[index], pressure[index], touchMajor[index], times[index]);
+        } else if (types[index] == TrailBatch.MOVE) {
+            scene.move(finger, x[index], y[index], pressure[index], touchMajor[index], times[index]);
+        } else {
+            scene.up(finger, x[index], y[index], pressure[index], touchMajor[index], times[index]);
+        }
+    }
+
+    /**
+     * Write the recording to the stream
+     *
+     * @param out - the output stream
+     * @throws IOException if the recording has more than {@link #MAX_SIZE} events
+     */
+    public synchronized void write(DataOutputStream out) throws IOException {
+        if (size > MAX_SIZE) {
+            throw new IOException("Too many events: " + size);
+        }
+        out.writeInt(VERSION);
+        out.writeInt(size);
+        for (int i = 0; i < size; i++) {
+            out.writeByte(types[i]);
+            out.writeByte(fingers[i]);
+            out.writeLong(times[i]);
+            out.writeFloat(x[i]);
+            out.writeFloat(y[i]);
+            out.writeFloat(pressure[i]);
+            out.writeFloat(touchMajor[i]);
+        }
+        out.flush();
+    }
+
+    /**
+     * Replace the content of the recording, with recording read from the stream
+     *
+     * @param in - the input stream
+     * @throws IOException if the version is not supported, or the number of events
+     *                     is negative or more than {@link #MAX_SIZE}
+     */
+    public synchronized void read(DataInputStream in) throws IOException {
+        int version = in.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported recording version: " + version);
+        }
+        int count = in.readInt();
+        if (count < 0 || count > MAX_SIZE) {
+            throw new IOException("Invalid number of events: " + count);
+        }
+        size = 0;
+        for (int i = 0; i < count; i++) {
+
+            // grow with the events actually read, a truncated stream ends before the count
+            ensureCapacity(i + 1);
+            types[i] = in.readByte();
+            fingers[i] = in.readByte();
+            times[i] = in.readLong();
+            x[i] = in.readFloat();
+            y[i] = in.readFloat();
+            pressure[i] = in.readFloat();
+            touchMajor[i] = in.readFloat();
+        }
+        size = count;
+    }
+
+    private void ensureCapacity(int minCapacity) {
+        if (minCapacity > types.length) {
+            int capacity = Math.max(types.length * 2, minCapacity);
+            types = Arrays.copyOf(types, capacity);
+            fingers = Arrays.copyOf(fingers, capacity);
+            x = Arrays.copyOf(x, capacity);
+            y = Arrays.copyOf(y, capacity);
+            pressure = Arrays.copyOf(pressure, capacity);
+            touchMajor = Arrays.copyOf(touchMajor, capacity);
+            times = Arrays.copyOf(times, capacity);
+        }
+    }
+
+    public synchronized void clear() {
+        size = 0;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized byte getType(int index) {
+        return types[index];
+    }
+
+    public synchronized int getFinger(int index) {
+        return fingers[index] & 0xFF;
+    }
+
+    public synchronized float getX(int index) {
+        return x[index];
+    }
+
+    public synchronized float getY(int index) {
+        return y[index];
+    }
+
+    public synchronized long getTime(int index) {
+        return times[index];
+    }
+
+    public synchronized long getStartTime() {
+        return size == 0 ? 0 : times[0];
+    }
+
+    public synchronized long getEndTime() {
+        return size == 0 ? 0 : times[size - 1];
+    }
+}
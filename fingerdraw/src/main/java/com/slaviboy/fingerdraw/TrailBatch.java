@@ -0,0 +1,324 @@
+package com.slaviboy.fingerdraw;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Copyright (c) 2019 Stanislav Georgiev. (MIT License)
+ * https://github.com/slaviboy
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * - The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * - The Software is provided "as is", without warranty of any kind, express or
+ * implied, including but not limited to the warranties of merchantability,
+ * fitness for a particular purpose and noninfringement. In no event shall the
+ * authors or copyright holders be liable for any claim, damages or other
+ * liability, whether in an action of contract, tort or otherwise, arising from,
+ * out of or in connection with the Software or the use or other dealings in the
+ * Software.
+ * <p>
+ * <p>
+ * TrailBatch Class(Java) holds the trail changes made during one or more frames,
+ * that includes finger -down, -move and -up events with their coordinates, and
+ * -fade events with the time the fadeout effect was applied. Events are kept in
+ * primitive arrays, and the batch can be written to and read from a stream.
+ */
+
+public class TrailBatch {
+
+    public static final byte DOWN = 0;
+    public static final byte MOVE = 1;
+    public static final byte UP = 2;
+    public static final byte FADE = 3;
+
+    // maximum number of events in a batch read from a stream
+    public static final int MAX_SIZE = 1 << 20;
+
+    // maximum number of fade events kept in a row when compacting, enough for the longest fadeout
+    private static final int MAX_FADES_IN_ROW = FadeOut.MAX_DURATION / FadeOut.MIN_DURATION;
+
+    private byte[] types;             // event types
+    private byte[] fingers;           // array index of the finger for each event
+    private float[] x;                // x coordinates
+    private float[] y;                // y coordinates
+    private float[] pressure;         // finger pressure
+    private float[] touchMajor;       // finger touch major
+    private long[] times;             // time of the fade events
+    private boolean[] keep;           // events that are kept when the batch is compacted
+    private int[] moves;              // number of move events per finger, used when compacting
+    private boolean[] restarted;      // if a later down event of the finger clears the older events, used when compacting
+    private int size;                 // number of events
+    private long time;                // time of the last frame in the batch
+
+    public TrailBatch() {
+        this(64);
+    }
+
+    public TrailBatch(int capacity) {
+        capacity = Math.max(capacity, 1);
+        types = new byte[capacity];
+        fingers = new byte[capacity];
+        x = new float[capacity];
+        y = new float[capacity];
+        pressure = new float[capacity];
+        touchMajor = new float[capacity];
+        times = new long[capacity];
+        keep = new boolean[capacity];
+        moves = new int[256];
+        restarted = new boolean[256];
+    }
+
+    /**
+     * Add event at the end of the batch
+     *
+     * @param type       - DOWN, MOVE or UP
+     * @param arrayIndex - array index of the finger, in range [0,255]
+     * @param x          - coordinate
+     * @param y          - coordinate
+     * @param pressure   - finger pressure
+     * @param touchMajor - finger touch major
+     */
+    public void add(byte type, int arrayIndex, float x, float y, float pressure, float touchMajor) {
+        if (size == types.length) {
+            ensureCapacity(size + 1);
+        }
+        types[size] = type;
+        fingers[size] = (byte) arrayIndex;
+        this.x[size] = x;
+        this.y[size] = y;
+        this.pressure[size] = pressure;
+        this.touchMajor[size] = touchMajor;
+        size++;
+    }
+
+    /**
+     * Add fade event at the end of the batch
+     *
+     * @param time - time the fadeout effect was applied in (ms)
+     */
+    public void addFade(long time) {
+        add(FADE, 0, 0f, 0f, 0f, 0f);
+        times[size - 1] = time;
+    }
+
+    /**
+     * Append all events from other batch, and take its time, used to
+     * coalesce multiple frames into one
+     *
+     * @param other - the batch to append
+     */
+    public void append(TrailBatch other) {
+        ensureCapacity(size + other.size);
+        System.arraycopy(other.types, 0, types, size, other.size);
+        System.arraycopy(other.fingers, 0, fingers, size, other.size);
+        System.arraycopy(other.x, 0, x, size, other.size);
+        System.arraycopy(other.y, 0, y, size, other.size);
+        System.arraycopy(other.pressure, 0, pressure, size, other.size);
+        System.arraycopy(other.touchMajor, 0, touchMajor, size, other.size);
+        System.arraycopy(other.times, 0, times, size, other.size);
+        size += other.size;
+        time = other.time;
+    }
+
+    /**
+     * Drop events that can no longer be seen. Only the last stroke of each
+     * finger is kept, since a down event clears the path, and only its last
+     * -maxMovesPerStroke moves. From fade events in a row, only events at least
+     * {@link FadeOut#MIN_DURATION} apart are kept, and not more than needed
+     * for the longest fadeout, so the batch stays bounded while the stream is
+     * blocked.
+     *
+     * @param maxMovesPerStroke - maximum number of move events per stroke
+     */
+    public void compact(int maxMovesPerStroke) {
+
+        // mark events going backwards, a down or up event starts a new (older) stroke
+        Arrays.fill(moves, 0);
+        Arrays.fill(restarted, false);
+        for (int i = size - 1; i >= 0; i--) {
+            int finger = fingers[i] & 0xFF;
+            if (types[i] == FADE) {
+                keep[i] = true;
+            } else if (restarted[finger]) {
+                keep[i] = false;
+            } else if (types[i] == MOVE) {
+                keep[i] = ++moves[finger] <= maxMovesPerStroke;
+            } else {
+                keep[i] = true;
+                moves[finger] = 0;
+                restarted[finger] = types[i] == DOWN;
+            }
+        }
+
+        int newSize = 0;
+        int numFadesInRow = 0;
+        for (int i = 0; i < size; i++) {
+            if (keep[i] && types[i] == FADE) {
+
+                // fade events in a row, with the dropped events between them removed
+                if (newSize > 0 && types[newSize - 1] == FADE) {
+                    if (numFadesInRow >= MAX_FADES_IN_ROW
+                            || times[i] - times[newSize - 1] < FadeOut.MIN_DURATION) {
+                        continue;
+                    }
+                    numFadesInRow++;
+                } else {
+                    numFadesInRow = 1;
+                }
+            }
+            if (keep[i]) {
+                types[newSize] = types[i];
+                fingers[newSize] = fingers[i];
+                x[newSize] = x[i];
+                y[newSize] = y[i];
+                pressure[newSize] = pressure[i];
+                touchMajor[newSize] = touchMajor[i];
+                times[newSize] = times[i];
+                newSize++;
+            }
+        }
+        size = newSize;
+    }
+
+    /**
+     * Apply the events to the scene in the order they were added
+     *
+     * @param scene - the scene
+     */
+    public void applyTo(Scene scene) {
+        for (int i = 0; i < size; i++) {
+            int finger = fingers[i] & 0xFF;
+            if (types[i] == DOWN) {
+                scene.down(finger, x[i], y[i], pressure[i], touchMajor[i]);
+            } else if (types[i] == MOVE) {
+                scene.move(finger, x[i], y[i], pressure[i], touchMajor[i]);
+            } else if (types[i] == UP) {
+                scene.up(finger, x[i], y[i], pressure[i], touchMajor[i]);
+            } else {
+                scene.fadeOut(times[i]);
+            }
+        }
+    }
+
+    /**
+     * Write the batch to the stream
+     *
+     * @param out - the output stream
+     * @throws IOException
+     */
+    public void write(DataOutputStream out) throws IOException {
+        if (size > MAX_SIZE) {
+            throw new IOException("Too many events: " + size);
+        }
+        out.writeLong(time);
+        out.writeInt(size);
+        for (int i = 0; i < size; i++) {
+            out.writeByte(types[i]);
+            if (types[i] == FADE) {
+                out.writeLong(times[i]);
+                continue;
+            }
+            out.writeByte(fingers[i]);
+            out.writeFloat(x[i]);
+            out.writeFloat(y[i]);
+            out.writeFloat(pressure[i]);
+            out.writeFloat(touchMajor[i]);
+        }
+    }
+
+    /**
+     * Replace the content of the batch, with batch read from the stream
+     *
+     * @param in - the input stream
+     * @throws IOException if the stream fails, or the number of events is not in range [0,MAX_SIZE]
+     */
+    public void read(DataInputStream in) throws IOException {
+        time = in.readLong();
+        int count = in.readInt();
+        if (count < 0 || count > MAX_SIZE) {
+            throw new IOException("Invalid number of events: " + count);
+        }
+        clear();
+        ensureCapacity(count);
+        for (int i = 0; i < count; i++) {
+            types[i] = in.readByte();
+            if (types[i] == FADE) {
+                times[i] = in.readLong();
+                continue;
+            }
+            fingers[i] = in.readByte();
+            x[i] = in.readFloat();
+            y[i] = in.readFloat();
+            pressure[i] = in.readFloat();
+            touchMajor[i] = in.readFloat();
+        }
+        size = count;
+    }
+
+    /**
+     * Make sure the arrays can hold at least -minCapacity events
+     *
+     * @param minCapacity - minimum number of events
+     */
+    public void ensureCapacity(int minCapacity) {
+        if (minCapacity > types.length) {
+            int capacity = Math.max(types.length * 2, minCapacity);
+            types = Arrays.copyOf(types, capacity);
+            fingers = Arrays.copyOf(fingers, capacity);
+            x = Arrays.copyOf(x, capacity);
+            y = Arrays.copyOf(y, capacity);
+            pressure = Arrays.copyOf(pressure, capacity);
+            touchMajor = Arrays.copyOf(touchMajor, capacity);
+            times = Arrays.copyOf(times, capacity);
+            keep = new boolean[capacity];
+        }
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int capacity() {
+        return types.length;
+    }
+
+    public byte getType(int index) {
+        return types[index];
+    }
+
+    public int getFinger(int index) {
+        return fingers[index] & 0xFF;
+    }
+
+    public float getX(int index) {
+        return x[index];
+    }
+
+    public float getY(int index) {
+        return y[index];
+    }
+
+    public long getTime(int index) {
+        return times[index];
+    }
+
+    public long getTime() {
+        return time;
+    }
+
+    public void setTime(long time) {
+        this.time = time;
+    }
+}
@@ -0,0 +1,82 @@
+package com.slaviboy.fingerdraw;
+
+import android.graphics.LinearGradient;
+import android.graphics.Shader;
+
+/**
+ * Copyright (c) 2019 Stanislav Georgiev. (MIT License)
+ * https://github.com/slaviboy
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * - The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * - The Software is provided "as is", without warranty of any kind, express or
+ * implied, including but not limited to the warranties of merchantability,
+ * fitness for a particular purpose and noninfringement. In no event shall the
+ * authors or copyright holders be liable for any claim, damages or other
+ * liability, whether in an action of contract, tort or otherwise, arising from,
+ * out of or in connection with the Software or the use or other dealings in the
+ * Software.
+ * <p>
+ * <p>
+ * TrailGradient Class(Java) is immutable style, that changes the path color and
+ * alpha along its length, from the head (where the finger is) towards the tail.
+ * Each path creates its own shader from (0,0) to (1,0) once, and reuses it in
+ * each frame, only its local matrix is changed to map it from the head to the
+ * tail of the path. The shader is not shared, so paths with the same gradient
+ * do not change the matrix of each other.
+ */
+
+public class TrailGradient {
+
+    private final int[] colors;           // colors from head to tail
+    private final float[] positions;      // relative positions of the colors, or null for even spacing
+
+    public TrailGradient(int headColor, int tailColor) {
+        this(new int[]{headColor, tailColor}, null);
+    }
+
+    public TrailGradient(int[] colors, float[] positions) {
+        if (colors.length < 2) {
+            throw new IllegalArgumentException("At least two colors are required");
+        }
+        if (positions != null && positions.length != colors.length) {
+            throw new IllegalArgumentException("Colors and positions must have same length");
+        }
+        this.colors = colors.clone();
+        this.positions = positions == null ? null : positions.clone();
+    }
+
+    /**
+     * Create gradient that fades given color out towards the tail
+     *
+     * @param color - color at the head
+     * @return the gradient
+     */
+    public static TrailGradient fade(int color) {
+        return new TrailGradient(color, color & 0x00FFFFFF);
+    }
+
+    /**
+     * Create new shader from (0,0) to (1,0), called once by each path that
+     * uses the gradient
+     *
+     * @return the shader
+     */
+    public Shader createShader() {
+        return new LinearGradient(0, 0, 1, 0, colors, positions, Shader.TileMode.CLAMP);
+    }
+
+    public int[] getColors() {
+        return colors.clone();
+    }
+
+    public float[] getPositions() {
+        return positions == null ? null : positions.clone();
+    }
+}
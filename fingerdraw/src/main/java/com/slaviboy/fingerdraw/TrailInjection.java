@@ -0,0 +1,143 @@
+package com.slaviboy.fingerdraw;
+
+import java.util.Arrays;
+
+/**
+ * Copyright (c) 2019 Stanislav Georgiev. (MIT License)
+ * https://github.com/slaviboy
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * - The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * - The Software is provided "as is", without warranty of any kind, express or
+ * implied, including but not limited to the warranties of merchantability,
+ * fitness for a particular purpose and noninfringement. In no event shall the
+ * authors or copyright holders be liable for any claim, damages or other
+ * liability, whether in an action of contract, tort or otherwise, arising from,
+ * out of or in connection with the Software or the use or other dealings in the
+ * Software.
+ * <p>
+ * <p>
+ * TrailInjection Class(Java) holds points added to the trails by the program,
+ * instead of the touch screen, for example by tutorial animations or remote
+ * cursors. Each injection is a run of points for single trail, that is copied
+ * into primitive arrays in one step, and all injections are applied to the
+ * scene together, so the render thread never sees half of an injection.
+ */
+
+public class TrailInjection {
+
+    private int[] fingers;                // array index of the trail, for each injection
+    private int[] starts;                 // index of the first point, for each injection
+    private boolean[] ends;               // whether the trail ends after the points, for each injection
+    private int size;                     // number of injections
+    private float[] x;                    // x coordinates of the points of all injections
+    private float[] y;                    // y coordinates of the points of all injections
+    private long[] times;                 // event times of the points of all injections
+    private boolean[] timed;              // whether the points have event times, for each injection
+    private int numPoints;                // number of points of all injections
+
+    public TrailInjection() {
+        fingers = new int[16];
+        starts = new int[16];
+        ends = new boolean[16];
+        timed = new boolean[16];
+        x = new float[1024];
+        y = new float[1024];
+        times = new long[1024];
+    }
+
+    /**
+     * Add points for the trail at the end of the injections
+     *
+     * @param arrayIndex - array index of the trail
+     * @param x          - x coordinates
+     * @param y          - y coordinates
+     * @param offset     - index of the first point in the arrays
+     * @param numPoints  - number of points
+     * @param end        - whether the trail ends after the points, and starts to fade out
+     */
+    public void add(int arrayIndex, float[] x, float[] y, int offset, int numPoints, boolean end) {
+        add(arrayIndex, x, y, null, offset, numPoints, end);
+    }
+
+    /**
+     * Add points with event times for the trail at the end of the injections
+     *
+     * @param arrayIndex - array index of the trail
+     * @param x          - x coordinates
+     * @param y          - y coordinates
+     * @param times      - event times in (ms), or null to use the time when the points are applied
+     * @param offset     - index of the first point in the arrays
+     * @param numPoints  - number of points
+     * @param end        - whether the trail ends after the points, and starts to fade out
+     */
+    public void add(int arrayIndex, float[] x, float[] y, long[] times, int offset, int numPoints, boolean end) {
+        if (size == fingers.length) {
+            int capacity = size * 2;
+            fingers = Arrays.copyOf(fingers, capacity);
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            timed = Arrays.copyOf(timed, capacity);
+        }
+        if (this.numPoints + numPoints > this.x.length) {
+            int capacity = Math.max(this.x.length * 2, this.numPoints + numPoints);
+            this.x = Arrays.copyOf(this.x, capacity);
+            this.y = Arrays.copyOf(this.y, capacity);
+            this.times = Arrays.copyOf(this.times, capacity);
+        }
+        System.arraycopy(x, offset, this.x, this.numPoints, numPoints);
+        System.arraycopy(y, offset, this.y, this.numPoints, numPoints);
+        if (times != null) {
+            System.arraycopy(times, offset, this.times, this.numPoints, numPoints);
+        }
+
+        fingers[size] = arrayIndex;
+        starts[size] = this.numPoints;
+        ends[size] = end;
+        timed[size] = times != null;
+        this.numPoints += numPoints;
+        size++;
+    }
+
+    /**
+     * Add the points of all injections to the scene, in the order they were added,
+     * points without event times get the current time of the scene clock
+     *
+     * @param scene - the scene
+     */
+    public void applyTo(Scene scene) {
+        if (size == 0) {
+            return;
+        }
+        long time = scene.getClock().currentTimeMillis();
+        for (int i = 0; i < size; i++) {
+            int end = i + 1 < size ? starts[i + 1] : numPoints;
+            if (!timed[i]) {
+                Arrays.fill(times, starts[i], end, time);
+            }
+            scene.addPoints(fingers[i], x, y, times, starts[i], end - starts[i], ends[i]);
+        }
+    }
+
+    /**
+     * Remove all injections, the allocated arrays are kept and reused
+     */
+    public void clear() {
+        size = 0;
+        numPoints = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getNumPoints() {
+        return numPoints;
+    }
+}
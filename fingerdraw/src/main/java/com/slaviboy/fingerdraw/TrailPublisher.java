@@ -0,0 +1,256 @@
+package com.slaviboy.fingerdraw;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Copyright (c) 2019 Stanislav Georgiev. (MIT License)
+ * https://github.com/slaviboy
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * - The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * - The Software is provided "as is", without warranty of any kind, express or
+ * implied, including but not limited to the warranties of merchantability,
+ * fitness for a particular purpose and noninfringement. In no event shall the
+ * authors or copyright holders be liable for any claim, damages or other
+ * liability, whether in an action of contract, tort or otherwise, arising from,
+ * out of or in connection with the Software or the use or other dealings in the
+ * Software.
+ * <p>
+ * <p>
+ * TrailPublisher Class(Java) is a scene listener, that streams the trail changes
+ * made in each frame to an output stream, for example a socket or a pipe, so the
+ * trails can be mirrored on other canvas using {@link TrailSubscriber}. Writing
+ * is made on separate thread, if the consumer is slower than the frame rate the
+ * frames waiting to be sent are coalesced into one, so the drawing thread is
+ * never blocked by the stream. The coalesced frames are compacted, see
+ * {@link TrailBatch#compact(int)}, so they stay bounded while the stream is
+ * blocked.
+ */
+
+public class TrailPublisher implements Scene.Listener, Runnable {
+
+    private DataOutputStream out;        // stream the batches are written to
+    private TrailBatch current;          // batch filled with events from the current frame
+    private TrailBatch pending;          // batch waiting to be written
+    private TrailBatch writing;          // batch currently written by the sender thread
+    private boolean hasPending;          // if there is pending batch to write
+    private boolean isWriting;           // if the sender thread is writing a batch
+    private int maxPendingEvents;        // number of pending events, after which the pending batch is compacted
+    private int compactSize;             // current pending size that triggers compacting, grows when compacting does not help
+    private int maxMovesPerStroke;       // number of move events kept per stroke when compacting
+    private final Object lock;           // lock for the pending batch
+    private Thread thread;               // sender thread
+    private volatile boolean running;    // if sender thread is running
+    private volatile IOException error;  // error that stopped the sender thread
+    private long numFramesPublished;     // frames published by the scene
+    private long numFramesCoalesced;     // frames merged into the pending batch
+    private long numBatchesSent;         // batches written to the stream
+
+    public TrailPublisher(OutputStream out) {
+        this(out, 4096, 64);
+    }
+
+    public TrailPublisher(OutputStream out, int maxPendingEvents, int maxMovesPerStroke) {
+        this.out = new DataOutputStream(new BufferedOutputStream(out));
+        this.maxPendingEvents = maxPendingEvents;
+        this.compactSize = maxPendingEvents;
+        this.maxMovesPerStroke = maxMovesPerStroke;
+        current = new TrailBatch();
+        pending = new TrailBatch();
+        writing = new TrailBatch();
+        lock = new Object();
+    }
+
+    @Override
+    public void onDown(int arrayIndex, float x, float y, float pressure, float touchMajor, long time) {
+        current.add(TrailBatch.DOWN, arrayIndex, x, y, pressure, touchMajor);
+    }
+
+    @Override
+    public void onMove(int arrayIndex, float x, float y, float pressure, float touchMajor, long time) {
+        current.add(TrailBatch.MOVE, arrayIndex, x, y, pressure, touchMajor);
+    }
+
+    @Override
+    public void onUp(int arrayIndex, float x, float y, float pressure, float touchMajor, long time) {
+        current.add(TrailBatch.UP, arrayIndex, x, y, pressure, touchMajor);
+    }
+
+    @Override
+    public void onFadeOut(long time) {
+        current.addFade(time);
+    }
+
+    /**
+     * Hand the events from the current frame to the sender thread, if the
+     * previous frame is not sent yet, both frames are coalesced into one.
+     *
+     * @param time - frame time in (ms)
+     */
+    @Override
+    public void onFrame(long time) {
+        if (!running) {
+            current.clear();
+            return;
+        }
+
+        current.setTime(time);
+        synchronized (lock) {
+            numFramesPublished++;
+            if (!hasPending) {
+                TrailBatch batch = pending;
+                pending = current;
+                current = batch;
+                hasPending = true;
+                compactSize = maxPendingEvents;
+            } else {
+                pending.append(current);
+                numFramesCoalesced++;
+                if (pending.size() > compactSize) {
+                    pending.compact(maxMovesPerStroke);
+                    compactSize = Math.max(maxPendingEvents, 2 * pending.size());
+                }
+            }
+            lock.notifyAll();
+        }
+        current.clear();
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (running) {
+                synchronized (lock) {
+                    while (running && !hasPending) {
+                        lock.wait();
+                    }
+                    if (!running) {
+                        break;
+                    }
+                    TrailBatch batch = writing;
+                    writing = pending;
+                    pending = batch;
+                    hasPending = false;
+                    isWriting = true;
+                }
+
+                writing.write(out);
+                out.flush();
+                writing.clear();
+                synchronized (lock) {
+                    numBatchesSent++;
+                    isWriting = false;
+                    lock.notifyAll();
+                }
+            }
+        } catch (IOException e) {
+            error = e;
+        } catch (InterruptedException e) {
+            // stopped
+        } finally {
+
+            // close from the sender thread, so the reader sees end of stream before the thread ends
+            try {
+                out.close();
+            } catch (IOException e) {
+                // already closed
+            }
+            synchronized (lock) {
+                running = false;
+                isWriting = false;
+                lock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Wait until all published frames are written to the stream, should
+     * not be called from the drawing thread.
+     *
+     * @param timeoutMillis - maximum time to wait in (ms)
+     * @return true if all frames are written
+     * @throws InterruptedException
+     */
+    public boolean drain(long timeoutMillis) throws InterruptedException {
+        long end = System.currentTimeMillis() + timeoutMillis;
+        synchronized (lock) {
+            while (running && (hasPending || isWriting)) {
+                long remaining = end - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    return false;
+                }
+                lock.wait(remaining);
+            }
+            return !hasPending && !isWriting;
+        }
+    }
+
+    /**
+     * Start the sender thread
+     *
+     * @return this publisher
+     */
+    public TrailPublisher start() {
+        if (thread == null) {
+            running = true;
+            thread = new Thread(this, "TrailPublisher");
+            thread.start();
+        }
+        return this;
+    }
+
+    /**
+     * Stop the sender thread and close the stream, closing the stream
+     * releases sender thread that is blocked by a slow consumer.
+     */
+    public void stop() {
+        if (thread != null) {
+            running = false;
+            synchronized (lock) {
+                lock.notifyAll();
+            }
+            try {
+                out.close();
+            } catch (IOException e) {
+                // already closed
+            }
+            thread.interrupt();
+            thread = null;
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public IOException getError() {
+        return error;
+    }
+
+    public long getNumFramesPublished() {
+        synchronized (lock) {
+            return numFramesPublished;
+        }
+    }
+
+    public long getNumFramesCoalesced() {
+        synchronized (lock) {
+            return numFramesCoalesced;
+        }
+    }
+
+    public long getNumBatchesSent() {
+        synchronized (lock) {
+            return numBatchesSent;
+        }
+    }
+}
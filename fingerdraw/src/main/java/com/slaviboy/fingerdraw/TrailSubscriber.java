@@ -0,0 +1,150 @@
+package com.slaviboy.fingerdraw;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Copyright (c) 2019 Stanislav Georgiev. (MIT License)
+ * https://github.com/slaviboy
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * - The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * - The Software is provided "as is", without warranty of any kind, express or
+ * implied, including but not limited to the warranties of merchantability,
+ * fitness for a particular purpose and noninfringement. In no event shall the
+ * authors or copyright holders be liable for any claim, damages or other
+ * liability, whether in an action of contract, tort or otherwise, arising from,
+ * out of or in connection with the Software or the use or other dealings in the
+ * Software.
+ * <p>
+ * <p>
+ * TrailSubscriber Class(Java) reads the trail changes written by
+ * {@link TrailPublisher} from an input stream, and applies them to a scene, for
+ * example the scene of other canvas {@link Canvas#getScene()}. To make the
+ * fadeout effect follow the publisher, set the scene clock to {@link #getClock()},
+ * that returns the time of the last fade event received from the publisher.
+ */
+
+public class TrailSubscriber implements Runnable {
+
+    private DataInputStream in;           // stream the batches are read from
+    private Scene scene;                  // scene the batches are applied to
+    private TrailBatch batch;             // last read batch
+    private volatile long time;           // time of the last received fade event
+    private Thread thread;                // receiver thread
+    private volatile boolean running;     // if receiver thread is running
+    private volatile IOException error;   // error that stopped the receiver thread
+    private volatile long numBatchesReceived; // number of batches applied to the scene
+    private final Clock clock;            // clock with the time of the last received fade event
+
+    public TrailSubscriber(InputStream in, Scene scene) {
+        this.in = new DataInputStream(new BufferedInputStream(in));
+        this.scene = scene;
+        this.batch = new TrailBatch();
+        this.clock = new Clock() {
+            @Override
+            public long currentTimeMillis() {
+                return time;
+            }
+        };
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (running) {
+                batch.read(in);
+                for (int i = batch.size() - 1; i >= 0; i--) {
+                    if (batch.getType(i) == TrailBatch.FADE) {
+                        time = batch.getTime(i);
+                        break;
+                    }
+                }
+                batch.applyTo(scene);
+                numBatchesReceived++;
+            }
+        } catch (EOFException e) {
+            // publisher closed the stream
+        } catch (IOException e) {
+            if (running) {
+                error = e;
+            }
+        } finally {
+            running = false;
+        }
+    }
+
+    /**
+     * Start the receiver thread
+     *
+     * @return this subscriber
+     */
+    public TrailSubscriber start() {
+        if (thread == null) {
+            running = true;
+            thread = new Thread(this, "TrailSubscriber");
+            thread.start();
+        }
+        return this;
+    }
+
+    /**
+     * Stop the receiver thread and close the stream
+     */
+    public void stop() {
+        if (thread != null) {
+            running = false;
+            try {
+                in.close();
+            } catch (IOException e) {
+                // already closed
+            }
+            thread.interrupt();
+            thread = null;
+        }
+    }
+
+    /**
+     * Wait until the receiver thread stops, because the stream was closed
+     *
+     * @param millis - maximum time to wait in (ms)
+     * @throws InterruptedException
+     */
+    public void join(long millis) throws InterruptedException {
+        Thread t = thread;
+        if (t != null) {
+            t.join(millis);
+        }
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public IOException getError() {
+        return error;
+    }
+
+    /**
+     * Get clock that returns the time of the last fade event received from
+     * the publisher, to be set as the clock of the mirrored scene
+     *
+     * @return the clock
+     */
+    public Clock getClock() {
+        return clock;
+    }
+
+    public long getNumBatchesReceived() {
+        return numBatchesReceived;
+    }
+}
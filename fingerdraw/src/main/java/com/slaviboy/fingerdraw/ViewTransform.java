@@ -0,0 +1,119 @@
+package com.slaviboy.fingerdraw;
+
+/**
+ * Copyright (c) 2019 Stanislav Georgiev. (MIT License)
+ * https://github.com/slaviboy
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * - The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * - The Software is provided "as is", without warranty of any kind, express or
+ * implied, including but not limited to the warranties of merchantability,
+ * fitness for a particular purpose and noninfringement. In no event shall the
+ * authors or copyright holders be liable for any claim, damages or other
+ * liability, whether in an action of contract, tort or otherwise, arising from,
+ * out of or in connection with the Software or the use or other dealings in the
+ * Software.
+ * <p>
+ * <p>
+ * ViewTransform Class(Java) maps between the world coordinates of large drawing
+ * and the screen coordinates of the canvas, using uniform -scale and translation,
+ * screen = world * scale + translate. It supports pan and zoom around focus point,
+ * and has version that is changed on each change.
+ */
+
+public class ViewTransform {
+
+    private float scale;                  // screen pixels per world unit
+    private float translateX;             // screen x coordinate of the world origin
+    private float translateY;             // screen y coordinate of the world origin
+    private float minScale;               // minimum allowed scale
+    private float maxScale;               // maximum allowed scale
+    private int version;                  // incremented on each change
+
+    public ViewTransform() {
+        scale = 1f;
+        minScale = 1f / 16;
+        maxScale = 16f;
+    }
+
+    /**
+     * Move the view by given number of screen pixels
+     *
+     * @param dx - screen pixels in x direction
+     * @param dy - screen pixels in y direction
+     */
+    public void pan(float dx, float dy) {
+        translateX += dx;
+        translateY += dy;
+        version++;
+    }
+
+    /**
+     * Zoom the view by -factor, the world point under the focus stays at
+     * the same screen position
+     *
+     * @param factor - zoom factor, bigger than 1 to zoom in
+     * @param focusX - screen coordinate of the focus
+     * @param focusY - screen coordinate of the focus
+     */
+    public void zoom(float factor, float focusX, float focusY) {
+        float newScale = Math.max(minScale, Math.min(maxScale, scale * factor));
+        float worldX = toWorldX(focusX);
+        float worldY = toWorldY(focusY);
+        scale = newScale;
+        translateX = focusX - worldX * scale;
+        translateY = focusY - worldY * scale;
+        version++;
+    }
+
+    public void set(float scale, float translateX, float translateY) {
+        this.scale = Math.max(minScale, Math.min(maxScale, scale));
+        this.translateX = translateX;
+        this.translateY = translateY;
+        version++;
+    }
+
+    public float toWorldX(float screenX) {
+        return (screenX - translateX) / scale;
+    }
+
+    public float toWorldY(float screenY) {
+        return (screenY - translateY) / scale;
+    }
+
+    public float toScreenX(float worldX) {
+        return worldX * scale + translateX;
+    }
+
+    public float toScreenY(float worldY) {
+        return worldY * scale + translateY;
+    }
+
+    public float getScale() {
+        return scale;
+    }
+
+    public float getTranslateX() {
+        return translateX;
+    }
+
+    public float getTranslateY() {
+        return translateY;
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    public void setScaleRange(float minScale, float maxScale) {
+        this.minScale = minScale;
+        this.maxScale = Math.max(minScale, maxScale);
+        set(scale, translateX, translateY);
+    }
+}
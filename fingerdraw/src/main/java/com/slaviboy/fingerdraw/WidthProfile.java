@@ -0,0 +1,120 @@
+package com.slaviboy.fingerdraw;
+
+/**
+ * Copyright (c) 2019 Stanislav Georgiev. (MIT License)
+ * https://github.com/slaviboy
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * - The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * - The Software is provided "as is", without warranty of any kind, express or
+ * implied, including but not limited to the warranties of merchantability,
+ * fitness for a particular purpose and noninfringement. In no event shall the
+ * authors or copyright holders be liable for any claim, damages or other
+ * liability, whether in an action of contract, tort or otherwise, arising from,
+ * out of or in connection with the Software or the use or other dealings in the
+ * Software.
+ * <p>
+ * <p>
+ * WidthProfile Class(Java) is an abstract class, that determines how the path
+ * stroke width changes from the head (where the finger is) towards the tail.
+ * Profiles are evaluated into a lookup table with stroke width for each segment,
+ * only when the path is configured or its number of segments changes, so drawing
+ * does no extra calculations.
+ */
+
+public abstract class WidthProfile {
+
+    // same size towards the tail and head
+    public static final WidthProfile SAME = new WidthProfile() {
+        @Override
+        public double evaluate(double t) {
+            return 1.0;
+        }
+    };
+
+    // bigger near the head and decreases towards the tail
+    public static final WidthProfile BIGGER_NEAR_FINGER = new WidthProfile() {
+        @Override
+        public double evaluate(double t) {
+            return 1.0 - t;
+        }
+    };
+
+    // smaller near the head and increase towards the tail
+    public static final WidthProfile SMALLER_NEAR_FINGER = new WidthProfile() {
+        @Override
+        public double evaluate(double t) {
+            return t;
+        }
+    };
+
+    // thin at both head and tail, thickest in the middle
+    public static final WidthProfile SPINDLE = new WidthProfile() {
+        @Override
+        public double evaluate(double t) {
+            return Math.sin(Math.PI * t);
+        }
+    };
+
+    /**
+     * Get stroke width factor at given relative position along the path
+     *
+     * @param t - position in range [0,1), where 0 is the head and 1 the tail
+     * @return factor that is multiplied by the maximum stroke width
+     */
+    public abstract double evaluate(double t);
+
+    /**
+     * Create profile that changes the width linearly from -headFactor at
+     * the finger position to -tailFactor at the end of the path.
+     *
+     * @param headFactor - width factor at the head
+     * @param tailFactor - width factor at the tail
+     * @return the width profile
+     */
+    public static WidthProfile taper(final double headFactor, final double tailFactor) {
+        return new WidthProfile() {
+            @Override
+            public double evaluate(double t) {
+                return headFactor + (tailFactor - headFactor) * t;
+            }
+        };
+    }
+
+    /**
+     * Get the profile corresponding to path type constant
+     *
+     * @param pathType - one of Path.SAME, Path.BIGGER_NEAR_FINGER, Path.SMALLER_NEAR_FINGER
+     * @return the width profile
+     */
+    public static WidthProfile fromPathType(int pathType) {
+        if (pathType == Path.SMALLER_NEAR_FINGER) {
+            return SMALLER_NEAR_FINGER;
+        } else if (pathType == Path.BIGGER_NEAR_FINGER) {
+            return BIGGER_NEAR_FINGER;
+        } else {
+            return SAME;
+        }
+    }
+
+    /**
+     * Evaluate the profile into lookup table with stroke width for each of
+     * the first -numSegments segments, the table must hold at least that
+     * many elements.
+     *
+     * @param table          - the lookup table
+     * @param numSegments    - number of segments
+     * @param maxStrokeWidth - maximum stroke width
+     */
+    public void fillTable(int[] table, int numSegments, int maxStrokeWidth) {
+        for (int segment = 0; segment < numSegments; segment++) {
+            table[segment] = (int) (evaluate((double) segment / numSegments) * maxStrokeWidth);
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.slaviboy.fingerdraw;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Copyright (c) 2019 Stanislav Georgiev. (MIT License)
+ * https://github.com/slaviboy
+ * <p>
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of
+ * this software and associated documentation files (the "Software"), to deal in
+ * the Software without restriction, including without limitation the rights to
+ * use, copy, modify, merge, publish, distribute, sublicense, and/or sell copies of
+ * the Software, and to permit persons to whom the Software is furnished to do so,
+ * subject to the following conditions:
+ * - The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ * - The Software is provided "as is", without warranty of any kind, express or
+ * implied, including but not limited to the warranties of merchantability,
+ * fitness for a particular purpose and noninfringement. In no event shall the
+ * authors or copyright holders be liable for any claim, damages or other
+ * liability, whether in an action of contract, tort or otherwise, arising from,
+ * out of or in connection with the Software or the use or other dealings in the
+ * Software.
+ * <p>
+ * <p>
+ * WorkerPool Class(Java) is small pool of threads, that runs independent tasks
+ * in parallel and returns when all of them are finished. The calling thread
+ * takes part in the work, so pool with -numThreads threads starts only
+ * (numThreads - 1) worker threads. Tasks are taken by index from shared counter,
+ * so each thread takes the next task when it is done with the previous one.
+ * Running tasks does not allocate any objects, so it can be used on each frame.
+ */
+
+public class WorkerPool {
+
+    /**
+     * Task with given index, tasks with different indices must be independent
+     */
+    public interface Task {
+
+        void run(int index);
+    }
+
+    private final Object lock = new Object(); // lock for the state shared with the workers
+    private Thread[] workers;             // worker threads, without the calling thread
+    private AtomicInteger next;           // index of the next task that is not taken
+    private Task task;                    // current task
+    private int count;                    // number of indices of the current task
+    private int generation;               // incremented on each run, to wake the workers
+    private int numRunning;               // number of workers still running the current task
+    private RuntimeException failure;     // first exception thrown by a worker in the current run
+    private volatile boolean released;    // whether the workers are stopped
+
+    public WorkerPool() {
+        // one thread per core, but not more than four
+        this(Math.min(Runtime.getRuntime().availableProcessors(), 4));
+    }
+
+    /**
+     * Create pool that runs the tasks on -numThreads threads, including the
+     * calling thread
+     *
+     * @param numThreads - number of threads, with 1 the tasks run only on the calling thread
+     */
+    public WorkerPool(int numThreads) {
+        next = new AtomicInteger();
+        workers = new Thread[Math.max(numThreads, 1) - 1];
+        for (int i = 0; i < workers.length; i++) {
+            workers[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    runWorker();
+                }
+            }, "fingerdraw-worker-" + i);
+            workers[i].setDaemon(true);
+            workers[i].start();
+        }
+    }
+
+    /**
+     * Run the task for each index from 0 to -count, and wait until all are
+     * finished. Only one thread should call this method at a time.
+     *
+     * @param task  - the task
+     * @param count - number of indices
+     */
+    public void run(Task task, int count) {
+        if (count < 2 || workers.length == 0 || released) {
+            for (int i = 0; i < count; i++) {
+                task.run(i);
+            }
+            return;
+        }
+
+        synchronized (lock) {
+            this.task = task;
+            this.count = count;
+            next.set(0);
+            numRunning = workers.length;
+            failure = null;
+            generation++;
+            lock.notifyAll();
+        }
+
+        RuntimeException exception = null;
+        try {
+            work(task, count);
+        } catch (RuntimeException e) {
+            exception = e;
+        }
+
+        // wait for the workers, even if the task failed, so no task is running after return
+        boolean interrupted = false;
+        synchronized (lock) {
+            while (numRunning > 0) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            this.task = null;
+            if (exception == null) {
+                exception = failure;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (exception != null) {
+            throw exception;
+        }
+    }
+
+    private void work(Task task, int count) {
+        int index;
+        while ((index = next.getAndIncrement()) < count) {
+            task.run(index);
+        }
+    }
+
+    private void runWorker() {
+        int seen = 0;
+        while (true) {
+            Task task;
+            int count;
+            synchronized (lock) {
+                while (generation == seen && !released) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        // keep waiting, the worker is stopped only by release()
+                    }
+                }
+                if (released) {
+                    // a run that started before the release is not waiting for this worker
+                    if (generation != seen) {
+                        numRunning--;
+                        if (numRunning == 0) {
+                            lock.notifyAll();
+                        }
+                    }
+                    return;
+                }
+                seen = generation;
+                task = this.task;
+                count = this.count;
+            }
+
+            RuntimeException exception = null;
+            try {
+                work(task, count);
+            } catch (RuntimeException e) {
+                exception = e;
+            }
+
+            synchronized (lock) {
+                if (exception != null && failure == null) {
+                    failure = exception;
+                }
+                numRunning--;
+                if (numRunning == 0) {
+                    lock.notifyAll();
+                }
+            }
+        }
+    }
+
+    /**
+     * Stop the worker threads, the tasks of next runs are run only on the
+     * calling thread
+     */
+    public void release() {
+        synchronized (lock) {
+            released = true;
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * Get number of threads that run the tasks, including the calling thread
+     *
+     * @return the number of threads
+     */
+    public int getNumThreads() {
+        return workers.length + 1;
+    }
+}
@@ -0,0 +1,78 @@
+package com.slaviboy.fingerdraw;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import static org.junit.Assert.fail;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Checks that code does not allocate on the calling thread, using the thread
+ * allocation counter of the HotSpot JVM. On other JVMs the checks are skipped.
+ */
+final class Allocations {
+
+    // bytes that may be allocated by the measured code, for example by the JIT compiler on the same thread
+    static final long MAX_BYTES = 16 * 1024;
+
+    private Allocations() {
+    }
+
+    /**
+     * Run the task once to warm up, so the allocation is not caused by class
+     * loading or growing buffers, and check that second run does not allocate
+     *
+     * @param task - the measured code
+     */
+    static void assertNoAllocation(Runnable task) {
+        assertNoAllocation(task, task);
+    }
+
+    /**
+     * Run the -warmUp, and check that the -task run after it does not allocate
+     *
+     * @param warmUp - code that makes the buffers grow to their size
+     * @param task   - the measured code
+     */
+    static void assertNoAllocation(Runnable warmUp, Runnable task) {
+        com.sun.management.ThreadMXBean bean = getBean();
+        long threadId = Thread.currentThread().getId();
+        warmUp.run();
+        long before = bean.getThreadAllocatedBytes(threadId);
+        task.run();
+        long allocated = bean.getThreadAllocatedBytes(threadId) - before;
+
+        // the message is made only on failure, since it allocates
+        if (allocated >= MAX_BYTES) {
+            fail("allocated " + allocated + " bytes");
+        }
+    }
+
+    /**
+     * Get the bytes allocated by the calling thread since it was started
+     *
+     * @return the number of bytes
+     */
+    static long getAllocatedBytes() {
+        return getBean().getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Get the HotSpot thread bean, the test is skipped if the JVM does not
+     * count the allocated bytes
+     */
+    private static com.sun.management.ThreadMXBean getBean() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        assumeTrue("thread allocation counter is not available",
+                isHotSpotBean(bean) && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemoryEnabled());
+        return (com.sun.management.ThreadMXBean) bean;
+    }
+
+    private static boolean isHotSpotBean(ThreadMXBean bean) {
+        try {
+            return bean instanceof com.sun.management.ThreadMXBean;
+        } catch (NoClassDefFoundError e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.slaviboy.fingerdraw;
+
+/**
+ * Measures the time of code on the development machine (host), used by the
+ * benchmarks that are ignored in the normal test runs, since their results
+ * depend on the machine. Run them manually to get the numbers.
+ */
+final class Benchmark {
+
+    private Benchmark() {
+    }
+
+    /**
+     * Run the task once to warm up the JIT compiler, and then -numRuns times
+     *
+     * @param task    - the measured code
+     * @param numRuns - number of measured runs
+     * @return the shortest time of single run in (ns)
+     */
+    static long bestNanos(Runnable task, int numRuns) {
+        task.run();
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < numRuns; i++) {
+            long start = System.nanoTime();
+            task.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best;
+    }
+}
@@ -0,0 +1,159 @@
+package com.slaviboy.fingerdraw;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the frame pacing, that run on the development machine (host).
+ * The drawing thread is simulated with manual clock, that is advanced by 1ms, and
+ * the display allows new frame each 16ms.
+ */
+public class FramePacerTest {
+
+    private static final long BUSY_NANOS = 2000000;  // each frame takes 2ms
+
+    /**
+     * Simulate the drawing thread for given time
+     *
+     * @return number of drawn frames
+     */
+    private static int run(ManualClock clock, FramePacer pacer, long duration, boolean changed) {
+        int numFrames = 0;
+        long end = clock.currentTimeMillis() + duration;
+        while (clock.currentTimeMillis() < end) {
+            if (clock.currentTimeMillis() % 16 == 0 && pacer.getWaitTime() == 0) {
+                pacer.onFrameStart();
+                pacer.onFrameEnd(BUSY_NANOS, changed);
+                numFrames++;
+            }
+            clock.advance(1);
+        }
+        return numFrames;
+    }
+
+    @Test
+    public void skipFrame_notDrawnAndCountedAsSaved() throws InterruptedException {
+        ManualClock clock = new ManualClock();
+        FramePacer pacer = new FramePacer(clock);
+        pacer.setRefreshRate(1000);
+        assertEquals(63, run(clock, pacer, 1000, false));
+
+        // nothing changed in the next second, the skipped frames save the time of drawn ones
+        for (int i = 0; i < 63; i++) {
+            pacer.skipFrame();
+            clock.advance(16);
+        }
+        pacer.setRefreshRate(60);
+        assertEquals(63, pacer.getNumFrames());
+        assertEquals(63, pacer.getNumSkipped());
+        assertEquals(60 * 2 * 2 - 63 * 2, pacer.getCpuTimeSaved(), 2);
+    }
+
+    @Test
+    public void fullRate_drawsEachDisplayFrame() {
+        ManualClock clock = new ManualClock();
+        FramePacer pacer = new FramePacer(clock);
+        assertEquals(63, run(clock, pacer, 1000, false));
+        assertEquals(0, pacer.getCpuTimeSaved());
+    }
+
+    @Test
+    public void fixed_limitsFrameRateAndReportsSavedTime() {
+        ManualClock clock = new ManualClock();
+        FramePacer pacer = new FramePacer(clock);
+        pacer.setMode(FramePacer.FIXED);
+        pacer.setMaxFps(30);
+
+        // 30fps does not divide the display rate, so frames are 32 or 48ms apart
+        int numFrames = run(clock, pacer, 2000, true);
+        assertTrue(numFrames >= 25 * 2 && numFrames <= 30 * 2);
+        assertEquals(30, pacer.getFrameRate(), 1);
+
+        // 120 frames at 60fps, each not drawn frame saves 2ms
+        long saved = (120 - numFrames) * 2;
+        assertEquals(saved, pacer.getCpuTimeSaved(), 1);
+    }
+
+    @Test
+    public void automatic_dropsWhenIdleAndWakesOnInput() {
+        ManualClock clock = new ManualClock();
+        FramePacer pacer = new FramePacer(clock);
+        pacer.setMode(FramePacer.AUTOMATIC);
+        Scene scene = new Scene(1);
+        scene.setClock(clock);
+        scene.addListener(pacer);
+
+        // active while the frames change, then idle after the timeout
+        scene.down(0, 10, 10, 1f, 0f);
+        assertTrue(run(clock, pacer, 1000, true) > 60);
+        run(clock, pacer, 1000, false);
+        int idleFrames = run(clock, pacer, 2000, false);
+        assertTrue(idleFrames >= 2 * 8 && idleFrames <= 2 * 10);
+
+        // input wakes the drawing thread for the next display frame
+        while (pacer.getWaitTime() == 0) {
+            pacer.onFrameStart();
+            pacer.onFrameEnd(BUSY_NANOS, false);
+        }
+        scene.move(0, 20, 20, 1f, 0f);
+        assertEquals(0, pacer.getWaitTime());
+        assertTrue(run(clock, pacer, 500, false) > 25);
+    }
+
+    @Test
+    public void automatic_lowBatteryLimitsActiveRate() {
+        ManualClock clock = new ManualClock();
+        FramePacer pacer = new FramePacer(clock);
+        pacer.setMode(FramePacer.AUTOMATIC);
+        pacer.setLowBattery(true);
+        int numFrames = run(clock, pacer, 1000, true);
+        assertTrue(numFrames >= 20 && numFrames <= 30);
+    }
+
+    @Test
+    public void fadeOut_takesSameTimeAtAnyRate() {
+        long fullRate = fadeOutTime(FramePacer.FULL_RATE, 60);
+        for (int fps = 10; fps <= 60; fps += 10) {
+            long time = fadeOutTime(FramePacer.FIXED, fps);
+
+            // the end of the fadeout is shown by the first frame after it
+            assertTrue(time >= fullRate && time <= fullRate + 1000 / fps + 16);
+        }
+    }
+
+    /**
+     * Get the time of the first drawn frame, in which the path is faded out
+     */
+    private static long fadeOutTime(int mode, int fps) {
+        ManualClock clock = new ManualClock();
+        FramePacer pacer = new FramePacer(clock);
+        pacer.setMode(mode);
+        pacer.setMaxFps(fps);
+        Scene scene = new Scene(1);
+        scene.setClock(clock);
+        scene.getPaths()[0].setFadeOutDuration(500);
+        scene.down(0, 10, 10, 1f, 0f);
+        for (int i = 0; i < 20; i++) {
+            scene.move(0, 10 + i * 5, 10, 1f, 0f);
+        }
+        scene.up(0, 110, 10, 1f, 0f);
+
+        // fadeout timer ticks each 100ms, independent of the drawing thread
+        for (int time = 0; time < 5000; time++) {
+            if (time % FadeOut.MIN_DURATION == 0) {
+                scene.fadeOut();
+            }
+            if (time % 16 == 0 && pacer.getWaitTime() == 0) {
+                pacer.onFrameStart();
+                scene.prepare();
+                pacer.onFrameEnd(BUSY_NANOS, true);
+                if (scene.getPaths()[0].getOpacity() == 0) {
+                    return time;
+                }
+            }
+            clock.advance(1);
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,232 @@
+package com.slaviboy.fingerdraw;
+
+import org.junit.Test;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the gesture recognizer, that replay recorded (synthetic)
+ * finger input on the development machine (host).
+ */
+public class GestureRecognizerTest {
+
+    private static final int NONE = -1;
+    private static final int SAMPLE_TIME = 8;     // 120Hz touch sampling
+
+    /**
+     * Records the last recognized gesture, and if it was recognized before the finger was up
+     */
+    static class Recorder implements GestureRecognizer.OnGestureListener {
+        int gesture = NONE;
+        int count;
+        boolean fingerDown;
+        boolean beforeUp;
+
+        @Override
+        public void onGesture(int arrayIndex, int gesture) {
+            this.gesture = gesture;
+            this.beforeUp = fingerDown;
+            count++;
+        }
+    }
+
+    private final ManualClock clock = new ManualClock();
+    private final Recorder recorder = new Recorder();
+    private final GestureRecognizer recognizer = new GestureRecognizer(recorder);
+
+    /**
+     * Replay recorded stroke, points are stored as x0,y0,x1,y1... and are
+     * sampled at fixed rate, returns the recognized gesture
+     */
+    private int replay(int finger, float[] stroke) {
+        recorder.gesture = NONE;
+        recorder.count = 0;
+        recorder.fingerDown = true;
+        recognizer.onDown(finger, stroke[0], stroke[1], 1f, 0f, clock.currentTimeMillis());
+        int last = stroke.length - 2;
+        for (int i = 2; i < last; i += 2) {
+            clock.advance(SAMPLE_TIME);
+            recognizer.onMove(finger, stroke[i], stroke[i + 1], 1f, 0f, clock.currentTimeMillis());
+        }
+        clock.advance(SAMPLE_TIME);
+        recorder.fingerDown = false;
+        recognizer.onUp(finger, stroke[last], stroke[last + 1], 1f, 0f, clock.currentTimeMillis());
+        clock.advance(500);
+        assertTrue(recorder.count <= 1);
+        return recorder.gesture;
+    }
+
+    private static float[] tap(Random random) {
+        int n = 3 + random.nextInt(8);
+        float x = 100 + random.nextInt(800), y = 100 + random.nextInt(800);
+        float[] stroke = new float[n * 2];
+        for (int i = 0; i < n; i++) {
+            stroke[2 * i] = x + noise(random, 4f);
+            stroke[2 * i + 1] = y + noise(random, 4f);
+        }
+        return stroke;
+    }
+
+    private static float[] swipe(Random random, float dx, float dy) {
+        int n = 15 + random.nextInt(30);
+        float distance = 200 + random.nextInt(500);
+        float bend = noise(random, 0.15f) * distance;   // slightly curved, like a real thumb
+        float x = 500, y = 500;
+        float[] stroke = new float[n * 2];
+        for (int i = 0; i < n; i++) {
+            float t = i / (float) (n - 1);
+            float along = distance * (1 - (1 - t) * (1 - t));  // decelerating
+            float side = bend * 4 * t * (1 - t);
+            stroke[2 * i] = x + dx * along - dy * side + noise(random, 3f);
+            stroke[2 * i + 1] = y + dy * along + dx * side + noise(random, 3f);
+        }
+        return stroke;
+    }
+
+    private static float[] circle(Random random, boolean clockwise) {
+        int n = 40 + random.nextInt(60);
+        float radiusX = 80 + random.nextInt(150);
+        float radiusY = radiusX * (0.7f + 0.6f * random.nextFloat());  // not perfect circles
+        float start = random.nextFloat() * 2 * (float) Math.PI;
+        float sweep = (float) (2 * Math.PI * (1.0 + 0.15 * random.nextFloat()));
+        float[] stroke = new float[n * 2];
+        for (int i = 0; i < n; i++) {
+            float angle = start + (clockwise ? 1 : -1) * sweep * i / (n - 1);
+            stroke[2 * i] = 500 + radiusX * (float) Math.cos(angle) + noise(random, 3f);
+            stroke[2 * i + 1] = 500 + radiusY * (float) Math.sin(angle) + noise(random, 3f);
+        }
+        return stroke;
+    }
+
+    private static float noise(Random random, float amplitude) {
+        return (random.nextFloat() * 2 - 1) * amplitude;
+    }
+
+    @Test
+    public void recordedStrokes_recognizedAccurately() {
+        Random random = new Random(33);
+        int total = 0;
+        int correct = 0;
+        int circlesBeforeUp = 0;
+        for (int i = 0; i < 100; i++) {
+            int finger = i % 5;
+            correct += replay(finger, tap(random)) == GestureRecognizer.TAP ? 1 : 0;
+            correct += replay(finger, swipe(random, 1, 0)) == GestureRecognizer.SWIPE_RIGHT ? 1 : 0;
+            correct += replay(finger, swipe(random, -1, 0)) == GestureRecognizer.SWIPE_LEFT ? 1 : 0;
+            correct += replay(finger, swipe(random, 0, 1)) == GestureRecognizer.SWIPE_DOWN ? 1 : 0;
+            correct += replay(finger, swipe(random, 0, -1)) == GestureRecognizer.SWIPE_UP ? 1 : 0;
+
+            // y axis points down, so increasing angle is clockwise on screen
+            if (replay(finger, circle(random, true)) == GestureRecognizer.CIRCLE_CLOCKWISE) {
+                correct++;
+                circlesBeforeUp += recorder.beforeUp ? 1 : 0;
+            }
+            if (replay(finger, circle(random, false)) == GestureRecognizer.CIRCLE_COUNTERCLOCKWISE) {
+                correct++;
+                circlesBeforeUp += recorder.beforeUp ? 1 : 0;
+            }
+            total += 7;
+        }
+
+        assertTrue("correct " + correct + " of " + total, correct >= total * 0.95);
+
+        // circles are reported while the finger is still moving
+        assertTrue("before up " + circlesBeforeUp, circlesBeforeUp >= 190);
+    }
+
+    @Test
+    public void nonGestures_notRecognized() {
+        Random random = new Random(34);
+        for (int i = 0; i < 50; i++) {
+
+            // finger held too long is not a tap
+            float[] hold = tap(random);
+            recorder.gesture = NONE;
+            recorder.count = 0;
+            recognizer.onDown(0, hold[0], hold[1], 1f, 0f, clock.currentTimeMillis());
+            clock.advance(1000);
+            recognizer.onUp(0, hold[2], hold[3], 1f, 0f, clock.currentTimeMillis());
+            assertEquals(NONE, recorder.gesture);
+
+            // short move is neither tap nor swipe
+            float[] shortMove = {100, 100, 130, 100, 160, 100};
+            assertEquals(NONE, replay(0, shortMove));
+
+            // going right and back is not a swipe
+            float[] zigzag = new float[40 * 2];
+            for (int j = 0; j < 40; j++) {
+                zigzag[2 * j] = 100 + (j < 20 ? j : 40 - j) * 20;
+                zigzag[2 * j + 1] = 100 + noise(random, 2f);
+            }
+            assertEquals(NONE, replay(1, zigzag));
+        }
+    }
+
+    @Test
+    public void longStrokes_noAllocation() {
+        // long strokes, the samples are not kept, so nothing is allocated however long the strokes are
+        Allocations.assertNoAllocation(new Runnable() {
+            @Override
+            public void run() {
+                drawCircles(100000);
+            }
+        }, new Runnable() {
+            @Override
+            public void run() {
+                drawCircles(2000000);
+            }
+        });
+    }
+
+    @Test
+    public void longStrokes_boundedState() throws IllegalAccessException {
+        // the features are updated in place, so the work per sample does not depend on the stroke length
+        drawCircles(1000);
+        int stateLength = getStateLength(recognizer);
+        drawCircles(2000000);
+        assertEquals(stateLength, getStateLength(recognizer));
+
+        // each of the 10 fingers keeps the scalar features and the direction histogram
+        int numArrays = 0;
+        for (Field field : GestureRecognizer.class.getDeclaredFields()) {
+            numArrays += field.getType().isArray() ? 1 : 0;
+        }
+        assertEquals(10 * (numArrays - 1 + GestureRecognizer.NUM_DIRECTIONS), stateLength);
+    }
+
+    /**
+     * Get the total length of the arrays with features kept by the recognizer
+     */
+    private static int getStateLength(GestureRecognizer recognizer) throws IllegalAccessException {
+        int length = 0;
+        for (Field field : GestureRecognizer.class.getDeclaredFields()) {
+            if (field.getType().isArray()) {
+                field.setAccessible(true);
+                length += Array.getLength(field.get(recognizer));
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Draw circles with 10 fingers, with given number of samples in total
+     */
+    private void drawCircles(int numSamples) {
+        for (int finger = 0; finger < 10; finger++) {
+            recognizer.onDown(finger, 500, 500, 1f, 0f, clock.currentTimeMillis());
+        }
+        for (int i = 0; i < numSamples; i++) {
+            int finger = i % 10;
+            double angle = i * 0.01;
+            recognizer.onMove(finger, 500 + (float) Math.cos(angle) * (100 + finger),
+                    500 + (float) Math.sin(angle) * 100, 1f, 0f, clock.currentTimeMillis());
+        }
+        for (int finger = 0; finger < 10; finger++) {
+            recognizer.onUp(finger, 500, 500, 1f, 0f, clock.currentTimeMillis());
+        }
+    }
+}
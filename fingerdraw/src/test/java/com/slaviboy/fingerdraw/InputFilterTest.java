@@ -0,0 +1,207 @@
+package com.slaviboy.fingerdraw;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests and benchmark for the input filters, that run on the
+ * development machine (host).
+ */
+public class InputFilterTest {
+
+    private final float[] sample = new float[InputFilter.SAMPLE_SIZE];
+
+    /**
+     * Filter samples along horizontal line with given speed and jitter, sampled
+     * at 120Hz, and return the mean distance from the line
+     */
+    private float meanError(InputFilter filter, float speed, float jitter) {
+        Random random = new Random(1);
+        float error = 0;
+        for (int i = 0; i < 240; i++) {
+            long time = i * 8;
+            sample[InputFilter.X] = speed * time / 1000f;
+            sample[InputFilter.Y] = 100 + (random.nextFloat() * 2 - 1) * jitter;
+            filter.filter(0, i == 0 ? InputFilter.DOWN : InputFilter.MOVE, time, sample);
+            error += Math.abs(sample[InputFilter.Y] - 100);
+        }
+        return error / 240;
+    }
+
+    @Test
+    public void oneEuro_removesJitterOfSlowMovement() {
+        float raw = meanError(InputFilter.NONE, 50, 2);
+        float filtered = meanError(new OneEuroFilter(), 50, 2);
+        assertTrue(filtered < raw / 3);
+    }
+
+    @Test
+    public void oneEuro_followsFastMovementWithLittleLag() {
+        OneEuroFilter filter = new OneEuroFilter();
+        OneEuroFilter lowPass = new OneEuroFilter(1f, 0f);
+        float[] other = new float[InputFilter.SAMPLE_SIZE];
+        for (int i = 0; i < 60; i++) {
+            int action = i == 0 ? InputFilter.DOWN : InputFilter.MOVE;
+            sample[InputFilter.X] = other[InputFilter.X] = i * 8 * 2f;  // 2000 px/s
+            filter.filter(0, action, i * 8, sample);
+            lowPass.filter(0, action, i * 8, other);
+        }
+
+        // speed raises the cutoff, the plain low pass filter lags far behind
+        float expected = 59 * 8 * 2f;
+        assertTrue(expected - sample[InputFilter.X] < 20);
+        assertTrue(expected - other[InputFilter.X] > 200);
+    }
+
+    @Test
+    public void duplicates_droppedButDownAndUpKept() {
+        Scene scene = new Scene(1);
+        scene.setInputFilter(new DuplicateFilter(1f));
+        scene.down(0, 10, 10, 1f, 0f);
+        scene.move(0, 10, 10, 1f, 0f);
+        scene.move(0, 10.5f, 10, 1f, 0f);
+        scene.move(0, 12, 10, 1f, 0f);
+        scene.move(0, 12, 10, 1f, 0f);
+        assertEquals(2, scene.getPaths()[0].getNumPoints());
+
+        // up at the same position still ends the stroke
+        scene.up(0, 12, 10, 1f, 0f);
+        assertEquals(3, scene.getPaths()[0].getNumPoints());
+        assertFalse(scene.getPaths()[0].isTracking());
+    }
+
+    /**
+     * Feed noisy stroke with 8ms between the samples to scene with 1 euro
+     * filter, the samples are delivered in batches of -batchSize, and get
+     * the x coordinates of the filtered points
+     */
+    private static float[] filterInScene(int batchSize) {
+        ManualClock clock = new ManualClock(1000);
+        Scene scene = new Scene(1);
+        scene.setClock(clock);
+        scene.setInputFilter(new OneEuroFilter());
+        scene.getPaths()[0].setMaxNumSegments(100);
+        Random random = new Random(5);
+        Random jitter = new Random(6);
+        scene.down(0, 0, 0, 1f, 0f, 1000);
+        for (int i = 1; i < 60; i++) {
+            scene.move(0, i * 2 + random.nextFloat() * 4 - 2, 0, 1f, 0f, 1000 + i * 8);
+            if (i % batchSize == 0) {
+                clock.setTime(1000 + i * 8 + jitter.nextInt(6));
+            }
+        }
+        PointBuffer points = scene.getPaths()[0].getPointBuffer();
+        float[] x = new float[points.size()];
+        for (int i = 0; i < x.length; i++) {
+            x[i] = points.getX(i);
+        }
+        return x;
+    }
+
+    @Test
+    public void scene_filtersWithEventTimeNotDeliveryTime() {
+
+        // samples delivered one by one or in batches with jitter are filtered the same
+        assertArrayEquals(filterInScene(1), filterInScene(4), 0f);
+    }
+
+    @Test
+    public void filters_setPerFinger() {
+        Scene scene = new Scene(2);
+        scene.setInputFilter(InputFilter.clamp(0, 0, 100, 100));
+        scene.setInputFilter(1, InputFilter.NONE);
+        scene.down(0, -20, 150, 1f, 0f);
+        scene.down(1, -20, 150, 1f, 0f);
+
+        PointBuffer first = scene.getPaths()[0].getPointBuffer();
+        PointBuffer second = scene.getPaths()[1].getPointBuffer();
+        assertEquals(0, first.getX(0), 0f);
+        assertEquals(100, first.getY(0), 0f);
+        assertEquals(-20, second.getX(0), 0f);
+        assertEquals(150, second.getY(0), 0f);
+    }
+
+    @Test
+    public void chain_stopsAtDroppedSample() {
+        final int[] counts = new int[1];
+        InputFilter counter = new InputFilter() {
+            @Override
+            public boolean filter(int finger, int action, long time, float[] sample) {
+                counts[0]++;
+                return true;
+            }
+        };
+        InputFilter chain = InputFilter.chain(new DuplicateFilter(), counter);
+        sample[InputFilter.X] = 5;
+        assertTrue(chain.filter(3, InputFilter.DOWN, 0, sample));
+        assertFalse(chain.filter(3, InputFilter.MOVE, 8, sample));
+        assertTrue(chain.filter(3, InputFilter.UP, 16, sample));
+        assertEquals(2, counts[0]);
+    }
+
+    @Test
+    public void chain_noAllocation() {
+        final InputFilter chain = InputFilter.chain(new OneEuroFilter(), new DuplicateFilter(0.5f),
+                InputFilter.clamp(0, 0, 1080, 1920));
+        Random random = new Random(2);
+        final float[] noise = new float[1024];
+        for (int i = 0; i < noise.length; i++) {
+            noise[i] = random.nextFloat() * 4 - 2;
+        }
+        Allocations.assertNoAllocation(new Runnable() {
+            @Override
+            public void run() {
+                filterStrokes(chain, noise, 1000000);
+            }
+        });
+    }
+
+    @Test
+    @Ignore("benchmark, run manually")
+    public void benchmark_samplesPerSecond() {
+        Random random = new Random(2);
+        final float[] noise = new float[1024];
+        for (int i = 0; i < noise.length; i++) {
+            noise[i] = random.nextFloat() * 4 - 2;
+        }
+        InputFilter[] filters = {
+                InputFilter.NONE,
+                new OneEuroFilter(),
+                new DuplicateFilter(0.5f),
+                InputFilter.clamp(0, 0, 1080, 1920),
+                InputFilter.chain(new OneEuroFilter(), new DuplicateFilter(0.5f), InputFilter.clamp(0, 0, 1080, 1920))
+        };
+        String[] names = {"none", "one euro", "duplicate", "clamp", "chain"};
+        final int numSamples = 1000000;
+        StringBuilder result = new StringBuilder("million samples/s:");
+        for (int i = 0; i < filters.length; i++) {
+            final InputFilter filter = filters[i];
+            long nanos = Benchmark.bestNanos(new Runnable() {
+                @Override
+                public void run() {
+                    filterStrokes(filter, noise, numSamples);
+                }
+            }, 10);
+            result.append(' ').append(names[i]).append(' ').append(numSamples * 1000L / nanos);
+        }
+        System.out.println(result);
+    }
+
+    /**
+     * Filter strokes of 100 samples, for 4 fingers
+     */
+    private void filterStrokes(InputFilter filter, float[] noise, int numSamples) {
+        for (int i = 0; i < numSamples; i++) {
+            int finger = (i / 100) % 4;
+            int index = i % 100;
+            int action = index == 0 ? InputFilter.DOWN : (index == 99 ? InputFilter.UP : InputFilter.MOVE);
+            sample[InputFilter.X] = index * 10 + noise[i & 1023];
+            sample[InputFilter.Y] = finger * 200 + noise[(i + 7) & 1023];
+            filter.filter(finger, action, i * 8L, sample);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.slaviboy.fingerdraw;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the offline renderer, that run on the development machine (host).
+ */
+public class OfflineRendererTest {
+
+    /**
+     * Recorded session with three fingers, sampled at 120Hz, each finger
+     * goes down and up a few times
+     */
+    private static TouchRecording record(int durationMillis) {
+        ManualClock clock = new ManualClock(1000);
+        Scene scene = new Scene(3);
+        scene.setClock(clock);
+        TouchRecording recording = new TouchRecording();
+        scene.addListener(recording);
+
+        boolean[] down = new boolean[3];
+        for (int time = 0; time < durationMillis; time += 8) {
+            clock.setTime(1000 + time);
+            for (int finger = 0; finger < 3; finger++) {
+                double angle = time * 0.004 + finger;
+                float x = 300 + 200 * (float) Math.cos(angle);
+                float y = 300 + 150 * (float) Math.sin(angle * 1.3);
+                boolean shouldBeDown = (time / (700 + 300 * finger)) % 2 == 0;
+                if (shouldBeDown && !down[finger]) {
+                    scene.down(finger, x, y, 0.5f, 10f);
+                } else if (shouldBeDown) {
+                    scene.move(finger, x, y, 0.5f + 0.1f * finger, 10f);
+                } else if (down[finger]) {
+                    scene.up(finger, x, y, 0.5f, 10f);
+                }
+                down[finger] = shouldBeDown;
+            }
+        }
+        return recording;
+    }
+
+    /**
+     * Render the recording and return hash of each frame, made from the
+     * prepared geometry and the opacity of the shapes
+     */
+    private static List<Long> render(TouchRecording recording, int fps) throws IOException {
+        final List<Long> hashes = new ArrayList<>();
+        OfflineRenderer renderer = new OfflineRenderer(new Scene(3), recording, fps);
+        renderer.render(new OfflineRenderer.FrameSink() {
+            @Override
+            public void onFrame(Scene scene, int index, long time) {
+                assertEquals(hashes.size(), index);
+                assertEquals(time, scene.getClock().currentTimeMillis());
+                long hash = time;
+                for (int i = 0; i < scene.getNumFingers(); i++) {
+                    Path path = scene.getPaths()[i];
+                    PathGeometry geometry = path.getGeometry();
+                    hash = hash * 31 + path.getOpacity();
+                    hash = hash * 31 + scene.getCircles()[i].getOpacity();
+                    for (int j = 0; j < geometry.size(); j++) {
+                        hash = hash * 31 + Float.floatToIntBits(geometry.getX(j));
+                        hash = hash * 31 + Float.floatToIntBits(geometry.getY(j));
+                        hash = hash * 31 + geometry.getStrokeWidth(j);
+                    }
+                }
+                hashes.add(hash);
+            }
+        });
+        assertEquals(renderer.getNumFrames(), hashes.size());
+        return hashes;
+    }
+
+    @Test
+    public void render_isDeterministic() throws IOException {
+        TouchRecording recording = record(10000);
+        List<Long> first = render(recording, 30);
+        List<Long> second = render(recording, 30);
+
+        // last event at 9992ms and 1s tail, at 30fps
+        assertEquals(330, first.size());
+        assertEquals(first, second);
+    }
+
+    @Test
+    public void render_sameFramesAfterReadingRecording() throws IOException {
+        TouchRecording recording = record(5000);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        recording.write(new DataOutputStream(bytes));
+
+        TouchRecording copy = new TouchRecording();
+        copy.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        assertEquals(recording.size(), copy.size());
+        assertEquals(render(recording, 60), render(copy, 60));
+    }
+
+    @Test
+    public void render_fadesOut() throws IOException {
+        TouchRecording recording = record(60000);
+        Scene scene = new Scene(3);
+        OfflineRenderer renderer = new OfflineRenderer(scene, recording, 60);
+
+        renderer.render(new OfflineRenderer.FrameSink() {
+            @Override
+            public void onFrame(Scene scene, int index, long time) {
+            }
+        });
+
+        for (Circle circle : scene.getCircles()) {
+            assertEquals(0, circle.getOpacity());
+        }
+    }
+
+    @Test
+    public void read_rejectsInvalidNumberOfEvents() throws IOException {
+        int[] counts = {-1, TouchRecording.MAX_SIZE + 1, Integer.MAX_VALUE};
+        for (int count : counts) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(1);
+            out.writeInt(count);
+
+            TouchRecording recording = record(1000);
+            try {
+                recording.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+                fail("read " + count + " events");
+            } catch (IOException e) {
+                // expected, and the recording is not changed
+            }
+            assertTrue(recording.size() > 0);
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.slaviboy.fingerdraw;
+
+import org.junit.Test;
+
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the particle system, that run on the development machine (host).
+ */
+public class ParticleSystemTest {
+
+    @Test
+    public void emit_limitedByCapacity() {
+        ParticleSystem particles = new ParticleSystem(100, 0xFFFFFFFF, 3f);
+        for (int i = 0; i < 1000; i++) {
+            particles.emit(i, i);
+        }
+        assertEquals(100, particles.getCount());
+
+        particles.prepare();
+        assertEquals(100 * 6, particles.getNumVertices());
+    }
+
+    @Test
+    public void update_removesDeadParticles() {
+        ParticleSystem particles = new ParticleSystem(100, 0xFFFFFFFF, 1f);
+        particles.setLife(100, 100);
+        for (int i = 0; i < 50; i++) {
+            particles.emit(0, 0);
+        }
+
+        particles.update(0);
+        particles.update(64);
+        assertEquals(50, particles.getCount());
+        particles.update(112);
+        assertEquals(0, particles.getCount());
+    }
+
+    @Test
+    public void update_usesFixedTimeStep() {
+        ParticleSystem regular = new ParticleSystem(1000, 0xFFFFFFFF, 2f);
+        ParticleSystem irregular = new ParticleSystem(1000, 0xFFFFFFFF, 2f);
+
+        // same input, but updated with different frame times
+        long[] frameTimes = {5, 23, 7, 40, 1, 16, 30, 12, 33, 9};
+        long time = 0, irregularTime = 0;
+        regular.update(0);
+        irregular.update(0);
+        for (int frame = 0; frame < 1000; frame++) {
+            regular.emit(frame, frame);
+            irregular.emit(frame, frame);
+
+            time += 16;
+            regular.update(time);
+            while (irregularTime < time) {
+                irregularTime = Math.min(time, irregularTime + frameTimes[frame % frameTimes.length]);
+                irregular.update(irregularTime);
+            }
+        }
+
+        assertEquals(regular.getCount(), irregular.getCount());
+        for (int i = 0; i < regular.getCount(); i++) {
+            assertEquals(regular.getX(i), irregular.getX(i), 0f);
+            assertEquals(regular.getY(i), irregular.getY(i), 0f);
+        }
+    }
+
+    @Test
+    public void thousandsOfParticles_noAllocation() {
+        final ParticleSystem particles = new ParticleSystem(8192, 0xFFFFFFFF, 4f);
+        Allocations.assertNoAllocation(new Runnable() {
+            @Override
+            public void run() {
+                emitFrames(particles, 0, 1000);
+            }
+        }, new Runnable() {
+            @Override
+            public void run() {
+                emitFrames(particles, 1000, 5000);
+            }
+        });
+        assertTrue(particles.getCount() > 2000);
+    }
+
+    /**
+     * Emit particles from 10 fingers and move them, for each frame in given range
+     */
+    private static void emitFrames(ParticleSystem particles, int fromFrame, int toFrame) {
+        for (int frame = fromFrame; frame < toFrame; frame++) {
+            for (int finger = 0; finger < 10; finger++) {
+                particles.emit(100 * finger, frame % 1000);
+                particles.emit(100 * finger + 1, frame % 1000 + 1);
+            }
+            particles.update(frame * 16L);
+            particles.prepare();
+        }
+    }
+}
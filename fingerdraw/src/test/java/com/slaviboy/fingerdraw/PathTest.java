@@ -0,0 +1,482 @@
+package com.slaviboy.fingerdraw;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the path, that run on the development machine (host).
+ */
+public class PathTest {
+
+    @Test
+    public void strokeWidth_followsPressure() {
+        Path path = new Path.Builder()
+                .withPathType(Path.SAME)
+                .withStrokeWidth(100)
+                .withPressureCurve(PressureCurve.LINEAR)
+                .build();
+
+        // synthetic input with increasing pressure
+        int numPoints = 10;
+        for (int i = 0; i < numPoints; i++) {
+            path.addPoint(i * 10f, 0f, (i + 1) / (float) numPoints, 0f);
+        }
+
+        int previous = -1;
+        for (int i = 0; i < numPoints; i++) {
+            int width = path.getSegmentStrokeWidth(i, numPoints);
+            assertEquals(Math.round(100f * (i + 1) / numPoints), width, 1);
+            assertTrue(width > previous);
+            previous = width;
+        }
+    }
+
+    @Test
+    public void strokeWidth_ignoresPressureByDefault() {
+        Path path = new Path.Builder()
+                .withPathType(Path.SAME)
+                .withStrokeWidth(70)
+                .build();
+
+        path.addPoint(0f, 0f, 0.1f, 5f);
+        path.addPoint(1f, 1f, 0.9f, 50f);
+
+        assertEquals(70, path.getSegmentStrokeWidth(0, 2));
+        assertEquals(70, path.getSegmentStrokeWidth(1, 2));
+    }
+
+    @Test
+    public void strokeWidth_followsContactSize() {
+        Path path = new Path.Builder()
+                .withPathType(Path.SAME)
+                .withStrokeWidth(100)
+                .withPressureCurve(PressureCurve.contactSize(10f, 60f, 0.2f))
+                .build();
+
+        path.addPoint(0f, 0f, 1f, 0f);
+        path.addPoint(1f, 0f, 1f, 35f);
+        path.addPoint(2f, 0f, 1f, 100f);
+
+        assertEquals(20, path.getSegmentStrokeWidth(0, 3));
+        assertEquals(60, path.getSegmentStrokeWidth(1, 3));
+        assertEquals(100, path.getSegmentStrokeWidth(2, 3));
+    }
+
+    @Test
+    public void widthProfile_matchesPathTypes() {
+        int maxStrokeWidth = 70;
+        int maxNumSegments = 25;
+        Path smaller = new Path.Builder().withPathType(Path.SMALLER_NEAR_FINGER).build();
+        Path bigger = new Path.Builder().withPathType(Path.BIGGER_NEAR_FINGER).build();
+        for (int i = 0; i < maxNumSegments; i++) {
+            smaller.addPoint(i, i);
+            bigger.addPoint(i, i);
+        }
+
+        for (int numSegments = 1; numSegments <= maxNumSegments; numSegments++) {
+            for (int segment = 0; segment < numSegments; segment++) {
+                int index = maxNumSegments - 1 - segment;
+                double step = (double) maxStrokeWidth / numSegments;
+                assertEquals(segment * step,
+                        smaller.getSegmentStrokeWidth(index, numSegments), 1.0);
+                assertEquals((numSegments - segment) * step,
+                        bigger.getSegmentStrokeWidth(index, numSegments), 1.0);
+            }
+        }
+    }
+
+    @Test
+    public void widthProfile_recomputedOnSetters() {
+        Path path = new Path.Builder()
+                .withWidthProfile(WidthProfile.taper(1.0, 0.5))
+                .withStrokeWidth(100)
+                .withMaxNumSegments(10)
+                .build();
+        assertEquals(Path.CUSTOM, path.getPathType());
+
+        for (int i = 0; i < 20; i++) {
+            path.addPoint(i, 0f);
+        }
+        assertEquals(100, path.getSegmentStrokeWidth(19, 10));
+        assertEquals(75, path.getSegmentStrokeWidth(14, 10));
+
+        path.setStrokeWidth(40);
+        assertEquals(40, path.getSegmentStrokeWidth(19, 10));
+        assertEquals(30, path.getSegmentStrokeWidth(14, 10));
+
+        path.setMaxNumSegments(20);
+        assertEquals(30, path.getSegmentStrokeWidth(9, 20));
+
+        path.setPathType(Path.SAME);
+        assertEquals(40, path.getSegmentStrokeWidth(9, 20));
+    }
+
+    /**
+     * Profile that counts how many times it is evaluated
+     */
+    private static class CountingProfile extends WidthProfile {
+
+        int numEvaluations;
+
+        @Override
+        public double evaluate(double t) {
+            numEvaluations++;
+            return 1.0 - t;
+        }
+    }
+
+    @Test
+    public void widthProfile_notEvaluatedPerFrameOnceTrailIsFull() {
+        for (float maxLength : new float[]{0, 200}) {
+            CountingProfile profile = new CountingProfile();
+            Path path = new Path.Builder()
+                    .withWidthProfile(profile)
+                    .withMaxNumSegments(21)
+                    .withMaxLength(maxLength)
+                    .build();
+            path.setTracking(true);
+
+            // while the trail grows the number of drawn segments changes on each frame
+            int frame = 0;
+            for (; frame < 100; frame++) {
+                path.addPoint(frame * 10f, 0f);
+                path.prepare();
+            }
+            assertEquals(21, path.getGeometry().size());
+            int numEvaluations = profile.numEvaluations;
+
+            // the full trail keeps drawing all segments, so the table is not evaluated again
+            for (; frame < 10000; frame++) {
+                path.addPoint(frame * 10f, 0f);
+                path.prepare();
+            }
+            assertEquals(21, path.getGeometry().size());
+            assertEquals(numEvaluations, profile.numEvaluations);
+        }
+    }
+
+    @Test
+    public void pointBuffer_findsSampleByDistance() {
+        PointBuffer points = new PointBuffer(2);
+        points.add(0, 0, 1f, 0f, 1f);
+        points.add(3, 4, 1f, 0f, 1f);
+        points.add(3, 10, 1f, 0f, 1f);
+        points.add(3, 10, 1f, 0f, 1f);
+        assertEquals(5, points.getDistance(1), 1e-6f);
+        assertEquals(11, points.getLength(), 1e-6f);
+
+        assertEquals(0, points.indexAtDistance(0));
+        assertEquals(1, points.indexAtDistance(5));
+        assertEquals(2, points.indexAtDistance(5.1f));
+        assertEquals(4, points.indexAtDistance(12));
+
+        // distances are measured from the first kept sample
+        points.keepLast(3);
+        assertEquals(6, points.getLength(), 1e-6f);
+        points.add(3, 20, 1f, 0f, 1f);
+        assertEquals(16, points.getDistance(3), 1e-6f);
+    }
+
+    /**
+     * Path along the x axis to x=1000, with sample every -step pixels
+     */
+    private static Path straightTrail(float step) {
+        Path path = new Path.Builder()
+                .withPathType(Path.SAME)
+                .withStrokeWidth(50)
+                .withMaxNumSegments(21)
+                .withMaxLength(200)
+                .build();
+        path.setTracking(true);
+        for (float x = 0; x <= 1000; x += step) {
+            path.addPoint(x, 0f);
+        }
+        path.prepare();
+        return path;
+    }
+
+    @Test
+    public void maxLength_sameTrailAtAnySpeed() {
+        Path slow = straightTrail(2);
+        Path fast = straightTrail(40);
+        PathGeometry slowGeometry = slow.getGeometry();
+        PathGeometry fastGeometry = fast.getGeometry();
+
+        // 21 points, 10px apart from the head to the tail
+        assertEquals(21, slowGeometry.size());
+        assertEquals(21, fastGeometry.size());
+        for (int i = 0; i < 21; i++) {
+            assertEquals(1000 - i * 10, slowGeometry.getX(i), 1e-2f);
+            assertEquals(1000 - i * 10, fastGeometry.getX(i), 1e-2f);
+            assertEquals(slowGeometry.getStrokeWidth(i), fastGeometry.getStrokeWidth(i));
+        }
+
+        // points further than the trail length are dropped
+        assertTrue(slow.getNumPoints() <= 2 * (200 / 2 + 1));
+        assertTrue(slow.getPointBuffer().getLength() >= 200);
+    }
+
+    @Test
+    public void maxLength_shortTrailEndsAtFirstPoint() {
+        Path path = new Path.Builder().withMaxNumSegments(21).withMaxLength(200).build();
+        path.addPoint(0, 0);
+        path.addPoint(0, 35);
+        path.prepare();
+
+        // head, points 10px apart and the tail
+        PathGeometry geometry = path.getGeometry();
+        assertEquals(5, geometry.size());
+        assertEquals(35, geometry.getY(0), 1e-4f);
+        assertEquals(5, geometry.getY(3), 1e-4f);
+        assertEquals(0, geometry.getY(4), 1e-4f);
+    }
+
+    @Test
+    public void fadeOut_removesTailWithoutAddingPoints() {
+        for (float maxLength : new float[]{0, 200}) {
+            Path path = straightTrail(10);
+            path.setMaxLength(maxLength);
+            path.prepare();
+            int numPoints = path.getNumPoints();
+            int size = path.getGeometry().size();
+            assertEquals(21, size);
+
+            path.setTracking(false);
+            path.setFading(true);
+            path.resetFadeOut();
+            long time = 0;
+            while (path.isFading()) {
+                time += FadeOut.MIN_DURATION;
+                path.fadeOut(time);
+                path.prepare();
+                assertTrue(path.getGeometry().size() <= size);
+                size = path.getGeometry().size();
+            }
+            assertEquals(numPoints, path.getNumPoints());
+            assertTrue(size < 2);
+        }
+    }
+
+    /**
+     * Gradient that counts the created shaders, without creating them
+     */
+    static class CountingGradient extends TrailGradient {
+        int numShaders;
+
+        CountingGradient() {
+            super(0xFFFF0000, 0x00FF0000);
+        }
+
+        @Override
+        public android.graphics.Shader createShader() {
+            numShaders++;
+            return null;
+        }
+    }
+
+    @Test
+    public void gradient_shaderNotSharedBetweenPaths() {
+        CountingGradient gradient = new CountingGradient();
+        Path first = new Path.Builder().withGradient(gradient).build();
+        Path second = new Path.Builder().withGradient(gradient).build();
+
+        // each path creates its own shader once, and reuses it in the next frames
+        first.getShader();
+        second.getShader();
+        assertEquals(2, gradient.numShaders);
+        for (int frame = 0; frame < 10; frame++) {
+            first.getShader();
+            second.getShader();
+        }
+        assertEquals(2, gradient.numShaders);
+
+        // new gradient creates new shader
+        CountingGradient other = new CountingGradient();
+        first.setGradient(other);
+        first.getShader();
+        assertEquals(1, other.numShaders);
+        assertEquals(2, gradient.numShaders);
+    }
+
+    @Test
+    public void trimPoints_optIn() {
+        Path path = new Path.Builder().withMaxNumSegments(25).build();
+        Path trimmed = new Path.Builder().withMaxNumSegments(25).withTrimPoints(true).build();
+        float[] x = new float[1000];
+        float[] y = new float[1000];
+        for (int i = 0; i < 1000; i++) {
+            x[i] = i;
+            path.addPoint(i, 0);
+            trimmed.addPoint(i, 0);
+        }
+
+        // by default the whole stroke is kept
+        assertEquals(1000, path.getNumPoints());
+        assertEquals(0, path.getPointBuffer().getX(0), 0f);
+        path.addPoints(x, y, 0, 1000);
+        assertEquals(2000, path.getNumPoints());
+
+        // with trimming only the drawn tail is kept, and the geometry is the same
+        assertTrue(trimmed.getNumPoints() < 2 * 64);
+        trimmed.addPoints(x, y, 0, 1000);
+        assertTrue(trimmed.getNumPoints() < 2 * 64);
+        path.prepare();
+        trimmed.prepare();
+        assertEquals(path.getGeometry().size(), trimmed.getGeometry().size());
+        for (int i = 0; i < path.getGeometry().size(); i++) {
+            assertEquals(path.getGeometry().getX(i), trimmed.getGeometry().getX(i), 0f);
+        }
+    }
+
+    @Test
+    public void pointBuffer_expiredSamplesDoNotGrowBuffer() {
+        PointBuffer buffer = new PointBuffer(16);
+        for (int i = 0; i < 10000; i++) {
+            buffer.add(i, 0, 1f, 0f, 1f, 1000L + i);
+            buffer.keepLast(10);
+        }
+
+        // the window slides over the arrays, and is moved back to the start when full
+        assertEquals(10, buffer.size());
+        assertTrue(buffer.capacity() <= 32);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(9990 + i, buffer.getX(i), 0f);
+            assertEquals(10990L + i, buffer.getTime(i));
+            assertEquals(i, buffer.getDistance(i), 1e-3f);
+        }
+        assertEquals(0, buffer.indexAtTime(0));
+        assertEquals(5, buffer.indexAtTime(10995));
+        assertEquals(10, buffer.indexAtTime(20000));
+    }
+
+    // event times are large, like the system time, so they do not fit in float without loss
+    private static final long START_TIME = 1700000000000L;
+
+    /**
+     * Trail limited to 200ms, with finger moving right at 0.5px per ms
+     * for one second, sampled every -interval ms
+     */
+    private static Path timedTrail(int interval) {
+        Path path = new Path.Builder().withMaxNumSegments(21).withMaxAge(200).build();
+        for (int time = 0; time <= 1000; time += interval) {
+            path.addPoint(time * 0.5f, 0, 1f, 0f, START_TIME + time);
+        }
+        path.expire(START_TIME + 1000);
+        path.prepare();
+        return path;
+    }
+
+    @Test
+    public void maxAge_sameTrailAtAnyInputRate() {
+        PathGeometry slow = timedTrail(16).getGeometry();
+        PathGeometry fast = timedTrail(4).getGeometry();
+
+        // head at the last sample, then one point for each 10ms
+        assertEquals(21, fast.size());
+        assertEquals(500, fast.getX(0), 1e-3f);
+        for (int i = 0; i < 21; i++) {
+            assertEquals(500 - i * 5, fast.getX(i), 1e-2f);
+            assertEquals(fast.getStrokeWidth(i), slow.getStrokeWidth(i));
+        }
+
+        // last slow sample is at 992ms, the rest of the trail is the same
+        assertEquals(21, slow.size());
+        assertEquals(496, slow.getX(0), 1e-3f);
+        for (int i = 1; i < 21; i++) {
+            assertEquals(500 - i * 5, slow.getX(i), 1e-2f);
+        }
+    }
+
+    @Test
+    public void maxAge_expiresContinuouslyAfterUp() {
+        Path path = timedTrail(8);
+        path.setTracking(false);
+        path.setFading(true);
+        int numPoints = path.getNumPoints();
+        int size = path.getGeometry().size();
+        float tail = path.getGeometry().getX(size - 1);
+
+        long time = START_TIME + 1000;
+        while (path.isFading()) {
+            time += 16;
+            path.onFadeOut();
+            path.expire(time);
+            path.prepare();
+
+            // no points are added, and the tail moves towards the head on each frame
+            assertTrue(path.getNumPoints() <= numPoints);
+            numPoints = path.getNumPoints();
+            if (path.getGeometry().size() > 1) {
+                PathGeometry geometry = path.getGeometry();
+                assertTrue(geometry.getX(geometry.size() - 1) > tail);
+                tail = geometry.getX(geometry.size() - 1);
+            }
+        }
+        assertTrue(time <= START_TIME + 1000 + 200 + 16);
+        assertEquals(0, path.getGeometry().size());
+    }
+
+    @Test
+    public void maxAge_samplesInSameMillisecondNotCollapsed() {
+
+        // four samples in each millisecond, one segment for each quarter of millisecond
+        Path path = new Path.Builder().withMaxNumSegments(201).withMaxAge(50).build();
+        for (int time = 0; time <= 100; time++) {
+            for (int k = 0; k < 4; k++) {
+                path.addPoint(4 * time + k, 0, 1f, 0f, START_TIME + time);
+            }
+        }
+        path.expire(START_TIME + 100);
+        path.prepare();
+
+        PathGeometry geometry = path.getGeometry();
+        assertEquals(201, geometry.size());
+        for (int i = 0; i < 201; i++) {
+            assertEquals(403 - i, geometry.getX(i), 1e-2f);
+        }
+    }
+
+    @Test
+    public void maxAge_pointsWithoutTimeUseSystemClock() {
+        Path path = new Path.Builder().withMaxAge(60000).build();
+        path.addPoint(0, 0);
+        path.addPoint(10, 0);
+        path.addPoints(new float[]{20, 30}, new float[]{0, 0}, 0, 2);
+        path.expire(System.currentTimeMillis());
+        path.prepare();
+
+        // the trail does not expire right away
+        assertEquals(4, path.getNumPoints());
+        assertTrue(path.getGeometry().size() > 1);
+    }
+
+    @Test
+    public void scene_keepsEventTimesOfBatchedSamples() {
+        ManualClock clock = new ManualClock(START_TIME);
+        Scene scene = new Scene(1);
+        scene.setClock(clock);
+        Path path = scene.getPaths()[0];
+        path.setMaxNumSegments(21);
+        path.setMaxAge(200);
+
+        // 240Hz samples delivered in batches at 60Hz, with their own times
+        scene.down(0, 0, 0, 1f, 0f, START_TIME);
+        for (int frame = 1; frame <= 60; frame++) {
+            for (int k = 3; k >= 0; k--) {
+                long time = START_TIME + frame * 16 - k * 4;
+                scene.move(0, (time - START_TIME) * 0.5f, 0, 1f, 0f, time);
+            }
+            clock.advance(16);
+        }
+        scene.prepare();
+
+        // same trail as when the samples are added one by one
+        PathGeometry geometry = path.getGeometry();
+        PathGeometry expected = timedTrail(4).getGeometry();
+        assertEquals(21, geometry.size());
+        for (int i = 1; i < 21; i++) {
+            assertEquals(expected.getX(i) - 500 + 480, geometry.getX(i), 1e-2f);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.slaviboy.fingerdraw;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the versions that invalidate the path and circle layers,
+ * that run on the development machine (host).
+ */
+public class SceneLayersTest {
+
+    @Test
+    public void idleScene_versionsNotChanged() {
+        ManualClock clock = new ManualClock();
+        Scene scene = new Scene(2);
+        scene.setClock(clock);
+        scene.down(0, 10, 10, 1f, 0f);
+        scene.move(0, 20, 20, 1f, 0f);
+
+        long pathsVersion = scene.getPathsVersion();
+        long circlesVersion = scene.getCirclesVersion();
+        for (int i = 0; i < 100; i++) {
+            clock.advance(16);
+            scene.fadeOut();
+            scene.prepare();
+        }
+
+        // finger is still down, but not moving
+        assertEquals(pathsVersion, scene.getPathsVersion());
+        assertEquals(circlesVersion, scene.getCirclesVersion());
+    }
+
+    @Test
+    public void fadeOut_invalidatesUntilFinished() {
+        ManualClock clock = new ManualClock();
+        Scene scene = new Scene(1);
+        scene.setClock(clock);
+        scene.down(0, 10, 10, 1f, 0f);
+        for (int i = 0; i < 30; i++) {
+            scene.move(0, 10 + i * 5, 10, 1f, 0f);
+        }
+        scene.up(0, 160, 10, 1f, 0f);
+
+        int pathsChanges = 0;
+        int circlesChanges = 0;
+        long pathsVersion = scene.getPathsVersion();
+        long circlesVersion = scene.getCirclesVersion();
+        for (int i = 0; i < 100; i++) {
+            clock.advance(FadeOut.MIN_DURATION);
+            scene.fadeOut();
+            pathsChanges += pathsVersion != scene.getPathsVersion() ? 1 : 0;
+            circlesChanges += circlesVersion != scene.getCirclesVersion() ? 1 : 0;
+            pathsVersion = scene.getPathsVersion();
+            circlesVersion = scene.getCirclesVersion();
+        }
+
+        // both layers change only while fading, the default fadeout takes 200ms
+        assertTrue(pathsChanges > 0 && pathsChanges <= 4);
+        assertTrue(circlesChanges > 0 && circlesChanges <= 4);
+        assertEquals(0, scene.getCircles()[0].getOpacity());
+    }
+
+    @Test
+    public void styleChange_invalidatesOnlyItsLayer() {
+        Scene scene = new Scene(2);
+        long pathsVersion = scene.getPathsVersion();
+        long circlesVersion = scene.getCirclesVersion();
+
+        scene.getPaths()[1].setColor(0xFFFF0000);
+        assertNotEquals(pathsVersion, scene.getPathsVersion());
+        assertEquals(circlesVersion, scene.getCirclesVersion());
+
+        pathsVersion = scene.getPathsVersion();
+        scene.getCircles()[0].setRadius(40);
+        assertEquals(pathsVersion, scene.getPathsVersion());
+        assertNotEquals(circlesVersion, scene.getCirclesVersion());
+
+        // replacing the shapes invalidates both layers
+        circlesVersion = scene.getCirclesVersion();
+        scene.setPaths(new Path[]{new Path(), new Path()});
+        assertNotEquals(pathsVersion, scene.getPathsVersion());
+        assertNotEquals(circlesVersion, scene.getCirclesVersion());
+    }
+
+    @Test
+    public void prepare_keepsGeometryOfUnchangedPath() {
+        Path path = new Path();
+        for (int i = 0; i < 10; i++) {
+            path.addPoint(i * 10, 0);
+        }
+        path.prepare();
+        assertEquals(10, path.getGeometry().size());
+
+        // modify the geometry, it should not be prepared again while the path is not changed
+        path.getGeometry().clear();
+        path.prepare();
+        assertEquals(0, path.getGeometry().size());
+
+        path.addPoint(100, 0);
+        path.prepare();
+        assertEquals(11, path.getGeometry().size());
+    }
+}
@@ -0,0 +1,244 @@
+package com.slaviboy.fingerdraw;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+/**
+ * Long session soak and multi-touch stress tests for the scene, the scene is
+ * driven with synthetic 10 finger input at 240Hz using a manual clock, so hours
+ * of usage are simulated in seconds on the development machine (host).
+ */
+public class SceneStressTest {
+
+    private static final int NUM_FINGERS = 10;
+    private static final int INPUT_RATE = 240;          // input samples per second
+    private static final int FRAME_RATE = 60;           // frames per second
+    private static final int SIMULATED_HOURS = 2;
+    private static final int WARM_UP_MINUTES = 10;      // allocations are counted after the warm up
+    private static final int NUM_INPUT_STEPS = 100000;  // input steps in the concurrent test
+
+    /**
+     * Synthetic finger that goes down, moves in circles and goes up after
+     * random durations, finger 0 is never lifted during the whole session.
+     */
+    static class SyntheticFinger {
+        final int index;
+        final Random random;
+        boolean down;
+        long nextChange;
+        float cx, cy, radius, angle, speed;
+
+        SyntheticFinger(int index, long seed) {
+            this.index = index;
+            this.random = new Random(seed);
+        }
+
+        void step(Scene scene, long time) {
+            if (time >= nextChange && (index != 0 || !down)) {
+                if (down) {
+                    scene.up(index, x(), y(), 1f, 10f);
+                    nextChange = time + random.nextInt(2000);
+                } else {
+                    cx = 200 + random.nextInt(800);
+                    cy = 200 + random.nextInt(1600);
+                    radius = 20 + random.nextInt(180);
+                    speed = 0.01f + random.nextFloat() * 0.1f;
+                    scene.down(index, x(), y(), random.nextFloat(), 10f);
+                    nextChange = time + 100 + random.nextInt(10000);
+                }
+                down = !down;
+            } else if (down) {
+                angle += speed;
+                scene.move(index, x(), y(), random.nextFloat(), 5f + random.nextFloat() * 40f);
+            }
+        }
+
+        float x() {
+            return cx + radius * (float) Math.cos(angle);
+        }
+
+        float y() {
+            return cy + radius * (float) Math.sin(angle);
+        }
+    }
+
+    /**
+     * Scene whose paths drop the points that are no longer drawn
+     */
+    private static Scene trimmedScene() {
+        Scene scene = new Scene(NUM_FINGERS);
+        for (Path path : scene.getPaths()) {
+            path.setTrimPoints(true);
+        }
+        return scene;
+    }
+
+    /**
+     * Session with synthetic input of all fingers, the fadeout timer and the
+     * frames, each scheduled at its own rate on the manual clock
+     */
+    static class Session {
+        final ManualClock clock = new ManualClock();
+        final Scene scene = trimmedScene();
+        final SyntheticFinger[] fingers = new SyntheticFinger[NUM_FINGERS];
+        final long inputPeriod = 1000000L / INPUT_RATE;
+        final long framePeriod = 1000000L / FRAME_RATE;
+        final long fadePeriod = FadeOut.MIN_DURATION * 1000L;
+        long micros, nextInput, nextFrame, nextFade;
+
+        Session() {
+            scene.setClock(clock);
+            for (int i = 0; i < NUM_FINGERS; i++) {
+                fingers[i] = new SyntheticFinger(i, 31L * i + 7);
+            }
+        }
+
+        /**
+         * Simulate the session until given time, check the work of each frame
+         * and the buffers each minute
+         *
+         * @param endMicros - end of the simulated time in (us)
+         */
+        void runUntil(long endMicros) {
+            while (micros < endMicros) {
+
+                // advance to the closest event
+                micros = Math.min(nextInput, Math.min(nextFrame, nextFade));
+                clock.setTime(micros / 1000);
+
+                if (micros == nextInput) {
+                    for (SyntheticFinger finger : fingers) {
+                        finger.step(scene, clock.currentTimeMillis());
+                    }
+                    nextInput += inputPeriod;
+                }
+                if (micros == nextFade) {
+                    scene.fadeOut();
+                    nextFade += fadePeriod;
+                }
+                if (micros == nextFrame) {
+                    scene.prepare();
+                    assertFrameBounded(scene);
+                    nextFrame += framePeriod;
+                }
+
+                // point buffers only keep what is needed for drawing
+                if (micros % 60000000L == 0) {
+                    assertBuffersBounded(scene);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void longSession_boundedBuffersAndNoAllocation() {
+        final Session session = new Session();
+
+        // after the buffers have grown to their size, the session does not allocate
+        Allocations.assertNoAllocation(new Runnable() {
+            @Override
+            public void run() {
+                session.runUntil(WARM_UP_MINUTES * 60L * 1000000L);
+            }
+        }, new Runnable() {
+            @Override
+            public void run() {
+                session.runUntil(SIMULATED_HOURS * 3600L * 1000000L);
+            }
+        });
+        assertBuffersBounded(session.scene);
+    }
+
+    @Test
+    public void concurrentAccess_noExceptions() throws InterruptedException {
+        final Scene scene = trimmedScene();
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final List<Throwable> errors = new ArrayList<>();
+
+        Runnable input = new Runnable() {
+            @Override
+            public void run() {
+                SyntheticFinger[] fingers = new SyntheticFinger[NUM_FINGERS];
+                for (int i = 0; i < NUM_FINGERS; i++) {
+                    fingers[i] = new SyntheticFinger(i, i);
+                }
+                long time = 0;
+                for (int i = 0; i < NUM_INPUT_STEPS && running.get(); i++) {
+                    for (SyntheticFinger finger : fingers) {
+                        finger.step(scene, time);
+                    }
+                    time += 4;
+                }
+                running.set(false);
+            }
+        };
+        Runnable fade = new Runnable() {
+            @Override
+            public void run() {
+                while (running.get()) {
+                    scene.fadeOut();
+                }
+            }
+        };
+        Runnable render = new Runnable() {
+            @Override
+            public void run() {
+                while (running.get()) {
+                    scene.prepare();
+                }
+            }
+        };
+
+        List<Thread> threads = new ArrayList<>();
+        for (Runnable runnable : new Runnable[]{input, fade, render}) {
+            Thread thread = new Thread(runnable);
+            thread.setUncaughtExceptionHandler(new Thread.UncaughtExceptionHandler() {
+                @Override
+                public void uncaughtException(Thread t, Throwable e) {
+                    synchronized (errors) {
+                        errors.add(e);
+                    }
+                    running.set(false);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+
+        // the input thread stops the others after its last step
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertTrue("exceptions: " + errors, errors.isEmpty());
+        assertBuffersBounded(scene);
+    }
+
+    /**
+     * The work of a frame is linear to the number of points kept and drawn, so
+     * frame times stay stable when these do not grow during the session
+     */
+    private static void assertFrameBounded(Scene scene) {
+        for (Path path : scene.getPaths()) {
+            int maxNumSegments = path.getMaxNumSegments();
+            assertTrue(path.getGeometry().size() <= maxNumSegments);
+            assertTrue(path.getPointBuffer().size() <= Math.max(2 * maxNumSegments, 64));
+        }
+    }
+
+    private static void assertBuffersBounded(Scene scene) {
+        for (Path path : scene.getPaths()) {
+            int maxSize = 4 * Math.max(2 * path.getMaxNumSegments(), 64);
+            if (path.getPointBuffer().capacity() > maxSize) {
+                fail("point buffer capacity " + path.getPointBuffer().capacity());
+            }
+            assertTrue(path.getGeometry().capacity() <= maxSize);
+        }
+    }
+}
@@ -0,0 +1,264 @@
+package com.slaviboy.fingerdraw;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the style snapshots applied at the start of the frame,
+ * that run on the development machine (host).
+ */
+public class SceneStyleTest {
+
+    @Test
+    public void setPathStyle_appliedAtNextFrame() {
+        Scene scene = new Scene(3);
+        long circlesVersion = scene.getCirclesVersion();
+
+        scene.setPathStyle(new PathStyle.Builder().withColor(0xFFFF0000).withStrokeWidth(40).build());
+        scene.setPathStyle(1, new PathStyle.Builder().withColor(0xFF0000FF).build());
+        assertEquals(0xFF000000, scene.getPaths()[0].getColor());
+
+        scene.prepare();
+        assertEquals(0xFFFF0000, scene.getPaths()[0].getColor());
+        assertEquals(40, scene.getPaths()[0].getStrokeWidth());
+        assertEquals(0xFF0000FF, scene.getPaths()[1].getColor());
+        assertEquals(70, scene.getPaths()[1].getStrokeWidth());
+        assertEquals(0xFFFF0000, scene.getPaths()[2].getColor());
+        assertEquals(circlesVersion, scene.getCirclesVersion());
+
+        // style for all paths replaces the earlier style of single path
+        scene.setPathStyle(1, new PathStyle.Builder().withColor(0xFF0000FF).build());
+        scene.setPathStyle(new PathStyle.Builder().withColor(0xFF00FF00).build());
+        scene.setCircleStyle(2, new CircleStyle.Builder().withRadius(40).build());
+        scene.prepare();
+        for (Path path : scene.getPaths()) {
+            assertEquals(0xFF00FF00, path.getColor());
+        }
+        assertEquals(25, scene.getCircles()[1].getRadius());
+        assertEquals(40, scene.getCircles()[2].getRadius());
+    }
+
+    @Test
+    public void getStyle_sameAfterSetStyle() {
+        Path path = new Path.Builder()
+                .withColor(0xFF123456)
+                .withStrokeWidth(33)
+                .withMaxNumSegments(12)
+                .withFadeOutDuration(500)
+                .withWidthProfile(WidthProfile.taper(0.2f, 0.5f))
+                .build();
+        Path copy = new Path();
+        copy.setStyle(path.getStyle());
+        assertEquals(0xFF123456, copy.getColor());
+        assertEquals(33, copy.getStrokeWidth());
+        assertEquals(12, copy.getMaxNumSegments());
+        assertEquals(500, copy.getFadeOutDuration());
+        assertEquals(Path.CUSTOM, copy.getPathType());
+        assertSame(path.getWidthProfile(), copy.getWidthProfile());
+
+        // changing the path type removes the custom profile
+        PathStyle style = new PathStyle.Builder(path.getStyle()).withPathType(Path.SAME).build();
+        assertNull(style.getWidthProfile());
+        copy.setStyle(style);
+        assertEquals(Path.SAME, copy.getPathType());
+    }
+
+    @Test
+    public void setStyle_duringGestureKeepsPointsAndFade() {
+        ManualClock clock = new ManualClock();
+        Scene scene = new Scene(1);
+        scene.setClock(clock);
+        scene.down(0, 0, 0, 1f, 0f);
+        for (int i = 1; i <= 10; i++) {
+            scene.move(0, i * 10, 0, 1f, 0f);
+        }
+        scene.setPathStyle(new PathStyle.Builder().withMaxNumSegments(5).build());
+        scene.prepare();
+
+        Path path = scene.getPaths()[0];
+        assertEquals(11, path.getNumPoints());
+        assertTrue(path.getGeometry().size() <= 6);
+
+        // circle that is fading out does not become opaque again
+        scene.up(0, 100, 0, 1f, 0f);
+        clock.advance(FadeOut.MIN_DURATION);
+        scene.fadeOut();
+        Circle circle = scene.getCircles()[0];
+        int opacity = circle.getOpacity();
+        assertTrue(opacity < 255);
+        scene.setCircleStyle(new CircleStyle.Builder().withRadius(10).build());
+        scene.prepare();
+        assertEquals(opacity, circle.getOpacity());
+        assertEquals(10, circle.getRadius());
+    }
+
+    @Test
+    public void setPathStyle_widthsEvaluatedOnlyWhenChanged() {
+        final int[] numEvaluations = new int[1];
+        WidthProfile profile = new WidthProfile() {
+            @Override
+            public double evaluate(double t) {
+                numEvaluations[0]++;
+                return 1.0 - t;
+            }
+        };
+        Scene scene = new Scene(1);
+        scene.setPathStyle(new PathStyle.Builder().withWidthProfile(profile).build());
+        scene.down(0, 0, 0, 1f, 0f);
+        for (int i = 1; i <= 30; i++) {
+            scene.move(0, i * 10, 0, 1f, 0f);
+        }
+        scene.prepare();
+        assertTrue(numEvaluations[0] > 0);
+
+        // same number of segments and only the color is changed
+        numEvaluations[0] = 0;
+        scene.setPathStyle(new PathStyle.Builder().withWidthProfile(profile).withColor(0xFFFF0000).build());
+        scene.prepare();
+        assertEquals(0xFFFF0000, scene.getPaths()[0].getColor());
+        assertEquals(0, numEvaluations[0]);
+
+        scene.setPathStyle(new PathStyle.Builder().withWidthProfile(profile).withStrokeWidth(20).build());
+        scene.prepare();
+        assertTrue(numEvaluations[0] > 0);
+    }
+
+    /**
+     * Style with all properties derived from -k, so the render thread can check
+     * that each path has all properties from the same snapshot
+     */
+    private static PathStyle pathStyle(int k) {
+        return new PathStyle.Builder()
+                .withColor(0xFF000000 | k)
+                .withStrokeWidth(10 + k % 50)
+                .withMaxNumSegments(5 + k % 40)
+                .withPathType(k % 3)
+                .withFadeOutDuration(100 + k % 300)
+                .build();
+    }
+
+    private static void assertPathStyle(Path path, int k) {
+        assertEquals(10 + k % 50, path.getStrokeWidth());
+        assertEquals(5 + k % 40, path.getMaxNumSegments());
+        assertEquals(k % 3, path.getPathType());
+        assertEquals(100 + k % 300, path.getFadeOutDuration());
+        PathGeometry geometry = path.getGeometry();
+        assertTrue(geometry.size() <= path.getMaxNumSegments() + 1);
+        for (int i = 0; i < geometry.size(); i++) {
+            assertTrue(geometry.getStrokeWidth(i) <= path.getStrokeWidth());
+        }
+    }
+
+    @Test
+    public void restyle_continuouslyDuringMultiTouch() throws InterruptedException {
+        final int numFingers = 4;
+        final Scene scene = new Scene(numFingers);
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        // synthetic multi-touch, each finger goes down and up every 50 samples
+        Thread touch = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    for (int t = 0; running.get(); t++) {
+                        for (int finger = 0; finger < numFingers; finger++) {
+                            float x = 200 + 150 * (float) Math.cos(t * 0.05 + finger);
+                            float y = 200 + 150 * (float) Math.sin(t * 0.07 + finger);
+                            int phase = (t + finger * 13) % 50;
+                            if (phase == 0) {
+                                scene.down(finger, x, y, 1f, 0f);
+                            } else if (phase == 49) {
+                                scene.up(finger, x, y, 1f, 0f);
+                            } else {
+                                scene.move(finger, x, y, 1f, 0f);
+                            }
+                        }
+                        Thread.yield();
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            }
+        });
+
+        // restyle all paths and single circles as fast as possible
+        Thread restyle = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    for (int k = 1; running.get(); k++) {
+                        scene.setPathStyle(pathStyle(k));
+                        scene.setCircleStyle(k % numFingers, new CircleStyle.Builder()
+                                .withRadius(10 + k % 30)
+                                .withStrokeWidth(1 + k % 30)
+                                .build());
+                        Thread.yield();
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            }
+        });
+
+        // fadeout timer
+        Thread timer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    while (running.get()) {
+                        scene.fadeOut();
+                        Thread.sleep(1);
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                }
+            }
+        });
+        touch.start();
+        restyle.start();
+        timer.start();
+
+        int numStyles = 0;
+        int lastStyle = 0;
+        for (int frame = 0; frame < 300 && failure.get() == null; frame++) {
+            Thread.sleep(1); // let the other threads run between the frames
+            scene.prepare();
+            synchronized (scene) {
+                Path[] paths = scene.getPaths();
+                int k = paths[0].getColor() & 0xFFFFFF;
+                if (k == 0) {
+                    continue;
+                }
+
+                // all paths have every property from the same snapshot
+                for (Path path : paths) {
+                    assertEquals(k, path.getColor() & 0xFFFFFF);
+                    assertPathStyle(path, k);
+                }
+                for (Circle circle : scene.getCircles()) {
+                    if (k > numFingers) {
+                        // style of each circle was published before the style of the paths
+                        assertEquals(circle.getRadius() - 9, circle.getStrokeWidth());
+                    }
+                }
+                if (k != lastStyle) {
+                    numStyles++;
+                    lastStyle = k;
+                }
+            }
+        }
+        running.set(false);
+        touch.join();
+        restyle.join();
+        timer.join();
+        if (failure.get() != null) {
+            throw new AssertionError(failure.get());
+        }
+        assertTrue(numStyles > 10);
+    }
+}
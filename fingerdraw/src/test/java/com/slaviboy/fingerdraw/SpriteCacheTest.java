@@ -0,0 +1,190 @@
+package com.slaviboy.fingerdraw;
+
+import android.graphics.Paint;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the sprites of the circles, that run on the development machine (host).
+ */
+public class SpriteCacheTest {
+
+    /**
+     * Renderer that only counts the calls and keeps the last drawn sprite
+     */
+    static class CountingRenderer implements SpriteCache.SpriteRenderer {
+        int numRasterized;
+        int numDrawn;
+        int numReleased;
+        SpriteCache.Sprite lastSprite;
+        float lastLeft;
+        int lastAlpha;
+
+        @Override
+        public void rasterize(SpriteCache.Sprite sprite) {
+            numRasterized++;
+        }
+
+        @Override
+        public void drawSprite(android.graphics.Canvas canvas, SpriteCache.Sprite sprite, float left, float top, int alpha) {
+            numDrawn++;
+            lastSprite = sprite;
+            lastLeft = left;
+            lastAlpha = alpha;
+        }
+
+        @Override
+        public void release(SpriteCache.Sprite sprite) {
+            numReleased++;
+        }
+    }
+
+    /**
+     * Square shape with given size, equal to other squares with the same size
+     */
+    static class Square implements IndicatorShape {
+        final int size;
+
+        Square(int size) {
+            this.size = size;
+        }
+
+        @Override
+        public int getSize() {
+            return size;
+        }
+
+        @Override
+        public void draw(android.graphics.Canvas canvas, Paint paint, float cx, float cy) {
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            return object instanceof Square && ((Square) object).size == size;
+        }
+
+        @Override
+        public int hashCode() {
+            return size;
+        }
+    }
+
+    private static Scene scene(CountingRenderer renderer, int numFingers) {
+        Scene scene = new Scene(numFingers);
+        Circle[] circles = new Circle[numFingers];
+        for (int i = 0; i < numFingers; i++) {
+            circles[i] = new Circle.Builder().withRadius(30).withStrokeWidth(3).build();
+        }
+        scene.setCircles(circles);
+        scene.setSpriteCache(new SpriteCache(renderer));
+        for (int i = 0; i < numFingers; i++) {
+            scene.down(i, 100 + i, 100, 1f, 0f);
+        }
+        return scene;
+    }
+
+    @Test
+    public void draw_rasterizesEachStyleOnce() {
+        CountingRenderer renderer = new CountingRenderer();
+        Scene scene = scene(renderer, 4);
+        IndicatorShape shape = scene.getCircles()[0].getShape();
+        for (int frame = 0; frame < 100; frame++) {
+            for (int i = 0; i < 4; i++) {
+                scene.move(i, 100 + i + frame, 100, 1f, 0f);
+            }
+            scene.submitCircles(null, null);
+        }
+
+        // all circles share one sprite, and the key is not created again on each frame
+        assertEquals(1, renderer.numRasterized);
+        assertEquals(400, renderer.numDrawn);
+        assertSame(shape, scene.getCircles()[0].getShape());
+
+        // sprite is centered at the finger, size includes the stroke and the antialiasing
+        assertEquals(2 * (30 + 2 + 1), renderer.lastSprite.size);
+        assertEquals(103 + 99 - 33, renderer.lastLeft, 1e-4f);
+
+        // only the changed style is rasterized
+        scene.getCircles()[1].setRadius(40);
+        scene.submitCircles(null, null);
+        scene.submitCircles(null, null);
+        assertEquals(2, renderer.numRasterized);
+        assertNotSame(shape, scene.getCircles()[1].getShape());
+    }
+
+    @Test
+    public void draw_placesSpriteAtWholePixels() {
+        CountingRenderer renderer = new CountingRenderer();
+        SpriteCache cache = new SpriteCache(renderer);
+        cache.draw(null, new Square(20), 100.3f, 50.7f, 255);
+        assertEquals(90, renderer.lastLeft, 0f);
+        cache.draw(null, new Square(20), 100.6f, 50.2f, 255);
+        assertEquals(91, renderer.lastLeft, 0f);
+    }
+
+    @Test
+    public void fadeOut_modulatesAlphaOfSameSprite() {
+        ManualClock clock = new ManualClock();
+        CountingRenderer renderer = new CountingRenderer();
+        Scene scene = scene(renderer, 1);
+        scene.setClock(clock);
+        scene.up(0, 100, 100, 1f, 0f);
+
+        int alpha = 255;
+        while (scene.getCircles()[0].getOpacity() > 0) {
+            clock.advance(FadeOut.MIN_DURATION);
+            scene.fadeOut();
+            scene.submitCircles(null, null);
+            if (scene.getCircles()[0].getOpacity() > 0) {
+                assertEquals(scene.getCircles()[0].getOpacity(), renderer.lastAlpha);
+                assertTrue(renderer.lastAlpha < alpha);
+                alpha = renderer.lastAlpha;
+            }
+        }
+        assertEquals(1, renderer.numRasterized);
+    }
+
+    @Test
+    public void cache_evictsLeastRecentlyUsedWithinBudget() {
+        CountingRenderer renderer = new CountingRenderer();
+        long maxBytes = 3 * 4L * 100 * 100;
+        SpriteCache cache = new SpriteCache(renderer, maxBytes);
+        for (int i = 0; i < 10; i++) {
+            cache.draw(null, new Square(100), 0, 0, 255);
+            cache.draw(null, new Square(90 + i), 0, 0, 255);
+            assertTrue(cache.getBytes() <= maxBytes);
+        }
+
+        // the square that is drawn on each frame is never evicted
+        assertEquals(11, renderer.numRasterized);
+        assertEquals(3, cache.getNumSprites());
+        assertEquals(8, renderer.numReleased);
+
+        cache.clear();
+        assertEquals(0, cache.getBytes());
+        assertEquals(11, renderer.numReleased);
+    }
+
+    @Test
+    public void customShape_sharedByCirclesThroughCache() {
+        CountingRenderer renderer = new CountingRenderer();
+        Scene scene = scene(renderer, 3);
+        for (int i = 0; i < 3; i++) {
+            scene.getCircles()[i].setShape(new Square(64));
+        }
+        for (int frame = 0; frame < 10; frame++) {
+            scene.submitCircles(null, null);
+        }
+        assertEquals(1, renderer.numRasterized);
+        assertEquals(30, renderer.numDrawn);
+        assertEquals(64, renderer.lastSprite.size);
+
+        // rings made from the properties are equal keys too
+        assertEquals(new IndicatorShape.Ring(25, 1, 0xFFFFFFFF, 0xFF000000),
+                new IndicatorShape.Ring(25, 1, 0xFFFFFFFF, 0xFF000000));
+        assertNotEquals(new IndicatorShape.Ring(25, 1, 0xFFFFFFFF, 0xFF000000),
+                new IndicatorShape.Ring(25, 2, 0xFFFFFFFF, 0xFF000000));
+    }
+}
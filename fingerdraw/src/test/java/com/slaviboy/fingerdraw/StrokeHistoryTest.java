@@ -0,0 +1,191 @@
+package com.slaviboy.fingerdraw;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the stroke history, that run on the development machine (host).
+ */
+public class StrokeHistoryTest {
+
+    /**
+     * Raster that mixes each stroke into all pixels, so the result depends
+     * on the strokes and their order
+     */
+    static class FakeRaster implements StrokeHistory.Raster {
+        int[] pixels = new int[64 * 64];
+        int numDrawn;
+
+        @Override
+        public int getWidth() {
+            return 64;
+        }
+
+        @Override
+        public int getHeight() {
+            return 64;
+        }
+
+        @Override
+        public void clear() {
+            Arrays.fill(pixels, 0);
+        }
+
+        @Override
+        public void drawStroke(StrokeLog strokes, int index) {
+            int value = strokes.getColor(index) + (int) strokes.getX(index, strokes.getNumPoints(index) - 1);
+            for (int i = 0; i < pixels.length; i++) {
+                pixels[i] = pixels[i] * 31 + value + i;
+            }
+            numDrawn++;
+        }
+
+        @Override
+        public void getPixels(int[] pixels) {
+            System.arraycopy(this.pixels, 0, pixels, 0, pixels.length);
+        }
+
+        @Override
+        public void setPixels(int[] pixels) {
+            System.arraycopy(pixels, 0, this.pixels, 0, pixels.length);
+        }
+    }
+
+    private static void addStroke(StrokeHistory history, int index) {
+        float[] xy = {index, 0, index + 1, 1, index + 2, 2};
+        history.add(index, 4f, xy, 3);
+    }
+
+    /**
+     * Get the pixels after drawing the first -count strokes from scratch
+     */
+    private static int[] expected(int count) {
+        FakeRaster raster = new FakeRaster();
+        StrokeHistory history = new StrokeHistory(raster, Long.MAX_VALUE, 1000);
+        for (int i = 0; i < count; i++) {
+            addStroke(history, i);
+        }
+        return raster.pixels;
+    }
+
+    @Test
+    public void undo_replaysOnlyStrokesAfterCheckpoint() {
+        FakeRaster raster = new FakeRaster();
+        StrokeHistory history = new StrokeHistory(raster, Long.MAX_VALUE, 10);
+        for (int i = 0; i < 100; i++) {
+            addStroke(history, i);
+        }
+        assertEquals(10, history.getNumCheckpoints());
+
+        for (int count = 99; count >= 0; count--) {
+            assertTrue(history.undo());
+            assertEquals(count, history.getNumStrokes());
+            assertTrue(history.getNumReplayed() < 10);
+            assertArrayEquals(expected(count), raster.pixels);
+        }
+        assertFalse(history.undo());
+    }
+
+    @Test
+    public void redo_drawsOnlyNextStroke() {
+        FakeRaster raster = new FakeRaster();
+        StrokeHistory history = new StrokeHistory(raster, Long.MAX_VALUE, 10);
+        for (int i = 0; i < 30; i++) {
+            addStroke(history, i);
+        }
+        for (int i = 0; i < 15; i++) {
+            history.undo();
+        }
+
+        int drawn = raster.numDrawn;
+        for (int i = 0; i < 15; i++) {
+            assertTrue(history.redo());
+        }
+        assertFalse(history.redo());
+        assertEquals(drawn + 15, raster.numDrawn);
+        assertArrayEquals(expected(30), raster.pixels);
+    }
+
+    @Test
+    public void add_afterUndo_dropsRedoStrokes() {
+        FakeRaster raster = new FakeRaster();
+        StrokeHistory history = new StrokeHistory(raster, Long.MAX_VALUE, 4);
+        for (int i = 0; i < 20; i++) {
+            addStroke(history, i);
+        }
+        for (int i = 0; i < 10; i++) {
+            history.undo();
+        }
+
+        // new strokes replace the undone ones, and their checkpoints
+        for (int i = 10; i < 20; i++) {
+            addStroke(history, i + 1000);
+        }
+        assertFalse(history.canRedo());
+        assertEquals(20, history.getStrokes().size());
+        for (int i = 0; i < 5; i++) {
+            history.undo();
+        }
+
+        FakeRaster fresh = new FakeRaster();
+        StrokeHistory replay = new StrokeHistory(fresh, Long.MAX_VALUE, 1000);
+        for (int i = 0; i < 15; i++) {
+            addStroke(replay, i < 10 ? i : i + 1000);
+        }
+        assertArrayEquals(fresh.pixels, raster.pixels);
+    }
+
+    @Test
+    public void checkpoints_evictedLeastRecentlyUsedWithinBudget() {
+        FakeRaster raster = new FakeRaster();
+        long checkpointBytes = 4L * 64 * 64;
+        long budget = new StrokeLog().getMemoryBytes() + 3 * checkpointBytes + 1024;
+        StrokeHistory history = new StrokeHistory(raster, budget, 5);
+        for (int i = 0; i < 100; i++) {
+            addStroke(history, i);
+            assertTrue(history.getMemoryBytes() <= budget);
+        }
+        assertEquals(3, history.getNumCheckpoints());
+
+        // the most recent checkpoints are kept, so undo near the end is still cheap
+        history.undo();
+        assertEquals(4, history.getNumReplayed());
+
+        // older checkpoints are evicted, undo falls back to the nearest kept one
+        while (history.getNumStrokes() > 50) {
+            history.undo();
+        }
+        assertArrayEquals(expected(50), raster.pixels);
+    }
+
+    @Test
+    public void setRaster_drawsStrokesAddedBeforeRaster() {
+        StrokeHistory history = new StrokeHistory(null, Long.MAX_VALUE, 4);
+        for (int i = 0; i < 10; i++) {
+            addStroke(history, i);
+        }
+        history.undo();
+        assertEquals(9, history.getNumStrokes());
+        assertEquals(0, history.getNumCheckpoints());
+
+        FakeRaster raster = new FakeRaster();
+        history.setRaster(raster);
+        assertArrayEquals(expected(9), raster.pixels);
+        assertEquals(2, history.getNumCheckpoints());
+
+        // replacing the raster draws the strokes again, and the checkpoints are made from the new raster
+        FakeRaster resized = new FakeRaster();
+        history.setRaster(resized);
+        assertArrayEquals(expected(9), resized.pixels);
+        assertTrue(history.redo());
+        history.undo();
+        history.undo();
+        assertArrayEquals(expected(8), resized.pixels);
+
+        // the previous raster is no longer drawn into
+        assertEquals(9, raster.numDrawn);
+    }
+}
@@ -0,0 +1,202 @@
+package com.slaviboy.fingerdraw;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the stroke log and its compact storage, that run on the
+ * development machine (host).
+ */
+public class StrokeLogTest {
+
+    /**
+     * Random finger stroke, sampled at 120Hz
+     */
+    private static int stroke(Random random, float[] xy, long[] times, long time) {
+        int numPoints = 20 + random.nextInt(200);
+        float x = random.nextFloat() * 1000, y = random.nextFloat() * 2000;
+        for (int i = 0; i < numPoints; i++) {
+            x += random.nextFloat() * 40 - 20;
+            y += random.nextFloat() * 40 - 20;
+            xy[2 * i] = x;
+            xy[2 * i + 1] = y;
+            times[i] = time + i * 8 + random.nextInt(3);
+        }
+        return numPoints;
+    }
+
+    /**
+     * Point with the same fields as PointF, that is not available on the host
+     */
+    private static final class Point {
+
+        final float x;
+        final float y;
+
+        Point(float x, float y) {
+            this.x = x;
+            this.y = y;
+        }
+    }
+
+    @Test
+    public void compact_decodesPointsWithinHalfUnit() {
+        Random random = new Random(1);
+        StrokeLog log = StrokeLog.compact();
+        float[][] xys = new float[50][440];
+        long[][] times = new long[50][220];
+        int[] sizes = new int[50];
+        for (int i = 0; i < 50; i++) {
+            sizes[i] = stroke(random, xys[i], times[i], 1000L * i);
+            log.add(i, 4f, xys[i], times[i], sizes[i]);
+        }
+
+        float error = log.getResolution() / 2 + 1e-3f;
+        StrokeLog.Cursor cursor = new StrokeLog.Cursor();
+        for (int i = 0; i < 50; i++) {
+            assertEquals(sizes[i], log.getNumPoints(i));
+            for (int j = 0; j < sizes[i]; j++) {
+                cursor.moveTo(log, i, j);
+                assertEquals(xys[i][2 * j], cursor.getX(), error);
+                assertEquals(xys[i][2 * j + 1], cursor.getY(), error);
+                assertEquals(times[i][j], cursor.getTime());
+                assertEquals(cursor.getX(), log.getX(i, j), 0f);
+                assertEquals(cursor.getTime(), log.getTime(i, j));
+            }
+        }
+
+        // reading backwards decodes each point from the start of the stroke
+        for (int j = sizes[7] - 1; j >= 0; j--) {
+            assertEquals(xys[7][2 * j], cursor.moveTo(log, 7, j).getX(), error);
+            assertEquals(xys[7][2 * j], log.getX(7, j), error);
+        }
+    }
+
+    @Test
+    public void cursors_readIndependently() {
+        Random random = new Random(4);
+        StrokeLog log = StrokeLog.compact();
+        float[][] xys = new float[2][440];
+        long[][] times = new long[2][220];
+        int numPoints = 20;
+        for (int i = 0; i < 2; i++) {
+            stroke(random, xys[i], times[i], 1000L * i);
+            log.add(i, 4f, xys[i], times[i], numPoints);
+        }
+
+        // two readers interleaved, and random access between them, do not disturb each other
+        float error = log.getResolution() / 2 + 1e-3f;
+        StrokeLog.Cursor first = new StrokeLog.Cursor();
+        StrokeLog.Cursor second = new StrokeLog.Cursor();
+        for (int j = 0; j < numPoints; j++) {
+            first.moveTo(log, 0, j);
+            second.moveTo(log, 1, numPoints - 1 - j);
+            log.getX(1, j);
+            assertEquals(xys[0][2 * j], first.getX(), error);
+            assertEquals(times[0][j], first.getTime());
+            assertEquals(xys[1][2 * (numPoints - 1 - j)], second.getX(), error);
+            assertEquals(times[1][numPoints - 1 - j], second.getTime());
+        }
+    }
+
+    @Test
+    public void compact_splitsLargeJumps() {
+        StrokeLog log = StrokeLog.compact();
+        float[] xy = {0, 0, 10000, -5000, 10001, -5000};
+        long[] times = {0, 100, 108};
+        log.add(0xFF000000, 4f, xy, times, 3);
+
+        // 10000px is more than 32767 units of 1/16px, so the jump is split in points on the line
+        int numPoints = log.getNumPoints(0);
+        assertEquals(1 + 5 + 1, numPoints);
+        for (int i = 1; i < numPoints; i++) {
+            float x = log.getX(0, i), y = log.getY(0, i);
+            assertEquals(-0.5f * Math.min(x, 10000), y, 0.1f);
+        }
+        assertEquals(10001, log.getX(0, numPoints - 1), 0.05f);
+        assertEquals(-5000, log.getY(0, numPoints - 1), 0.05f);
+        assertEquals(100, log.getTime(0, numPoints - 2));
+        assertEquals(108, log.getTime(0, numPoints - 1));
+
+        float[] decoded = new float[2 * numPoints];
+        log.getPoints(0, decoded, null);
+        assertEquals(10000, decoded[2 * numPoints - 4], 0.05f);
+    }
+
+    @Test
+    public void truncate_keepsDecodingRemainingStrokes() {
+        Random random = new Random(2);
+        StrokeLog log = StrokeLog.compact();
+        float[] xy = new float[440];
+        long[] times = new long[220];
+        for (int i = 0; i < 10; i++) {
+            stroke(random, xy, times, 0);
+            log.add(i, 4f, xy, times, 100);
+        }
+        StrokeLog.Cursor cursor = new StrokeLog.Cursor();
+        cursor.moveTo(log, 5, 50);
+        log.truncate(5);
+        int numPoints = stroke(random, xy, times, 0);
+        log.add(5, 4f, xy, times, numPoints);
+        assertEquals(6, log.size());
+        assertEquals(xy[2 * numPoints - 2], log.getX(5, numPoints - 1), 0.05f);
+
+        // the cursor does not continue from the removed stroke
+        assertEquals(xy[2 * 60], cursor.moveTo(log, 5, 60).getX(), 0.05f);
+    }
+
+    @Test
+    public void compact_usesLessMemoryPerSample() {
+        Random random = new Random(3);
+        int numSamples = 100000;
+        float[] xy = new float[440];
+        long[] times = new long[220];
+        StrokeLog compact = StrokeLog.compact();
+        StrokeLog floats = new StrokeLog();
+        while (compact.getNumPoints() < numSamples) {
+            int numPoints = stroke(random, xy, times, 0);
+            compact.add(0, 4f, xy, times, numPoints);
+            floats.add(0, 4f, xy, times, numPoints);
+        }
+        floats.trimToSize();
+
+        // trimming copies the log to arrays of the exact size, so it allocates the memory that is kept
+        long before = Allocations.getAllocatedBytes();
+        compact.trimToSize();
+        long compactAllocated = Allocations.getAllocatedBytes() - before;
+        int numPoints = compact.getNumPoints();
+        int numStrokes = compact.size();
+        assertEquals(numPoints, floats.getNumPoints());
+
+        // time difference per point, and start, start time, color and width per stroke
+        long common = 2L * numPoints + 16L * numStrokes;
+        assertEquals(common + 2L * 2 * numPoints + 4L * 2 * numStrokes, compact.getMemoryBytes());
+        assertEquals(common + 4L * 2 * numPoints, floats.getMemoryBytes());
+
+        // the same points kept as objects in list
+        before = Allocations.getAllocatedBytes();
+        List<Point> list = new ArrayList<>(numPoints);
+        for (int stroke = 0; stroke < numStrokes; stroke++) {
+            for (int i = 0; i < floats.getNumPoints(stroke); i++) {
+                list.add(new Point(floats.getX(stroke, i), floats.getY(stroke, i)));
+            }
+        }
+        long listAllocated = Allocations.getAllocatedBytes() - before;
+        assertEquals(numPoints, list.size());
+
+        double compactBytes = (double) compactAllocated / numPoints;
+        double floatBytes = (double) floats.getMemoryBytes() / numPoints;
+        double listBytes = (double) listAllocated / numPoints;
+
+        // compact samples also keep the time, that point objects do not have
+        assertTrue(compactBytes < 6.5);
+        assertTrue(compactBytes < floatBytes);
+        assertTrue("list " + listBytes + " and compact " + compactBytes + " bytes per sample",
+                listBytes / compactBytes >= 4);
+    }
+}
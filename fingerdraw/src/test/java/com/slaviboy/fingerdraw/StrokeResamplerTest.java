@@ -0,0 +1,161 @@
+package com.slaviboy.fingerdraw;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the stroke resampler, that run on the
+ * development machine (host).
+ */
+public class StrokeResamplerTest {
+
+    /**
+     * Sink that keeps the points of the last stroke
+     */
+    static class CollectingSink implements StrokeResampler.Sink {
+        float[] xy = new float[1024];
+        int numPoints;
+        int numStrokes;
+        float length;
+
+        @Override
+        public void onStrokeStart(int arrayIndex) {
+            numPoints = 0;
+        }
+
+        @Override
+        public void onPoint(int arrayIndex, float x, float y) {
+            if (2 * numPoints + 2 > xy.length) {
+                xy = Arrays.copyOf(xy, xy.length * 2);
+            }
+            xy[2 * numPoints] = x;
+            xy[2 * numPoints + 1] = y;
+            numPoints++;
+        }
+
+        @Override
+        public void onStrokeEnd(int arrayIndex, int numPoints, float length) {
+            assertEquals(this.numPoints, numPoints);
+            this.length = length;
+            numStrokes++;
+        }
+    }
+
+    private static float distance(float[] xy, int i, int j) {
+        return (float) Math.hypot(xy[2 * j] - xy[2 * i], xy[2 * j + 1] - xy[2 * i + 1]);
+    }
+
+    @Test
+    public void straightLine_pointsEquallySpaced() {
+        CollectingSink sink = new CollectingSink();
+        StrokeResampler resampler = new StrokeResampler(10f, sink);
+        Scene scene = new Scene(1);
+        scene.addListener(resampler);
+
+        // samples with uneven spacing, as with changing finger speed
+        scene.down(0, 0, 0, 1f, 0f);
+        float x = 0;
+        for (int i = 0; i < 40; i++) {
+            x += 1 + (i % 7) * 3.3f;
+            scene.move(0, x, 0, 1f, 0f);
+        }
+        scene.up(0, x + 5, 0, 1f, 0f);
+
+        assertEquals(1, sink.numStrokes);
+        assertEquals(x + 5, sink.length, 1e-2f);
+        assertEquals((int) Math.ceil((x + 5) / 10) + 1, sink.numPoints);
+        for (int i = 1; i < sink.numPoints - 1; i++) {
+            assertEquals(10f, distance(sink.xy, i - 1, i), 1e-3f);
+        }
+        assertEquals(x + 5, sink.xy[2 * sink.numPoints - 2], 0f);
+    }
+
+    @Test
+    public void curve_pointsEquallySpacedAlongStroke() {
+        CollectingSink sink = new CollectingSink();
+        StrokeResampler resampler = new StrokeResampler(5f, sink);
+
+        // quarter circle with radius 200, sampled each 1 degree
+        resampler.onDown(0, 200, 0, 1f, 0f, 0L);
+        for (int i = 1; i <= 90; i++) {
+            double angle = Math.toRadians(i);
+            resampler.onMove(0, (float) (200 * Math.cos(angle)), (float) (200 * Math.sin(angle)), 1f, 0f, 0L);
+        }
+        resampler.onUp(0, 0, 200, 1f, 0f, 0L);
+
+        // the chords between the points are slightly shorter than the spacing along the stroke
+        for (int i = 1; i < sink.numPoints - 1; i++) {
+            float chord = distance(sink.xy, i - 1, i);
+            assertTrue(chord <= 5f + 1e-3f && chord > 4.9f);
+        }
+        assertEquals(Math.PI * 100, sink.length, 0.1);
+    }
+
+    @Test
+    public void resample_fixedCountAlongStroke() {
+        CollectingSink sink = new CollectingSink();
+        StrokeResampler resampler = new StrokeResampler(2f, sink);
+        resampler.onDown(0, 0, 0, 1f, 0f, 0L);
+        resampler.onMove(0, 100, 0, 1f, 0f, 0L);
+        resampler.onUp(0, 100, 51, 1f, 0f, 0L);
+
+        // 151px long stroke, 6 points that are 30.2px apart along the stroke
+        float[] out = new float[12];
+        StrokeResampler.resample(sink.xy, sink.numPoints, 2f, 6, out);
+        float[] expected = {0, 0, 30.2f, 0, 60.4f, 0, 90.6f, 0, 100, 20.8f, 100, 51};
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], out[i], 1e-2f);
+        }
+    }
+
+    @Test
+    public void shortAndLongStrokes_noAllocation() {
+        StrokeResampler.Sink sink = new StrokeResampler.Sink() {
+            @Override
+            public void onStrokeStart(int arrayIndex) {
+            }
+
+            @Override
+            public void onPoint(int arrayIndex, float x, float y) {
+            }
+
+            @Override
+            public void onStrokeEnd(int arrayIndex, int numPoints, float length) {
+            }
+        };
+        final StrokeResampler resampler = new StrokeResampler(4f, sink);
+        Allocations.assertNoAllocation(new Runnable() {
+            @Override
+            public void run() {
+                resampleStrokes(resampler, 100000);
+            }
+        }, new Runnable() {
+            @Override
+            public void run() {
+                resampleStrokes(resampler, 100);
+                resampleStrokes(resampler, 100000);
+            }
+        });
+    }
+
+    /**
+     * Resample 2 million samples in strokes of given length
+     */
+    private static void resampleStrokes(StrokeResampler resampler, int samplesPerStroke) {
+        int numSamples = 2000000;
+        for (int i = 0; i < numSamples; i++) {
+            int index = i % samplesPerStroke;
+            float x = index * 3.7f, y = (index % 11) * 1.3f;
+            if (index == 0) {
+                resampler.onDown(0, x, y, 1f, 0f, 0L);
+            } else if (index == samplesPerStroke - 1) {
+                resampler.onUp(0, x, y, 1f, 0f, 0L);
+            } else {
+                resampler.onMove(0, x, y, 1f, 0f, 0L);
+            }
+        }
+    }
+}
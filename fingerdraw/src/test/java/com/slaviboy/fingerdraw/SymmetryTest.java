@@ -0,0 +1,77 @@
+package com.slaviboy.fingerdraw;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the symmetry transforms, that run on the development machine (host).
+ */
+public class SymmetryTest {
+
+    private final float[] out = new float[2];
+
+    @Test
+    public void radial_rotatesAroundCenter() {
+        Symmetry symmetry = Symmetry.radial(4);
+        assertEquals(4, symmetry.getNumInstances());
+
+        // y axis points down, so positive rotation is clockwise on screen
+        float[][] expected = {{150, 100}, {100, 150}, {50, 100}, {100, 50}};
+        for (int i = 0; i < 4; i++) {
+            symmetry.mapPoint(i, 200, 200, 150, 100, out);
+            assertEquals(expected[i][0], out[0], 1e-4f);
+            assertEquals(expected[i][1], out[1], 1e-4f);
+        }
+    }
+
+    @Test
+    public void mirror_reflectsAcrossVerticalLine() {
+        Symmetry symmetry = Symmetry.mirror();
+        assertEquals(2, symmetry.getNumInstances());
+
+        symmetry.mapPoint(0, 300, 200, 20, 30, out);
+        assertEquals(20, out[0], 1e-4f);
+        assertEquals(30, out[1], 1e-4f);
+        symmetry.mapPoint(1, 300, 200, 20, 30, out);
+        assertEquals(280, out[0], 1e-4f);
+        assertEquals(30, out[1], 1e-4f);
+    }
+
+    @Test
+    public void kaleidoscope_distinctInstancesAtSameDistance() {
+        Symmetry symmetry = Symmetry.kaleidoscope(3);
+        int n = symmetry.getNumInstances();
+        assertEquals(6, n);
+
+        float[] x = new float[n];
+        float[] y = new float[n];
+        for (int i = 0; i < n; i++) {
+            symmetry.mapPoint(i, 400, 400, 260, 230, out);
+            x[i] = out[0];
+            y[i] = out[1];
+            float dx = x[i] - 200, dy = y[i] - 200;
+            assertEquals(Math.hypot(60, 30), Math.hypot(dx, dy), 1e-3);
+        }
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                assertTrue(Math.hypot(x[i] - x[j], y[i] - y[j]) > 1);
+            }
+        }
+    }
+
+    @Test
+    public void setSymmetry_doesNotDuplicatePoints() {
+        Scene scene = new Scene(1);
+        scene.setSymmetry(Symmetry.kaleidoscope(8));
+        scene.down(0, 10, 10, 1f, 0f);
+        for (int i = 0; i < 20; i++) {
+            scene.move(0, 10 + i, 10, 1f, 0f);
+        }
+        scene.prepare();
+
+        // geometry is prepared once, the instances are made only when drawing
+        assertEquals(21, scene.getPaths()[0].getNumPoints());
+        assertEquals(21, scene.getPaths()[0].getGeometry().size());
+    }
+}
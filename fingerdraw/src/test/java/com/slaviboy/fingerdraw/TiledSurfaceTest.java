@@ -0,0 +1,158 @@
+package com.slaviboy.fingerdraw;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for the tiled surface and the view transform, that run on
+ * the development machine (host).
+ */
+public class TiledSurfaceTest {
+
+    /**
+     * Renderer that only counts the calls
+     */
+    static class CountingRenderer implements TiledSurface.TileRenderer {
+        int numAllocated;
+        int numCleared;
+        int numStrokesDrawn;
+
+        @Override
+        public void allocate(TiledSurface.Tile tile, int size) {
+            numAllocated++;
+        }
+
+        @Override
+        public void clear(TiledSurface.Tile tile) {
+            numCleared++;
+        }
+
+        @Override
+        public void drawStroke(TiledSurface.Tile tile, StrokeLog strokes, int index) {
+            numStrokesDrawn++;
+        }
+
+        @Override
+        public void drawTile(android.graphics.Canvas canvas, TiledSurface.Tile tile, float left, float top, float size) {
+        }
+
+        @Override
+        public void release(TiledSurface.Tile tile) {
+        }
+    }
+
+    private static final int WIDTH = 1000;
+    private static final int HEIGHT = 800;
+
+    @Test
+    public void transform_zoomKeepsFocusPoint() {
+        ViewTransform transform = new ViewTransform();
+        transform.pan(100, 50);
+        float worldX = transform.toWorldX(300);
+        float worldY = transform.toWorldY(200);
+
+        transform.zoom(2.5f, 300, 200);
+        assertEquals(2.5f, transform.getScale(), 1e-6f);
+        assertEquals(300, transform.toScreenX(worldX), 1e-3f);
+        assertEquals(200, transform.toScreenY(worldY), 1e-3f);
+        assertEquals(worldX, transform.toWorldX(transform.toScreenX(worldX)), 1e-3f);
+    }
+
+    @Test
+    public void pan_rasterizesOnlyNewlyExposedTiles() {
+        CountingRenderer renderer = new CountingRenderer();
+        TiledSurface surface = new TiledSurface(renderer, 100, 64L * 1024 * 1024);
+
+        // 10 x 8 tiles
+        assertEquals(10 * 8, surface.update(WIDTH, HEIGHT));
+        assertEquals(0, surface.update(WIDTH, HEIGHT));
+
+        // pan by less than a tile exposes one new column
+        surface.pan(-50, 0);
+        assertEquals(8, surface.update(WIDTH, HEIGHT));
+
+        // pan back, the tiles are still cached
+        surface.pan(50, 0);
+        assertEquals(0, surface.update(WIDTH, HEIGHT));
+    }
+
+    @Test
+    public void zoom_withinLevelReusesTiles() {
+        CountingRenderer renderer = new CountingRenderer();
+        TiledSurface surface = new TiledSurface(renderer, 256, 64L * 1024 * 1024);
+        surface.update(WIDTH, HEIGHT);
+        assertEquals(0, surface.getLevel());
+
+        // zooming in shows part of the same tiles, scaled
+        surface.zoom(1.5f, 0, 0);
+        assertEquals(0, surface.getLevel());
+        assertEquals(0, surface.update(WIDTH, HEIGHT));
+
+        // crossing power of two uses tiles of the next level
+        surface.zoom(1.5f, 0, 0);
+        assertEquals(1, surface.getLevel());
+        assertTrue(surface.update(WIDTH, HEIGHT) > 0);
+    }
+
+    @Test
+    public void cache_limitedByMemoryAndReusesTiles() {
+        CountingRenderer renderer = new CountingRenderer();
+        long maxBytes = 4L * 100 * 100 * 200;   // 200 tiles
+        TiledSurface surface = new TiledSurface(renderer, 100, maxBytes);
+
+        for (int i = 0; i < 50; i++) {
+            surface.pan(-300, -170);
+            surface.update(WIDTH, HEIGHT);
+            assertTrue(surface.getNumCachedTiles() <= 200);
+            assertTrue(surface.getNumCachedTiles() * surface.getTileBytes() <= maxBytes);
+        }
+
+        // evicted tiles are reused, so no more tiles are allocated than fit in the cache
+        assertEquals(200, renderer.numAllocated);
+        assertEquals(surface.getNumRasterized(), renderer.numCleared);
+    }
+
+    @Test
+    public void add_drawsStrokeOnlyInCachedTilesItTouches() {
+        CountingRenderer renderer = new CountingRenderer();
+        TiledSurface surface = new TiledSurface(renderer, 100, 64L * 1024 * 1024);
+        surface.update(WIDTH, HEIGHT);
+
+        // stroke inside single tile
+        surface.add(0xFF000000, 4f, new float[]{120, 120, 150, 160, 180, 130}, 3);
+        assertEquals(1, renderer.numStrokesDrawn);
+
+        // stroke across three tiles in a row
+        surface.add(0xFF000000, 4f, new float[]{150, 450, 350, 450}, 2);
+        assertEquals(1 + 3, renderer.numStrokesDrawn);
+
+        // stroke far away is only kept, and drawn when its tile becomes visible
+        surface.add(0xFF000000, 4f, new float[]{5050, 5050, 5060, 5060}, 2);
+        assertEquals(4, renderer.numStrokesDrawn);
+        surface.pan(-4800, -4800);
+        surface.update(WIDTH, HEIGHT);
+        assertEquals(5, renderer.numStrokesDrawn);
+    }
+
+    @Test
+    public void fingerStroke_mappedToWorldCoordinates() {
+        CountingRenderer renderer = new CountingRenderer();
+        TiledSurface surface = new TiledSurface(renderer, 100, 64L * 1024 * 1024);
+        surface.zoom(2f, 0, 0);
+        surface.pan(-3000, 0);
+
+        surface.onDown(0, 100, 100, 1f, 0f, 0L);
+        surface.onMove(0, 200, 100, 1f, 0f, 0L);
+        surface.onUp(0, 300, 100, 1f, 0f, 0L);
+        assertEquals(1, surface.getNumStrokes());
+
+        // screen x 100 to 300 at scale 2, moved by 3000px, is world x 1550 to 1650
+        surface.getTransform().set(1f, 0, 0);
+        surface.update(WIDTH, HEIGHT);
+        assertEquals(0, renderer.numStrokesDrawn);
+        surface.pan(-1000, 0);
+        surface.update(WIDTH, HEIGHT);
+        assertEquals(2, renderer.numStrokesDrawn);
+    }
+}
@@ -0,0 +1,309 @@
+package com.slaviboy.fingerdraw;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests and benchmark for the touch heatmap, that run on the
+ * development machine (host).
+ */
+public class TouchHeatmapTest {
+
+    /**
+     * Executor that counts the tasks, and runs them only when asked
+     */
+    static class ManualExecutor implements Executor {
+        Runnable task;
+        int numExecuted;
+
+        @Override
+        public void execute(Runnable command) {
+            task = command;
+            numExecuted++;
+        }
+
+        void runTask() {
+            Runnable command = task;
+            task = null;
+            command.run();
+        }
+    }
+
+    /**
+     * Executor that keeps all tasks in order, and runs them only when asked
+     */
+    static class QueueExecutor implements Executor {
+        final List<Runnable> tasks = new ArrayList<>();
+
+        @Override
+        public void execute(Runnable command) {
+            tasks.add(command);
+        }
+
+        void runAll() {
+            while (!tasks.isEmpty()) {
+                tasks.remove(0).run();
+            }
+        }
+    }
+
+    private static float sum(float[] values) {
+        float sum = 0;
+        for (float value : values) {
+            sum += value;
+        }
+        return sum;
+    }
+
+    @Test
+    public void splat_spreadsSampleToNearestCells() {
+        TouchHeatmap heatmap = new TouchHeatmap(100, 80, 10, 0, new ManualExecutor());
+        assertEquals(10, heatmap.getColumns());
+        assertEquals(8, heatmap.getRows());
+
+        // center of a cell
+        heatmap.add(25, 35);
+        assertEquals(1, heatmap.getValue(2, 3), 1e-6f);
+
+        // corner between four cells
+        heatmap.add(50, 50);
+        for (int column = 4; column <= 5; column++) {
+            for (int row = 4; row <= 5; row++) {
+                assertEquals(0.25f, heatmap.getValue(column, row), 1e-6f);
+            }
+        }
+
+        // a third of the way between two cell centers
+        heatmap.add(75 + 10 / 3f, 15);
+        assertEquals(2 / 3f, heatmap.getValue(7, 1), 1e-5f);
+        assertEquals(1 / 3f, heatmap.getValue(8, 1), 1e-5f);
+
+        float[] values = new float[heatmap.getColumns() * heatmap.getRows()];
+        assertEquals(1, heatmap.snapshot(values), 1e-5f);
+        assertEquals(3, sum(values), 1e-5f);
+    }
+
+    @Test
+    public void decay_halvesValuesEachHalfLife() {
+        ManualClock clock = new ManualClock(1000);
+        TouchHeatmap heatmap = new TouchHeatmap(100, 100, 10, 500, new ManualExecutor());
+        heatmap.setClock(clock);
+        for (int i = 0; i < 8; i++) {
+            heatmap.add(55, 55);
+        }
+        assertEquals(8, heatmap.getValue(5, 5), 1e-5f);
+
+        clock.advance(500);
+        assertEquals(4, heatmap.getValue(5, 5), 1e-5f);
+        clock.advance(1500);
+        assertEquals(0.5f, heatmap.getValue(5, 5), 1e-6f);
+
+        // new samples are added with full weight, after very long decay too
+        heatmap.add(55, 55);
+        assertEquals(1.5f, heatmap.getValue(5, 5), 1e-6f);
+        clock.advance(500 * 100);
+        heatmap.add(15, 15);
+        assertEquals(1, heatmap.getValue(1, 1), 1e-6f);
+        assertEquals(0, heatmap.getValue(5, 5), 1e-6f);
+    }
+
+    @Test
+    public void onFrame_splatsOffTheTouchThreadOncePerBatch() {
+        ManualExecutor executor = new ManualExecutor();
+        TouchHeatmap heatmap = new TouchHeatmap(100, 100, 10, 0, executor);
+        Scene scene = new Scene(2);
+        scene.addListener(heatmap);
+
+        heatmap.onFrame(0);
+        assertEquals(0, executor.numExecuted);
+
+        scene.down(0, 5, 5, 1f, 0f);
+        scene.down(1, 95, 95, 1f, 0f);
+        scene.move(0, 5, 5, 1f, 0f);
+        assertEquals(0, heatmap.getVersion());
+
+        // only one splat is scheduled until it runs
+        heatmap.onFrame(16);
+        heatmap.onFrame(32);
+        assertEquals(1, executor.numExecuted);
+        executor.runTask();
+        assertEquals(1, heatmap.getVersion());
+
+        float[] values = new float[100];
+        heatmap.snapshot(values);
+        assertEquals(2, values[0], 1e-6f);
+        assertEquals(1, values[99], 1e-6f);
+
+        heatmap.clear();
+        assertEquals(0, heatmap.snapshot(values), 0f);
+    }
+
+    @Test
+    public void flush_fromReaderWhileExecutorSplats_keepsAllSamples() throws InterruptedException {
+        final TouchHeatmap heatmap = new TouchHeatmap(100, 100, 10, 0);
+        final int numSamples = 200000;
+        final AtomicBoolean done = new AtomicBoolean();
+
+        // snapshots flush on this thread, while the executor flushes the batches of the frames
+        Thread reader = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                float[] values = new float[100];
+                while (!done.get()) {
+                    heatmap.snapshot(values);
+                    heatmap.getValue(0, 1);
+                }
+            }
+        });
+        reader.start();
+        // each sample is in the center of cell in another column, so overwritten samples change the values
+        for (int i = 0; i < numSamples; i++) {
+            heatmap.add(5 + 10 * (i % 10), 15);
+            if (i % 64 == 0) {
+                heatmap.onFrame(i);
+            }
+        }
+        done.set(true);
+        reader.join();
+
+        for (int column = 0; column < 10; column++) {
+            assertEquals(numSamples / 10, heatmap.getValue(column, 1), 0f);
+        }
+    }
+
+    @Test
+    public void samples_addedAndSplattedWithoutAllocation() {
+        final ManualExecutor executor = new ManualExecutor();
+        final TouchHeatmap heatmap = new TouchHeatmap(1080, 1920, 24, 2000, executor);
+        Allocations.assertNoAllocation(new Runnable() {
+            @Override
+            public void run() {
+                addFrames(heatmap, executor, 500000);
+            }
+        });
+    }
+
+    /**
+     * Add samples of 4 fingers in frames of 8 samples each, the splats run
+     * between the frames as they would on the background thread
+     */
+    private static void addFrames(TouchHeatmap heatmap, ManualExecutor executor, int numSamples) {
+        for (int i = 0; i < numSamples; i += 32) {
+            for (int j = 0; j < 32; j++) {
+                int finger = j & 3;
+                float x = 540 + 500 * (float) Math.cos((i + j) * 0.001 + finger);
+                heatmap.onMove(finger, x, (i + j) % 1920, 1f, 0f, 0L);
+            }
+            heatmap.onFrame(i);
+            executor.runTask();
+        }
+    }
+
+    @Test
+    @Ignore("benchmark, run manually")
+    public void benchmark_perSampleCost() {
+        final int numSamples = 1000000;
+
+        // touch thread only appends the samples, the executor never splats them
+        final Executor never = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+            }
+        };
+        long touchNanos = Benchmark.bestNanos(new Runnable() {
+            @Override
+            public void run() {
+                TouchHeatmap heatmap = new TouchHeatmap(1080, 1920, 24, 2000, never);
+                for (int i = 0; i < numSamples; i++) {
+                    heatmap.onMove(i & 3, i % 1080, i % 1920, 1f, 0f, 0L);
+                    if (i % 32 == 31) {
+                        heatmap.onFrame(i);
+                    }
+                }
+            }
+        }, 10);
+
+        // touch thread and the splats
+        final ManualExecutor executor = new ManualExecutor();
+        final TouchHeatmap heatmap = new TouchHeatmap(1080, 1920, 24, 2000, executor);
+        long totalNanos = Benchmark.bestNanos(new Runnable() {
+            @Override
+            public void run() {
+                addFrames(heatmap, executor, numSamples);
+            }
+        }, 10);
+
+        System.out.println(String.format("ns per sample: touch thread %.1f, with splat %.1f",
+                (double) touchNanos / numSamples, (double) totalNanos / numSamples));
+    }
+
+    @Test
+    public void overlay_colorsMadeOnExecutor() {
+        QueueExecutor executor = new QueueExecutor();
+        TouchHeatmap heatmap = new TouchHeatmap(100, 100, 10, 0, executor);
+        HeatmapOverlay overlay = new HeatmapOverlay(heatmap);
+        heatmap.add(5, 5);
+        heatmap.add(5, 5);
+        heatmap.add(95, 95);
+
+        // the drawing thread only schedules the update, the samples are still pending
+        assertFalse(overlay.update(0));
+        assertEquals(0, heatmap.getVersion());
+        assertEquals(1, executor.tasks.size());
+        assertFalse(overlay.update(16));
+        assertEquals(1, executor.tasks.size());
+
+        // the finished colors are taken on the next frame
+        executor.runAll();
+        assertEquals(1, heatmap.getVersion());
+        assertTrue(overlay.update(32));
+        int[] palette = HeatmapOverlay.createPalette(256);
+        assertEquals(palette[255], overlay.getPixels()[0]);
+        assertEquals(palette[127], overlay.getPixels()[99]);
+        assertEquals(palette[0], overlay.getPixels()[50]);
+
+        // nothing changed, so no update until the decay interval passes
+        executor.runAll();
+        overlay.update(48);
+        executor.runAll();
+        assertFalse(overlay.update(64));
+        assertTrue(executor.tasks.isEmpty());
+    }
+
+    @Test
+    public void setSize_remakesGridAndOverlay() {
+        QueueExecutor executor = new QueueExecutor();
+        TouchHeatmap heatmap = new TouchHeatmap(0, 0, 10, 0, executor);
+        HeatmapOverlay overlay = new HeatmapOverlay(heatmap);
+        assertEquals(1, heatmap.getColumns());
+        assertEquals(1, heatmap.getRows());
+        overlay.update(0);
+        executor.runAll();
+        assertTrue(overlay.update(16));
+        assertEquals(1, overlay.getPixels().length);
+
+        // layout changes the size, and the overlay follows on the next update
+        heatmap.setSize(100, 80);
+        assertEquals(10, heatmap.getColumns());
+        assertEquals(8, heatmap.getRows());
+        heatmap.add(25, 35);
+        overlay.update(32);
+        executor.runAll();
+        assertTrue(overlay.update(48));
+        assertEquals(80, overlay.getPixels().length);
+        assertEquals(1, heatmap.getValue(2, 3), 1e-6f);
+
+        // same number of cells keeps the values
+        int version = heatmap.getVersion();
+        heatmap.setSize(95, 75);
+        assertEquals(version, heatmap.getVersion());
+        assertEquals(1, heatmap.getValue(2, 3), 1e-6f);
+    }
+}
@@ -0,0 +1,229 @@
+package com.slaviboy.fingerdraw;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for injecting points to the trails, that run
+ * on the development machine (host).
+ */
+public class TrailInjectionTest {
+
+    private static float[] line(int numPoints, float value) {
+        float[] values = new float[numPoints];
+        for (int i = 0; i < numPoints; i++) {
+            values[i] = value + i;
+        }
+        return values;
+    }
+
+    /**
+     * Inject the points to the paths of 4 fingers, and prepare the frame, for each frame
+     */
+    private static void injectFrames(Scene scene, float[] x, float[] y, int numPoints, int numFrames) {
+        for (int frame = 0; frame < numFrames; frame++) {
+            for (int i = 0; i < 4; i++) {
+                scene.inject(i, x, y, 0, numPoints, false);
+            }
+            scene.prepare();
+        }
+    }
+
+    @Test
+    public void inject_appliedAtNextFrame() {
+        Scene scene = new Scene(2);
+        Path path = scene.getPaths()[1];
+        path.setTrimPoints(true);
+        scene.inject(1, line(5000, 0), line(5000, 100), 0, 5000, false);
+        assertEquals(0, path.getNumPoints());
+
+        scene.prepare();
+        assertTrue(path.isTracking());
+        assertEquals(path.getMaxNumSegments(), path.getNumPoints());
+        assertEquals(4999, path.getPointBuffer().getX(path.getNumPoints() - 1), 0f);
+        assertEquals(path.getMaxNumSegments(), path.getGeometry().size());
+        assertEquals(4999, scene.getCircles()[1].getCx(), 0f);
+
+        // next injection continues the same trail
+        scene.inject(1, line(10, 5000), line(10, 0), 0, 10, false);
+        scene.prepare();
+        assertEquals(5009, path.getPointBuffer().getX(path.getNumPoints() - 1), 0f);
+    }
+
+    @Test
+    public void addPoints_keepsAllPointsWithoutTrimming() {
+        Scene scene = new Scene(1);
+        Path path = scene.getPaths()[0];
+        TouchRecording recording = new TouchRecording();
+        scene.addListener(recording);
+
+        // all points are kept, also the ones that are not drawn
+        scene.addPoints(0, line(100, 0), line(100, 0), 0, 100, false);
+        assertEquals(100, path.getNumPoints());
+        assertEquals(0, path.getPointBuffer().getX(0), 0f);
+
+        // with trimming only the drawn points are copied
+        scene.addPoints(0, line(10, 0), line(10, 0), 0, 10, true);
+        path.setTrimPoints(true);
+        scene.addPoints(0, line(100, 0), line(100, 0), 0, 100, false);
+        assertEquals(path.getMaxNumSegments(), path.getNumPoints());
+        assertEquals(100 - path.getMaxNumSegments(), path.getPointBuffer().getX(0), 0f);
+
+        // injected points do not come from the touch screen
+        assertEquals(0, recording.size());
+    }
+
+    @Test
+    public void inject_withEventTimes() {
+        ManualClock clock = new ManualClock(1000);
+        Scene scene = new Scene(1);
+        scene.setClock(clock);
+        Path path = scene.getPaths()[0];
+        path.setMaxAge(100);
+
+        long[] times = new long[50];
+        for (int i = 0; i < 50; i++) {
+            times[i] = 900 + i;
+        }
+        scene.inject(0, line(50, 0), line(50, 0), times, 0, 50, false);
+        scene.prepare();
+
+        // trail from the last point to the one that is 100ms old at the frame time
+        PathGeometry geometry = path.getGeometry();
+        assertEquals(49, geometry.getX(0), 0f);
+        assertEquals(0, geometry.getX(geometry.size() - 1), 1e-3f);
+
+        // all points expire, while the finger is still down
+        clock.advance(60);
+        scene.prepare();
+        assertTrue(path.isTracking());
+        assertEquals(0, path.getGeometry().size());
+    }
+
+    @Test
+    public void inject_endStartsFadeOut() {
+        ManualClock clock = new ManualClock();
+        Scene scene = new Scene(1);
+        scene.setClock(clock);
+        scene.getPaths()[0].setMaxNumSegments(100);
+        scene.inject(0, line(50, 0), line(50, 0), 10, 40, true);
+        scene.prepare();
+
+        Path path = scene.getPaths()[0];
+        assertFalse(path.isTracking());
+        assertEquals(40, path.getNumPoints());
+        assertEquals(10, path.getPointBuffer().getX(0), 0f);
+        for (int i = 0; i < 100; i++) {
+            clock.advance(FadeOut.MIN_DURATION);
+            scene.fadeOut();
+        }
+        scene.prepare();
+        assertEquals(0, scene.getCircles()[0].getOpacity());
+        assertEquals(0, path.getGeometry().size() > 1 ? path.getGeometry().getStrokeWidth(1) : 0);
+
+        // trail that ended starts again from the first injected point
+        scene.inject(0, line(3, 500), line(3, 0), 0, 3, false);
+        scene.prepare();
+        assertTrue(path.isTracking());
+        assertEquals(3, path.getNumPoints());
+    }
+
+    @Test
+    public void inject_framesSeeOnlyWholeInjections() throws InterruptedException {
+        final Scene scene = new Scene(1);
+        scene.getPaths()[0].setMaxNumSegments(200);
+        scene.getPaths()[0].setTrimPoints(true);
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final AtomicInteger numInjected = new AtomicInteger();
+        Thread injector = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                float[] x = new float[100];
+                float[] y = new float[100];
+                for (int batch = 0; running.get(); batch++) {
+                    java.util.Arrays.fill(x, batch);
+                    scene.inject(0, x, y, 0, 100, false);
+                    numInjected.incrementAndGet();
+                    Thread.yield();
+                }
+            }
+        });
+        injector.start();
+
+        int numChecked = 0;
+        PointBuffer points = scene.getPaths()[0].getPointBuffer();
+        for (int frame = 0; frame < 300; frame++) {
+
+            // wait until the injector has injected since the last frame
+            int injected = numInjected.get();
+            while (numInjected.get() == injected) {
+                Thread.yield();
+            }
+            scene.prepare();
+            synchronized (scene) {
+                int size = points.size();
+                if (size < 100) {
+                    continue;
+                }
+
+                // the last 100 points are from the same injection
+                float last = points.getX(size - 1);
+                for (int i = size - 100; i < size; i++) {
+                    assertEquals(last, points.getX(i), 0f);
+                }
+                numChecked++;
+            }
+        }
+        running.set(false);
+        injector.join();
+        assertTrue(numChecked > 0);
+    }
+
+    @Test
+    public void inject_thousandsOfPointsPerFrameSameAsMovesWithoutAllocation() {
+        final int numPoints = 5000;
+        final float[] x = line(numPoints, 0);
+        final float[] y = line(numPoints, 0);
+        final Scene scene = new Scene(4);
+        for (int i = 0; i < 4; i++) {
+            scene.getPaths()[i].setMaxNumSegments(numPoints);
+            scene.getPaths()[i].setTrimPoints(true);
+        }
+        Allocations.assertNoAllocation(new Runnable() {
+            @Override
+            public void run() {
+                injectFrames(scene, x, y, numPoints, 50);
+            }
+        }, new Runnable() {
+            @Override
+            public void run() {
+                injectFrames(scene, x, y, numPoints, 200);
+            }
+        });
+
+        // the same points added one by one as touch samples
+        Scene touch = new Scene(4);
+        for (int i = 0; i < 4; i++) {
+            touch.getPaths()[i].setMaxNumSegments(numPoints);
+            touch.getPaths()[i].setTrimPoints(true);
+            touch.down(i, x[0], y[0], 1f, 0f);
+            for (int j = 1; j < numPoints; j++) {
+                touch.move(i, x[j], y[j], 1f, 0f);
+            }
+        }
+        touch.prepare();
+        for (int i = 0; i < 4; i++) {
+            PathGeometry expected = touch.getPaths()[i].getGeometry();
+            PathGeometry actual = scene.getPaths()[i].getGeometry();
+            assertEquals(expected.size(), actual.size());
+            for (int j = 0; j < expected.size(); j++) {
+                assertEquals(expected.getX(j), actual.getX(j), 0f);
+                assertEquals(expected.getY(j), actual.getY(j), 0f);
+            }
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.slaviboy.fingerdraw;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests for mirroring trails trough a stream, using piped
+ * streams as loopback stand-in for a socket.
+ */
+public class TrailMirrorTest {
+
+    /**
+     * Output stream that blocks all writes until it is opened
+     */
+    static class GateOutputStream extends OutputStream {
+        final OutputStream out;
+        final CountDownLatch open = new CountDownLatch(1);
+
+        GateOutputStream(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            try {
+                open.await();
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+            out.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            out.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    /**
+     * Draw circles with two fingers, lift them and let the paths fade out
+     */
+    private static void drive(Scene scene, ManualClock clock, int numFrames) {
+        for (int frame = 0; frame < numFrames; frame++) {
+            clock.advance(16);
+            for (int finger = 0; finger < 2; finger++) {
+                float x = 300 + finger * 200 + 100 * (float) Math.cos(frame * 0.05);
+                float y = 500 + 100 * (float) Math.sin(frame * 0.05);
+                if (frame == 0) {
+                    scene.down(finger, x, y, 0.5f, 10f);
+                } else if (frame == numFrames / 2) {
+                    scene.up(finger, x, y, 0.5f, 10f);
+                } else {
+                    scene.move(finger, x, y, 0.5f, 10f);
+                    scene.move(finger, x + 1, y + 1, 0.6f, 12f);
+                }
+            }
+            scene.fadeOut();
+            scene.prepare();
+        }
+    }
+
+    private static void assertSameTrails(Scene expected, Scene actual, int numLastPoints) {
+        for (int i = 0; i < 2; i++) {
+            Path e = expected.getPaths()[i];
+            Path a = actual.getPaths()[i];
+            assertEquals(e.isTracking(), a.isTracking());
+            assertEquals(e.isFading(), a.isFading());
+
+            PointBuffer eb = e.getPointBuffer();
+            PointBuffer ab = a.getPointBuffer();
+            for (int j = 1; j <= numLastPoints; j++) {
+                assertEquals(eb.getX(eb.size() - j), ab.getX(ab.size() - j), 0f);
+                assertEquals(eb.getY(eb.size() - j), ab.getY(ab.size() - j), 0f);
+                assertEquals(eb.getWidthFactor(eb.size() - j), ab.getWidthFactor(ab.size() - j), 0f);
+            }
+        }
+    }
+
+    @Test
+    public void loopback_mirrorsTrails() throws Exception {
+        PipedOutputStream out = new PipedOutputStream();
+        PipedInputStream in = new PipedInputStream(out, 1 << 16);
+
+        ManualClock clock = new ManualClock();
+        Scene source = new Scene();
+        source.setClock(clock);
+        Scene mirror = new Scene();
+
+        TrailPublisher publisher = new TrailPublisher(out).start();
+        TrailSubscriber subscriber = new TrailSubscriber(in, mirror);
+        mirror.setClock(subscriber.getClock());
+        subscriber.start();
+        source.addListener(publisher);
+
+        drive(source, clock, 200);
+        assertTrue(publisher.drain(5000));
+        publisher.stop();
+        subscriber.join(5000);
+
+        assertNull(publisher.getError());
+        assertNull(subscriber.getError());
+        assertEquals(200, publisher.getNumFramesPublished());
+        assertEquals(clock.currentTimeMillis(), mirror.getClock().currentTimeMillis());
+        for (int i = 0; i < 2; i++) {
+            assertEquals(source.getPaths()[i].getNumPoints(), mirror.getPaths()[i].getNumPoints());
+        }
+        assertSameTrails(source, mirror, source.getPaths()[0].getNumPoints());
+    }
+
+    @Test
+    public void slowConsumer_framesCoalescedWithoutBlocking() throws Exception {
+        PipedOutputStream out = new PipedOutputStream();
+        PipedInputStream in = new PipedInputStream(out, 1 << 16);
+        GateOutputStream gate = new GateOutputStream(out);
+
+        ManualClock clock = new ManualClock();
+        Scene source = new Scene();
+        source.setClock(clock);
+        source.getPaths()[0].setFadeOutDuration(5000);
+        source.getPaths()[1].setFadeOutDuration(5000);
+        Scene mirror = new Scene();
+        mirror.getPaths()[0].setFadeOutDuration(5000);
+        mirror.getPaths()[1].setFadeOutDuration(5000);
+
+        TrailPublisher publisher = new TrailPublisher(gate, 256, 64).start();
+        TrailSubscriber subscriber = new TrailSubscriber(in, mirror);
+        mirror.setClock(subscriber.getClock());
+        subscriber.start();
+        source.addListener(publisher);
+
+        // consumer is blocked until the gate is opened, so publishing frames must not block
+        drive(source, clock, 2000);
+        assertTrue(publisher.getNumFramesCoalesced() > 1900);
+
+        gate.open.countDown();
+        assertTrue(publisher.drain(5000));
+        publisher.stop();
+        subscriber.join(5000);
+
+        assertNull(subscriber.getError());
+        assertTrue(publisher.getNumBatchesSent() < 10);
+        assertSameTrails(source, mirror, source.getPaths()[0].getMaxNumSegments());
+    }
+
+    @Test
+    public void subscriber_keepsSceneClock() {
+        Scene mirror = new Scene();
+        Clock clock = mirror.getClock();
+        TrailSubscriber subscriber = new TrailSubscriber(new ByteArrayInputStream(new byte[0]), mirror);
+        assertSame(clock, mirror.getClock());
+        assertNotSame(clock, subscriber.getClock());
+    }
+
+    @Test
+    public void compact_fadesInRowBounded() {
+        TrailBatch batch = new TrailBatch();
+        batch.add(TrailBatch.DOWN, 0, 0f, 0f, 1f, 0f);
+        batch.add(TrailBatch.UP, 0, 1f, 1f, 1f, 0f);
+
+        // one fade each frame, for much longer than the longest fadeout
+        for (int frame = 0; frame < 10000; frame++) {
+            batch.addFade(frame * 16L);
+        }
+        batch.compact(64);
+
+        assertEquals(2 + FadeOut.MAX_DURATION / FadeOut.MIN_DURATION, batch.size());
+        for (int i = 3; i < batch.size(); i++) {
+            assertEquals(TrailBatch.FADE, batch.getType(i));
+            assertTrue(batch.getTime(i) - batch.getTime(i - 1) >= FadeOut.MIN_DURATION);
+        }
+    }
+
+    @Test
+    public void compact_keepsOnlyLastStrokeOfEachFinger() {
+        TrailBatch batch = new TrailBatch();
+        for (int stroke = 0; stroke < 1000; stroke++) {
+            for (int finger = 0; finger < 2; finger++) {
+                batch.add(TrailBatch.DOWN, finger, stroke, finger, 1f, 0f);
+                batch.add(TrailBatch.MOVE, finger, stroke + 0.5f, finger, 1f, 0f);
+                batch.add(TrailBatch.UP, finger, stroke + 1f, finger, 1f, 0f);
+            }
+        }
+        batch.compact(64);
+
+        assertEquals(6, batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            assertTrue(batch.getX(i) >= 999f);
+        }
+    }
+
+    @Test
+    public void read_rejectsInvalidNumberOfEvents() throws IOException {
+        int[] counts = {-1, TrailBatch.MAX_SIZE + 1, Integer.MAX_VALUE};
+        for (int count : counts) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeLong(0L);
+            out.writeInt(count);
+            try {
+                new TrailBatch().read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+                fail();
+            } catch (IOException e) {
+                assertTrue(e.getMessage().startsWith("Invalid number of events"));
+            }
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.slaviboy.fingerdraw;
+
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.Assert.*;
+
+/**
+ * Local unit tests and benchmark for preparing the paths in parallel, that run
+ * on the development machine (host).
+ */
+public class WorkerPoolTest {
+
+    private static final int NUM_SEGMENTS = 1500;
+
+    /**
+     * Scene with long trails for each finger
+     */
+    private static Scene scene(int numFingers) {
+        Scene scene = new Scene(numFingers);
+        for (int i = 0; i < numFingers; i++) {
+            scene.getPaths()[i].setMaxNumSegments(NUM_SEGMENTS);
+            scene.down(i, 0, i * 10, 1f, 0f);
+            for (int j = 1; j < NUM_SEGMENTS; j++) {
+                scene.move(i, j, i * 10 + (j % 7), 1f, 0f);
+            }
+        }
+        return scene;
+    }
+
+    /**
+     * Move all fingers and prepare the next frame
+     */
+    private static void frame(Scene scene, int frame) {
+        for (int i = 0; i < scene.getNumFingers(); i++) {
+            scene.move(i, NUM_SEGMENTS + frame, i * 10 + (frame % 5), 1f, 0f);
+        }
+        scene.prepare();
+    }
+
+    /**
+     * Get the time of preparing a frame, in which all fingers moved
+     *
+     * @return time in (ns)
+     */
+    private static long frameNanos(int numFingers, WorkerPool workers) {
+        final Scene scene = scene(numFingers);
+        scene.setWorkerPool(workers);
+        final int[] frame = new int[1];
+        return Benchmark.bestNanos(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < 100; i++) {
+                    frame(scene, frame[0]++);
+                }
+            }
+        }, 10) / 100;
+    }
+
+    @Test
+    @Ignore("benchmark, run manually")
+    public void benchmark_scalesWithThreads() {
+        StringBuilder result = new StringBuilder("prepare frame with 8 fingers: serial ")
+                .append(frameNanos(8, null) / 1000).append("us");
+        for (int numThreads = 1; numThreads <= 4; numThreads *= 2) {
+            WorkerPool workers = new WorkerPool(numThreads);
+            result.append(", ").append(numThreads).append(" threads ")
+                    .append(frameNanos(8, workers) / 1000).append("us");
+            workers.release();
+        }
+
+        // single finger is prepared on the calling thread, without waking the workers
+        WorkerPool workers = new WorkerPool(4);
+        result.append("; 1 finger: serial ").append(frameNanos(1, null) / 1000).append("us")
+                .append(", 4 threads ").append(frameNanos(1, workers) / 1000).append("us")
+                .append(" (").append(Runtime.getRuntime().availableProcessors()).append(" cores)");
+        workers.release();
+        System.out.println(result);
+    }
+
+    @Test
+    public void run_eachIndexOnce() {
+        WorkerPool workers = new WorkerPool(4);
+        final AtomicIntegerArray counts = new AtomicIntegerArray(1000);
+        WorkerPool.Task task = new WorkerPool.Task() {
+            @Override
+            public void run(int index) {
+                counts.incrementAndGet(index);
+            }
+        };
+        for (int i = 0; i < 100; i++) {
+            workers.run(task, 1000);
+        }
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(100, counts.get(i));
+        }
+        workers.release();
+    }
+
+    @Test
+    public void run_rethrowsFailureAfterAllTasks() {
+        WorkerPool workers = new WorkerPool(3);
+        final AtomicIntegerArray counts = new AtomicIntegerArray(100);
+        try {
+            workers.run(new WorkerPool.Task() {
+                @Override
+                public void run(int index) {
+                    counts.incrementAndGet(index);
+                    if (index == 10) {
+                        throw new IllegalStateException("task failed");
+                    }
+                }
+            }, 100);
+            fail();
+        } catch (IllegalStateException e) {
+            assertEquals("task failed", e.getMessage());
+        }
+
+        // other threads take the remaining tasks, and the pool can still be used
+        workers.run(new WorkerPool.Task() {
+            @Override
+            public void run(int index) {
+                counts.incrementAndGet(index);
+            }
+        }, 100);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(2, counts.get(i));
+        }
+        workers.release();
+    }
+
+    @Test
+    public void prepare_sameGeometryAsSerial() {
+        Scene serial = scene(6);
+        Scene parallel = scene(6);
+        WorkerPool workers = new WorkerPool(3);
+        parallel.setWorkerPool(workers);
+        for (int frame = 0; frame < 20; frame++) {
+            frame(serial, frame);
+            frame(parallel, frame);
+            for (int i = 0; i < 6; i++) {
+                PathGeometry expected = serial.getPaths()[i].getGeometry();
+                PathGeometry actual = parallel.getPaths()[i].getGeometry();
+                assertEquals(expected.size(), actual.size());
+                for (int j = 0; j < expected.size(); j++) {
+                    assertEquals(expected.getX(j), actual.getX(j), 0f);
+                    assertEquals(expected.getY(j), actual.getY(j), 0f);
+                    assertEquals(expected.getStrokeWidth(j), actual.getStrokeWidth(j));
+                }
+            }
+        }
+        workers.release();
+    }
+
+    @Test
+    public void run_tasksShareAllThreads() throws InterruptedException {
+        final int numThreads = 4;
+        WorkerPool workers = new WorkerPool(numThreads);
+
+        // each of the first tasks waits for the others, so they can finish only if all threads take one
+        final CountDownLatch started = new CountDownLatch(numThreads);
+        final Set<Thread> threads = Collections.synchronizedSet(new HashSet<Thread>());
+        final AtomicIntegerArray counts = new AtomicIntegerArray(100);
+        workers.run(new WorkerPool.Task() {
+            @Override
+            public void run(int index) {
+                counts.incrementAndGet(index);
+                if (index < numThreads) {
+                    threads.add(Thread.currentThread());
+                    started.countDown();
+                    try {
+                        started.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+        }, 100);
+        assertEquals(0, started.getCount());
+        assertEquals(numThreads, threads.size());
+        assertTrue(threads.contains(Thread.currentThread()));
+        for (int i = 0; i < 100; i++) {
+            assertEquals(1, counts.get(i));
+        }
+
+        // single task runs on the calling thread, without waking the workers
+        threads.clear();
+        workers.run(new WorkerPool.Task() {
+            @Override
+            public void run(int index) {
+                threads.add(Thread.currentThread());
+            }
+        }, 1);
+        assertEquals(Collections.singleton(Thread.currentThread()), threads);
+        workers.release();
+    }
+
+    @Test
+    public void release_duringRunDoesNotBlock() {
+        for (int i = 0; i < 100; i++) {
+            final WorkerPool workers = new WorkerPool(4);
+            final AtomicIntegerArray counts = new AtomicIntegerArray(1000);
+
+            // the first task releases the pool, usually before all workers are woken
+            workers.run(new WorkerPool.Task() {
+                @Override
+                public void run(int index) {
+                    if (index == 0) {
+                        workers.release();
+                    }
+                    counts.incrementAndGet(index);
+                }
+            }, 1000);
+            for (int j = 0; j < 1000; j++) {
+                assertEquals(1, counts.get(j));
+            }
+        }
+    }
+}